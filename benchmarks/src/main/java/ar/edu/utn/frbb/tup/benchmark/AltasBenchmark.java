@@ -0,0 +1,117 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.service.ClienteService;
+import ar.edu.utn.frbb.tup.service.CuentaService;
+import ar.edu.utn.frbb.tup.service.ResultadoAltaMasiva;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Altas de a una contra las altas masivas, sobre lotes de clientes que todavía no existen.
+// Un alta cambia la base, así que cada invocación prepara (fuera de la medición) un lote nuevo
+// y el resultado se informa por elemento del lote.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 50)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class AltasBenchmark {
+
+    static final int LOTE = 1000;
+    // Muy por encima de los DNIs del dataset; cada hilo usa su propio rango
+    private static final long PRIMER_DNI_ALTAS = 60_000_000L;
+    private static final long DNIS_POR_HILO = 10_000_000L;
+
+    @State(Scope.Thread)
+    public static class LoteClientes {
+        ClienteService clienteService;
+        CuentaService cuentaService;
+        ClienteDao clienteDao;
+        GeneradorDatos generador;
+
+        List<Cliente> clientes;
+
+        @Setup(Level.Trial)
+        public void setup(Dataset dataset, ThreadParams threadParams) {
+            clienteService = dataset.getBean(ClienteService.class);
+            cuentaService = dataset.getBean(CuentaService.class);
+            clienteDao = dataset.getBean(ClienteDao.class);
+            generador = new GeneradorDatos(threadParams.getThreadIndex(),
+                    PRIMER_DNI_ALTAS + threadParams.getThreadIndex() * DNIS_POR_HILO);
+        }
+
+        @Setup(Level.Invocation)
+        public void prepararClientes() {
+            clientes = new ArrayList<>(LOTE);
+            for (int i = 0; i < LOTE; i++) {
+                clientes.add(generador.generarCliente());
+            }
+        }
+    }
+
+    // Para las altas de cuentas los titulares del lote ya tienen que existir
+    @State(Scope.Thread)
+    public static class LoteCuentas extends LoteClientes {
+        Map<Long, List<Cuenta>> cuentasPorTitular;
+
+        @Setup(Level.Invocation)
+        public void prepararCuentas() {
+            clienteDao.saveAll(clientes);
+            cuentasPorTitular = new LinkedHashMap<>();
+            for (Cliente cliente : clientes) {
+                List<Cuenta> cuentas = new ArrayList<>(1);
+                cuentas.add(generador.generarCuenta(TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS));
+                cuentasPorTitular.put(cliente.getDni(), cuentas);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public void darDeAltaCliente(LoteClientes lote) throws Throwable {
+        for (Cliente cliente : lote.clientes) {
+            lote.clienteService.darDeAltaCliente(cliente);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public ResultadoAltaMasiva<Cliente> darDeAltaClientes(LoteClientes lote) {
+        return lote.clienteService.darDeAltaClientes(lote.clientes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public void darDeAltaCuenta(LoteCuentas lote) throws Throwable {
+        for (Map.Entry<Long, List<Cuenta>> entry : lote.cuentasPorTitular.entrySet()) {
+            lote.cuentaService.darDeAltaCuenta(entry.getValue().get(0), entry.getKey());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public ResultadoAltaMasiva<Cuenta> darDeAltaCuentas(LoteCuentas lote) {
+        return lote.cuentaService.darDeAltaCuentas(lote.cuentasPorTitular);
+    }
+}
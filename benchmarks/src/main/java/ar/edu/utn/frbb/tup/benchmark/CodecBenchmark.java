@@ -0,0 +1,129 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Conversión entre filas y modelo: toCliente/toCuenta desde la entidad en memoria,
+// decode desde la fila binaria (WAL y snapshots) y encode. Los bytes por fila se informan al arrancar.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    private static final int FILAS = 1024;
+
+    private ClienteEntity[] clientes;
+    private CuentaEntity[] cuentas;
+    private ByteBuffer[] clientesCodificados;
+    private ByteBuffer[] cuentasCodificadas;
+    private ByteBuffer destino;
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<Cliente> generados = new GeneradorDatos(42).generarClientes(FILAS * 2);
+        List<Cuenta> todasLasCuentas = new ArrayList<>();
+        for (Cliente cliente : generados) {
+            todasLasCuentas.addAll(cliente.getCuentas());
+        }
+
+        clientes = new ClienteEntity[FILAS];
+        cuentas = new CuentaEntity[FILAS];
+        clientesCodificados = new ByteBuffer[FILAS];
+        cuentasCodificadas = new ByteBuffer[FILAS];
+        long bytesClientes = 0;
+        for (int i = 0; i < FILAS; i++) {
+            clientes[i] = new ClienteEntity(generados.get(i));
+            cuentas[i] = new CuentaEntity(todasLasCuentas.get(i));
+            clientesCodificados[i] = codificar(clientes[i]);
+            cuentasCodificadas[i] = codificar(cuentas[i]);
+            bytesClientes += clientesCodificados[i].remaining();
+        }
+        destino = ByteBuffer.allocateDirect(4096);
+
+        System.out.println("Bytes por fila: CLIENTE " + (bytesClientes / FILAS) + " (promedio), CUENTA " + CuentaEntity.LARGO_CODIFICADO);
+    }
+
+    private static ByteBuffer codificar(ClienteEntity entity) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(entity.encodedSize());
+        entity.encode(buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static ByteBuffer codificar(CuentaEntity entity) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(entity.encodedSize());
+        entity.encode(buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    private int siguiente() {
+        return siguiente = (siguiente + 1) & (FILAS - 1);
+    }
+
+    @Benchmark
+    public Cliente clienteToCliente() {
+        return clientes[siguiente()].toCliente();
+    }
+
+    @Benchmark
+    public ClienteEntity clienteDecode() {
+        return ClienteEntity.decode(clientesCodificados[siguiente()].duplicate());
+    }
+
+    @Benchmark
+    public Cliente clienteDecodeCliente() {
+        return ClienteEntity.decodeCliente(clientesCodificados[siguiente()].duplicate());
+    }
+
+    @Benchmark
+    public ByteBuffer clienteEncode() {
+        destino.clear();
+        clientes[siguiente()].encode(destino);
+        return destino;
+    }
+
+    @Benchmark
+    public Cuenta cuentaToCuenta() {
+        return cuentas[siguiente()].toCuenta();
+    }
+
+    @Benchmark
+    public CuentaEntity cuentaDecode() {
+        return CuentaEntity.decode(cuentasCodificadas[siguiente()].duplicate());
+    }
+
+    @Benchmark
+    public Cuenta cuentaDecodeCuenta() {
+        return CuentaEntity.decodeCuenta(cuentasCodificadas[siguiente()].duplicate());
+    }
+
+    @Benchmark
+    public ByteBuffer cuentaEncode() {
+        destino.clear();
+        cuentas[siguiente()].encode(destino);
+        return destino;
+    }
+}
@@ -0,0 +1,125 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compara dos reportes CSV de EjecutarBenchmarks (o de JMH con -rf csv) y muestra la variación de cada
+// benchmark. Se marcan con * las diferencias más grandes que la suma de los errores informados por JMH.
+//
+// Uso: java -cp target/benchmarks.jar ar.edu.utn.frbb.tup.benchmark.CompararReportes reportes/1.0.csv reportes/1.1.csv
+public class CompararReportes {
+
+    static class Resultado {
+        final String clave;
+        final String mode;
+        final double score;
+        final double error;
+        final String unidad;
+
+        Resultado(String clave, String mode, double score, double error, String unidad) {
+            this.clave = clave;
+            this.mode = mode;
+            this.score = score;
+            this.error = error;
+            this.unidad = unidad;
+        }
+
+        // En los modos de throughput más es mejor; en los de tiempo, menos
+        boolean mayorEsMejor() {
+            return "thrpt".equals(mode);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Uso: CompararReportes <reporte base> <reporte nuevo>");
+            System.exit(2);
+        }
+        Map<String, Resultado> base = leer(args[0]);
+        Map<String, Resultado> nuevo = leer(args[1]);
+
+        System.out.printf("%-90s %14s %14s %-8s %9s%n", "Benchmark", "Base", "Nuevo", "Unidad", "Cambio");
+        for (Resultado actual : nuevo.values()) {
+            Resultado anterior = base.get(actual.clave);
+            if (anterior == null) {
+                System.out.printf("%-90s %14s %14.3f %-8s %9s%n", actual.clave, "-", actual.score, actual.unidad, "nuevo");
+                continue;
+            }
+            double cambio = (actual.score - anterior.score) / anterior.score * 100;
+            boolean significativo = Math.abs(actual.score - anterior.score) > anterior.error + actual.error;
+            String sentido = (cambio > 0) == actual.mayorEsMejor() ? "mejor" : "peor";
+            System.out.printf("%-90s %14.3f %14.3f %-8s %+8.1f%% %s%n", actual.clave, anterior.score, actual.score,
+                    actual.unidad, cambio, significativo ? "* " + sentido : "");
+        }
+        for (Resultado anterior : base.values()) {
+            if (!nuevo.containsKey(anterior.clave)) {
+                System.out.printf("%-90s %14.3f %14s %-8s %9s%n", anterior.clave, anterior.score, "-", anterior.unidad, "quitado");
+            }
+        }
+    }
+
+    static Map<String, Resultado> leer(String archivo) throws IOException {
+        List<String> lineas = Files.readAllLines(Paths.get(archivo), StandardCharsets.UTF_8);
+        Map<String, Resultado> resultados = new LinkedHashMap<>();
+        if (lineas.isEmpty()) {
+            return resultados;
+        }
+        List<String> encabezado = separar(lineas.get(0));
+        int benchmark = encabezado.indexOf("Benchmark");
+        int mode = encabezado.indexOf("Mode");
+        int threads = encabezado.indexOf("Threads");
+        int score = encabezado.indexOf("Score");
+        int error = encabezado.indexOf("Score Error (99.9%)");
+        int unidad = encabezado.indexOf("Unit");
+
+        for (String linea : lineas.subList(1, lineas.size())) {
+            List<String> campos = separar(linea);
+            StringBuilder clave = new StringBuilder(campos.get(benchmark).replace("ar.edu.utn.frbb.tup.benchmark.", ""))
+                    .append(" [").append(campos.get(mode)).append(", t=").append(campos.get(threads));
+            for (int i = 0; i < encabezado.size(); i++) {
+                if (encabezado.get(i).startsWith("Param: ") && !campos.get(i).isEmpty()) {
+                    clave.append(", ").append(encabezado.get(i).substring("Param: ".length())).append('=').append(campos.get(i));
+                }
+            }
+            clave.append(']');
+            resultados.put(clave.toString(), new Resultado(clave.toString(), campos.get(mode),
+                    numero(campos.get(score)), numero(campos.get(error)), campos.get(unidad)));
+        }
+        return resultados;
+    }
+
+    private static double numero(String campo) {
+        return campo.isEmpty() || "NaN".equals(campo) ? 0 : Double.parseDouble(campo);
+    }
+
+    // Campos separados por coma, opcionalmente entre comillas (así los escribe JMH)
+    private static List<String> separar(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (c == '"') {
+                if (entreComillas && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else {
+                    entreComillas = !entreComillas;
+                }
+            } else if (c == ',' && !entreComillas) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+}
@@ -0,0 +1,89 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Leer, modificar y guardar un cliente elegido al azar entre los primeros "clientes": con 1 todos los hilos pelean
+// por la misma fila. "optimista" guarda con la versión leída y reintenta si otro guardó antes (como ClienteService);
+// "sincronizado" es la alternativa con un lock global alrededor de todo. El contador "reintentos" da los conflictos.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class ConflictosBenchmark {
+
+    private static final long PRIMER_DNI = 90_000_000L;
+
+    @Param({"1", "16", "1024"})
+    public int clientes;
+
+    private final ClienteDao clienteDao = new ClienteDao();
+    private final Object lockGlobal = new Object();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Conflictos {
+        public long reintentos;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        for (int i = 0; i < clientes; i++) {
+            Cliente cliente = new Cliente();
+            cliente.setDni(PRIMER_DNI + i);
+            cliente.setNombre("Pepe");
+            cliente.setApellido("Rino");
+            cliente.setFechaNacimiento(LocalDate.of(1978, 3, 25));
+            cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+            clienteDao.save(cliente);
+        }
+    }
+
+    @Benchmark
+    public Cliente optimista(Conflictos conflictos) {
+        long dni = PRIMER_DNI + ThreadLocalRandom.current().nextInt(clientes);
+        while (true) {
+            Cliente cliente = modificar(dni);
+            if (clienteDao.save(cliente, cliente.getVersion())) {
+                return cliente;
+            }
+            conflictos.reintentos++;
+        }
+    }
+
+    @Benchmark
+    public Cliente sincronizado() {
+        long dni = PRIMER_DNI + ThreadLocalRandom.current().nextInt(clientes);
+        synchronized (lockGlobal) {
+            Cliente cliente = modificar(dni);
+            clienteDao.save(cliente);
+            return cliente;
+        }
+    }
+
+    private Cliente modificar(long dni) {
+        Cliente cliente = clienteDao.find(dni, false);
+        cliente.setApellido(ThreadLocalRandom.current().nextBoolean() ? "Rino" : "Rina");
+        return cliente;
+    }
+}
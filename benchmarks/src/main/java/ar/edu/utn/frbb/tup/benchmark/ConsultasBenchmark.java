@@ -0,0 +1,100 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.Foto;
+import ar.edu.utn.frbb.tup.service.ClienteService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Lecturas sobre la base cargada: cliente completo por DNI, cuentas de un titular (con el índice y recorriendo la
+// tabla, el antes y el después del índice) y cuenta por número.
+// Los *Zipf consultan con la distribución de Zipf de Dataset; con -prof gc se ve cuánto aloca cada consulta
+// con y sin el cache de clientes completos.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ConsultasBenchmark {
+
+    private ClienteService clienteService;
+    private ClienteDao clienteDao;
+    private CuentaDao cuentaDao;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int siguiente;
+    }
+
+    @Setup(Level.Trial)
+    public void setup(Dataset dataset) {
+        clienteService = dataset.getBean(ClienteService.class);
+        clienteDao = dataset.getBean(ClienteDao.class);
+        cuentaDao = dataset.getBean(CuentaDao.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void informarCache() {
+        System.out.println(clienteDao.getEstadisticasCache());
+    }
+
+    @Benchmark
+    public Cliente buscarClientePorDni(Dataset dataset) {
+        return clienteService.buscarClientePorDni(dataset.dnis[ThreadLocalRandom.current().nextInt(dataset.dnis.length)]);
+    }
+
+    @Benchmark
+    public Cliente buscarClientePorDniZipf(Dataset dataset, Cursor cursor) {
+        return clienteService.buscarClientePorDni(dataset.dnis[dataset.clientesMasConsultados.muestra(cursor.siguiente++)]);
+    }
+
+    @Benchmark
+    public Cliente clienteCompletoSinCacheZipf(Dataset dataset, Cursor cursor) {
+        return clienteDao.find(dataset.dnis[dataset.clientesMasConsultados.muestra(cursor.siguiente++)], true);
+    }
+
+    @Benchmark
+    public List<Cuenta> getCuentasByCliente(Dataset dataset) {
+        return cuentaDao.getCuentasByCliente(dataset.dnis[ThreadLocalRandom.current().nextInt(dataset.dnis.length)]);
+    }
+
+    // Como antes del índice de titulares: recorre toda la tabla CUENTA buscando las del DNI, para comparar con
+    // getCuentasByCliente
+    @Benchmark
+    public List<Cuenta> getCuentasByClienteRecorriendo(Dataset dataset) {
+        long dni = dataset.dnis[ThreadLocalRandom.current().nextInt(dataset.dnis.length)];
+        List<Cuenta> cuentas = new ArrayList<>();
+        try (Foto foto = Foto.abrir()) {
+            cuentaDao.recorrer(foto, (numero, cuenta) -> {
+                if (cuenta.getTitular() == dni) {
+                    cuentas.add(cuenta.toCuenta());
+                }
+            });
+        }
+        return cuentas;
+    }
+
+    @Benchmark
+    public Cuenta findCuenta(Dataset dataset) {
+        return cuentaDao.find(dataset.numerosCuenta[ThreadLocalRandom.current().nextInt(dataset.numerosCuenta.length)]);
+    }
+}
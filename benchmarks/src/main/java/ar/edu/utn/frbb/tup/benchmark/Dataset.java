@@ -0,0 +1,74 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.ApplicationConfig;
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Contexto de Spring con la base en memoria cargada. La base es estática, pero JMH corre cada
+// combinación de parámetros en un fork nuevo, así que cada una arranca de una base vacía.
+@State(Scope.Benchmark)
+public class Dataset {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int cuentas;
+
+    public AnnotationConfigApplicationContext context;
+    public long[] dnis;
+    public long[] numerosCuenta;
+    public long[] numerosCuentaEnPesos;
+    public DistribucionZipf clientesMasConsultados;
+
+    @Setup(Level.Trial)
+    public void cargar() {
+        context = new AnnotationConfigApplicationContext(ApplicationConfig.class);
+
+        List<Cliente> clientes = new GeneradorDatos(42).generarClientes(cuentas);
+        List<Cuenta> todas = new ArrayList<>(cuentas);
+        dnis = new long[clientes.size()];
+        for (int i = 0; i < clientes.size(); i++) {
+            dnis[i] = clientes.get(i).getDni();
+            todas.addAll(clientes.get(i).getCuentas());
+        }
+        numerosCuenta = new long[todas.size()];
+        int enPesos = 0;
+        for (int i = 0; i < todas.size(); i++) {
+            numerosCuenta[i] = todas.get(i).getNumeroCuenta();
+            if (todas.get(i).getMoneda() == TipoMoneda.PESOS) {
+                enPesos++;
+            }
+        }
+        numerosCuentaEnPesos = new long[enPesos];
+        for (int i = 0, j = 0; i < todas.size(); i++) {
+            if (todas.get(i).getMoneda() == TipoMoneda.PESOS) {
+                numerosCuentaEnPesos[j++] = todas.get(i).getNumeroCuenta();
+            }
+        }
+
+        clientesMasConsultados = new DistribucionZipf(dnis.length, 0.99, 1 << 20, 42);
+
+        context.getBean(ClienteDao.class).saveAll(clientes);
+        context.getBean(CuentaDao.class).saveAll(todas);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> tipo) {
+        return context.getBean(tipo);
+    }
+}
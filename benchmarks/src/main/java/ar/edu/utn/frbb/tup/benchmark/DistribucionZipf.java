@@ -0,0 +1,32 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Posiciones 0..n-1 con distribución de Zipf: unos pocos clientes concentran la mayoría de las
+// consultas, como pasa con los clientes más activos. Las muestras se generan de antemano
+// para que el sorteo no se mida junto con la consulta.
+public class DistribucionZipf {
+
+    private final int[] muestras;
+
+    public DistribucionZipf(int n, double exponente, int cantidadMuestras, long semilla) {
+        double[] acumulada = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            total += 1 / Math.pow(i + 1, exponente);
+            acumulada[i] = total;
+        }
+        SplittableRandom random = new SplittableRandom(semilla);
+        muestras = new int[cantidadMuestras];
+        for (int i = 0; i < cantidadMuestras; i++) {
+            int posicion = Arrays.binarySearch(acumulada, random.nextDouble() * total);
+            muestras[i] = Math.min(n - 1, posicion >= 0 ? posicion : -posicion - 1);
+        }
+    }
+
+    // cantidadMuestras tiene que ser potencia de 2
+    public int muestra(int i) {
+        return muestras[i & (muestras.length - 1)];
+    }
+}
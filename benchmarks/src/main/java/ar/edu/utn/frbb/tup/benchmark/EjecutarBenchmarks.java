@@ -0,0 +1,66 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Corre los benchmarks una vez por cada cantidad de hilos y junta todo en un único CSV
+// (reportes/<etiqueta>.csv), que después se compara entre versiones con CompararReportes.
+//
+// Uso: java -cp target/benchmarks.jar ar.edu.utn.frbb.tup.benchmark.EjecutarBenchmarks <etiqueta> [hilos] [opciones de JMH]
+//   hilos: lista separada por comas, por defecto 1,4
+//   ejemplo: ... EjecutarBenchmarks 1.1 1,8 -p cuentas=1000,1000000 Consultas
+public class EjecutarBenchmarks {
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        if (args.length < 1) {
+            System.err.println("Uso: EjecutarBenchmarks <etiqueta> [hilos] [opciones de JMH]");
+            System.exit(2);
+        }
+        String etiqueta = args[0];
+        int[] hilos = {1, 4};
+        int inicioOpciones = 1;
+        if (args.length > 1 && args[1].matches("\\d+(,\\d+)*")) {
+            hilos = Arrays.stream(args[1].split(",")).mapToInt(Integer::parseInt).toArray();
+            inicioOpciones = 2;
+        }
+        CommandLineOptions opciones = new CommandLineOptions(Arrays.copyOfRange(args, inicioOpciones, args.length));
+
+        Path reporte = Paths.get("reportes", etiqueta + ".csv");
+        Files.createDirectories(reporte.getParent());
+        List<String> lineas = new ArrayList<>();
+
+        for (int cantidadHilos : hilos) {
+            Path parcial = Files.createTempFile("jmh-" + etiqueta + "-t" + cantidadHilos, ".csv");
+            try {
+                new Runner(new OptionsBuilder()
+                        .parent(opciones)
+                        .threads(cantidadHilos)
+                        .result(parcial.toString())
+                        .resultFormat(ResultFormatType.CSV)
+                        .build()).run();
+
+                List<String> resultado = Files.readAllLines(parcial, StandardCharsets.UTF_8);
+                // El encabezado va una sola vez; cambia si cambian los @Param incluidos
+                lineas.addAll(lineas.isEmpty() ? resultado : resultado.subList(1, resultado.size()));
+            } finally {
+                Files.deleteIfExists(parcial);
+            }
+        }
+
+        Files.write(reporte, lineas, StandardCharsets.UTF_8);
+        System.out.println("Reporte: " + reporte.toAbsolutePath());
+    }
+}
@@ -0,0 +1,131 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.ExportadorTablas;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+// Exportación completa de una tabla por operación. El contador "megabytes" da los MB/s: con destino "nulo" mide solo
+// recorrer y formatear, con "archivo" incluye escribir en disco (sin fsync, lo que cuesta es llenar el page cache).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ExportacionBenchmark {
+
+    @Param({"CUENTAS", "CLIENTES", "MOVIMIENTOS"})
+    public ExportadorTablas.Tabla tabla;
+
+    @Param({"CSV", "BINARIO"})
+    public ExportadorTablas.Formato formato;
+
+    @Param({"nulo", "archivo"})
+    public String destino;
+
+    // Movimientos por cuenta en pesos; cada transferencia deja dos
+    @Param({"8"})
+    public int movimientosPorCuenta;
+
+    private ExportadorTablas exportador;
+    private Path archivo;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Volumen {
+        public double megabytes;
+        public long filas;
+    }
+
+    // Cuenta los bytes y los descarta
+    private static final class CanalNulo implements WritableByteChannel {
+        long bytes;
+
+        @Override
+        public int write(ByteBuffer origen) {
+            int escritos = origen.remaining();
+            origen.position(origen.limit());
+            bytes += escritos;
+            return escritos;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup(Dataset dataset) throws IOException {
+        exportador = dataset.getBean(ExportadorTablas.class);
+        MovimientoDao movimientoDao = dataset.getBean(MovimientoDao.class);
+        CuentaDao cuentaDao = dataset.getBean(CuentaDao.class);
+        if (tabla == ExportadorTablas.Tabla.MOVIMIENTOS) {
+            long[] cuentas = dataset.numerosCuentaEnPesos;
+            // Transferencias entre cuentas vecinas, una vuelta en cada sentido, así los saldos no se alejan
+            for (int vuelta = 0; vuelta < movimientosPorCuenta; vuelta++) {
+                for (int i = 0; i + 1 < cuentas.length; i += 2) {
+                    Cuenta origen = cuentaDao.find(cuentas[vuelta % 2 == 0 ? i : i + 1]);
+                    Cuenta destino = cuentaDao.find(cuentas[vuelta % 2 == 0 ? i + 1 : i]);
+                    long monto = 100 + i % 1000;
+                    origen.setBalance(origen.getBalance() - monto);
+                    destino.setBalance(destino.getBalance() + monto);
+                    movimientoDao.registrarTransferencia(origen, destino, monto);
+                }
+            }
+        }
+        archivo = Files.createTempFile("exportacion", formato == ExportadorTablas.Formato.CSV ? ".csv" : ".bin");
+    }
+
+    @Benchmark
+    public long exportar(Volumen volumen) throws IOException {
+        long filas;
+        long bytes;
+        if ("archivo".equals(destino)) {
+            try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                filas = exportador.exportar(tabla, formato, canal);
+                bytes = canal.position();
+            }
+        } else {
+            CanalNulo canal = new CanalNulo();
+            filas = exportador.exportar(tabla, formato, canal);
+            bytes = canal.bytes;
+        }
+        volumen.megabytes += bytes / 1e6;
+        volumen.filas += filas;
+        return filas;
+    }
+
+    @TearDown(Level.Trial)
+    public void borrar() throws IOException {
+        Files.deleteIfExists(archivo);
+    }
+}
@@ -0,0 +1,142 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Carga sostenida de saves de cuentas con la tabla CUENTA en el heap o fuera (-Dtup.cuentas.fueraDelHeap). Además
+// del throughput, al final de cada corrida imprime las pausas de GC durante la medición (cantidad, total y máxima),
+// la duración de un GC completo con la tabla cargada y el heap ocupado. No usa Dataset: la tabla se elige al
+// crearse, antes de la carga.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class FueraDelHeapBenchmark {
+
+    @Param({"heap", "fueraDelHeap"})
+    public String tabla;
+
+    @Param({"1000000", "10000000"})
+    public int cuentas;
+
+    private CuentaDao cuentaDao;
+    private long[] numerosCuenta;
+    private long gcCompletoMs;
+
+    private final List<Runnable> desregistrar = new ArrayList<>();
+    private volatile boolean midiendo;
+    private final AtomicLong pausas = new AtomicLong();
+    private final AtomicLong pausaTotalMs = new AtomicLong();
+    private final AtomicLong pausaMaximaMs = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        System.setProperty("tup.cuentas.fueraDelHeap", String.valueOf(tabla.equals("fueraDelHeap")));
+        cuentaDao = new CuentaDao();
+
+        List<Cliente> clientes = new GeneradorDatos(42).generarClientes(cuentas);
+        List<Cuenta> todas = new ArrayList<>(cuentas);
+        for (Cliente cliente : clientes) {
+            todas.addAll(cliente.getCuentas());
+        }
+        clientes = null;
+        cuentaDao.saveAll(todas);
+        numerosCuenta = new long[todas.size()];
+        for (int i = 0; i < todas.size(); i++) {
+            numerosCuenta[i] = todas.get(i).getNumeroCuenta();
+        }
+        todas = null;
+
+        long inicio = System.nanoTime();
+        System.gc();
+        gcCompletoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        escucharPausas();
+    }
+
+    @Setup(Level.Iteration)
+    public void empezarIteracion() {
+        midiendo = true;
+    }
+
+    @TearDown(Level.Iteration)
+    public void terminarIteracion() {
+        midiendo = false;
+    }
+
+    @TearDown(Level.Trial)
+    public void informar() {
+        for (Runnable quitar : desregistrar) {
+            quitar.run();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("%n[%s, %d cuentas] pausas de GC midiendo: %d, total %d ms, máxima %d ms; GC completo con la"
+                        + " tabla cargada: %d ms; heap ocupado: %d MB%n", tabla, cuentas, pausas.get(), pausaTotalMs.get(),
+                pausaMaximaMs.get(), gcCompletoMs, (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+    }
+
+    // Leer la cuenta, cambiarle el saldo y guardarla, como un débito o un depósito
+    @Benchmark
+    public Cuenta guardar() {
+        Cuenta cuenta = cuentaDao.find(numerosCuenta[ThreadLocalRandom.current().nextInt(numerosCuenta.length)]);
+        cuenta.setBalance(cuenta.getBalance() + ThreadLocalRandom.current().nextInt(-1000, 1000));
+        cuentaDao.save(cuenta);
+        return cuenta;
+    }
+
+    // Las pausas llegan por notificación de cada colector (solo las que ocurren durante las iteraciones medidas)
+    private void escucharPausas() {
+        for (GarbageCollectorMXBean colector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            NotificationEmitter emisor = (NotificationEmitter) colector;
+            NotificationListener listener = (notificacion, contexto) -> {
+                if (!midiendo || !notificacion.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notificacion.getUserData());
+                // Los ciclos concurrentes (en los JDK que los informan) no frenan la aplicación
+                if (info.getGcName().contains("Concurrent")) {
+                    return;
+                }
+                long duracion = info.getGcInfo().getDuration();
+                pausas.incrementAndGet();
+                pausaTotalMs.addAndGet(duracion);
+                pausaMaximaMs.accumulateAndGet(duracion, Math::max);
+            };
+            emisor.addNotificationListener(listener, null, null);
+            desregistrar.add(() -> {
+                try {
+                    emisor.removeNotificationListener(listener);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+    }
+}
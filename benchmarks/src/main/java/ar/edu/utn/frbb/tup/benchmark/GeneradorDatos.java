@@ -0,0 +1,92 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Genera clientes y cuentas con una distribución parecida a la de una sucursal real:
+// todos tienen caja de ahorro en pesos, algunos además cuenta corriente y/o caja en dólares,
+// DNIs de 8 dígitos sin repetir y saldos muy dispares. Con la misma semilla genera siempre lo mismo.
+public class GeneradorDatos {
+
+    private static final String[] NOMBRES = {"Juan", "María", "Pedro", "Lucía", "Martín", "Sofía", "Diego",
+            "Valentina", "Joaquín", "Camila", "Matías", "Florencia", "Nicolás", "Agustina", "Tomás", "Milagros"};
+    private static final String[] APELLIDOS = {"González", "Rodríguez", "Gómez", "Fernández", "López", "Díaz",
+            "Martínez", "Pérez", "García", "Sánchez", "Romero", "Sosa", "Álvarez", "Torres", "Ruiz", "Ramírez"};
+
+    public static final long PRIMER_DNI = 20_000_000L;
+    private static final LocalDate HOY = LocalDate.of(2024, 6, 1);
+
+    private final SplittableRandom random;
+    private long siguienteDni;
+
+    public GeneradorDatos(long semilla) {
+        this(semilla, PRIMER_DNI);
+    }
+
+    public GeneradorDatos(long semilla, long primerDni) {
+        this.random = new SplittableRandom(semilla);
+        this.siguienteDni = primerDni;
+    }
+
+    // Genera clientes (con sus cuentas ya agregadas) hasta llegar a la cantidad de cuentas pedida
+    public List<Cliente> generarClientes(int cantidadCuentas) {
+        List<Cliente> clientes = new ArrayList<>(cantidadCuentas / 2 + 1);
+        int cuentas = 0;
+        while (cuentas < cantidadCuentas) {
+            Cliente cliente = generarCliente();
+            for (Cuenta cuenta : generarCuentas(cantidadCuentas - cuentas)) {
+                cliente.addCuenta(cuenta);
+                cuentas++;
+            }
+            clientes.add(cliente);
+        }
+        return clientes;
+    }
+
+    public Cliente generarCliente() {
+        Cliente cliente = new Cliente();
+        // Saltos chicos entre DNIs: quedan únicos pero no consecutivos
+        siguienteDni += 1 + random.nextInt(7);
+        cliente.setDni(siguienteDni);
+        cliente.setNombre(NOMBRES[random.nextInt(NOMBRES.length)]);
+        cliente.setApellido(APELLIDOS[random.nextInt(APELLIDOS.length)]);
+        cliente.setFechaNacimiento(HOY.minusYears(18 + random.nextInt(62)).minusDays(random.nextInt(365)));
+        cliente.setFechaAlta(HOY.minusDays(random.nextInt(3650)));
+        cliente.setTipoPersona(random.nextInt(10) == 0 ? TipoPersona.PERSONA_JURIDICA : TipoPersona.PERSONA_FISICA);
+        cliente.setBanco("TUP");
+        return cliente;
+    }
+
+    // Solo combinaciones soportadas por el banco (CA$, CC$, CAU$S), sin repetir tipo y moneda
+    public List<Cuenta> generarCuentas(int maximo) {
+        List<Cuenta> cuentas = new ArrayList<>(3);
+        cuentas.add(generarCuenta(TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS));
+        if (cuentas.size() < maximo && random.nextInt(100) < 40) {
+            cuentas.add(generarCuenta(TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS));
+        }
+        if (cuentas.size() < maximo && random.nextInt(100) < 30) {
+            cuentas.add(generarCuenta(TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES));
+        }
+        return cuentas;
+    }
+
+    public Cuenta generarCuenta(TipoCuenta tipoCuenta, TipoMoneda moneda) {
+        // Saldos en centavos con cola larga: la mayoría chicos, unos pocos muy grandes
+        long balance = (long) (Math.exp(random.nextDouble() * 16) * 100);
+        return new Cuenta()
+                .setTipoCuenta(tipoCuenta)
+                .setMoneda(moneda)
+                .setBalance(balance)
+                .setFechaCreacion(LocalDateTime.of(HOY, LocalTime.NOON).minusMinutes(random.nextInt(5_000_000)));
+    }
+}
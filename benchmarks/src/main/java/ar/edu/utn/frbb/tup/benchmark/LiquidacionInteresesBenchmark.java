@@ -0,0 +1,61 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.service.LiquidacionIntereses;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// Una liquidación completa por operación, cada una de un día distinto para que siempre acredite. El contador
+// "cuentas" da las cajas de ahorro revisadas por segundo; "acreditadas" las que recibieron interés.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class LiquidacionInteresesBenchmark {
+
+    // 0 = un hilo por procesador
+    @Param({"1", "0"})
+    public int paralelismo;
+
+    private LiquidacionIntereses liquidacion;
+    private LocalDate dia;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Volumen {
+        public long cuentas;
+        public long acreditadas;
+    }
+
+    @Setup(Level.Trial)
+    public void setup(Dataset dataset) {
+        liquidacion = dataset.getBean(LiquidacionIntereses.class);
+        dia = LocalDate.of(2000, 1, 1);
+    }
+
+    @Benchmark
+    public long liquidar(Volumen volumen) throws IOException {
+        int hilos = paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors();
+        LiquidacionIntereses.Resultado resultado = liquidacion.liquidar(dia, null, hilos);
+        dia = dia.plusDays(1);
+        volumen.cuentas += resultado.getRevisadas();
+        volumen.acreditadas += resultado.getAfectadas();
+        return resultado.getAfectadas();
+    }
+}
@@ -0,0 +1,84 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// ClienteDao.find por DNI con la tabla CLIENTE en memoria o en una TablaLsm (-Dtup.lsm), con un heap chico: con
+// 10M clientes la tabla en memoria no entra (la corrida falla por OutOfMemoryError) y la LSM guarda casi todo en
+// disco. buscarInexistente mide los DNIs que no están, que resuelven los filtros de Bloom sin leer del disco. No usa
+// Dataset: la tabla se elige al crearse, y los clientes se cargan de a tandas para no tenerlos todos en el heap.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx512m"})
+public class LsmBenchmark {
+
+    private static final int TANDA = 10_000;
+
+    @Param({"memoria", "lsm"})
+    public String tabla;
+
+    @Param({"1000000", "10000000"})
+    public int clientes;
+
+    private ClienteDao clienteDao;
+    private long[] dnis;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        System.setProperty("tup.lsm", String.valueOf(tabla.equals("lsm")));
+        clienteDao = new ClienteDao();
+
+        GeneradorDatos generador = new GeneradorDatos(42);
+        dnis = new long[clientes];
+        List<Cliente> tanda = new ArrayList<>(TANDA);
+        for (int i = 0; i < clientes; i++) {
+            Cliente cliente = generador.generarCliente();
+            dnis[i] = cliente.getDni();
+            tanda.add(cliente);
+            if (tanda.size() == TANDA || i == clientes - 1) {
+                clienteDao.saveAll(tanda);
+                tanda.clear();
+            }
+        }
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        System.out.println("Heap ocupado con " + clientes + " clientes: "
+                + (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024) + " MB");
+    }
+
+    @TearDown(Level.Trial)
+    public void informar() {
+        System.out.println("Heap máximo: " + Runtime.getRuntime().maxMemory() / (1024 * 1024) + " MB");
+    }
+
+    @Benchmark
+    public Cliente buscarExistente() {
+        return clienteDao.find(dnis[ThreadLocalRandom.current().nextInt(dnis.length)], false);
+    }
+
+    @Benchmark
+    public Cliente buscarInexistente() {
+        return clienteDao.find(GeneradorDatos.PRIMER_DNI - 1 - ThreadLocalRandom.current().nextInt(1_000_000), false);
+    }
+}
@@ -0,0 +1,61 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.persistence.collection.ConcurrentLongObjectMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Búsqueda por clave en la tabla de las DAOs contra un ConcurrentHashMap<Long, Object> (lo que había antes)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class MapaEntidadesBenchmark {
+
+    @Param({"1000", "1000000", "10000000"})
+    public int filas;
+
+    private long[] claves;
+    private ConcurrentLongObjectMap<Object> mapaPrimitivo;
+    private ConcurrentHashMap<Long, Object> mapaConBoxing;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        Object valor = new Object();
+        claves = new long[filas];
+        mapaPrimitivo = new ConcurrentLongObjectMap<>();
+        mapaConBoxing = new ConcurrentHashMap<>();
+        for (int i = 0; i < filas; i++) {
+            claves[i] = random.nextLong();
+            mapaPrimitivo.put(claves[i], valor);
+            mapaConBoxing.put(claves[i], valor);
+        }
+    }
+
+    @Benchmark
+    public Object getPrimitivo() {
+        return mapaPrimitivo.get(claves[ThreadLocalRandom.current().nextInt(filas)]);
+    }
+
+    @Benchmark
+    public Object getConBoxing() {
+        return mapaConBoxing.get(claves[ThreadLocalRandom.current().nextInt(filas)]);
+    }
+}
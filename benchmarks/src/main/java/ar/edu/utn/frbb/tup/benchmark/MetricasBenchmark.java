@@ -0,0 +1,68 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.metricas.Contador;
+import ar.edu.utn.frbb.tup.metricas.Histograma;
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.service.ClienteService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Costo de la instrumentación: registrar en un histograma o contador por separado, y la misma consulta
+// con y sin medir (buscarClientePorDni cuenta cada llamada y mide una de cada 16; findCompleto es lo mismo sin medir).
+// Con varios hilos (EjecutarBenchmarks 1,4) se ve la contención sobre las cubetas compartidas.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class MetricasBenchmark {
+
+    private final Histograma histograma = new Histograma();
+    private final Contador contador = new Contador();
+    private ClienteService clienteService;
+    private ClienteDao clienteDao;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int siguiente;
+    }
+
+    @Setup(Level.Trial)
+    public void setup(Dataset dataset) {
+        clienteService = dataset.getBean(ClienteService.class);
+        clienteDao = dataset.getBean(ClienteDao.class);
+    }
+
+    @Benchmark
+    public void registrarEnHistograma(Cursor cursor) {
+        histograma.registrar(1000 + (cursor.siguiente++ & 0xFFFF));
+    }
+
+    @Benchmark
+    public void incrementarContador() {
+        contador.incrementar();
+    }
+
+    @Benchmark
+    public Cliente buscarClienteMedido(Dataset dataset, Cursor cursor) {
+        return clienteService.buscarClientePorDni(dataset.dnis[dataset.clientesMasConsultados.muestra(cursor.siguiente++)]);
+    }
+
+    @Benchmark
+    public Cliente buscarClienteSinMedir(Dataset dataset, Cursor cursor) {
+        return clienteDao.findCompleto(dataset.dnis[dataset.clientesMasConsultados.muestra(cursor.siguiente++)]);
+    }
+}
@@ -0,0 +1,33 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.NumeradorCuentas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Números de cuenta por segundo con NumeradorCuentas contra lo que hacía antes el constructor de Cuenta.
+// Correr con varias cantidades de hilos (EjecutarBenchmarks) para ver cómo escala.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumeradorBenchmark {
+
+    @Benchmark
+    public long numeradorCuentas() {
+        return NumeradorCuentas.siguiente();
+    }
+
+    @Benchmark
+    public long randomPorCuenta() {
+        return new Random().nextLong();
+    }
+}
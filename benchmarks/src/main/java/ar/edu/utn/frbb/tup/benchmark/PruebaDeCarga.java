@@ -0,0 +1,356 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.ApplicationConfig;
+import ar.edu.utn.frbb.tup.presentation.http.ApiServer;
+import ar.edu.utn.frbb.tup.service.EjecutorServicios;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Prueba de carga de la API HTTP: abre miles de conexiones keep-alive desde un único hilo con un
+// Selector de NIO (un hilo por conexión mediría al cliente, no al servidor) y cada conexión manda
+// un pedido, espera la respuesta y manda el siguiente. Al final informa rendimiento y percentiles.
+//
+// Uso: java -cp target/benchmarks.jar ar.edu.utn.frbb.tup.benchmark.PruebaDeCarga [opciones]
+//   --destino host:puerto   API ya levantada; si falta, se levanta una embebida en un puerto libre
+//   --conexiones N          conexiones simultáneas (por defecto 2000)
+//   --segundos N            duración de la medición (por defecto 30)
+//   --calentamiento N       segundos iniciales que no se miden (por defecto 10)
+//   --clientes N            clientes que se dan de alta antes de empezar, con dos cuentas cada uno (por defecto 1000)
+//
+// Mezcla de pedidos: 80% GET /clientes/{dni} (Zipf), 10% GET /cuentas/{numero} y 10% POST /transferencias.
+// Las cuentas se abren con saldo 0, así que las transferencias son de monto 0: recorren todo el camino
+// (locks, búsqueda, débito, crédito y guardado) sin agotar saldos.
+public class PruebaDeCarga {
+
+    private static final Pattern NUMERO_CUENTA = Pattern.compile("\"numeroCuenta\":\\s*(\\d+)");
+    private static final byte[] FIN_ENCABEZADOS = "\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String destino = opcion(args, "--destino", null);
+        int conexiones = Integer.parseInt(opcion(args, "--conexiones", "2000"));
+        int segundos = Integer.parseInt(opcion(args, "--segundos", "30"));
+        int calentamiento = Integer.parseInt(opcion(args, "--calentamiento", "10"));
+        int clientes = Integer.parseInt(opcion(args, "--clientes", "1000"));
+
+        AnnotationConfigApplicationContext context = null;
+        InetSocketAddress direccion;
+        if (destino == null) {
+            // El servidor del JDK cierra las conexiones ociosas que pasan este límite (200 por defecto)
+            System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(conexiones));
+            context = new AnnotationConfigApplicationContext(ApplicationConfig.class);
+            direccion = context.getBean(ApiServer.class).iniciar(new InetSocketAddress("127.0.0.1", 0),
+                    Integer.getInteger("tup.http.hilos", Runtime.getRuntime().availableProcessors() * 4));
+            System.out.println("API embebida en " + direccion);
+        } else {
+            String[] partes = destino.split(":");
+            direccion = new InetSocketAddress(partes[0], Integer.parseInt(partes[1]));
+        }
+
+        try {
+            Escenario escenario = Escenario.cargar(direccion, clientes);
+            System.out.printf("Alta de %d clientes y %d cuentas en %d ms%n",
+                    clientes, escenario.cuentas.length, escenario.milisegundosAlta);
+
+            Resultados resultados = new Generador(direccion, escenario, conexiones).correr(
+                    TimeUnit.SECONDS.toNanos(calentamiento), TimeUnit.SECONDS.toNanos(segundos));
+            resultados.imprimir(conexiones, segundos);
+            if (context != null) {
+                System.out.println("Ejecutor: " + context.getBean(EjecutorServicios.class).getEstadisticas());
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static String opcion(String[] args, String nombre, String porDefecto) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(nombre)) {
+                return args[i + 1];
+            }
+        }
+        return porDefecto;
+    }
+
+    // Datos dados de alta por HTTP antes de medir
+    private static final class Escenario {
+        final long[] dnis;
+        final long[] cuentas;
+        final DistribucionZipf clientesMasConsultados;
+        long milisegundosAlta;
+
+        private Escenario(long[] dnis, long[] cuentas) {
+            this.dnis = dnis;
+            this.cuentas = cuentas;
+            this.clientesMasConsultados = new DistribucionZipf(dnis.length, 0.99, 1 << 20, 7L);
+        }
+
+        static Escenario cargar(InetSocketAddress direccion, int cantidadClientes) throws IOException {
+            long inicio = System.nanoTime();
+            String base = "http://" + direccion.getHostString() + ":" + direccion.getPort();
+            // Rango de DNIs propio para no chocar con datos que ya tenga una API levantada
+            long primerDni = 30_000_000L + new SplittableRandom().nextInt(1_000_000) * 10L;
+            long[] dnis = new long[cantidadClientes];
+            long[] cuentas = new long[cantidadClientes * 2];
+            for (int i = 0; i < cantidadClientes; i++) {
+                long dni = primerDni + i;
+                dnis[i] = dni;
+                enviar(base, "/clientes", "{\"dni\": " + dni + ", \"nombre\": \"Carga\", \"apellido\": \"" + i
+                        + "\", \"tipoPersona\": \"PERSONA_FISICA\", \"banco\": \"Nacion\", \"fechaNacimiento\": \"1990-01-01\"}");
+                cuentas[2 * i] = numeroCuenta(enviar(base, "/cuentas",
+                        "{\"dniTitular\": " + dni + ", \"tipoCuenta\": \"CAJA_AHORRO\", \"moneda\": \"PESOS\"}"));
+                cuentas[2 * i + 1] = numeroCuenta(enviar(base, "/cuentas",
+                        "{\"dniTitular\": " + dni + ", \"tipoCuenta\": \"CUENTA_CORRIENTE\", \"moneda\": \"PESOS\"}"));
+            }
+            Escenario escenario = new Escenario(dnis, cuentas);
+            escenario.milisegundosAlta = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+            return escenario;
+        }
+
+        private static String enviar(String base, String ruta, String cuerpo) throws IOException {
+            HttpURLConnection conexion = (HttpURLConnection) new URL(base + ruta).openConnection();
+            conexion.setRequestMethod("POST");
+            conexion.setDoOutput(true);
+            try (OutputStream salida = conexion.getOutputStream()) {
+                salida.write(cuerpo.getBytes(StandardCharsets.UTF_8));
+            }
+            int codigo = conexion.getResponseCode();
+            if (codigo != 201) {
+                throw new IllegalStateException("POST " + ruta + " devolvió " + codigo);
+            }
+            ByteArrayOutputStream leido = new ByteArrayOutputStream();
+            try (InputStream entrada = conexion.getInputStream()) {
+                byte[] buffer = new byte[1024];
+                for (int n; (n = entrada.read(buffer)) != -1; ) {
+                    leido.write(buffer, 0, n);
+                }
+            }
+            return new String(leido.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        private static long numeroCuenta(String respuesta) {
+            Matcher matcher = NUMERO_CUENTA.matcher(respuesta);
+            if (!matcher.find()) {
+                throw new IllegalStateException("Respuesta sin numeroCuenta: " + respuesta);
+            }
+            return Long.parseLong(matcher.group(1));
+        }
+    }
+
+    // Estado de una conexión: el pedido en curso y lo que va llegando de la respuesta
+    private static final class Conexion {
+        final ByteBuffer lectura = ByteBuffer.allocate(64 * 1024);
+        ByteBuffer pedido;
+        long inicio;
+    }
+
+    private static final class Generador {
+        private final InetSocketAddress direccion;
+        private final Escenario escenario;
+        private final int cantidadConexiones;
+        private final SplittableRandom random = new SplittableRandom(42L);
+        private final String host;
+        private int consulta;
+
+        Generador(InetSocketAddress direccion, Escenario escenario, int cantidadConexiones) {
+            this.direccion = direccion;
+            this.escenario = escenario;
+            this.cantidadConexiones = cantidadConexiones;
+            this.host = direccion.getHostString() + ":" + direccion.getPort();
+        }
+
+        Resultados correr(long calentamiento, long duracion) throws IOException {
+            Resultados resultados = new Resultados();
+            try (Selector selector = Selector.open()) {
+                for (int i = 0; i < cantidadConexiones; i++) {
+                    abrir(selector);
+                }
+                long comienzo = System.nanoTime();
+                long inicioMedicion = comienzo + calentamiento;
+                long fin = inicioMedicion + duracion;
+                long ahora = comienzo;
+                while (ahora < fin) {
+                    selector.select(100);
+                    Iterator<SelectionKey> claves = selector.selectedKeys().iterator();
+                    while (claves.hasNext()) {
+                        SelectionKey clave = claves.next();
+                        claves.remove();
+                        atender(selector, clave, inicioMedicion, resultados);
+                    }
+                    ahora = System.nanoTime();
+                }
+                for (SelectionKey clave : selector.keys()) {
+                    clave.channel().close();
+                }
+            }
+            return resultados;
+        }
+
+        private void abrir(Selector selector) throws IOException {
+            SocketChannel canal = SocketChannel.open();
+            canal.configureBlocking(false);
+            canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Conexion conexion = new Conexion();
+            canal.register(selector, SelectionKey.OP_CONNECT, conexion);
+            canal.connect(direccion);
+        }
+
+        private void atender(Selector selector, SelectionKey clave, long inicioMedicion, Resultados resultados) throws IOException {
+            SocketChannel canal = (SocketChannel) clave.channel();
+            Conexion conexion = (Conexion) clave.attachment();
+            try {
+                if (clave.isConnectable()) {
+                    canal.finishConnect();
+                    enviarSiguiente(clave, conexion);
+                }
+                if (clave.isValid() && clave.isWritable()) {
+                    canal.write(conexion.pedido);
+                    if (!conexion.pedido.hasRemaining()) {
+                        clave.interestOps(SelectionKey.OP_READ);
+                    }
+                }
+                if (clave.isValid() && clave.isReadable()) {
+                    if (canal.read(conexion.lectura) < 0) {
+                        // El servidor cerró la conexión: se reabre y el pedido en curso no se cuenta
+                        reconectar(selector, clave, resultados);
+                        return;
+                    }
+                    int codigo = respuestaCompleta(conexion.lectura);
+                    if (codigo > 0) {
+                        long fin = System.nanoTime();
+                        if (conexion.inicio >= inicioMedicion) {
+                            resultados.registrar(codigo, fin - conexion.inicio);
+                        }
+                        conexion.lectura.clear();
+                        enviarSiguiente(clave, conexion);
+                    }
+                }
+            } catch (IOException e) {
+                reconectar(selector, clave, resultados);
+            }
+        }
+
+        private void reconectar(Selector selector, SelectionKey clave, Resultados resultados) throws IOException {
+            resultados.reconexiones++;
+            clave.cancel();
+            clave.channel().close();
+            abrir(selector);
+        }
+
+        private void enviarSiguiente(SelectionKey clave, Conexion conexion) throws IOException {
+            conexion.pedido = ByteBuffer.wrap(siguientePedido().getBytes(StandardCharsets.US_ASCII));
+            conexion.inicio = System.nanoTime();
+            ((SocketChannel) clave.channel()).write(conexion.pedido);
+            clave.interestOps(conexion.pedido.hasRemaining() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+
+        private String siguientePedido() {
+            int tipo = random.nextInt(10);
+            if (tipo < 8) {
+                long dni = escenario.dnis[escenario.clientesMasConsultados.muestra(consulta++)];
+                return "GET /clientes/" + dni + " HTTP/1.1\r\nHost: " + host + "\r\n\r\n";
+            }
+            if (tipo == 8) {
+                long numero = escenario.cuentas[random.nextInt(escenario.cuentas.length)];
+                return "GET /cuentas/" + numero + " HTTP/1.1\r\nHost: " + host + "\r\n\r\n";
+            }
+            long origen = escenario.cuentas[random.nextInt(escenario.cuentas.length)];
+            long destino = escenario.cuentas[random.nextInt(escenario.cuentas.length)];
+            if (origen == destino) {
+                destino = escenario.cuentas[0] == origen ? escenario.cuentas[1] : escenario.cuentas[0];
+            }
+            String cuerpo = "{\"origen\": " + origen + ", \"destino\": " + destino + ", \"monto\": 0}";
+            return "POST /transferencias HTTP/1.1\r\nHost: " + host + "\r\nContent-Type: application/json\r\nContent-Length: "
+                    + cuerpo.length() + "\r\n\r\n" + cuerpo;
+        }
+
+        // Devuelve el código de estado si ya llegaron los encabezados y todo el cuerpo, si no 0
+        private static int respuestaCompleta(ByteBuffer lectura) {
+            byte[] datos = lectura.array();
+            int leidos = lectura.position();
+            int finEncabezados = indiceDe(datos, leidos, FIN_ENCABEZADOS);
+            if (finEncabezados < 0) {
+                return 0;
+            }
+            String encabezados = new String(datos, 0, finEncabezados, StandardCharsets.US_ASCII);
+            int largo = 0;
+            for (String linea : encabezados.split("\r\n")) {
+                if (linea.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                    largo = Integer.parseInt(linea.substring(15).trim());
+                }
+            }
+            if (leidos < finEncabezados + FIN_ENCABEZADOS.length + largo) {
+                return 0;
+            }
+            return Integer.parseInt(encabezados.substring(9, 12));
+        }
+
+        private static int indiceDe(byte[] datos, int largo, byte[] buscado) {
+            for (int i = 0; i <= largo - buscado.length; i++) {
+                int j = 0;
+                while (j < buscado.length && datos[i + j] == buscado[j]) {
+                    j++;
+                }
+                if (j == buscado.length) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static final class Resultados {
+        private long[] latencias = new long[1 << 20];
+        private int cantidad;
+        private final TreeMap<Integer, Integer> porCodigo = new TreeMap<>();
+        int reconexiones;
+
+        void registrar(int codigo, long nanos) {
+            if (cantidad == latencias.length) {
+                latencias = Arrays.copyOf(latencias, cantidad * 2);
+            }
+            latencias[cantidad++] = nanos;
+            porCodigo.merge(codigo, 1, Integer::sum);
+        }
+
+        void imprimir(int conexiones, int segundos) {
+            long[] ordenadas = Arrays.copyOf(latencias, cantidad);
+            Arrays.sort(ordenadas);
+            System.out.printf("Conexiones: %d, pedidos: %d, %.0f pedidos/s, reconexiones: %d%n",
+                    conexiones, cantidad, cantidad / (double) segundos, reconexiones);
+            System.out.println("Códigos: " + porCodigo);
+            if (cantidad == 0) {
+                return;
+            }
+            System.out.printf("Latencia (ms): p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  máx %.2f%n",
+                    percentil(ordenadas, 0.50), percentil(ordenadas, 0.90), percentil(ordenadas, 0.99),
+                    percentil(ordenadas, 0.999), ordenadas[ordenadas.length - 1] / 1e6);
+        }
+
+        private static double percentil(long[] ordenadas, double p) {
+            int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+            return ordenadas[Math.max(0, indice)] / 1e6;
+        }
+    }
+}
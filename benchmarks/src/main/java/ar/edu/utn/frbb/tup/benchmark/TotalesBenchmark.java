@@ -0,0 +1,57 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.TotalesCuentas;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.Foto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Saldos totales por tipo de cuenta y moneda, una suma completa por operación: "columnas" suma los arreglos de
+// saldos y códigos de CuentaDao.getTotales; "filas" recorre cada CuentaEntity de la tabla a través de una foto.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class TotalesBenchmark {
+
+    private CuentaDao cuentaDao;
+
+    @Setup(Level.Trial)
+    public void setup(Dataset dataset) {
+        cuentaDao = dataset.getBean(CuentaDao.class);
+    }
+
+    @Benchmark
+    public TotalesCuentas columnas() {
+        return cuentaDao.getTotales();
+    }
+
+    @Benchmark
+    public TotalesCuentas filas() {
+        long[] saldos = new long[TotalesCuentas.COMBINACIONES];
+        long[] cantidades = new long[TotalesCuentas.COMBINACIONES];
+        try (Foto foto = Foto.abrir()) {
+            cuentaDao.recorrer(foto, (numero, cuenta) -> {
+                if (cuenta.getTipoCuenta() != null && cuenta.getMoneda() != null) {
+                    int indice = TotalesCuentas.indice(cuenta.getTipoCuenta(), cuenta.getMoneda());
+                    saldos[indice] += cuenta.getBalance();
+                    cantidades[indice]++;
+                }
+            });
+        }
+        return new TotalesCuentas(saldos, cantidades);
+    }
+}
@@ -0,0 +1,75 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.NoAlcanzaException;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.service.TransferenciaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Transferencias entre pares de cuentas en pesos elegidos al azar. Al terminar se verifica
+// que la suma de los saldos no cambió: si cambia, el benchmark falla en lugar de informar un número.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class TransferenciaBenchmark {
+
+    private TransferenciaService transferenciaService;
+    private CuentaDao cuentaDao;
+    private long totalInicial;
+
+    @Setup(Level.Trial)
+    public void setup(Dataset dataset) {
+        transferenciaService = dataset.getBean(TransferenciaService.class);
+        cuentaDao = dataset.getBean(CuentaDao.class);
+        totalInicial = sumarSaldos(dataset);
+    }
+
+    @Benchmark
+    public boolean transferir(Dataset dataset) throws Throwable {
+        long[] cuentas = dataset.numerosCuentaEnPesos;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int origen = random.nextInt(cuentas.length);
+        int destino = random.nextInt(cuentas.length - 1);
+        if (destino >= origen) {
+            destino++;
+        }
+        try {
+            transferenciaService.transferir(cuentas[origen], cuentas[destino], 1 + random.nextInt(100));
+            return true;
+        } catch (NoAlcanzaException e) {
+            return false;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void verificarSaldos(Dataset dataset) {
+        long totalFinal = sumarSaldos(dataset);
+        if (totalFinal != totalInicial) {
+            throw new IllegalStateException("La suma de saldos cambió de " + totalInicial + " a " + totalFinal);
+        }
+    }
+
+    private long sumarSaldos(Dataset dataset) {
+        long total = 0;
+        for (long numeroCuenta : dataset.numerosCuentaEnPesos) {
+            total += cuentaDao.find(numeroCuenta).getBalance();
+        }
+        return total;
+    }
+}
@@ -1,19 +1,51 @@
 package ar.edu.utn.frbb.tup;
 
 import ar.edu.utn.frbb.tup.model.*;
+import ar.edu.utn.frbb.tup.persistence.PersistenceManager;
+import ar.edu.utn.frbb.tup.presentation.http.ApiServer;
 import ar.edu.utn.frbb.tup.presentation.input.MenuInputProcessor;
+import ar.edu.utn.frbb.tup.service.CobroSobregiros;
+import ar.edu.utn.frbb.tup.service.LiquidacionIntereses;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
 class Application {
 
-    public static void main(String args[]) {
+    public static void main(String args[]) throws IOException {
 
         ConfigurableApplicationContext applicationContext =
                 new AnnotationConfigApplicationContext(ApplicationConfig.class);
+        applicationContext.registerShutdownHook();
+
+        Path directorioDatos = Paths.get(System.getProperty("tup.data.dir", "data"));
+        PersistenceManager persistenceManager = applicationContext.getBean(PersistenceManager.class);
+        persistenceManager.iniciar(directorioDatos);
+        persistenceManager.programarSnapshots(Long.getLong("tup.snapshot.minutos", 10), TimeUnit.MINUTES);
+        int hilosBatch = Integer.getInteger("tup.batch.hilos", Runtime.getRuntime().availableProcessors());
+        applicationContext.getBean(LiquidacionIntereses.class).programar(
+                LocalTime.parse(System.getProperty("tup.interes.hora", "00:05")), directorioDatos.resolve("intereses.checkpoint"), hilosBatch);
+        applicationContext.getBean(CobroSobregiros.class).programar(
+                LocalTime.parse(System.getProperty("tup.sobregiro.hora", "00:15")), directorioDatos.resolve("sobregiros.checkpoint"), hilosBatch);
+
+        // Por defecto se levanta la API HTTP; con --menu se usa el menú de consola
+        if (args.length > 0 && "--menu".equals(args[0])) {
+            MenuInputProcessor processor = applicationContext.getBean(MenuInputProcessor.class);
+            processor.renderMenu();
+            return;
+        }
 
-        MenuInputProcessor processor = applicationContext.getBean(MenuInputProcessor.class);
-        processor.renderMenu();
+        ApiServer apiServer = applicationContext.getBean(ApiServer.class);
+        InetSocketAddress direccion = apiServer.iniciar(
+                new InetSocketAddress(System.getProperty("tup.http.host", "127.0.0.1"), Integer.getInteger("tup.http.puerto", 8080)),
+                Integer.getInteger("tup.http.hilos", Runtime.getRuntime().availableProcessors() * 4));
+        System.out.println("API HTTP escuchando en http://" + direccion.getHostString() + ":" + direccion.getPort());
     }
 
 
@@ -1,6 +1,8 @@
 package ar.edu.utn.frbb.tup;
 
 
+import ar.edu.utn.frbb.tup.metricas.RegistroMetricas;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
@@ -8,4 +10,9 @@ import org.springframework.context.annotation.Configuration;
 @ComponentScan
 public class ApplicationConfig {
 
+    // Un único registro para toda la aplicación: servicios, DAOs y ejecutor publican ahí sus métricas
+    @Bean
+    public RegistroMetricas registroMetricas() {
+        return new RegistroMetricas();
+    }
 }
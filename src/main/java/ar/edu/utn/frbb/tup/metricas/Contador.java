@@ -0,0 +1,21 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Contador sin locks: cada hilo suma en su propia celda y solo se juntan al leerlo
+public class Contador {
+
+    private final LongAdder valor = new LongAdder();
+
+    public void incrementar() {
+        valor.increment();
+    }
+
+    public void sumar(long cantidad) {
+        valor.add(cantidad);
+    }
+
+    public long getValor() {
+        return valor.sum();
+    }
+}
@@ -0,0 +1,114 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en nanosegundos, al estilo de HdrHistogram: cubetas log-lineales con 32 subcubetas
+ * por potencia de 2, así que cualquier percentil sale con un error relativo menor al 3% sin guardar las
+ * muestras. Registrar es un incremento atómico sobre un arreglo fijo (sin locks ni alocación).
+ */
+public class Histograma {
+
+    private static final int BITS_SUBCUBETA = 5;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int CUBETAS = (64 - BITS_SUBCUBETA) * SUBCUBETAS;
+
+    public static class Resumen {
+        private final long cantidad;
+        private final long suma;
+        private final long maximo;
+        private final long[] cuentas;
+
+        Resumen(long[] cuentas, long cantidad, long suma, long maximo) {
+            this.cuentas = cuentas;
+            this.cantidad = cantidad;
+            this.suma = suma;
+            this.maximo = maximo;
+        }
+
+        public long getCantidad() {
+            return cantidad;
+        }
+
+        public double getPromedio() {
+            return cantidad == 0 ? 0 : (double) suma / cantidad;
+        }
+
+        public long getMaximo() {
+            return maximo;
+        }
+
+        // Valor por debajo del cual cae la fracción p (0..1) de las muestras
+        public long getPercentil(double p) {
+            if (cantidad == 0) {
+                return 0;
+            }
+            long objetivo = Math.max(1, (long) Math.ceil(p * cantidad));
+            long acumulado = 0;
+            for (int i = 0; i < cuentas.length; i++) {
+                acumulado += cuentas[i];
+                if (acumulado >= objetivo) {
+                    return Math.min(maximoDeCubeta(i), maximo);
+                }
+            }
+            return maximo;
+        }
+
+        @Override
+        public String toString() {
+            return "Resumen{" +
+                    "cantidad=" + cantidad +
+                    ", promedio=" + String.format("%.0f", getPromedio()) +
+                    ", p50=" + getPercentil(0.50) +
+                    ", p99=" + getPercentil(0.99) +
+                    ", maximo=" + maximo +
+                    '}';
+        }
+    }
+
+    private final AtomicLongArray cuentas = new AtomicLongArray(CUBETAS);
+    private final LongAdder suma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    public void registrar(long valor) {
+        long v = Math.max(0, valor);
+        cuentas.incrementAndGet(cubeta(v));
+        suma.add(v);
+        maximo.accumulate(v);
+    }
+
+    public void registrarDesde(long inicioNanos) {
+        registrar(System.nanoTime() - inicioNanos);
+    }
+
+    // La cantidad sale de las cubetas copiadas, así los percentiles son coherentes con ella aunque se siga registrando
+    public Resumen getResumen() {
+        long[] copia = new long[CUBETAS];
+        long cantidad = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = cuentas.get(i);
+            cantidad += copia[i];
+        }
+        return new Resumen(copia, cantidad, suma.sum(), maximo.get());
+    }
+
+    // Los valores menores a 32 tienen cubeta propia; a partir de ahí cada potencia de 2 se parte en 32
+    static int cubeta(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int corrimiento = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUBCUBETA;
+        return (corrimiento << BITS_SUBCUBETA) + (int) (valor >>> corrimiento);
+    }
+
+    static long maximoDeCubeta(int cubeta) {
+        if (cubeta < SUBCUBETAS) {
+            return cubeta;
+        }
+        int corrimiento = (cubeta >> BITS_SUBCUBETA) - 1;
+        long mantisa = (cubeta & (SUBCUBETAS - 1)) | SUBCUBETAS;
+        return ((mantisa + 1) << corrimiento) - 1;
+    }
+}
@@ -0,0 +1,75 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Métricas de la aplicación por nombre: contadores, histogramas de latencia y medidores (valores que se
+ * calculan al leerlos, como el tamaño de una tabla). Los componentes crean sus instrumentos al construirse
+ * y los registran acá cuando Spring les inyecta el registro; fuera de Spring (tests, benchmarks)
+ * siguen midiendo igual, solo que nadie los publica.
+ */
+public class RegistroMetricas {
+
+    private final ConcurrentMap<String, Contador> contadores = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histograma> histogramas = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Temporizador> temporizadores = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongSupplier> medidores = new ConcurrentHashMap<>();
+
+    public void registrar(String nombre, Contador contador) {
+        contadores.put(nombre, contador);
+    }
+
+    public void registrar(String nombre, Histograma histograma) {
+        histogramas.put(nombre, histograma);
+    }
+
+    public void registrar(String nombre, Temporizador temporizador) {
+        temporizadores.put(nombre, temporizador);
+    }
+
+    public void registrar(String nombre, LongSupplier medidor) {
+        medidores.put(nombre, medidor);
+    }
+
+    public Contador contador(String nombre) {
+        return contadores.computeIfAbsent(nombre, n -> new Contador());
+    }
+
+    public Histograma histograma(String nombre) {
+        return histogramas.computeIfAbsent(nombre, n -> new Histograma());
+    }
+
+    // Foto de todas las métricas ordenadas por nombre; las latencias van en microsegundos
+    public Map<String, Object> volcar() {
+        Map<String, Object> foto = new TreeMap<>();
+        contadores.forEach((nombre, contador) -> foto.put(nombre, contador.getValor()));
+        medidores.forEach((nombre, medidor) -> foto.put(nombre, medidor.getAsLong()));
+        histogramas.forEach((nombre, histograma) -> foto.put(nombre, volcar(histograma.getResumen(), new LinkedHashMap<>())));
+        temporizadores.forEach((nombre, temporizador) -> {
+            Map<String, Object> valores = new LinkedHashMap<>();
+            valores.put("llamadas", temporizador.getLlamadas());
+            foto.put(nombre, volcar(temporizador.getResumen(), valores));
+        });
+        return foto;
+    }
+
+    private static Map<String, Object> volcar(Histograma.Resumen resumen, Map<String, Object> valores) {
+        valores.put("cantidad", resumen.getCantidad());
+        valores.put("promedioMicros", micros(Math.round(resumen.getPromedio())));
+        valores.put("p50Micros", micros(resumen.getPercentil(0.50)));
+        valores.put("p90Micros", micros(resumen.getPercentil(0.90)));
+        valores.put("p99Micros", micros(resumen.getPercentil(0.99)));
+        valores.put("p999Micros", micros(resumen.getPercentil(0.999)));
+        valores.put("maximoMicros", micros(resumen.getMaximo()));
+        return valores;
+    }
+
+    private static double micros(long nanos) {
+        return Math.round(nanos / 100.0) / 10.0;
+    }
+}
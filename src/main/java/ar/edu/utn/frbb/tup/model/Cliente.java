@@ -2,9 +2,12 @@ package ar.edu.utn.frbb.tup.model;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 public class Cliente extends Persona{
 
@@ -13,6 +16,14 @@ public class Cliente extends Persona{
     private LocalDate fechaAlta;
     private Set<Cuenta> cuentas = new HashSet<>();
 
+    // Cuentas ya guardadas que todavía no se cargaron (ver setCuentasSinCargar). Mientras estén pendientes,
+    // cuentas solo tiene las agregadas con addCuenta y tieneCuenta responde con el resumen de tipos
+    private Supplier<? extends Collection<Cuenta>> cargadorCuentas;
+    private long[] numerosCuentaSinCargar;
+    private int resumenTiposSinCargar;
+    // Versión de la fila de la que se leyó (0 si no se leyó de ClienteDao), para guardarlo con compare-and-set
+    private long version;
+
     public TipoPersona getTipoPersona() {
         return tipoPersona;
     }
@@ -37,16 +48,111 @@ public class Cliente extends Persona{
         this.fechaAlta = fechaAlta;
     }
 
-    public Set<Cuenta> getCuentas() {
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    // Bit de una combinación tipo de cuenta / moneda dentro del resumen de tipos de un cliente
+    public static int marcaTipo(TipoCuenta tipoCuenta, TipoMoneda moneda) {
+        if (tipoCuenta == null || moneda == null) {
+            return 0;
+        }
+        return 1 << (tipoCuenta.ordinal() * TipoMoneda.values().length + moneda.ordinal());
+    }
+
+    // Las cuentas ya guardadas se cargan recién cuando se piden. numerosCuenta y resumenTipos (las marcaTipo
+    // de esas cuentas) alcanzan para guardar el cliente y para tieneCuenta sin cargarlas.
+    public synchronized void setCuentasSinCargar(long[] numerosCuenta, int resumenTipos, Supplier<? extends Collection<Cuenta>> cargador) {
+        this.numerosCuentaSinCargar = numerosCuenta;
+        this.resumenTiposSinCargar = resumenTipos;
+        this.cargadorCuentas = cargador;
+    }
+
+    public synchronized boolean cuentasCargadas() {
+        return cargadorCuentas == null;
+    }
+
+    public synchronized Set<Cuenta> getCuentas() {
+        if (cargadorCuentas != null) {
+            Set<Long> agregadas = new HashSet<>();
+            for (Cuenta cuenta : cuentas) {
+                agregadas.add(cuenta.getNumeroCuenta());
+            }
+            for (Cuenta cuenta : cargadorCuentas.get()) {
+                if (!agregadas.contains(cuenta.getNumeroCuenta())) {
+                    cuentas.add(cuenta);
+                    cuenta.setTitular(this);
+                }
+            }
+            cargadorCuentas = null;
+            numerosCuentaSinCargar = null;
+            resumenTiposSinCargar = 0;
+        }
         return cuentas;
     }
 
-    public void addCuenta(Cuenta cuenta) {
+    // Números de todas las cuentas del cliente, sin cargar las pendientes
+    public synchronized long[] getNumerosCuenta() {
+        long[] pendientes = cargadorCuentas == null ? new long[0] : numerosCuentaSinCargar;
+        long[] numeros = new long[pendientes.length + cuentas.size()];
+        System.arraycopy(pendientes, 0, numeros, 0, pendientes.length);
+        int i = pendientes.length;
+        for (Cuenta cuenta : cuentas) {
+            long numero = cuenta.getNumeroCuenta();
+            boolean repetida = false;
+            for (long pendiente : pendientes) {
+                if (pendiente == numero) {
+                    repetida = true;
+                    break;
+                }
+            }
+            if (!repetida) {
+                numeros[i++] = numero;
+            }
+        }
+        return i == numeros.length ? numeros : Arrays.copyOf(numeros, i);
+    }
+
+    public synchronized void addCuenta(Cuenta cuenta) {
         this.cuentas.add(cuenta);
         cuenta.setTitular(this);
     }
 
-    public boolean tieneCuenta(TipoCuenta tipoCuenta, TipoMoneda moneda) {
+    // Saca una cuenta agregada que no se llegó a guardar, sin cargar las pendientes. Un cliente tiene a lo sumo una
+    // cuenta de cada tipo y moneda, así que la marca de ese tipo se puede borrar del resumen
+    public synchronized void quitarCuenta(Cuenta cuenta) {
+        long numero = cuenta.getNumeroCuenta();
+        cuentas.removeIf(agregada -> agregada.getNumeroCuenta() == numero);
+        if (cargadorCuentas != null) {
+            long[] restantes = new long[numerosCuentaSinCargar.length];
+            int i = 0;
+            for (long pendiente : numerosCuentaSinCargar) {
+                if (pendiente != numero) {
+                    restantes[i++] = pendiente;
+                }
+            }
+            numerosCuentaSinCargar = i == restantes.length ? restantes : Arrays.copyOf(restantes, i);
+            resumenTiposSinCargar &= ~marcaTipo(cuenta.getTipoCuenta(), cuenta.getMoneda());
+        }
+    }
+
+    // OR de marcaTipo de todas las cuentas del cliente, sin cargar las pendientes
+    public synchronized int getResumenTipos() {
+        int resumen = cargadorCuentas != null ? resumenTiposSinCargar : 0;
+        for (Cuenta cuenta : cuentas) {
+            resumen |= marcaTipo(cuenta.getTipoCuenta(), cuenta.getMoneda());
+        }
+        return resumen;
+    }
+
+    public synchronized boolean tieneCuenta(TipoCuenta tipoCuenta, TipoMoneda moneda) {
+        if (cargadorCuentas != null && (resumenTiposSinCargar & marcaTipo(tipoCuenta, moneda)) != 0) {
+            return true;
+        }
         for (Cuenta cuenta: cuentas) {
             if (tipoCuenta.equals(cuenta.getTipoCuenta()) && moneda.equals(cuenta.getMoneda())) {
                 return true;
@@ -61,7 +167,7 @@ public class Cliente extends Persona{
                 "tipoPersona=" + tipoPersona +
                 ", banco='" + banco + '\'' +
                 ", fechaAlta=" + fechaAlta +
-                ", cuentas=" + cuentas +
+                ", cuentas=" + getCuentas() +
                 '}';
     }
 }
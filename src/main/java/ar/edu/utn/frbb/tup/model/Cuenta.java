@@ -1,22 +1,37 @@
 package ar.edu.utn.frbb.tup.model;
 
 import java.time.LocalDateTime;
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 public class Cuenta {
+    // El balance se guarda en unidades menores (centavos) y se modifica solo por CAS,
+    // sin locks ni objetos intermedios (un AtomicLong por cuenta sumaría una alocación más)
+    private static final AtomicLongFieldUpdater<Cuenta> BALANCE =
+            AtomicLongFieldUpdater.newUpdater(Cuenta.class, "balance");
+
     private long numeroCuenta;
+    // true si el número lo dio NumeradorCuentas: es único y no hace falta buscar si ya existe
+    private boolean numeroAsignado;
     LocalDateTime fechaCreacion;
-    int balance;
+    private volatile long balance;
     TipoCuenta tipoCuenta;
     Cliente titular;
     TipoMoneda moneda;
+    // Versión de la fila de la que se leyó (0 si no se leyó de CuentaDao), para guardarla con compare-and-set
+    private long version;
 
     public Cuenta() {
-        this.numeroCuenta = new Random().nextLong();
+        this.numeroCuenta = NumeradorCuentas.siguiente();
+        this.numeroAsignado = true;
         this.balance = 0;
         this.fechaCreacion = LocalDateTime.now();
     }
 
+    //Para reconstruir una cuenta que ya existe: no consume un número nuevo
+    public Cuenta(long numeroCuenta) {
+        this.numeroCuenta = numeroCuenta;
+    }
+
     public Cliente getTitular() {
         return titular;
     }
@@ -54,37 +69,64 @@ public class Cuenta {
         return this;
     }
 
-    public int getBalance() {
+    public long getBalance() {
         return balance;
     }
 
-    public Cuenta setBalance(int balance) {
+    public Cuenta setBalance(long balance) {
         this.balance = balance;
         return this;
     }
 
-    public void debitarDeCuenta(int cantidadADebitar) throws NoAlcanzaException, CantidadNegativaException {
+    public void debitarDeCuenta(long cantidadADebitar) throws NoAlcanzaException, CantidadNegativaException {
         if (cantidadADebitar < 0) {
             throw new CantidadNegativaException();
         }
 
-        if (balance < cantidadADebitar) {
-            throw new NoAlcanzaException();
+        long actual;
+        do {
+            actual = balance;
+            if (actual < cantidadADebitar) {
+                throw new NoAlcanzaException();
+            }
+        } while (!BALANCE.compareAndSet(this, actual, actual - cantidadADebitar));
+    }
+
+    public void acreditarEnCuenta(long cantidadAAcreditar) throws CantidadNegativaException {
+        if (cantidadAAcreditar < 0) {
+            throw new CantidadNegativaException();
         }
-        this.balance = this.balance - cantidadADebitar;
+
+        long actual;
+        do {
+            actual = balance;
+        } while (!BALANCE.compareAndSet(this, actual, Math.addExact(actual, cantidadAAcreditar)));
     }
 
     public void setNumeroCuenta(long numeroCuenta) {
         this.numeroCuenta = numeroCuenta;
+        this.numeroAsignado = false;
+    }
+
+    public boolean isNumeroAsignado() {
+        return numeroAsignado;
     }
 
-    public void forzaDebitoDeCuenta(int i) {
-        this.balance = this.balance - i;
+    public void forzaDebitoDeCuenta(long i) {
+        BALANCE.addAndGet(this, -i);
     }
 
     public long getNumeroCuenta() {
         return numeroCuenta;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
 
 }
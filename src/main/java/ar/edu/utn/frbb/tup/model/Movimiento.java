@@ -0,0 +1,67 @@
+package ar.edu.utn.frbb.tup.model;
+
+import java.time.LocalDateTime;
+
+// Un movimiento ya registrado en el libro de una cuenta. El índice es su posición en el libro (0, 1, 2...)
+// y el saldo es el de la cuenta inmediatamente después del movimiento.
+public class Movimiento {
+    private final long numeroCuenta;
+    private final long indice;
+    private final LocalDateTime fecha;
+    private final TipoMovimiento tipo;
+    private final long monto;
+    private final long saldo;
+    private final long cuentaContraparte;
+
+    public Movimiento(long numeroCuenta, long indice, LocalDateTime fecha, TipoMovimiento tipo, long monto, long saldo, long cuentaContraparte) {
+        this.numeroCuenta = numeroCuenta;
+        this.indice = indice;
+        this.fecha = fecha;
+        this.tipo = tipo;
+        this.monto = monto;
+        this.saldo = saldo;
+        this.cuentaContraparte = cuentaContraparte;
+    }
+
+    public long getNumeroCuenta() {
+        return numeroCuenta;
+    }
+
+    public long getIndice() {
+        return indice;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    public TipoMovimiento getTipo() {
+        return tipo;
+    }
+
+    public long getMonto() {
+        return monto;
+    }
+
+    public long getSaldo() {
+        return saldo;
+    }
+
+    // 0 si el movimiento no tiene otra cuenta involucrada
+    public long getCuentaContraparte() {
+        return cuentaContraparte;
+    }
+
+    @Override
+    public String toString() {
+        return "Movimiento{" +
+                "numeroCuenta=" + numeroCuenta +
+                ", indice=" + indice +
+                ", fecha=" + fecha +
+                ", tipo=" + tipo +
+                ", monto=" + monto +
+                ", saldo=" + saldo +
+                ", cuentaContraparte=" + cuentaContraparte +
+                '}';
+    }
+}
@@ -0,0 +1,98 @@
+package ar.edu.utn.frbb.tup.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Números de cuenta únicos y crecientes. Cada hilo toma un bloque de números y los entrega sin
+ * sincronizarse con nadie; solo al agotar el bloque pide otro al contador compartido.
+ * <p>
+ * Los bloques salen de una reserva cuyo límite se persiste (ver PersistenceManager) antes de
+ * entregar cualquier número de ella: después de un reinicio se sigue desde ese límite, así
+ * nunca se repite un número aunque se pierdan los que quedaron sin usar.
+ */
+public final class NumeradorCuentas {
+
+    public static final long PRIMER_NUMERO = 1;
+    static final int NUMEROS_POR_BLOQUE = 1024;
+    static final long NUMEROS_POR_RESERVA = 1 << 20;
+
+    private static final class Bloque {
+        long siguiente;
+        long fin;
+        long generacion = -1;
+    }
+
+    private static final ThreadLocal<Bloque> BLOQUES = ThreadLocal.withInitial(Bloque::new);
+    private static final AtomicLong siguienteBloque = new AtomicLong(PRIMER_NUMERO);
+    private static final Object lockReserva = new Object();
+    private static volatile long limiteReservado = Long.MAX_VALUE;
+    // Cambia en cada reinicio: los bloques tomados antes dejan de usarse
+    private static volatile long generacion;
+    private static LongConsumer persistencia;
+
+    private NumeradorCuentas() {
+    }
+
+    public static long siguiente() {
+        Bloque bloque = BLOQUES.get();
+        if (bloque.siguiente == bloque.fin || bloque.generacion != generacion) {
+            tomarBloque(bloque);
+        }
+        return bloque.siguiente++;
+    }
+
+    /**
+     * Continúa la numeración a partir de limitePersistido (el último límite guardado) y guarda cada
+     * límite nuevo con persistencia antes de usarlo. Nunca retrocede: si en este proceso ya se
+     * entregaron números más altos, sigue desde ahí.
+     */
+    public static void iniciar(long limitePersistido, LongConsumer persistencia) {
+        synchronized (lockReserva) {
+            NumeradorCuentas.persistencia = persistencia;
+            long desde = Math.max(siguienteBloque.get(), limitePersistido);
+            siguienteBloque.set(desde);
+            limiteReservado = desde;
+            generacion++;
+        }
+    }
+
+    // Deja de persistir el límite (por ejemplo al detener la persistencia); la numeración sigue en memoria
+    public static void sinPersistencia() {
+        synchronized (lockReserva) {
+            persistencia = null;
+            limiteReservado = Long.MAX_VALUE;
+        }
+    }
+
+    // Se asegura de no volver a entregar números menores a minimo (por ejemplo cuentas ya cargadas). El número
+    // importado puede estar en un bloque que algún hilo ya tomó: se descartan todos los bloques tomados
+    public static void avanzarHasta(long minimo) {
+        siguienteBloque.accumulateAndGet(minimo, Math::max);
+        synchronized (lockReserva) {
+            generacion++;
+        }
+    }
+
+    private static void tomarBloque(Bloque bloque) {
+        long generacionActual = generacion;
+        long inicio = siguienteBloque.getAndAdd(NUMEROS_POR_BLOQUE);
+        long fin = inicio + NUMEROS_POR_BLOQUE;
+        if (fin > limiteReservado) {
+            ampliarReserva(fin);
+        }
+        bloque.siguiente = inicio;
+        bloque.fin = fin;
+        bloque.generacion = generacionActual;
+    }
+
+    private static void ampliarReserva(long hasta) {
+        synchronized (lockReserva) {
+            if (hasta > limiteReservado) {
+                long nuevoLimite = hasta + NUMEROS_POR_RESERVA;
+                persistencia.accept(nuevoLimite);
+                limiteReservado = nuevoLimite;
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package ar.edu.utn.frbb.tup.model;
+
+import java.util.Collections;
+import java.util.List;
+
+// Una página de un extracto. Para pedir la siguiente se pasa getSiguiente() como cursor; -1 si no hay más
+public class PaginaMovimientos {
+    private final List<Movimiento> movimientos;
+    private final long siguiente;
+
+    public PaginaMovimientos(List<Movimiento> movimientos, long siguiente) {
+        this.movimientos = Collections.unmodifiableList(movimientos);
+        this.siguiente = siguiente;
+    }
+
+    public List<Movimiento> getMovimientos() {
+        return movimientos;
+    }
+
+    public long getSiguiente() {
+        return siguiente;
+    }
+
+    public boolean hayMas() {
+        return siguiente >= 0;
+    }
+}
@@ -0,0 +1,22 @@
+package ar.edu.utn.frbb.tup.model;
+
+// Se persiste por ordinal (ver persistence.entity): agregar valores nuevos solo al final
+public enum TipoMovimiento {
+    TRANSFERENCIA_ENVIADA(-1),
+    TRANSFERENCIA_RECIBIDA(1),
+    // Acreditado por LiquidacionIntereses; la contraparte es el día liquidado (epoch-day), no una cuenta
+    INTERES(1),
+    // Debitado por CobroSobregiros; la contraparte es el día cobrado (epoch-day)
+    COMISION(-1);
+
+    // Cómo afecta al saldo: los montos se guardan siempre positivos
+    private final int signo;
+
+    TipoMovimiento(int signo) {
+        this.signo = signo;
+    }
+
+    public int getSigno() {
+        return signo;
+    }
+}
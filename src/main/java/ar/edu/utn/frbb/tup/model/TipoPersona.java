@@ -1,5 +1,6 @@
 package ar.edu.utn.frbb.tup.model;
 
+// Se persiste por ordinal (ver persistence.entity): agregar valores nuevos solo al final
 public enum TipoPersona {
 
     PERSONA_FISICA("F"),
@@ -0,0 +1,45 @@
+package ar.edu.utn.frbb.tup.model;
+
+// Saldos sumados (en centavos) y cantidad de cuentas por tipo de cuenta y moneda
+public class TotalesCuentas {
+
+    private static final int MONEDAS = TipoMoneda.values().length;
+    public static final int COMBINACIONES = TipoCuenta.values().length * MONEDAS;
+
+    // Por combinación, en la posición indice(tipoCuenta, moneda)
+    private final long[] saldos;
+    private final long[] cantidades;
+
+    public TotalesCuentas(long[] saldos, long[] cantidades) {
+        this.saldos = saldos.clone();
+        this.cantidades = cantidades.clone();
+    }
+
+    public static int indice(TipoCuenta tipoCuenta, TipoMoneda moneda) {
+        return tipoCuenta.ordinal() * MONEDAS + moneda.ordinal();
+    }
+
+    public long getSaldo(TipoCuenta tipoCuenta, TipoMoneda moneda) {
+        return saldos[indice(tipoCuenta, moneda)];
+    }
+
+    public long getSaldo(TipoMoneda moneda) {
+        long total = 0;
+        for (TipoCuenta tipoCuenta : TipoCuenta.values()) {
+            total += getSaldo(tipoCuenta, moneda);
+        }
+        return total;
+    }
+
+    public long getCantidad(TipoCuenta tipoCuenta, TipoMoneda moneda) {
+        return cantidades[indice(tipoCuenta, moneda)];
+    }
+
+    public long getCantidad() {
+        long total = 0;
+        for (long cantidad : cantidades) {
+            total += cantidad;
+        }
+        return total;
+    }
+}
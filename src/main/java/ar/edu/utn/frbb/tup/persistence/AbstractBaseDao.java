@@ -1,16 +1,281 @@
 package ar.edu.utn.frbb.tup.persistence;
 
-import java.util.HashMap;
-import java.util.Map;
+import ar.edu.utn.frbb.tup.metricas.RegistroMetricas;
+import ar.edu.utn.frbb.tup.persistence.collection.ConcurrentLongObjectMap;
+import ar.edu.utn.frbb.tup.persistence.collection.LongSet;
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+import ar.edu.utn.frbb.tup.persistence.lsm.TablaLsm;
+import ar.edu.utn.frbb.tup.persistence.wal.WriteAheadLog;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+public abstract class AbstractBaseDao<E extends BaseEntity> {
+    protected static final ConcurrentMap<String, ConcurrentLongObjectMap<? extends BaseEntity>> poorMansDatabase = new ConcurrentHashMap<>();
+    // null mientras no se haya iniciado la persistencia en disco (por ejemplo en los tests)
+    protected static volatile WriteAheadLog writeAheadLog;
+
+    // Versiones esperadas para guardar: la fila no existe / guardar sin comparar
+    public static final long SIN_VERSION = 0;
+    public static final long CUALQUIER_VERSION = -1;
+
+    // Locks por franja de claves, solo para el compare-and-set de guardar: se toman de a uno y solo mientras
+    // se compara, se registra en el log y se publica la fila. Dos saves de claves distintas casi nunca se cruzan
+    private static final int CANTIDAD_LOCKS = 1024;
+    private static final ReentrantLock[] locksPorClave = new ReentrantLock[CANTIDAD_LOCKS];
+
+    static {
+        for (int i = 0; i < CANTIDAD_LOCKS; i++) {
+            locksPorClave[i] = new ReentrantLock();
+        }
+    }
+
+    // Con -Dtup.lsm=true CLIENTE y CUENTA guardan sus filas en disco, en una TablaLsm por tabla
+    static final boolean LSM = Boolean.getBoolean("tup.lsm");
+
+    // Hasta esta cantidad de filas un put por fila sale más barato que agruparlas por segmento con putAll
+    private static final int PUT_DE_A_UNO = 8;
+
+    // Saves rechazados porque la fila ya no estaba en la versión esperada
+    private final LongAdder conflictos = new LongAdder();
 
-public abstract class AbstractBaseDao {
-    protected static Map<String, Map<Long, Object>> poorMansDatabase = new HashMap<>();
     protected abstract String getEntityName();
+    protected abstract byte getCodigoTabla();
 
-    protected Map<Long, Object> getInMemoryDatabase() {
-        if (poorMansDatabase.get(getEntityName()) == null) {
-            poorMansDatabase.put(getEntityName(),new HashMap<>());
+    @Autowired
+    void registrarMetricas(RegistroMetricas metricas) {
+        metricas.registrar("tabla." + getEntityName() + ".filas", () -> getInMemoryDatabase().size());
+        metricas.registrar("tabla." + getEntityName() + ".conflictos", conflictos::sum);
+        metricas.registrar("mvcc.fotosAbiertas", RelojVersiones::getFotosAbiertas);
+        metricas.registrar("mvcc.versionesAnteriores", RelojVersiones::getVersionesAnteriores);
+        if (getInMemoryDatabase() instanceof TablaLsm) {
+            TablaLsm<?> tabla = (TablaLsm<?>) getInMemoryDatabase();
+            String prefijo = "tabla." + getEntityName() + ".lsm.";
+            metricas.registrar(prefijo + "archivos", tabla::getArchivos);
+            metricas.registrar(prefijo + "bytesEnDisco", tabla::getBytesEnDisco);
+            metricas.registrar(prefijo + "bytesDeIndices", tabla::getBytesDeIndices);
+            metricas.registrar(prefijo + "filasEnMemoria", tabla::getFilasEnMemoria);
+            metricas.registrar(prefijo + "volcados", tabla::getVolcados);
+            metricas.registrar(prefijo + "compactaciones", tabla::getCompactaciones);
         }
-        return poorMansDatabase.get(getEntityName());
+    }
+
+    public long getConflictos() {
+        return conflictos.sum();
+    }
+
+    @SuppressWarnings("unchecked")
+    protected ConcurrentLongObjectMap<E> getInMemoryDatabase() {
+        ConcurrentLongObjectMap<? extends BaseEntity> tabla = poorMansDatabase.get(getEntityName());
+        if (tabla == null) {
+            // computeIfAbsent crea la tabla una sola vez aunque varios hilos lleguen juntos
+            tabla = poorMansDatabase.computeIfAbsent(getEntityName(), nombre -> crearTabla());
+        }
+        return (ConcurrentLongObjectMap<E>) tabla;
+    }
+
+    // La tabla es compartida: la crea el primer DAO que la usa
+    protected ConcurrentLongObjectMap<E> crearTabla() {
+        return new ConcurrentLongObjectMap<>();
+    }
+
+    // Carpeta -Dtup.lsm.dir/<tabla> (por defecto en el directorio temporal) y -Dtup.lsm.filasEnMemoria filas en
+    // memoria antes de volcar. Los archivos no son una copia durable: al arrancar se llenan desde el snapshot y el log
+    protected ConcurrentLongObjectMap<E> crearTablaLsm(Function<ByteBuffer, E> decodificar) {
+        Path directorio = Paths.get(System.getProperty("tup.lsm.dir",
+                Paths.get(System.getProperty("java.io.tmpdir"), "tup-lsm").toString())).resolve(getEntityName());
+        try {
+            return new TablaLsm<>(getEntityName(), directorio, decodificar, Integer.getInteger("tup.lsm.filasEnMemoria", 1 << 18));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear la tabla " + getEntityName() + " en " + directorio, e);
+        }
+    }
+
+    // Se registra en el log antes de tocar la tabla en memoria: si el proceso se cae,
+    // todo lo que llegó a verse en memoria se puede reconstruir desde el log
+    protected void registrarEnLog(Collection<E> entities) {
+        WriteAheadLog wal = writeAheadLog;
+        if (wal == null) {
+            return;
+        }
+        List<byte[]> registros = new ArrayList<>(entities.size());
+        for (E entity : entities) {
+            byte[] registro = new byte[entity.encodedSize()];
+            entity.encode(ByteBuffer.wrap(registro));
+            registros.add(registro);
+        }
+        wal.appendAll(getCodigoTabla(), registros);
+    }
+
+    /**
+     * Guarda la fila solo si la actual sigue en {@code versionEsperada} ({@link #SIN_VERSION} si no debe existir,
+     * {@link #CUALQUIER_VERSION} para no comparar), le asigna la versión siguiente y la publica. Devuelve false
+     * sin tocar nada si otro la guardó antes; quien llama vuelve a leer y reintenta.
+     * <p>
+     * La comparación, el registro en el log y el put se hacen con el lock de la clave, así el orden del log es
+     * el mismo en que se publican las filas y las versiones de una clave siempre crecen. Los saves masivos
+     * ({@link #publicar}) no lo toman: se usan donde nadie más escribe esas claves al mismo tiempo. Las altas
+     * masivas, que sí compiten con otras altas, pasan por {@link #insertar}.
+     */
+    protected boolean guardar(E entity, long versionEsperada) {
+        ConcurrentLongObjectMap<E> tabla = getInMemoryDatabase();
+        long id = entity.getId();
+        // Rechazo sin lock: las versiones solo crecen, si ya no coincide no va a volver a coincidir
+        if (versionEsperada != CUALQUIER_VERSION && versionDe(tabla.get(id)) != versionEsperada) {
+            conflictos.increment();
+            return false;
+        }
+        ReentrantLock lock = locksPorClave[indiceLock(id)];
+        lock.lock();
+        try {
+            E anterior = tabla.get(id);
+            long actual = versionDe(anterior);
+            if (versionEsperada != CUALQUIER_VERSION && actual != versionEsperada) {
+                conflictos.increment();
+                return false;
+            }
+            registrarEnLog(Collections.singletonList(entity));
+            int lugar = RelojVersiones.comenzarEscritura();
+            try {
+                entity.setVersion(RelojVersiones.instante(lugar));
+                entity.setAnterior(anterior);
+                tabla.put(id, entity);
+            } finally {
+                RelojVersiones.terminarEscritura(lugar);
+            }
+            RelojVersiones.publicada(entity);
+            despuesDeGuardar(anterior, entity);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Alta masiva condicional: guarda solo las filas cuya clave no existe (como {@link #guardar} con
+     * {@link #SIN_VERSION}) y devuelve cuáles guardó. Las claves repetidas dentro del lote se guardan una vez.
+     * <p>
+     * Toma los locks de todas las claves del lote en orden creciente, así que no se traba con otra alta masiva ni
+     * con un {@link #guardar}; con los locks tomados compara, registra las filas nuevas en el log con un solo
+     * registro y las publica juntas.
+     */
+    protected boolean[] insertar(List<E> entities) {
+        int[] locks = new int[entities.size()];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = indiceLock(entities.get(i).getId());
+        }
+        Arrays.sort(locks);
+        for (int i = 0; i < locks.length; i++) {
+            if (i == 0 || locks[i] != locks[i - 1]) {
+                locksPorClave[locks[i]].lock();
+            }
+        }
+        try {
+            ConcurrentLongObjectMap<E> tabla = getInMemoryDatabase();
+            boolean[] guardadas = new boolean[entities.size()];
+            LongSet claves = new LongSet(entities.size());
+            List<E> nuevas = new ArrayList<>(entities.size());
+            for (int i = 0; i < entities.size(); i++) {
+                E entity = entities.get(i);
+                if (tabla.get(entity.getId()) == null && claves.add(entity.getId())) {
+                    guardadas[i] = true;
+                    nuevas.add(entity);
+                } else {
+                    conflictos.increment();
+                }
+            }
+            if (!nuevas.isEmpty()) {
+                registrarEnLog(nuevas);
+                publicar(nuevas, Collections.nCopies(nuevas.size(), null));
+                for (E entity : nuevas) {
+                    despuesDeGuardar(null, entity);
+                }
+            }
+            return guardadas;
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                if (i == 0 || locks[i] != locks[i - 1]) {
+                    locksPorClave[locks[i]].unlock();
+                }
+            }
+        }
+    }
+
+    // Se llama con el lock de la clave tomado, después de publicar la fila (índices, caches)
+    protected void despuesDeGuardar(E anterior, E nueva) {
+    }
+
+    /**
+     * Publica juntas filas ya registradas en el log, todas con el mismo instante: una foto las ve todas o
+     * ninguna. anteriores son las filas que reemplazan (null si no existían), leídas por quien llama.
+     */
+    protected void publicar(List<E> entities, List<E> anteriores) {
+        int lugar = RelojVersiones.comenzarEscritura();
+        try {
+            long instante = RelojVersiones.instante(lugar);
+            for (int i = 0; i < entities.size(); i++) {
+                entities.get(i).setVersion(instante);
+                entities.get(i).setAnterior(anteriores.get(i));
+            }
+            ConcurrentLongObjectMap<E> tabla = getInMemoryDatabase();
+            if (entities.size() <= PUT_DE_A_UNO) {
+                for (E entity : entities) {
+                    tabla.put(entity.getId(), entity);
+                }
+            } else {
+                tabla.putAll(entities, BaseEntity::getId);
+            }
+        } finally {
+            RelojVersiones.terminarEscritura(lugar);
+        }
+        for (E entity : entities) {
+            RelojVersiones.publicada(entity);
+        }
+    }
+
+    // Las filas recuperadas de disco no tienen historia: se ven desde cualquier foto
+    protected static void marcarRecuperada(BaseEntity entity) {
+        entity.setVersion(RelojVersiones.VERSION_RECUPERADA);
+    }
+
+    // La fila como la ve la foto, o null si no existía en su instante
+    protected E leer(Foto foto, long id) {
+        return foto.visible(getInMemoryDatabase().get(id));
+    }
+
+    /**
+     * Recorre la tabla como estaba en el instante de la foto, sin frenar las escrituras: las filas guardadas
+     * después salen con el valor que tenían y las creadas después no salen.
+     */
+    public void recorrer(Foto foto, ConcurrentLongObjectMap.LongObjectConsumer<? super E> consumer) {
+        getInMemoryDatabase().forEach((id, ultima) -> {
+            E fila = foto.visible(ultima);
+            if (fila != null) {
+                consumer.accept(id, fila);
+            }
+        });
+    }
+
+    private static long versionDe(BaseEntity entity) {
+        return entity != null ? entity.getVersion() : SIN_VERSION;
+    }
+
+    private int indiceLock(long id) {
+        long h = (id ^ ((long) getCodigoTabla() << 56)) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 54) & (CANTIDAD_LOCKS - 1);
     }
 }
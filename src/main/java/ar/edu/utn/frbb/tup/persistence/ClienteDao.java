@@ -1,38 +1,203 @@
 package ar.edu.utn.frbb.tup.persistence;
 
+import ar.edu.utn.frbb.tup.metricas.RegistroMetricas;
 import ar.edu.utn.frbb.tup.model.Cliente;
 import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.persistence.cache.ClienteCache;
+import ar.edu.utn.frbb.tup.persistence.collection.ConcurrentLongObjectMap;
+import ar.edu.utn.frbb.tup.persistence.collection.LongSet;
 import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Service
-public class ClienteDao extends AbstractBaseDao{
+public class ClienteDao extends AbstractBaseDao<ClienteEntity> {
+
+    static final byte CODIGO_TABLA = 1;
+
+    // Clientes completos ya armados, compartidos entre lecturas. Es estático como la base en memoria
+    // y se invalida en cada save de un cliente o de alguna de sus cuentas (ver CuentaDao).
+    static final ClienteCache clientesCompletos = new ClienteCache(
+            Integer.getInteger("tup.cache.clientes", 100_000),
+            Long.getLong("tup.cache.ttl.segundos", 300), TimeUnit.SECONDS);
 
     @Autowired
     CuentaDao cuentaDao;
 
     public Cliente find(long dni, boolean loadComplete) {
-        if (getInMemoryDatabase().get(dni) == null)
+        ClienteEntity entity = getInMemoryDatabase().get(dni);
+        if (entity == null)
             return null;
-        Cliente cliente =   ((ClienteEntity) getInMemoryDatabase().get(dni)).toCliente();
+        Cliente cliente = entity.toCliente();
         if (loadComplete) {
-            for (Cuenta cuenta :
-                    cuentaDao.getCuentasByCliente(dni)) {
-                cliente.addCuenta(cuenta);
+            // Las cuentas se cargan recién cuando se piden; el índice ya alcanza para guardar el cliente
+            // y para saber qué tipos de cuenta tiene. Se suman las de la fila que todavía no llegaron al
+            // índice (agregadas por otro save que aún no guardó la cuenta), así guardar no las pierde
+            CuentaDao.CuentasDelTitular delTitular = cuentaDao.getCuentasDelTitular(dni);
+            long[] numeros = delTitular != null ? unir(entity.getCuentas(), delTitular.numeros) : entity.getCuentas();
+            int resumenTipos = delTitular != null ? delTitular.resumenTipos : 0;
+            if (delTitular == null || numeros.length > delTitular.numeros.size()) {
+                // Los tipos de las que faltan en el índice solo están en el resumen de la fila
+                resumenTipos |= entity.getResumenTipos();
+            }
+            if (numeros.length > 0) {
+                cliente.setCuentasSinCargar(numeros, resumenTipos, () -> cuentaDao.getCuentasByCliente(dni));
             }
         }
         return cliente;
 
     }
 
+    private static long[] unir(long[] deLaFila, LongSet delIndice) {
+        int faltantes = 0;
+        for (long numero : deLaFila) {
+            if (!delIndice.contains(numero)) {
+                faltantes++;
+            }
+        }
+        long[] numeros = delIndice.toArray();
+        if (faltantes == 0) {
+            return numeros;
+        }
+        int i = numeros.length;
+        numeros = Arrays.copyOf(numeros, numeros.length + faltantes);
+        for (long numero : deLaFila) {
+            if (!delIndice.contains(numero)) {
+                numeros[i++] = numero;
+            }
+        }
+        return numeros;
+    }
+
+    // El cliente como estaba en el instante de la foto, con las cuentas que tenía entonces (ya cargadas)
+    public Cliente find(long dni, Foto foto) {
+        ClienteEntity entity = leer(foto, dni);
+        if (entity == null) {
+            return null;
+        }
+        Cliente cliente = entity.toCliente();
+        for (Cuenta cuenta : cuentaDao.getCuentasByCliente(dni, foto)) {
+            cliente.addCuenta(cuenta);
+        }
+        return cliente;
+    }
+
+    // Igual que find(dni, true) pero a través del cache: el cliente devuelto es compartido y no se
+    // debe modificar. Para modificarlo y guardarlo, usar find.
+    public Cliente findCompleto(long dni) {
+        return clientesCompletos.get(dni, clave -> find(clave, true));
+    }
+
+    public ClienteCache.Estadisticas getEstadisticasCache() {
+        return clientesCompletos.getEstadisticas();
+    }
+
+    @Override
+    @Autowired
+    void registrarMetricas(RegistroMetricas metricas) {
+        super.registrarMetricas(metricas);
+        metricas.registrar("cache.clientes.entradas", clientesCompletos::size);
+        metricas.registrar("cache.clientes.aciertos", () -> clientesCompletos.getEstadisticas().getAciertos());
+        metricas.registrar("cache.clientes.fallos", () -> clientesCompletos.getEstadisticas().getFallos());
+    }
+
+    @Override
+    protected ConcurrentLongObjectMap<ClienteEntity> crearTabla() {
+        return LSM ? crearTablaLsm(ClienteEntity::decode) : super.crearTabla();
+    }
+
+    public boolean exists(long dni) {
+        return getInMemoryDatabase().containsKey(dni);
+    }
+
     public void save(Cliente cliente) {
+        save(cliente, CUALQUIER_VERSION);
+    }
+
+    // Compare-and-set: guarda solo si el cliente sigue en versionEsperada (la de cliente.getVersion() si se
+    // leyó con find, SIN_VERSION para un alta). Si guarda, el cliente queda con la versión nueva
+    public boolean save(Cliente cliente, long versionEsperada) {
         ClienteEntity entity = new ClienteEntity(cliente);
+        if (!guardar(entity, versionEsperada)) {
+            return false;
+        }
+        cliente.setVersion(entity.getVersion());
+        return true;
+    }
+
+    @Override
+    protected void despuesDeGuardar(ClienteEntity anterior, ClienteEntity nueva) {
+        clientesCompletos.invalidar(nueva.getId());
+    }
+
+    public void saveAll(Collection<Cliente> clientes) {
+        List<ClienteEntity> entities = new ArrayList<>(clientes.size());
+        List<ClienteEntity> anteriores = new ArrayList<>(clientes.size());
+        for (Cliente cliente : clientes) {
+            ClienteEntity entity = new ClienteEntity(cliente);
+            entities.add(entity);
+            anteriores.add(getInMemoryDatabase().get(entity.getId()));
+        }
+        registrarEnLog(entities);
+        publicar(entities, anteriores);
+        int i = 0;
+        for (Cliente cliente : clientes) {
+            ClienteEntity entity = entities.get(i++);
+            cliente.setVersion(entity.getVersion());
+            clientesCompletos.invalidar(entity.getId());
+        }
+    }
+
+    // Alta masiva: guarda solo los clientes cuyo DNI no existe, comparando con el lock de cada DNI, así no pisa un
+    // alta concurrente del mismo DNI. Devuelve los que no guardó, en el orden en que vinieron
+    public List<Cliente> saveAllNuevos(Collection<Cliente> clientes) {
+        List<ClienteEntity> entities = new ArrayList<>(clientes.size());
+        for (Cliente cliente : clientes) {
+            entities.add(new ClienteEntity(cliente));
+        }
+        boolean[] guardados = insertar(entities);
+        List<Cliente> existentes = new ArrayList<>();
+        int i = 0;
+        for (Cliente cliente : clientes) {
+            if (guardados[i]) {
+                cliente.setVersion(entities.get(i).getVersion());
+            } else {
+                existentes.add(cliente);
+            }
+            i++;
+        }
+        return existentes;
+    }
+
+    void aplicarRecuperado(ClienteEntity entity) {
+        marcarRecuperada(entity);
         getInMemoryDatabase().put(entity.getId(), entity);
+        clientesCompletos.invalidar(entity.getId());
+    }
+
+    void aplicarRecuperados(List<ClienteEntity> entities) {
+        for (ClienteEntity entity : entities) {
+            marcarRecuperada(entity);
+        }
+        getInMemoryDatabase().putAll(entities, ClienteEntity::getId);
+        for (ClienteEntity entity : entities) {
+            clientesCompletos.invalidar(entity.getId());
+        }
     }
 
     @Override
     protected String getEntityName() {
         return "CLIENTE";
     }
+
+    @Override
+    protected byte getCodigoTabla() {
+        return CODIGO_TABLA;
+    }
 }
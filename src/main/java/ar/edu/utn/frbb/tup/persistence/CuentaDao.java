@@ -1,39 +1,328 @@
 package ar.edu.utn.frbb.tup.persistence;
 
+import ar.edu.utn.frbb.tup.metricas.RegistroMetricas;
+import ar.edu.utn.frbb.tup.metricas.Temporizador;
+import ar.edu.utn.frbb.tup.model.Cliente;
 import ar.edu.utn.frbb.tup.model.Cuenta;
-import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TotalesCuentas;
+import ar.edu.utn.frbb.tup.persistence.collection.ConcurrentLongObjectMap;
+import ar.edu.utn.frbb.tup.persistence.collection.LongSet;
 import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Service
+public class CuentaDao  extends AbstractBaseDao<CuentaEntity> {
+
+    static final byte CODIGO_TABLA = 2;
+
+    // Índice secundario titular (dni) -> números de cuenta y resumen de tipos, mantenido en cada save.
+    // Las entradas se reemplazan (copy-on-write) dentro de compute, así los lectores nunca ven una a medio modificar.
+    protected static final ConcurrentMap<Long, CuentasDelTitular> cuentasPorTitular = new ConcurrentHashMap<>();
+
+    // Entrada del índice: no se modifica una vez publicada
+    static final class CuentasDelTitular {
+        final LongSet numeros;
+        // OR de Cliente.marcaTipo de cada cuenta: alcanza para saber si ya tiene una de un tipo y moneda
+        final int resumenTipos;
+
+        CuentasDelTitular(LongSet numeros, int resumenTipos) {
+            this.numeros = numeros;
+            this.resumenTipos = resumenTipos;
+        }
+    }
+
+    // Índice de las cuentas con saldo negativo (número -> fila con la que quedó en rojo), mantenido en cada save.
+    // Tiene los mismos segmentos que la tabla, así una partición del índice tiene solo cuentas de esa partición.
+    // No se sincroniza con la tabla: lo mantiene bien porque los saves de una cuenta no se cruzan (save lo
+    // actualiza con el lock de la clave, y los procesos batch guardan con los locks de cada cuenta tomados).
+    protected static final ConcurrentLongObjectMap<CuentaEntity> cuentasEnRojo = new ConcurrentLongObjectMap<>();
+
+    // Saldo y tipo/moneda de cada cuenta en columnas, para los totales. Se mantiene como cuentasEnRojo
+    static final ColumnasCuentas columnas = new ColumnasCuentas();
+
+    // Con -Dtup.cuentas.fueraDelHeap=true las filas de CUENTA se guardan fuera del heap (ver TablaFueraDelHeap)
+    static final boolean FUERA_DEL_HEAP = Boolean.getBoolean("tup.cuentas.fueraDelHeap");
+
+    // Lectura frecuente: se mide una de cada 16 llamadas
+    final Temporizador tiempoGetCuentasByCliente = new Temporizador(16);
+
+    @Override
+    @Autowired
+    void registrarMetricas(RegistroMetricas metricas) {
+        super.registrarMetricas(metricas);
+        metricas.registrar("indice.titulares", cuentasPorTitular::size);
+        metricas.registrar("indice.enRojo", cuentasEnRojo::size);
+        metricas.registrar("indice.columnas", columnas::size);
+        metricas.registrar("cuentaDao.getCuentasByCliente", tiempoGetCuentasByCliente);
+        if (getInMemoryDatabase() instanceof TablaFueraDelHeap) {
+            TablaFueraDelHeap<CuentaEntity> tabla = (TablaFueraDelHeap<CuentaEntity>) getInMemoryDatabase();
+            metricas.registrar("tabla.CUENTA.bytesFueraDelHeap", tabla::getBytesReservados);
+        }
+    }
+
+    @Override
+    protected ConcurrentLongObjectMap<CuentaEntity> crearTabla() {
+        if (LSM) {
+            return crearTablaLsm(CuentaEntity::decode);
+        }
+        if (FUERA_DEL_HEAP) {
+            return new TablaFueraDelHeap<>(CuentaEntity.LARGO_CODIFICADO, CuentaEntity::decode);
+        }
+        return super.crearTabla();
+    }
 
-public class CuentaDao  extends AbstractBaseDao{
     @Override
     protected String getEntityName() {
         return "CUENTA";
     }
 
+    @Override
+    protected byte getCodigoTabla() {
+        return CODIGO_TABLA;
+    }
+
     public void save(Cuenta cuenta) {
+        save(cuenta, CUALQUIER_VERSION);
+    }
+
+    // Compare-and-set: guarda solo si la cuenta sigue en versionEsperada (la de cuenta.getVersion() si se
+    // leyó con find, SIN_VERSION si no debe existir). Si guarda, la cuenta queda con la versión nueva
+    public boolean save(Cuenta cuenta, long versionEsperada) {
         CuentaEntity entity = new CuentaEntity(cuenta);
-        getInMemoryDatabase().put(entity.getId(), entity);
+        if (!guardar(entity, versionEsperada)) {
+            return false;
+        }
+        cuenta.setVersion(entity.getVersion());
+        return true;
+    }
+
+    @Override
+    protected void despuesDeGuardar(CuentaEntity anterior, CuentaEntity nueva) {
+        actualizarIndices(anterior, nueva);
+    }
+
+    public void saveAll(Collection<Cuenta> cuentas) {
+        List<CuentaEntity> entities = new ArrayList<>(cuentas.size());
+        List<CuentaEntity> anteriores = new ArrayList<>(cuentas.size());
+        for (Cuenta cuenta : cuentas) {
+            CuentaEntity entity = new CuentaEntity(cuenta);
+            entities.add(entity);
+            anteriores.add(getInMemoryDatabase().get(entity.getId()));
+        }
+        registrarEnLog(entities);
+        guardarEnMemoria(entities, anteriores);
+        int i = 0;
+        for (Cuenta cuenta : cuentas) {
+            cuenta.setVersion(entities.get(i++).getVersion());
+        }
+    }
+
+    // Alta masiva: guarda solo las cuentas cuyo número no existe, comparando con el lock de cada número, así no
+    // pisa una cuenta guardada al mismo tiempo. Devuelve las que no guardó, en el orden en que vinieron
+    public List<Cuenta> saveAllNuevas(Collection<Cuenta> cuentas) {
+        List<CuentaEntity> entities = new ArrayList<>(cuentas.size());
+        for (Cuenta cuenta : cuentas) {
+            entities.add(new CuentaEntity(cuenta));
+        }
+        boolean[] guardadas = insertar(entities);
+        List<Cuenta> existentes = new ArrayList<>();
+        int i = 0;
+        for (Cuenta cuenta : cuentas) {
+            if (guardadas[i]) {
+                cuenta.setVersion(entities.get(i).getVersion());
+            } else {
+                existentes.add(cuenta);
+            }
+            i++;
+        }
+        return existentes;
+    }
+
+    // Para quien ya registró las filas en el log con otro registro (los asientos de MovimientoDao)
+    void guardarEnMemoria(List<CuentaEntity> entities) {
+        List<CuentaEntity> anteriores = new ArrayList<>(entities.size());
+        for (CuentaEntity entity : entities) {
+            anteriores.add(getInMemoryDatabase().get(entity.getId()));
+        }
+        guardarEnMemoria(entities, anteriores);
+    }
+
+    private void guardarEnMemoria(List<CuentaEntity> entities, List<CuentaEntity> anteriores) {
+        publicar(entities, anteriores);
+        for (int i = 0; i < entities.size(); i++) {
+            actualizarIndices(anteriores.get(i), entities.get(i));
+        }
+    }
+
+    // Los procesos batch reparten la tabla por segmentos: cada partición se puede recorrer en un hilo distinto
+    public int getCantidadParticiones() {
+        return getInMemoryDatabase().getCantidadSegmentos();
+    }
+
+    // Números de las cuentas del tipo dado que están en la partición, sin orden
+    public long[] numerosDeParticion(int particion, TipoCuenta tipo) {
+        return numerosDeParticion(getInMemoryDatabase(), particion, tipo);
+    }
+
+    // Como numerosDeParticion, pero solo las cuentas que estaban en rojo en su último save (sin recorrer la tabla)
+    public long[] numerosEnRojo(int particion, TipoCuenta tipo) {
+        return numerosDeParticion(cuentasEnRojo, particion, tipo);
+    }
+
+    public int getCantidadEnRojo() {
+        return cuentasEnRojo.size();
+    }
+
+    // Saldos y cantidad de cuentas por tipo y moneda, sumados sobre las columnas (sin recorrer la tabla)
+    public TotalesCuentas getTotales() {
+        return columnas.sumar();
+    }
+
+    private static long[] numerosDeParticion(ConcurrentLongObjectMap<CuentaEntity> cuentas, int particion, TipoCuenta tipo) {
+        long[][] numeros = {new long[64]};
+        int[] cantidad = {0};
+        cuentas.forEachEnSegmento(particion, (numeroCuenta, cuenta) -> {
+            if (cuenta.getTipoCuenta() == tipo) {
+                if (cantidad[0] == numeros[0].length) {
+                    numeros[0] = Arrays.copyOf(numeros[0], cantidad[0] * 2);
+                }
+                numeros[0][cantidad[0]++] = numeroCuenta;
+            }
+        });
+        return Arrays.copyOf(numeros[0], cantidad[0]);
+    }
+
+    void aplicarRecuperado(CuentaEntity entity) {
+        marcarRecuperada(entity);
+        CuentaEntity anterior = getInMemoryDatabase().put(entity.getId(), entity);
+        actualizarIndices(anterior, entity);
+    }
+
+    void aplicarRecuperados(List<CuentaEntity> entities) {
+        for (CuentaEntity entity : entities) {
+            aplicarRecuperado(entity);
+        }
+    }
+
+    public boolean exists(long id) {
+        return getInMemoryDatabase().containsKey(id);
     }
 
     public Cuenta find(long id) {
-        if (getInMemoryDatabase().get(id) == null) {
+        CuentaEntity entity = getInMemoryDatabase().get(id);
+        if (entity == null) {
             return null;
         }
-        return ((CuentaEntity) getInMemoryDatabase().get(id)).toCuenta();
+        return entity.toCuenta();
+    }
+
+    // La cuenta como estaba en el instante de la foto
+    public Cuenta find(long id, Foto foto) {
+        CuentaEntity entity = leer(foto, id);
+        return entity != null ? entity.toCuenta() : null;
+    }
+
+    // Las cuentas que el titular tenía en el instante de la foto. El índice es el de ahora: las cuentas creadas
+    // después no existían en la foto y no salen
+    public List<Cuenta> getCuentasByCliente(long dni, Foto foto) {
+        CuentasDelTitular delTitular = cuentasPorTitular.get(dni);
+        if (delTitular == null) {
+            return new ArrayList<>();
+        }
+        List<Cuenta> cuentasDelCliente = new ArrayList<>(delTitular.numeros.size());
+        for (int i = 0; i < delTitular.numeros.size(); i++) {
+            CuentaEntity cuenta = leer(foto, delTitular.numeros.get(i));
+            if (cuenta != null && cuenta.getTitular() == dni) {
+                cuentasDelCliente.add(cuenta.toCuenta());
+            }
+        }
+        return cuentasDelCliente;
     }
 
     public List<Cuenta> getCuentasByCliente(long dni) {
-        List<Cuenta> cuentasDelCliente = new ArrayList<>();
-        for (Object object:
-                getInMemoryDatabase().values()) {
-            CuentaEntity cuenta = ((CuentaEntity) object);
-            if (cuenta.getTitular().equals(dni)) {
+        long inicio = tiempoGetCuentasByCliente.iniciar();
+        CuentasDelTitular delTitular = cuentasPorTitular.get(dni);
+        if (delTitular == null) {
+            tiempoGetCuentasByCliente.detener(inicio);
+            return new ArrayList<>();
+        }
+        LongSet numerosDeCuenta = delTitular.numeros;
+        List<Cuenta> cuentasDelCliente = new ArrayList<>(numerosDeCuenta.size());
+        for (int i = 0; i < numerosDeCuenta.size(); i++) {
+            CuentaEntity cuenta = getInMemoryDatabase().get(numerosDeCuenta.get(i));
+            if (cuenta != null) {
                 cuentasDelCliente.add(cuenta.toCuenta());
             }
         }
+        tiempoGetCuentasByCliente.detener(inicio);
         return cuentasDelCliente;
     }
+
+    CuentasDelTitular getCuentasDelTitular(long dni) {
+        return cuentasPorTitular.get(dni);
+    }
+
+    // containsKey es una lectura optimista: el save de una cuenta con saldo no toma el lock del índice
+    private void actualizarIndices(CuentaEntity anterior, CuentaEntity nueva) {
+        if (nueva.getBalance() < 0) {
+            cuentasEnRojo.put(nueva.getId(), nueva);
+        } else if (cuentasEnRojo.containsKey(nueva.getId())) {
+            cuentasEnRojo.remove(nueva.getId());
+        }
+        columnas.actualizar(nueva.getId(), nueva.getBalance(),
+                ColumnasCuentas.codigo(nueva.getTipoCuenta(), nueva.getMoneda()));
+        actualizarIndiceTitular(anterior, nueva);
+    }
+
+    // Después del índice se invalidan los clientes cacheados de los titulares afectados: invalidar antes
+    // dejaría que una carga concurrente cachee el cliente armado con el índice viejo
+    private void actualizarIndiceTitular(CuentaEntity anterior, CuentaEntity nueva) {
+        final long numeroCuenta = nueva.getId();
+        final boolean cambioTitular = anterior != null && anterior.getTitular() != nueva.getTitular();
+        if (cambioTitular) {
+            cuentasPorTitular.computeIfPresent(anterior.getTitular(), (dni, cuentas) -> {
+                LongSet copia = new LongSet(cuentas.numeros);
+                copia.remove(numeroCuenta);
+                return copia.isEmpty() ? null : new CuentasDelTitular(copia, resumirTipos(copia));
+            });
+        }
+        final boolean mismoTipo = anterior != null && !cambioTitular
+                && marcaTipo(anterior) == marcaTipo(nueva);
+        cuentasPorTitular.compute(nueva.getTitular(), (dni, cuentas) -> {
+            if (cuentas != null && cuentas.numeros.contains(numeroCuenta)) {
+                return mismoTipo ? cuentas : new CuentasDelTitular(cuentas.numeros, resumirTipos(cuentas.numeros));
+            }
+            LongSet copia = cuentas == null ? new LongSet() : new LongSet(cuentas.numeros);
+            copia.add(numeroCuenta);
+            return new CuentasDelTitular(copia, resumirTipos(copia));
+        });
+        if (anterior != null && anterior.getTitular() != nueva.getTitular()) {
+            ClienteDao.clientesCompletos.invalidar(anterior.getTitular());
+        }
+        ClienteDao.clientesCompletos.invalidar(nueva.getTitular());
+    }
+
+    private int resumirTipos(LongSet numeros) {
+        int resumen = 0;
+        for (int i = 0; i < numeros.size(); i++) {
+            CuentaEntity cuenta = getInMemoryDatabase().get(numeros.get(i));
+            if (cuenta != null) {
+                resumen |= marcaTipo(cuenta);
+            }
+        }
+        return resumen;
+    }
+
+    private static int marcaTipo(CuentaEntity cuenta) {
+        return Cliente.marcaTipo(cuenta.getTipoCuenta(), cuenta.getMoneda());
+    }
 }
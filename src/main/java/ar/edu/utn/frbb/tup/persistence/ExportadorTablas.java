@@ -0,0 +1,172 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.LibroMovimientos;
+import ar.edu.utn.frbb.tup.persistence.exportacion.EscritorCanal;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Exporta las tablas CLIENTE y CUENTA y los libros de movimientos a un canal, en CSV o en binario, recorriendo
+ * las filas en memoria sin pasarlas al modelo ni juntarlas en una lista: se escribe cada fila en el buffer de
+ * {@link EscritorCanal} apenas se lee.
+ * <p>
+ * CLIENTE y CUENTA se recorren a través de una {@link Foto}: salen como estaban al empezar la exportación aunque
+ * sigan cambiando. Los libros de movimientos solo crecen; salen los movimientos que había al recorrer cada libro.
+ * <p>
+ * El binario empieza con [MAGIC (int)][VERSION (int)][código de tabla (1)], sigue con un registro
+ * [largo (int)][fila] por fila (la misma codificación que el log y los snapshots; los movimientos con
+ * {@link #LARGO_MOVIMIENTO} bytes [numeroCuenta][indice][instante][tipo][monto][saldo][contraparte]) y termina
+ * con [-1 (int)][cantidad de filas (long)].
+ */
+@Service
+public class ExportadorTablas {
+
+    public enum Tabla {CLIENTES, CUENTAS, MOVIMIENTOS}
+
+    public enum Formato {CSV, BINARIO}
+
+    static final int MAGIC = 0x54555058; // "TUPX"
+    static final int VERSION = 1;
+    static final int FIN = -1;
+    static final int LARGO_MOVIMIENTO = 8 + 8 + 8 + 1 + 8 + 8 + 8;
+    private static final String[] COLUMNAS_CLIENTES = {"dni", "nombre", "apellido", "tipoPersona", "fechaNacimiento", "fechaAlta", "cuentas"};
+    private static final String[] COLUMNAS_CUENTAS = {"numeroCuenta", "titular", "tipoCuenta", "moneda", "balance", "fechaCreacion"};
+    private static final String[] COLUMNAS_MOVIMIENTOS = {"numeroCuenta", "indice", "fecha", "tipo", "monto", "saldo", "cuentaContraparte"};
+
+    ClienteDao clienteDao;
+    CuentaDao cuentaDao;
+    MovimientoDao movimientoDao;
+
+    public ExportadorTablas(ClienteDao clienteDao, CuentaDao cuentaDao, MovimientoDao movimientoDao) {
+        this.clienteDao = clienteDao;
+        this.cuentaDao = cuentaDao;
+        this.movimientoDao = movimientoDao;
+    }
+
+    /**
+     * Escribe la tabla completa en el canal, que queda abierto.
+     *
+     * @return la cantidad de filas exportadas
+     */
+    public long exportar(Tabla tabla, Formato formato, WritableByteChannel canal) throws IOException {
+        try (EscritorCanal escritor = new EscritorCanal(canal)) {
+            return exportar(tabla, formato, escritor);
+        }
+    }
+
+    public long exportar(Tabla tabla, Formato formato, EscritorCanal escritor) throws IOException {
+        long[] filas = {0};
+        boolean csv = formato == Formato.CSV;
+        if (csv) {
+            escribirEncabezado(tabla, escritor);
+        } else {
+            escritor.putInt(MAGIC).putInt(VERSION).put(codigoTabla(tabla));
+        }
+        try {
+            switch (tabla) {
+                case CLIENTES:
+                    try (Foto foto = Foto.abrir()) {
+                        clienteDao.recorrer(foto, (id, entity) -> escribir(entity, escritor, csv, filas));
+                    }
+                    break;
+                case CUENTAS:
+                    try (Foto foto = Foto.abrir()) {
+                        cuentaDao.recorrer(foto, (id, entity) -> escribir(entity, escritor, csv, filas));
+                    }
+                    break;
+                case MOVIMIENTOS:
+                    recorrerMovimientos(escritor, csv, filas);
+                    break;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (!csv) {
+            escritor.putInt(FIN).putLong(filas[0]);
+        }
+        return filas[0];
+    }
+
+    private static void escribir(BaseEntity entity, EscritorCanal escritor, boolean csv, long[] filas) {
+        try {
+            if (!csv) {
+                escritor.entidad(entity);
+            } else if (entity instanceof ClienteEntity) {
+                escribirCsv((ClienteEntity) entity, escritor);
+            } else {
+                escribirCsv((CuentaEntity) entity, escritor);
+            }
+            filas[0]++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void recorrerMovimientos(EscritorCanal escritor, boolean csv, long[] filas) {
+        movimientoDao.forEachLibro(libro -> {
+            long numeroCuenta = libro.getNumeroCuenta();
+            LibroMovimientos.MovimientoConsumer consumer = (indice, instante, tipo, monto, saldo, contraparte) -> {
+                try {
+                    if (csv) {
+                        escritor.numero(numeroCuenta).separador().numero(indice).separador().fechaHora(instante).separador()
+                                .nombre(tipo).separador().numero(monto).separador().numero(saldo).separador()
+                                .numero(contraparte).finDeLinea();
+                    } else {
+                        escritor.putInt(LARGO_MOVIMIENTO).putLong(numeroCuenta).putLong(indice).putLong(instante)
+                                .put((byte) tipo.ordinal()).putLong(monto).putLong(saldo).putLong(contraparte);
+                    }
+                    filas[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+            libro.recorrer(Long.MIN_VALUE, Long.MAX_VALUE, 0, Integer.MAX_VALUE, consumer);
+        });
+    }
+
+    private static void escribirCsv(ClienteEntity cliente, EscritorCanal escritor) throws IOException {
+        escritor.numero(cliente.getId()).separador().texto(cliente.getNombre()).separador().texto(cliente.getApellido())
+                .separador().nombre(cliente.getTipoPersona()).separador().fecha(cliente.getFechaNacimientoEpochDay())
+                .separador().fecha(cliente.getFechaAltaEpochDay()).separador().numero(cliente.getCantidadCuentas())
+                .finDeLinea();
+    }
+
+    private static void escribirCsv(CuentaEntity cuenta, EscritorCanal escritor) throws IOException {
+        escritor.numero(cuenta.getNumeroCuenta()).separador().numero(cuenta.getTitular()).separador()
+                .nombre(cuenta.getTipoCuenta()).separador().nombre(cuenta.getMoneda()).separador()
+                .numero(cuenta.getBalance()).separador();
+        long fechaCreacion = cuenta.getFechaCreacionMilis();
+        if (fechaCreacion != CuentaEntity.SIN_FECHA_HORA) {
+            escritor.fechaHora(fechaCreacion);
+        }
+        escritor.finDeLinea();
+    }
+
+    private static void escribirEncabezado(Tabla tabla, EscritorCanal escritor) throws IOException {
+        String[] columnas = tabla == Tabla.CLIENTES ? COLUMNAS_CLIENTES : tabla == Tabla.CUENTAS ? COLUMNAS_CUENTAS : COLUMNAS_MOVIMIENTOS;
+        for (int i = 0; i < columnas.length; i++) {
+            if (i > 0) {
+                escritor.separador();
+            }
+            escritor.texto(columnas[i]);
+        }
+        escritor.finDeLinea();
+    }
+
+    static byte codigoTabla(Tabla tabla) {
+        switch (tabla) {
+            case CLIENTES:
+                return ClienteDao.CODIGO_TABLA;
+            case CUENTAS:
+                return CuentaDao.CODIGO_TABLA;
+            default:
+                return MovimientoDao.CODIGO_TABLA;
+        }
+    }
+}
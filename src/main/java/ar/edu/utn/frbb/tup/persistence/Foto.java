@@ -0,0 +1,52 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+
+/**
+ * Lectura de CLIENTE y CUENTA como estaban en un instante: cada fila que se lee a través de la foto es la última
+ * guardada hasta ese instante, aunque las escrituras sigan (no las frena). Un saveAll se ve completo o no se ve,
+ * así una transferencia nunca aparece a medias. Mientras está abierta retiene las filas reemplazadas que puede
+ * necesitar, por eso hay que cerrarla:
+ * <pre>
+ * try (Foto foto = Foto.abrir()) {
+ *     cuentaDao.recorrer(foto, (numero, cuenta) -&gt; ...);
+ * }
+ * </pre>
+ */
+public final class Foto implements AutoCloseable {
+
+    private final int lugar;
+    private final long instante;
+    private volatile boolean cerrada;
+
+    private Foto(int lugar, long instante) {
+        this.lugar = lugar;
+        this.instante = instante;
+    }
+
+    public static Foto abrir() {
+        long[] instante = new long[1];
+        int lugar = RelojVersiones.abrirFoto(instante);
+        return new Foto(lugar, instante[0]);
+    }
+
+    public long getInstante() {
+        return instante;
+    }
+
+    // La fila que ve la foto a partir de la última publicada, o null si la clave no existía en el instante
+    <E extends BaseEntity> E visible(E ultima) {
+        if (cerrada) {
+            throw new IllegalStateException("La foto ya está cerrada");
+        }
+        return RelojVersiones.visibleEn(ultima, instante);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!cerrada) {
+            cerrada = true;
+            RelojVersiones.cerrarFoto(lugar);
+        }
+    }
+}
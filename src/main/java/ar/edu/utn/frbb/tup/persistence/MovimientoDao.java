@@ -0,0 +1,209 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.metricas.RegistroMetricas;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.model.PaginaMovimientos;
+import ar.edu.utn.frbb.tup.model.TipoMovimiento;
+import ar.edu.utn.frbb.tup.persistence.collection.ConcurrentLongObjectMap;
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.LibroMovimientos;
+import ar.edu.utn.frbb.tup.persistence.wal.WriteAheadLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Libros de movimientos por número de cuenta. Cada movimiento se registra en el log junto con la fila de su cuenta
+// (un asiento) y con su índice dentro del libro, así el replay puede saltear los que ya vinieron en el snapshot.
+@Service
+public class MovimientoDao {
+
+    // Snapshots y exportaciones; en el log solo queda en registros de movimientos sueltos escritos por versiones anteriores
+    static final byte CODIGO_TABLA = 3;
+    // Asiento: filas nuevas de cuentas con su movimiento en un solo registro del log, [CuentaEntity][movimiento]...
+    static final byte CODIGO_ASIENTO = 4;
+    // [numeroCuenta (8)][indice (8)][saldoInicial del libro (8)][instante (8)][tipo (1)][monto (8)][contraparte (8)]
+    static final int LARGO_REGISTRO = 8 + 8 + 8 + 8 + 1 + 8 + 8;
+    private static final TipoMovimiento[] TIPOS = TipoMovimiento.values();
+
+    // Estático como poorMansDatabase: todas las instancias comparten los mismos libros
+    protected static final ConcurrentLongObjectMap<LibroMovimientos> libros = new ConcurrentLongObjectMap<>();
+
+    CuentaDao cuentaDao;
+    Clock reloj = Clock.systemDefaultZone();
+
+    @Autowired
+    public MovimientoDao(CuentaDao cuentaDao) {
+        this.cuentaDao = cuentaDao;
+    }
+
+    @Autowired
+    void registrarMetricas(RegistroMetricas metricas) {
+        metricas.registrar("movimientos.libros", libros::size);
+    }
+
+    /**
+     * Guarda las cuentas (ya con el saldo nuevo) y registra en el libro de cada una un movimiento del tipo dado por
+     * {@code montos[i]}. Cada cuenta y su movimiento van en un mismo registro del log, y todos los registros en una
+     * sola escritura: después de una caída, una cuenta del lote queda con el saldo y el movimiento o sin ninguno de
+     * los dos. Quien llama tiene que tener tomados los locks de todas las cuentas, y cada cuenta va una sola vez.
+     */
+    public void registrarAsientos(List<Cuenta> cuentas, long[] montos, TipoMovimiento tipo, long contraparte) {
+        TipoMovimiento[] tipos = new TipoMovimiento[cuentas.size()];
+        long[] contrapartes = new long[cuentas.size()];
+        Arrays.fill(tipos, tipo);
+        Arrays.fill(contrapartes, contraparte);
+        asentar(cuentas, montos, tipos, contrapartes, false);
+    }
+
+    /**
+     * Guarda las dos cuentas de una transferencia (ya con los saldos nuevos) con el movimiento enviado y el recibido
+     * en un único registro del log: después de una caída quedan los dos saldos con sus movimientos o nada. Quien
+     * llama tiene tomados los locks de las dos cuentas.
+     */
+    public void registrarTransferencia(Cuenta origen, Cuenta destino, long monto) {
+        asentar(Arrays.asList(origen, destino), new long[]{monto, monto},
+                new TipoMovimiento[]{TipoMovimiento.TRANSFERENCIA_ENVIADA, TipoMovimiento.TRANSFERENCIA_RECIBIDA},
+                new long[]{destino.getNumeroCuenta(), origen.getNumeroCuenta()}, true);
+    }
+
+    // Un registro del log de asiento tiene uno o más pares [CuentaEntity][movimiento]: juntos, se recuperan todos o
+    // ninguno. Las filas se publican juntas (una foto ve todas o ninguna) antes de agregar los movimientos
+    private void asentar(List<Cuenta> cuentas, long[] montos, TipoMovimiento[] tipos, long[] contrapartes, boolean unSoloRegistro) {
+        List<CuentaEntity> entities = new ArrayList<>(cuentas.size());
+        LibroMovimientos[] librosDelLote = new LibroMovimientos[cuentas.size()];
+        long[] instantes = new long[cuentas.size()];
+        long ahora = instanteDe(LocalDateTime.now(reloj));
+        WriteAheadLog wal = AbstractBaseDao.writeAheadLog;
+        List<byte[]> registros = new ArrayList<>(wal == null ? 0 : cuentas.size());
+        ByteBuffer registro = null;
+        for (int i = 0; i < cuentas.size(); i++) {
+            Cuenta cuenta = cuentas.get(i);
+            CuentaEntity entity = new CuentaEntity(cuenta);
+            entities.add(entity);
+            long saldoAnterior = cuenta.getBalance() - tipos[i].getSigno() * montos[i];
+            librosDelLote[i] = libroDe(cuenta.getNumeroCuenta(), saldoAnterior);
+            instantes[i] = Math.max(ahora, librosDelLote[i].getUltimoInstante());
+            if (wal != null) {
+                if (registro == null) {
+                    int asientos = unSoloRegistro ? cuentas.size() : 1;
+                    registro = ByteBuffer.allocate(asientos * (CuentaEntity.LARGO_CODIFICADO + LARGO_REGISTRO));
+                }
+                entity.encode(registro);
+                codificar(registro, librosDelLote[i], instantes[i], tipos[i], montos[i], contrapartes[i]);
+                if (!registro.hasRemaining()) {
+                    registros.add(registro.array());
+                    registro = null;
+                }
+            }
+        }
+        if (wal != null) {
+            wal.appendAll(CODIGO_ASIENTO, registros);
+        }
+        cuentaDao.guardarEnMemoria(entities);
+        for (int i = 0; i < librosDelLote.length; i++) {
+            librosDelLote[i].agregar(instantes[i], tipos[i], montos[i], contrapartes[i]);
+        }
+    }
+
+    private static LibroMovimientos libroDe(long numeroCuenta, long saldoAnterior) {
+        LibroMovimientos libro = libros.get(numeroCuenta);
+        if (libro == null) {
+            LibroMovimientos nuevo = new LibroMovimientos(numeroCuenta, saldoAnterior);
+            libro = libros.putIfAbsent(numeroCuenta, nuevo);
+            if (libro == null) {
+                libro = nuevo;
+            }
+        }
+        return libro;
+    }
+
+    private static void codificar(ByteBuffer registro, LibroMovimientos libro, long instante, TipoMovimiento tipo, long monto, long contraparte) {
+        registro.putLong(libro.getNumeroCuenta()).putLong(libro.getCantidad()).putLong(libro.getSaldoInicial())
+                .putLong(instante).put((byte) tipo.ordinal()).putLong(monto).putLong(contraparte);
+    }
+
+    // null si la cuenta nunca tuvo movimientos
+    public LibroMovimientos getLibro(long numeroCuenta) {
+        return libros.get(numeroCuenta);
+    }
+
+    public PaginaMovimientos extracto(long numeroCuenta, LocalDateTime desde, LocalDateTime hasta, long cursor, int limite) {
+        LibroMovimientos libro = libros.get(numeroCuenta);
+        List<Movimiento> movimientos = new ArrayList<>(Math.min(limite, 256));
+        if (libro == null) {
+            return new PaginaMovimientos(movimientos, -1);
+        }
+        long siguiente = libro.recorrer(desdeInstante(desde), hastaInstante(hasta), cursor, limite,
+                (indice, instante, tipo, monto, saldo, contraparte) ->
+                        movimientos.add(new Movimiento(numeroCuenta, indice, fechaDe(instante), tipo, monto, saldo, contraparte)));
+        return new PaginaMovimientos(movimientos, siguiente);
+    }
+
+    // Recorre todos los movimientos de la cuenta en el rango sin armar objetos Movimiento
+    public void recorrer(long numeroCuenta, LocalDateTime desde, LocalDateTime hasta, LibroMovimientos.MovimientoConsumer consumer) {
+        LibroMovimientos libro = libros.get(numeroCuenta);
+        if (libro != null) {
+            libro.recorrer(desdeInstante(desde), hastaInstante(hasta), 0, Integer.MAX_VALUE, consumer);
+        }
+    }
+
+    // Milisegundos de la fecha tomada como UTC, igual que las fechas de CuentaEntity
+    public static long instanteDe(LocalDateTime fecha) {
+        return fecha.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    // En los rangos null significa sin límite
+    private static long desdeInstante(LocalDateTime desde) {
+        return desde == null ? Long.MIN_VALUE : instanteDe(desde);
+    }
+
+    private static long hastaInstante(LocalDateTime hasta) {
+        return hasta == null ? Long.MAX_VALUE : instanteDe(hasta);
+    }
+
+    public static LocalDateTime fechaDe(long instante) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(instante, 1000), Math.toIntExact(Math.floorMod(instante, 1000L) * 1_000_000), ZoneOffset.UTC);
+    }
+
+    // Recorre los libros de todas las cuentas, sin orden
+    void forEachLibro(Consumer<LibroMovimientos> consumer) {
+        libros.forEach((numeroCuenta, libro) -> consumer.accept(libro));
+    }
+
+    ConcurrentLongObjectMap<BaseEntity> fotos() {
+        ConcurrentLongObjectMap<BaseEntity> fotos = new ConcurrentLongObjectMap<>();
+        libros.forEach((numeroCuenta, libro) -> fotos.put(numeroCuenta, libro.foto()));
+        return fotos;
+    }
+
+    void aplicarRecuperados(Collection<LibroMovimientos> recuperados) {
+        for (LibroMovimientos libro : recuperados) {
+            libros.put(libro.getNumeroCuenta(), libro);
+        }
+    }
+
+    void aplicarRecuperado(ByteBuffer registro) {
+        long numeroCuenta = registro.getLong();
+        long indice = registro.getLong();
+        long saldoInicial = registro.getLong();
+        LibroMovimientos libro = libros.get(numeroCuenta);
+        if (libro == null) {
+            libro = new LibroMovimientos(numeroCuenta, saldoInicial);
+            libros.put(numeroCuenta, libro);
+        }
+        long instante = registro.getLong();
+        TipoMovimiento tipo = TIPOS[registro.get()];
+        libro.agregarRecuperado(indice, instante, tipo, registro.getLong(), registro.getLong());
+    }
+}
@@ -0,0 +1,307 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.NumeradorCuentas;
+import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.LibroMovimientos;
+import ar.edu.utn.frbb.tup.persistence.snapshot.SnapshotFile;
+import ar.edu.utn.frbb.tup.persistence.wal.WriteAheadLog;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Durabilidad de la base en memoria: snapshots periódicos + write-ahead log por segmentos.
+ * <p>
+ * Cada snapshot N se toma después de rotar el log al segmento N, así que contiene todo lo
+ * registrado hasta el segmento N-1 salvo, a lo sumo, los saves que estaban en vuelo durante la
+ * rotación (ya registrados en N-1 pero todavía no aplicados en memoria). Por eso al recuperar
+ * se carga el snapshot N y se vuelven a aplicar los segmentos N-1 en adelante; como cada registro
+ * es la entidad completa, reaplicarlos en orden deja siempre el último valor.
+ */
+@Component
+public class PersistenceManager implements DisposableBean {
+
+    private static final Pattern SEGMENTO_WAL = Pattern.compile("wal-(\\d{9})\\.log");
+    private static final Pattern DIRECTORIO_SNAPSHOT = Pattern.compile("snapshot-(\\d{9})");
+    static final String ARCHIVO_CLIENTES = "CLIENTE.snap";
+    static final String ARCHIVO_CUENTAS = "CUENTA.snap";
+    static final String ARCHIVO_MOVIMIENTOS = "MOVIMIENTO.snap";
+    // Límite de la reserva de NumeradorCuentas: ningún número entregado llega a este valor
+    static final String ARCHIVO_NUMERADOR = "numerador";
+
+    ClienteDao clienteDao;
+    CuentaDao cuentaDao;
+    MovimientoDao movimientoDao;
+    Path directorio;
+    WriteAheadLog wal;
+    // El segmento anterior queda abierto hasta la próxima rotación: un save que tomó la referencia
+    // justo antes de rotar todavía puede terminar de registrarse ahí
+    WriteAheadLog walAnterior;
+    long segmentoActual;
+    ScheduledExecutorService programador;
+
+    @Autowired
+    public PersistenceManager(ClienteDao clienteDao, CuentaDao cuentaDao, MovimientoDao movimientoDao) {
+        this.clienteDao = clienteDao;
+        this.cuentaDao = cuentaDao;
+        this.movimientoDao = movimientoDao;
+    }
+
+    //Recupera el estado (último snapshot + segmentos del log posteriores) y a partir de ahí registra cada save
+    public synchronized long iniciar(Path directorio) throws IOException {
+        if (wal != null) {
+            throw new IllegalStateException("La persistencia ya está iniciada en " + this.directorio);
+        }
+        Files.createDirectories(directorio);
+        borrarSnapshotsIncompletos(directorio);
+
+        long registros = 0;
+        TreeMap<Long, Path> snapshots = listar(directorio, DIRECTORIO_SNAPSHOT);
+        long primerSegmentoAReplicar = 0;
+        if (!snapshots.isEmpty()) {
+            registros += cargarSnapshot(snapshots.lastEntry().getValue());
+            primerSegmentoAReplicar = snapshots.lastKey() - 1;
+        }
+
+        TreeMap<Long, Path> segmentos = listar(directorio, SEGMENTO_WAL);
+        long ultimoSegmento = snapshots.isEmpty() ? 1 : snapshots.lastKey();
+        if (!segmentos.isEmpty()) {
+            ultimoSegmento = Math.max(ultimoSegmento, segmentos.lastKey());
+        }
+        for (Path segmento : segmentos.subMap(primerSegmentoAReplicar, true, ultimoSegmento, false).values()) {
+            try (WriteAheadLog anterior = new WriteAheadLog(segmento)) {
+                registros += anterior.replay(this::aplicarRegistro);
+            }
+        }
+
+        WriteAheadLog nuevoWal = new WriteAheadLog(archivoSegmento(directorio, ultimoSegmento));
+        try {
+            registros += nuevoWal.replay(this::aplicarRegistro);
+        } catch (IOException | RuntimeException e) {
+            nuevoWal.close();
+            throw e;
+        }
+        this.directorio = directorio;
+        this.segmentoActual = ultimoSegmento;
+        this.wal = nuevoWal;
+        AbstractBaseDao.writeAheadLog = nuevoWal;
+        iniciarNumerador(directorio);
+        return registros;
+    }
+
+    public synchronized void programarSnapshots(long intervalo, TimeUnit unidad) {
+        if (wal == null) {
+            throw new IllegalStateException("La persistencia no está iniciada");
+        }
+        if (programador != null) {
+            programador.shutdownNow();
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "snapshot-scheduler");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                tomarSnapshot();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("No se pudo tomar el snapshot: " + e.getMessage());
+            }
+        }, intervalo, intervalo, unidad);
+    }
+
+    /**
+     * Rota el log a un segmento nuevo, vuelca las tablas CLIENTE y CUENTA y los libros de movimientos, y borra los
+     * snapshots y segmentos que ya no hacen falta para recuperar.
+     */
+    public synchronized void tomarSnapshot() throws IOException {
+        if (wal == null) {
+            throw new IllegalStateException("La persistencia no está iniciada");
+        }
+        long nuevoSegmento = segmentoActual + 1;
+        WriteAheadLog nuevoWal = new WriteAheadLog(archivoSegmento(directorio, nuevoSegmento));
+        if (walAnterior != null) {
+            walAnterior.close();
+        }
+        walAnterior = wal;
+        AbstractBaseDao.writeAheadLog = nuevoWal;
+        wal = nuevoWal;
+        segmentoActual = nuevoSegmento;
+
+        Path temporal = directorio.resolve(String.format("snapshot-%09d.tmp", nuevoSegmento));
+        Files.createDirectories(temporal);
+        SnapshotFile.escribir(temporal.resolve(ARCHIVO_CLIENTES), ClienteDao.CODIGO_TABLA, clienteDao.getInMemoryDatabase());
+        SnapshotFile.escribir(temporal.resolve(ARCHIVO_CUENTAS), CuentaDao.CODIGO_TABLA, cuentaDao.getInMemoryDatabase());
+        SnapshotFile.escribir(temporal.resolve(ARCHIVO_MOVIMIENTOS), MovimientoDao.CODIGO_TABLA, movimientoDao.fotos());
+        Files.move(temporal, directorio.resolve(String.format("snapshot-%09d", nuevoSegmento)), StandardCopyOption.ATOMIC_MOVE);
+
+        for (Path snapshot : listar(directorio, DIRECTORIO_SNAPSHOT).headMap(nuevoSegmento, false).values()) {
+            borrarDirectorio(snapshot);
+        }
+        for (Path segmento : listar(directorio, SEGMENTO_WAL).headMap(nuevoSegmento - 1, false).values()) {
+            Files.deleteIfExists(segmento);
+        }
+    }
+
+    public synchronized void detener() throws IOException {
+        if (programador != null) {
+            programador.shutdownNow();
+            programador = null;
+        }
+        if (wal == null) {
+            return;
+        }
+        AbstractBaseDao.writeAheadLog = null;
+        NumeradorCuentas.sinPersistencia();
+        if (walAnterior != null) {
+            walAnterior.close();
+            walAnterior = null;
+        }
+        wal.close();
+        wal = null;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        detener();
+    }
+
+    //Sigue la numeración de cuentas desde el último límite guardado. Si no hay (datos anteriores al
+    //numerador) se arranca después del mayor número de cuenta cargado
+    private void iniciarNumerador(Path directorio) throws IOException {
+        Path archivo = directorio.resolve(ARCHIVO_NUMERADOR);
+        long limite = NumeradorCuentas.PRIMER_NUMERO;
+        if (Files.exists(archivo)) {
+            limite = ByteBuffer.wrap(Files.readAllBytes(archivo)).getLong();
+        }
+        long[] mayor = {limite - 1};
+        cuentaDao.getInMemoryDatabase().forEach((numero, cuenta) -> mayor[0] = Math.max(mayor[0], numero));
+        NumeradorCuentas.iniciar(mayor[0] + 1, nuevoLimite -> guardarLimiteNumerador(archivo, nuevoLimite));
+    }
+
+    //Se escribe en un temporal y se reemplaza con un move atómico: nunca queda un límite a medio escribir
+    private static void guardarLimiteNumerador(Path archivo, long limite) {
+        Path temporal = archivo.resolveSibling(ARCHIVO_NUMERADOR + ".tmp");
+        try {
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(8).putLong(0, limite);
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer);
+                }
+                canal.force(true);
+            }
+            Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar el límite del numerador de cuentas", e);
+        }
+    }
+
+    private long cargarSnapshot(Path snapshot) throws IOException {
+        long registros = SnapshotFile.leer(snapshot.resolve(ARCHIVO_CLIENTES), ClienteDao.CODIGO_TABLA, (bloque, cantidad) -> {
+            List<ClienteEntity> entities = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                bloque.getInt();
+                entities.add(ClienteEntity.decode(bloque));
+            }
+            clienteDao.aplicarRecuperados(entities);
+        });
+        registros += SnapshotFile.leer(snapshot.resolve(ARCHIVO_CUENTAS), CuentaDao.CODIGO_TABLA, (bloque, cantidad) -> {
+            List<CuentaEntity> entities = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                bloque.getInt();
+                entities.add(CuentaEntity.decode(bloque));
+            }
+            cuentaDao.aplicarRecuperados(entities);
+        });
+        // Los snapshots anteriores a los libros de movimientos no tienen este archivo
+        if (Files.exists(snapshot.resolve(ARCHIVO_MOVIMIENTOS))) {
+            registros += SnapshotFile.leer(snapshot.resolve(ARCHIVO_MOVIMIENTOS), MovimientoDao.CODIGO_TABLA, (bloque, cantidad) -> {
+                List<LibroMovimientos> libros = new ArrayList<>(cantidad);
+                for (int i = 0; i < cantidad; i++) {
+                    bloque.getInt();
+                    libros.add(LibroMovimientos.decode(bloque));
+                }
+                movimientoDao.aplicarRecuperados(libros);
+            });
+        }
+        return registros;
+    }
+
+    private void aplicarRegistro(byte tabla, byte[] payload) {
+        ByteBuffer registro = ByteBuffer.wrap(payload);
+        switch (tabla) {
+            case ClienteDao.CODIGO_TABLA:
+                clienteDao.aplicarRecuperado(ClienteEntity.decode(registro));
+                break;
+            case CuentaDao.CODIGO_TABLA:
+                cuentaDao.aplicarRecuperado(CuentaEntity.decode(registro));
+                break;
+            case MovimientoDao.CODIGO_TABLA:
+                movimientoDao.aplicarRecuperado(registro);
+                break;
+            case MovimientoDao.CODIGO_ASIENTO:
+                while (registro.hasRemaining()) {
+                    cuentaDao.aplicarRecuperado(CuentaEntity.decode(registro));
+                    movimientoDao.aplicarRecuperado(registro);
+                }
+                break;
+            default:
+                throw new IllegalStateException("Registro de una tabla desconocida en el log: " + tabla);
+        }
+    }
+
+    private static Path archivoSegmento(Path directorio, long segmento) {
+        return directorio.resolve(String.format("wal-%09d.log", segmento));
+    }
+
+    private static TreeMap<Long, Path> listar(Path directorio, Pattern patron) throws IOException {
+        TreeMap<Long, Path> encontrados = new TreeMap<>();
+        try (DirectoryStream<Path> contenido = Files.newDirectoryStream(directorio)) {
+            for (Path path : contenido) {
+                Matcher matcher = patron.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    encontrados.put(Long.parseLong(matcher.group(1)), path);
+                }
+            }
+        }
+        return encontrados;
+    }
+
+    //Un .tmp es un snapshot que se cortó a la mitad: nunca se usa para recuperar
+    private static void borrarSnapshotsIncompletos(Path directorio) throws IOException {
+        try (DirectoryStream<Path> temporales = Files.newDirectoryStream(directorio, "snapshot-*.tmp")) {
+            for (Path temporal : temporales) {
+                borrarDirectorio(temporal);
+            }
+        }
+    }
+
+    private static void borrarDirectorio(Path path) throws IOException {
+        try (DirectoryStream<Path> contenido = Files.newDirectoryStream(path)) {
+            for (Path archivo : contenido) {
+                Files.delete(archivo);
+            }
+        }
+        Files.delete(path);
+    }
+}
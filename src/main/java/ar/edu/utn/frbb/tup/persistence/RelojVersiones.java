@@ -0,0 +1,193 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reloj de las versiones de CLIENTE y CUENTA: cada escritura publica sus filas con un instante nuevo (que es también
+ * la versión de la fila) y deja encadenada la fila anterior, para que una {@link Foto} abierta en el instante T lea
+ * de cada clave la última fila con versión &lt;= T sin bloquear a nadie.
+ * <p>
+ * El instante visible es el último sin escrituras en curso por debajo: cada escritura anota una cota inferior de
+ * su instante antes de pedirlo y la borra cuando sus filas ya están publicadas, así una foto nunca ve la mitad de
+ * un saveAll. Las filas anteriores se sueltan (recolección) cuando la nueva ya es visible para toda foto abierta
+ * y por abrir.
+ */
+final class RelojVersiones {
+
+    // Versión de las filas recuperadas de disco: anterior a cualquier escritura y a cualquier foto
+    static final long VERSION_RECUPERADA = 1;
+
+    private static final int LUGARES = 256;
+    // Un lugar cada 8 longs (64 bytes) para que dos hilos no compartan línea de cache
+    private static final int RELLENO = 8;
+    private static final long LIBRE = 0;
+    // Lugar de escritura tomado que todavía no tiene cota: no frena el visible
+    private static final long RESERVADO = Long.MAX_VALUE;
+    // Lugar de foto tomado que todavía no tiene instante: retiene todas las versiones
+    private static final long ABRIENDO = 1;
+    private static final int UMBRAL_RECOLECCION = 4096;
+
+    private static final AtomicLong reloj = new AtomicLong(VERSION_RECUPERADA);
+    // Cota inferior del instante de cada escritura en curso
+    private static final AtomicLongArray escrituras = new AtomicLongArray(LUGARES * RELLENO);
+    // Instante + 1 de cada foto abierta
+    private static final AtomicLongArray fotos = new AtomicLongArray(LUGARES * RELLENO);
+    private static final AtomicInteger fotosAbiertas = new AtomicInteger();
+
+    // Filas publicadas con una anterior encadenada, pendientes de soltarla
+    private static final ConcurrentLinkedQueue<BaseEntity> conAnterior = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger pendientes = new AtomicInteger();
+    private static volatile int proximaRecoleccion = UMBRAL_RECOLECCION;
+    private static final ReentrantLock recolector = new ReentrantLock();
+
+    private RelojVersiones() {
+    }
+
+    /**
+     * Reserva un lugar para una escritura; el instante se pide después con {@link #instante}. Antes se anota la
+     * cota inferior (el reloj + 1) y se verifica que el reloj no haya avanzado mientras tanto: así ningún visible
+     * calculado antes queda por encima de la cota, y el visible nunca retrocede.
+     */
+    static int comenzarEscritura() {
+        int lugar = reservar(escrituras, RESERVADO);
+        long visto = reloj.get();
+        while (true) {
+            escrituras.set(lugar * RELLENO, visto + 1);
+            long actual = reloj.get();
+            if (actual == visto) {
+                return lugar;
+            }
+            visto = actual;
+        }
+    }
+
+    static long instante(int lugar) {
+        long instante = reloj.incrementAndGet();
+        escrituras.set(lugar * RELLENO, instante);
+        return instante;
+    }
+
+    static void terminarEscritura(int lugar) {
+        escrituras.set(lugar * RELLENO, LIBRE);
+    }
+
+    // Después de publicar (y de terminarEscritura) la fila con su anterior encadenada: la anota para soltarla más adelante
+    static void publicada(BaseEntity nueva) {
+        if (nueva.getAnterior() == null) {
+            return;
+        }
+        conAnterior.add(nueva);
+        if (pendientes.incrementAndGet() >= proximaRecoleccion) {
+            recolectar();
+        }
+    }
+
+    static int abrirFoto(long[] instante) {
+        fotosAbiertas.incrementAndGet();
+        int lugar = reservar(fotos, ABRIENDO);
+        instante[0] = visible();
+        fotos.set(lugar * RELLENO, instante[0] + 1);
+        return lugar;
+    }
+
+    static void cerrarFoto(int lugar) {
+        fotos.set(lugar * RELLENO, LIBRE);
+        fotosAbiertas.decrementAndGet();
+        recolectar();
+    }
+
+    static int getFotosAbiertas() {
+        return fotosAbiertas.get();
+    }
+
+    static int getVersionesAnteriores() {
+        return pendientes.get();
+    }
+
+    // Fila de la cadena que ve una foto en el instante dado, o null si la clave no existía todavía
+    @SuppressWarnings("unchecked")
+    static <E extends BaseEntity> E visibleEn(E ultima, long instante) {
+        BaseEntity fila = ultima;
+        while (fila != null && fila.getVersion() > instante) {
+            fila = fila.getAnterior();
+        }
+        return (E) fila;
+    }
+
+    /**
+     * Suelta la anterior de cada fila pendiente que ya es visible para todas las fotos. Si quedan muchas
+     * retenidas por una foto larga, la próxima pasada se posterga hasta que se junten otras tantas.
+     */
+    static void recolectar() {
+        if (!recolector.tryLock()) {
+            return;
+        }
+        try {
+            long horizonte = horizonte();
+            int revisar = pendientes.get();
+            List<BaseEntity> retenidas = new ArrayList<>();
+            for (int i = 0; i < revisar; i++) {
+                BaseEntity fila = conAnterior.poll();
+                if (fila == null) {
+                    break;
+                }
+                if (fila.getVersion() <= horizonte) {
+                    fila.setAnterior(null);
+                    pendientes.decrementAndGet();
+                } else {
+                    retenidas.add(fila);
+                }
+            }
+            conAnterior.addAll(retenidas);
+            proximaRecoleccion = Math.max(UMBRAL_RECOLECCION, retenidas.size() * 2);
+        } finally {
+            recolector.unlock();
+        }
+    }
+
+    // Último instante con todas sus escrituras publicadas
+    private static long visible() {
+        long instante = reloj.get();
+        for (int i = 0; i < LUGARES; i++) {
+            long cota = escrituras.get(i * RELLENO);
+            if (cota != LIBRE && cota - 1 < instante) {
+                instante = cota - 1;
+            }
+        }
+        return instante;
+    }
+
+    // Ninguna foto abierta o por abrir lee en un instante menor. El visible se toma antes de mirar las fotos:
+    // una que se registra después lee un visible igual o mayor
+    private static long horizonte() {
+        long horizonte = visible();
+        for (int i = 0; i < LUGARES; i++) {
+            long foto = fotos.get(i * RELLENO);
+            if (foto != LIBRE && foto - 1 < horizonte) {
+                horizonte = foto - 1;
+            }
+        }
+        return horizonte;
+    }
+
+    private static int reservar(AtomicLongArray lugares, long valor) {
+        int inicio = (int) Thread.currentThread().getId() & (LUGARES - 1);
+        while (true) {
+            for (int i = 0; i < LUGARES; i++) {
+                int lugar = (inicio + i) & (LUGARES - 1);
+                if (lugares.get(lugar * RELLENO) == LIBRE && lugares.compareAndSet(lugar * RELLENO, LIBRE, valor)) {
+                    return lugar;
+                }
+            }
+            Thread.yield();
+        }
+    }
+}
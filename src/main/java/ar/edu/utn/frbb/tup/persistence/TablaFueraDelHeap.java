@@ -0,0 +1,494 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.persistence.collection.ConcurrentLongObjectMap;
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Tabla con las filas fuera del heap, para entidades de largo fijo (CUENTA): cada fila es
+ * [estado (1)][versión (8)][la codificación de la entidad] en bloques de ByteBuffer directos, y el índice clave ->
+ * fila también es un ByteBuffer directo ([clave (8)][fila + 1 (4)] por posición, direccionamiento abierto). Así el
+ * heap no crece con la cantidad de filas y el GC no tiene millones de objetos que recorrer; a cambio cada get
+ * decodifica una entidad nueva.
+ * <p>
+ * Tiene la misma interfaz y los mismos segmentos que {@link ConcurrentLongObjectMap} (una partición de la tabla
+ * sigue siendo la misma que la de los índices). Las únicas filas que quedan en el heap son las que tienen una
+ * anterior encadenada para las fotos: mientras la recolección no la suelte, get devuelve ese mismo objeto. Cuando
+ * ya no hace falta, la próxima limpieza del segmento lo descarta y la fila se vuelve a leer de los bytes.
+ * <p>
+ * La memoria de los bloques la libera el GC al descartar el ByteBuffer (en Java 8 no hay liberación explícita):
+ * las filas borradas se reusan y el índice se reemplaza solo al crecer.
+ */
+final class TablaFueraDelHeap<E extends BaseEntity> extends ConcurrentLongObjectMap<E> {
+
+    // Igual que ConcurrentLongObjectMap: 2^6 segmentos, elegidos por los 6 bits altos del hash
+    private static final int SEGMENTOS = 64;
+    private static final int BITS_SEGMENTO = 6;
+    private static final int CAPACIDAD_INICIAL_INDICE = 16;
+    private static final int LARGO_POSICION = 8 + 4;
+    private static final int FILAS_POR_BLOQUE = 4096;
+    private static final int LARGO_ENCABEZADO = 1 + 8;
+    private static final int LIMPIEZA_MINIMA = 64;
+
+    private static final byte VIVA = 1;
+    private static final byte CON_ANTERIOR = 2;
+
+    // Resultado de una lectura optimista que vio un estado a medio escribir
+    private static final Object REINTENTAR = new Object();
+
+    private final int largoEntidad;
+    private final int largoFila;
+    private final Function<ByteBuffer, E> decodificar;
+    private final Segmento[] segmentos;
+    private final AtomicLong bytesReservados = new AtomicLong();
+
+    // decodificar lee una entidad de largoEntidad bytes desde la posición del buffer
+    @SuppressWarnings("unchecked")
+    TablaFueraDelHeap(int largoEntidad, Function<ByteBuffer, E> decodificar) {
+        // La superclase queda con un solo segmento vacío: todos los métodos públicos se reemplazan
+        super(1);
+        this.largoEntidad = largoEntidad;
+        this.largoFila = LARGO_ENCABEZADO + largoEntidad;
+        this.decodificar = decodificar;
+        this.segmentos = (Segmento[]) new TablaFueraDelHeap<?>.Segmento[SEGMENTOS];
+        for (int i = 0; i < SEGMENTOS; i++) {
+            segmentos[i] = new Segmento();
+        }
+    }
+
+    // Bytes fuera del heap (bloques de filas e índices)
+    long getBytesReservados() {
+        return bytesReservados.get();
+    }
+
+    @Override
+    public E get(long key) {
+        long hash = hash(key);
+        return segmentoDe(hash).get(key, hash);
+    }
+
+    @Override
+    public boolean containsKey(long key) {
+        long hash = hash(key);
+        return segmentoDe(hash).contiene(key, hash);
+    }
+
+    @Override
+    public E put(long key, E value) {
+        long hash = hash(key);
+        return segmentoDe(hash).put(key, hash, verificar(value), false);
+    }
+
+    @Override
+    public E putIfAbsent(long key, E value) {
+        long hash = hash(key);
+        return segmentoDe(hash).put(key, hash, verificar(value), true);
+    }
+
+    // Cada fila se escribe con el lock de su segmento: con las filas fuera del heap no hay copia que ahorrar
+    @Override
+    public void putAll(Collection<? extends E> values, ToLongFunction<? super E> keyExtractor) {
+        for (E value : values) {
+            put(keyExtractor.applyAsLong(value), value);
+        }
+    }
+
+    @Override
+    public E remove(long key) {
+        long hash = hash(key);
+        return segmentoDe(hash).remove(key, hash);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segmento segmento : segmentos) {
+            size += segmento.size;
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        for (Segmento segmento : segmentos) {
+            segmento.clear();
+        }
+    }
+
+    @Override
+    public void forEach(LongObjectConsumer<? super E> consumer) {
+        for (Segmento segmento : segmentos) {
+            segmento.forEach(consumer);
+        }
+    }
+
+    @Override
+    public int getCantidadSegmentos() {
+        return SEGMENTOS;
+    }
+
+    @Override
+    public void forEachEnSegmento(int segmento, LongObjectConsumer<? super E> consumer) {
+        segmentos[segmento].forEach(consumer);
+    }
+
+    private Segmento segmentoDe(long hash) {
+        return segmentos[(int) (hash >>> (64 - BITS_SEGMENTO))];
+    }
+
+    private E verificar(E value) {
+        if (value == null) {
+            throw new NullPointerException("TablaFueraDelHeap no admite valores null");
+        }
+        if (value.encodedSize() != largoEntidad) {
+            throw new IllegalArgumentException("La fila " + value.getId() + " mide " + value.encodedSize()
+                    + " bytes y la tabla es de filas de " + largoEntidad);
+        }
+        return value;
+    }
+
+    private ByteBuffer reservar(int bytes) {
+        bytesReservados.addAndGet(bytes);
+        return ByteBuffer.allocateDirect(bytes);
+    }
+
+    // Índice inmutable en su tamaño: al crecer se reemplaza entero
+    private static final class Indice {
+        final ByteBuffer posiciones;
+        final int mask;
+
+        Indice(ByteBuffer posiciones, int capacidad) {
+            this.posiciones = posiciones;
+            this.mask = capacidad - 1;
+        }
+
+        long clave(int i) {
+            return posiciones.getLong(i * LARGO_POSICION);
+        }
+
+        // fila + 1, 0 si la posición está libre
+        int fila(int i) {
+            return posiciones.getInt(i * LARGO_POSICION + 8);
+        }
+
+        void poner(int i, long clave, int fila) {
+            posiciones.putLong(i * LARGO_POSICION, clave);
+            posiciones.putInt(i * LARGO_POSICION + 8, fila);
+        }
+    }
+
+    private final class Segmento {
+        private final StampedLock lock = new StampedLock();
+        private volatile Indice indice = nuevoIndice(CAPACIDAD_INICIAL_INDICE);
+        private volatile ByteBuffer[] bloques = new ByteBuffer[0];
+        private volatile int size;
+        // Filas usadas, vivas o borradas; las borradas se reusan antes de agregar
+        private int filas;
+        private int[] libres = new int[0];
+        private int cantidadLibres;
+        // Filas marcadas CON_ANTERIOR: el objeto publicado, con su cadena de anteriores
+        private final Map<Long, E> conAnterior = new HashMap<>();
+        private int proximaLimpieza = LIMPIEZA_MINIMA;
+
+        // Primero sin lock; si un put tocó el segmento o la fila tiene anterior (está en el mapa), con lock
+        E get(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                Object fila = leerOptimista(key, hash);
+                if (fila != REINTENTAR && lock.validate(stamp)) {
+                    return castear(fila);
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return leer(key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        boolean contiene(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            boolean contiene = buscar(indice, key, hash) >= 0;
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    contiene = buscar(indice, key, hash) >= 0;
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return contiene;
+        }
+
+        E put(long key, long hash, E value, boolean soloSiAusente) {
+            long stamp = lock.writeLock();
+            try {
+                Indice t = indice;
+                int i = (int) hash & t.mask;
+                while (t.fila(i) != 0) {
+                    if (t.clave(i) == key) {
+                        int fila = t.fila(i) - 1;
+                        E anterior = decodificarFila(key, fila);
+                        if (!soloSiAusente) {
+                            escribir(key, fila, value);
+                        }
+                        return anterior;
+                    }
+                    i = (i + 1) & t.mask;
+                }
+                int fila = nuevaFila();
+                escribir(key, fila, value);
+                t.poner(i, key, fila + 1);
+                size = size + 1;
+                if (size * 4 > (t.mask + 1) * 3) {
+                    redimensionar(t);
+                }
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        E remove(long key, long hash) {
+            long stamp = lock.writeLock();
+            try {
+                Indice t = indice;
+                int i = buscar(t, key, hash);
+                if (i < 0) {
+                    return null;
+                }
+                int fila = t.fila(i) - 1;
+                E anterior = decodificarFila(key, fila);
+                borrarConCorrimiento(t, i);
+                ubicar(fila).put(offset(fila), (byte) 0);
+                conAnterior.remove(key);
+                if (cantidadLibres == libres.length) {
+                    libres = Arrays.copyOf(libres, Math.max(16, cantidadLibres * 2));
+                }
+                libres[cantidadLibres++] = fila;
+                size = size - 1;
+                return anterior;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                bytesReservados.addAndGet(-((long) (indice.mask + 1) * LARGO_POSICION + (long) bloques.length * FILAS_POR_BLOQUE * largoFila));
+                indice = nuevoIndice(CAPACIDAD_INICIAL_INDICE);
+                bloques = new ByteBuffer[0];
+                filas = 0;
+                cantidadLibres = 0;
+                conAnterior.clear();
+                size = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        // Como ConcurrentLongObjectMap: las filas se decodifican con el lock y se entregan fuera de él
+        void forEach(LongObjectConsumer<? super E> consumer) {
+            List<E> vivas;
+            long stamp = lock.readLock();
+            try {
+                vivas = new ArrayList<>(size);
+                for (int fila = 0; fila < filas; fila++) {
+                    if ((ubicar(fila).get(offset(fila)) & VIVA) != 0) {
+                        vivas.add(decodificarFila(fila));
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            for (E fila : vivas) {
+                consumer.accept(fila.getId(), fila);
+            }
+        }
+
+        private Object leerOptimista(long key, long hash) {
+            Indice t = indice;
+            int i = buscar(t, key, hash);
+            if (i < 0) {
+                return null;
+            }
+            int fila = t.fila(i) - 1;
+            ByteBuffer[] bloques = this.bloques;
+            if (fila < 0 || fila / FILAS_POR_BLOQUE >= bloques.length) {
+                return REINTENTAR;
+            }
+            ByteBuffer bloque = bloques[fila / FILAS_POR_BLOQUE];
+            int offset = offset(fila);
+            if ((bloque.get(offset) & CON_ANTERIOR) != 0) {
+                return REINTENTAR;
+            }
+            return decodificar(bloque, offset);
+        }
+
+        private E leer(long key, long hash) {
+            int i = buscar(indice, key, hash);
+            return i >= 0 ? decodificarFila(key, indice.fila(i) - 1) : null;
+        }
+
+        private E decodificarFila(long key, int fila) {
+            ByteBuffer bloque = ubicar(fila);
+            int offset = offset(fila);
+            if ((bloque.get(offset) & CON_ANTERIOR) != 0) {
+                return conAnterior.get(key);
+            }
+            return decodificar(bloque, offset);
+        }
+
+        // Sin la clave a mano: toda codificación de BaseEntity empieza con el id
+        private E decodificarFila(int fila) {
+            ByteBuffer bloque = ubicar(fila);
+            int offset = offset(fila);
+            if ((bloque.get(offset) & CON_ANTERIOR) != 0) {
+                return conAnterior.get(bloque.getLong(offset + LARGO_ENCABEZADO));
+            }
+            return decodificar(bloque, offset);
+        }
+
+        private E decodificar(ByteBuffer bloque, int offset) {
+            ByteBuffer origen = bloque.duplicate();
+            origen.position(offset + LARGO_ENCABEZADO);
+            E entity = decodificar.apply(origen);
+            entity.setVersion(bloque.getLong(offset + 1));
+            return entity;
+        }
+
+        // Con el lock de escritura tomado
+        private void escribir(long key, int fila, E value) {
+            ByteBuffer bloque = ubicar(fila);
+            int offset = offset(fila);
+            boolean tieneAnterior = value.getAnterior() != null;
+            bloque.put(offset, (byte) (VIVA | (tieneAnterior ? CON_ANTERIOR : 0)));
+            bloque.putLong(offset + 1, value.getVersion());
+            ByteBuffer destino = bloque.duplicate();
+            destino.position(offset + LARGO_ENCABEZADO);
+            value.encode(destino);
+            if (tieneAnterior) {
+                conAnterior.put(key, value);
+                if (conAnterior.size() >= proximaLimpieza) {
+                    limpiar();
+                }
+            } else if (!conAnterior.isEmpty()) {
+                conAnterior.remove(key);
+            }
+        }
+
+        // Suelta del heap las filas cuya anterior ya recolectó RelojVersiones: vuelven a leerse de los bytes
+        private void limpiar() {
+            Iterator<Map.Entry<Long, E>> entradas = conAnterior.entrySet().iterator();
+            while (entradas.hasNext()) {
+                Map.Entry<Long, E> entrada = entradas.next();
+                if (entrada.getValue().getAnterior() == null) {
+                    int i = buscar(indice, entrada.getKey(), hash(entrada.getKey()));
+                    int fila = indice.fila(i) - 1;
+                    ubicar(fila).put(offset(fila), VIVA);
+                    entradas.remove();
+                }
+            }
+            proximaLimpieza = Math.max(LIMPIEZA_MINIMA, conAnterior.size() * 2);
+        }
+
+        private int nuevaFila() {
+            if (cantidadLibres > 0) {
+                return libres[--cantidadLibres];
+            }
+            int fila = filas;
+            if (fila / FILAS_POR_BLOQUE == bloques.length) {
+                ByteBuffer[] nuevos = Arrays.copyOf(bloques, bloques.length + 1);
+                nuevos[bloques.length] = reservar(FILAS_POR_BLOQUE * largoFila);
+                bloques = nuevos;
+            }
+            filas = fila + 1;
+            return fila;
+        }
+
+        private ByteBuffer ubicar(int fila) {
+            return bloques[fila / FILAS_POR_BLOQUE];
+        }
+
+        private int offset(int fila) {
+            return (fila % FILAS_POR_BLOQUE) * largoFila;
+        }
+
+        private Indice nuevoIndice(int capacidad) {
+            return new Indice(reservar(capacidad * LARGO_POSICION), capacidad);
+        }
+
+        private void redimensionar(Indice viejo) {
+            Indice nuevo = nuevoIndice((viejo.mask + 1) * 2);
+            for (int j = 0; j <= viejo.mask; j++) {
+                if (viejo.fila(j) != 0) {
+                    int i = (int) hash(viejo.clave(j)) & nuevo.mask;
+                    while (nuevo.fila(i) != 0) {
+                        i = (i + 1) & nuevo.mask;
+                    }
+                    nuevo.poner(i, viejo.clave(j), viejo.fila(j));
+                }
+            }
+            indice = nuevo;
+            bytesReservados.addAndGet(-(long) (viejo.mask + 1) * LARGO_POSICION);
+        }
+    }
+
+    // Posición de la clave en el índice, o -1. Acotado por la capacidad: una lectura optimista puede ver el
+    // índice a medio modificar
+    private static int buscar(Indice t, long key, long hash) {
+        int i = (int) hash & t.mask;
+        for (int intentos = 0; intentos <= t.mask; intentos++) {
+            if (t.fila(i) == 0) {
+                return -1;
+            }
+            if (t.clave(i) == key) {
+                return i;
+            }
+            i = (i + 1) & t.mask;
+        }
+        return -1;
+    }
+
+    // Borrado con corrimiento hacia atrás, como en ConcurrentLongObjectMap
+    private static void borrarConCorrimiento(Indice t, int hueco) {
+        int i = hueco;
+        while (true) {
+            i = (i + 1) & t.mask;
+            if (t.fila(i) == 0) {
+                break;
+            }
+            int ideal = (int) hash(t.clave(i)) & t.mask;
+            boolean puedeMoverse = hueco <= i ? (ideal <= hueco || ideal > i) : (ideal <= hueco && ideal > i);
+            if (puedeMoverse) {
+                t.poner(hueco, t.clave(i), t.fila(i));
+                hueco = i;
+            }
+        }
+        t.poner(hueco, 0L, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E castear(Object value) {
+        return (E) value;
+    }
+}
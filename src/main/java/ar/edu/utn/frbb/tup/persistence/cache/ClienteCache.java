@@ -0,0 +1,238 @@
+package ar.edu.utn.frbb.tup.persistence.cache;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * Cache read-through de clientes completos (con sus cuentas), acotado por cantidad y con vencimiento.
+ * Se divide en segmentos por dni, cada uno un LinkedHashMap en orden de acceso (LRU) con su propio lock.
+ * Los clientes que devuelve se comparten entre todos los que los piden: no se deben modificar.
+ */
+public class ClienteCache {
+
+    private static final int SEGMENTOS = 16;
+
+    public static class Estadisticas {
+        private final long aciertos;
+        private final long fallos;
+        private final long desalojos;
+        private final long vencimientos;
+        private final long invalidaciones;
+        private final int entradas;
+
+        Estadisticas(long aciertos, long fallos, long desalojos, long vencimientos, long invalidaciones, int entradas) {
+            this.aciertos = aciertos;
+            this.fallos = fallos;
+            this.desalojos = desalojos;
+            this.vencimientos = vencimientos;
+            this.invalidaciones = invalidaciones;
+            this.entradas = entradas;
+        }
+
+        public long getAciertos() {
+            return aciertos;
+        }
+
+        public long getFallos() {
+            return fallos;
+        }
+
+        public long getDesalojos() {
+            return desalojos;
+        }
+
+        public long getVencimientos() {
+            return vencimientos;
+        }
+
+        public long getInvalidaciones() {
+            return invalidaciones;
+        }
+
+        public int getEntradas() {
+            return entradas;
+        }
+
+        public double getTasaDeAciertos() {
+            long total = aciertos + fallos;
+            return total == 0 ? 0 : (double) aciertos / total;
+        }
+
+        @Override
+        public String toString() {
+            return "Estadisticas{" +
+                    "aciertos=" + aciertos +
+                    ", fallos=" + fallos +
+                    ", desalojos=" + desalojos +
+                    ", vencimientos=" + vencimientos +
+                    ", invalidaciones=" + invalidaciones +
+                    ", entradas=" + entradas +
+                    '}';
+        }
+    }
+
+    private static class Entrada {
+        final Cliente cliente;
+        final long vence;
+
+        Entrada(Cliente cliente, long vence) {
+            this.cliente = cliente;
+            this.vence = vence;
+        }
+    }
+
+    private final class Segmento extends LinkedHashMap<Long, Entrada> {
+        final ReentrantLock lock = new ReentrantLock();
+        final int capacidad;
+        // Se incrementa en cada invalidación: una carga que empezó antes no se guarda (podría estar vieja)
+        long generacion;
+
+        Segmento(int capacidad) {
+            super(16, 0.75f, true);
+            this.capacidad = capacidad;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entrada> eldest) {
+            if (size() > capacidad) {
+                desalojos.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private final Segmento[] segmentos = new Segmento[SEGMENTOS];
+    private final long ttlNanos;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+    private final LongAdder vencimientos = new LongAdder();
+    private final LongAdder invalidaciones = new LongAdder();
+
+    public ClienteCache(int capacidad, long ttl, TimeUnit unidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad del cache debe ser positiva");
+        }
+        int porSegmento = Math.max(1, (capacidad + SEGMENTOS - 1) / SEGMENTOS);
+        for (int i = 0; i < SEGMENTOS; i++) {
+            segmentos[i] = new Segmento(porSegmento);
+        }
+        this.ttlNanos = unidad.toNanos(ttl);
+    }
+
+    // Devuelve el cliente cacheado o lo carga con el cargador. Si el cargador devuelve null no se cachea nada.
+    public Cliente get(long dni, LongFunction<Cliente> cargador) {
+        Segmento segmento = segmentoDe(dni);
+        long generacion;
+        segmento.lock.lock();
+        try {
+            Entrada entrada = segmento.get(dni);
+            if (entrada != null) {
+                if (entrada.vence - System.nanoTime() > 0) {
+                    aciertos.increment();
+                    return entrada.cliente;
+                }
+                segmento.remove(dni);
+                vencimientos.increment();
+            }
+            generacion = segmento.generacion;
+        } finally {
+            segmento.lock.unlock();
+        }
+
+        // La carga se hace fuera del lock: dos hilos pueden cargar el mismo cliente a la vez,
+        // pero un cliente lento no frena al resto del segmento
+        fallos.increment();
+        Cliente cliente = cargador.apply(dni);
+        if (cliente == null) {
+            return null;
+        }
+
+        segmento.lock.lock();
+        try {
+            if (segmento.generacion == generacion) {
+                segmento.put(dni, new Entrada(cliente, System.nanoTime() + ttlNanos));
+            }
+        } finally {
+            segmento.lock.unlock();
+        }
+        return cliente;
+    }
+
+    public void invalidar(long dni) {
+        Segmento segmento = segmentoDe(dni);
+        segmento.lock.lock();
+        try {
+            segmento.generacion++;
+            if (segmento.remove(dni) != null) {
+                invalidaciones.increment();
+            }
+        } finally {
+            segmento.lock.unlock();
+        }
+    }
+
+    public void invalidarTodo() {
+        for (Segmento segmento : segmentos) {
+            segmento.lock.lock();
+            try {
+                segmento.generacion++;
+                invalidaciones.add(segmento.size());
+                segmento.clear();
+            } finally {
+                segmento.lock.unlock();
+            }
+        }
+    }
+
+    // Quita las entradas vencidas. No hace falta llamarlo para que el vencimiento funcione,
+    // solo libera antes la memoria de clientes que nadie volvió a pedir
+    public void purgarVencidos() {
+        long ahora = System.nanoTime();
+        for (Segmento segmento : segmentos) {
+            segmento.lock.lock();
+            try {
+                Iterator<Entrada> entradas = segmento.values().iterator();
+                while (entradas.hasNext()) {
+                    if (entradas.next().vence - ahora <= 0) {
+                        entradas.remove();
+                        vencimientos.increment();
+                    }
+                }
+            } finally {
+                segmento.lock.unlock();
+            }
+        }
+    }
+
+    public int size() {
+        int total = 0;
+        for (Segmento segmento : segmentos) {
+            segmento.lock.lock();
+            try {
+                total += segmento.size();
+            } finally {
+                segmento.lock.unlock();
+            }
+        }
+        return total;
+    }
+
+    public Estadisticas getEstadisticas() {
+        return new Estadisticas(aciertos.sum(), fallos.sum(), desalojos.sum(), vencimientos.sum(), invalidaciones.sum(), size());
+    }
+
+    private Segmento segmentoDe(long dni) {
+        long h = dni * 0x9E3779B97F4A7C15L;
+        return segmentos[(int) (h >>> 60)];
+    }
+}
@@ -0,0 +1,330 @@
+package ar.edu.utn.frbb.tup.persistence.collection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * Mapa long -> objeto con claves primitivas (sin boxing) y direccionamiento abierto
+ * con sondeo lineal. Se divide en segmentos, cada uno con su propio StampedLock:
+ * las lecturas son optimistas (no bloquean) y las escrituras solo bloquean su segmento.
+ * No admite valores null.
+ */
+public class ConcurrentLongObjectMap<V> {
+
+    private static final int SEGMENTOS_POR_DEFECTO = 64;
+    private static final int CAPACIDAD_INICIAL_SEGMENTO = 16;
+
+    public interface LongObjectConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    private final Segment<V>[] segments;
+    private final int segmentShift;
+
+    public ConcurrentLongObjectMap() {
+        this(SEGMENTOS_POR_DEFECTO);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongObjectMap(int concurrencyLevel) {
+        int cantidad = Integer.highestOneBit(Math.max(1, concurrencyLevel - 1) << 1);
+        this.segments = (Segment<V>[]) new Segment<?>[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            segments[i] = new Segment<>();
+        }
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(cantidad);
+    }
+
+    public V get(long key) {
+        long hash = hash(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("ConcurrentLongObjectMap no admite valores null");
+        }
+        long hash = hash(key);
+        return segmentFor(hash).put(key, hash, value, false);
+    }
+
+    public V putIfAbsent(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("ConcurrentLongObjectMap no admite valores null");
+        }
+        long hash = hash(key);
+        return segmentFor(hash).put(key, hash, value, true);
+    }
+
+    /**
+     * Inserta (o reemplaza) todos los valores tomando el lock de cada segmento una sola vez,
+     * en lugar de una vez por elemento como haría un put en loop.
+     */
+    public void putAll(Collection<? extends V> values, ToLongFunction<? super V> keyExtractor) {
+        List<List<V>> porSegmento = new ArrayList<>(segments.length);
+        for (int i = 0; i < segments.length; i++) {
+            porSegmento.add(null);
+        }
+        for (V value : values) {
+            if (value == null) {
+                throw new NullPointerException("ConcurrentLongObjectMap no admite valores null");
+            }
+            int indice = segmentIndex(hash(keyExtractor.applyAsLong(value)));
+            List<V> lote = porSegmento.get(indice);
+            if (lote == null) {
+                lote = new ArrayList<>();
+                porSegmento.set(indice, lote);
+            }
+            lote.add(value);
+        }
+        for (int i = 0; i < segments.length; i++) {
+            if (porSegmento.get(i) != null) {
+                segments[i].putAll(porSegmento.get(i), keyExtractor);
+            }
+        }
+    }
+
+    public V remove(long key) {
+        long hash = hash(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Recorre el mapa segmento por segmento. Cada segmento se copia bajo lock y se recorre
+     * fuera de él, así el consumer puede escribir en el mismo mapa sin bloquearse.
+     */
+    public void forEach(LongObjectConsumer<? super V> consumer) {
+        for (Segment<V> segment : segments) {
+            segment.forEach(consumer);
+        }
+    }
+
+    // Para repartir un recorrido entre varios hilos: cada segmento se recorre por separado
+    public int getCantidadSegmentos() {
+        return segments.length;
+    }
+
+    /**
+     * Recorre solo el segmento dado. Cada segmento tiene las claves cuyo hash multiplicativo
+     * (clave * 0x9E3779B97F4A7C15) empieza con los mismos bits altos.
+     */
+    public void forEachEnSegmento(int segmento, LongObjectConsumer<? super V> consumer) {
+        segments[segmento].forEach(consumer);
+    }
+
+    private Segment<V> segmentFor(long hash) {
+        return segments[segmentIndex(hash)];
+    }
+
+    private int segmentIndex(long hash) {
+        return segments.length == 1 ? 0 : (int) (hash >>> segmentShift);
+    }
+
+    // Protegido para que una subclase reparta las claves en los mismos segmentos
+    protected static long hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private static final class Tabla {
+        final long[] keys;
+        final Object[] values;
+        final int mask;
+
+        Tabla(int capacidad) {
+            this.keys = new long[capacidad];
+            this.values = new Object[capacidad];
+            this.mask = capacidad - 1;
+        }
+    }
+
+    private static final class Segment<V> {
+        private final StampedLock lock = new StampedLock();
+        private volatile Tabla tabla = new Tabla(CAPACIDAD_INICIAL_SEGMENTO);
+        private volatile int size;
+
+        V get(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            Object value = buscar(tabla, key, hash);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    value = buscar(tabla, key, hash);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return castear(value);
+        }
+
+        V put(long key, long hash, V value, boolean soloSiAusente) {
+            long stamp = lock.writeLock();
+            try {
+                return putConLockTomado(key, hash, value, soloSiAusente);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void putAll(List<V> values, ToLongFunction<? super V> keyExtractor) {
+            long stamp = lock.writeLock();
+            try {
+                for (V value : values) {
+                    long key = keyExtractor.applyAsLong(value);
+                    putConLockTomado(key, hash(key), value, false);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private V putConLockTomado(long key, long hash, V value, boolean soloSiAusente) {
+            Tabla t = tabla;
+            int i = (int) hash & t.mask;
+            while (t.values[i] != null) {
+                if (t.keys[i] == key) {
+                    Object anterior = t.values[i];
+                    if (!soloSiAusente) {
+                        t.values[i] = value;
+                    }
+                    return castear(anterior);
+                }
+                i = (i + 1) & t.mask;
+            }
+            t.keys[i] = key;
+            t.values[i] = value;
+            size = size + 1;
+            if (size * 4 > t.keys.length * 3) {
+                redimensionar(t);
+            }
+            return null;
+        }
+
+        V remove(long key, long hash) {
+            long stamp = lock.writeLock();
+            try {
+                Tabla t = tabla;
+                int i = (int) hash & t.mask;
+                while (t.values[i] != null) {
+                    if (t.keys[i] == key) {
+                        Object anterior = t.values[i];
+                        borrarConCorrimiento(t, i);
+                        size = size - 1;
+                        return castear(anterior);
+                    }
+                    i = (i + 1) & t.mask;
+                }
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                tabla = new Tabla(CAPACIDAD_INICIAL_SEGMENTO);
+                size = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void forEach(LongObjectConsumer<? super V> consumer) {
+            long[] keys;
+            Object[] values;
+            long stamp = lock.readLock();
+            try {
+                keys = tabla.keys.clone();
+                values = tabla.values.clone();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    consumer.accept(keys[i], castear(values[i]));
+                }
+            }
+        }
+
+        private void redimensionar(Tabla vieja) {
+            Tabla nueva = new Tabla(vieja.keys.length * 2);
+            for (int j = 0; j < vieja.values.length; j++) {
+                if (vieja.values[j] != null) {
+                    int i = (int) hash(vieja.keys[j]) & nueva.mask;
+                    while (nueva.values[i] != null) {
+                        i = (i + 1) & nueva.mask;
+                    }
+                    nueva.keys[i] = vieja.keys[j];
+                    nueva.values[i] = vieja.values[j];
+                }
+            }
+            tabla = nueva;
+        }
+
+        // Borrado con corrimiento hacia atrás: evita lápidas y mantiene cortas las cadenas de sondeo
+        private static void borrarConCorrimiento(Tabla t, int hueco) {
+            int i = hueco;
+            while (true) {
+                i = (i + 1) & t.mask;
+                if (t.values[i] == null) {
+                    break;
+                }
+                int ideal = (int) hash(t.keys[i]) & t.mask;
+                boolean puedeMoverse = hueco <= i ? (ideal <= hueco || ideal > i) : (ideal <= hueco && ideal > i);
+                if (puedeMoverse) {
+                    t.keys[hueco] = t.keys[i];
+                    t.values[hueco] = t.values[i];
+                    hueco = i;
+                }
+            }
+            t.values[hueco] = null;
+            t.keys[hueco] = 0L;
+        }
+
+        private static Object buscar(Tabla t, long key, long hash) {
+            int i = (int) hash & t.mask;
+            for (int intentos = 0; intentos <= t.mask; intentos++) {
+                Object value = t.values[i];
+                if (value == null) {
+                    return null;
+                }
+                if (t.keys[i] == key) {
+                    return value;
+                }
+                i = (i + 1) & t.mask;
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> V castear(Object value) {
+            return (V) value;
+        }
+    }
+}
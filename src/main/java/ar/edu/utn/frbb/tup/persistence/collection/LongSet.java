@@ -0,0 +1,75 @@
+package ar.edu.utn.frbb.tup.persistence.collection;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de longs primitivos sin boxing. Pensado para conjuntos chicos
+ * (por ejemplo las cuentas de un cliente), por eso usa búsqueda lineal
+ * sobre un arreglo compacto en vez de hashing.
+ */
+public class LongSet {
+    private long[] values;
+    private int size;
+
+    public LongSet() {
+        this(4);
+    }
+
+    public LongSet(int initialCapacity) {
+        this.values = new long[Math.max(1, initialCapacity)];
+    }
+
+    public LongSet(LongSet other) {
+        this.values = Arrays.copyOf(other.values, Math.max(1, other.size + 1));
+        this.size = other.size;
+    }
+
+    public boolean add(long value) {
+        if (contains(value)) {
+            return false;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+        return true;
+    }
+
+    public boolean remove(long value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                values[i] = values[--size];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean contains(long value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
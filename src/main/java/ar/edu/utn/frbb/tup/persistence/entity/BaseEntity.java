@@ -1,14 +1,147 @@
 package ar.edu.utn.frbb.tup.persistence.entity;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
 public class BaseEntity {
-    private final Long Id;
+    // Marcas de "sin valor" para los campos primitivos de las filas compactas
+    protected static final byte SIN_ENUM = -1;
+    public static final int SIN_FECHA = Integer.MIN_VALUE;
+
+    private final long id;
+    // Versión de la fila para los save con versión esperada (ver AbstractBaseDao.guardar): es el instante en que
+    // se publicó, así también sirve para las fotos (ver Foto). La asigna el DAO antes de publicar la fila y no se
+    // codifica: al recuperar desde disco las versiones vuelven a empezar, y ningún modelo leído antes del reinicio
+    // sigue vivo para esperar una versión vieja
+    private long version;
+    // Fila a la que reemplazó, mientras alguna foto abierta pueda necesitarla. Se corta sin sincronizar: quien
+    // la lee como null es porque ya no la necesitaba
+    private BaseEntity anterior;
 
     public BaseEntity(long id) {
-        Id = id;
+        this.id = id;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public BaseEntity getAnterior() {
+        return anterior;
+    }
+
+    public void setAnterior(BaseEntity anterior) {
+        this.anterior = anterior;
+    }
+
+    // Codificación binaria de la fila, la misma que se usa en el write-ahead log y en los snapshots.
+    // Las subclases escriben primero el id y después sus campos.
+
+    public int encodedSize() {
+        return 8;
     }
 
-    public Long getId() {
-        return Id;
+    public void encode(ByteBuffer destino) {
+        destino.putLong(id);
     }
 
+    protected static byte ordinal(Enum<?> valor) {
+        return valor != null ? (byte) valor.ordinal() : SIN_ENUM;
+    }
+
+    protected static <T extends Enum<T>> T fromOrdinal(T[] valores, byte ordinal) {
+        return ordinal != SIN_ENUM ? valores[ordinal] : null;
+    }
+
+    protected static int toEpochDay(LocalDate fecha) {
+        return fecha != null ? (int) fecha.toEpochDay() : SIN_FECHA;
+    }
+
+    protected static LocalDate fromEpochDay(int epochDay) {
+        return epochDay != SIN_FECHA ? LocalDate.ofEpochDay(epochDay) : null;
+    }
+
+    // Los strings se codifican como [largo en bytes (short), -1 si es null][UTF-8].
+    // El tamaño y la escritura se calculan caracter a caracter para no alocar un byte[] intermedio.
+
+    protected static int stringSize(String valor) {
+        if (valor == null) {
+            return 2;
+        }
+        int bytes = 0;
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < valor.length() && Character.isLowSurrogate(valor.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes += 1;
+            } else {
+                bytes += 3;
+            }
+        }
+        if (bytes > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("String demasiado largo para codificar: " + bytes + " bytes");
+        }
+        return 2 + bytes;
+    }
+
+    protected static void putString(ByteBuffer destino, String valor) {
+        if (valor == null) {
+            destino.putShort((short) -1);
+            return;
+        }
+        destino.putShort((short) (stringSize(valor) - 2));
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c < 0x80) {
+                destino.put((byte) c);
+            } else if (c < 0x800) {
+                destino.put((byte) (0xC0 | (c >> 6)));
+                destino.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < valor.length() && Character.isLowSurrogate(valor.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, valor.charAt(++i));
+                destino.put((byte) (0xF0 | (codePoint >> 18)));
+                destino.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                destino.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                destino.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                destino.put((byte) '?');
+            } else {
+                destino.put((byte) (0xE0 | (c >> 12)));
+                destino.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                destino.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    protected static String getString(ByteBuffer origen) {
+        short largo = origen.getShort();
+        if (largo < 0) {
+            return null;
+        }
+        String valor;
+        if (origen.hasArray()) {
+            valor = new String(origen.array(), origen.arrayOffset() + origen.position(), largo, StandardCharsets.UTF_8);
+            origen.position(origen.position() + largo);
+        } else {
+            byte[] bytes = new byte[largo];
+            origen.get(bytes);
+            valor = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return valor;
+    }
 }
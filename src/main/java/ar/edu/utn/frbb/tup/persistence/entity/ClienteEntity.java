@@ -1,48 +1,142 @@
 package ar.edu.utn.frbb.tup.persistence.entity;
 
 import ar.edu.utn.frbb.tup.model.Cliente;
-import ar.edu.utn.frbb.tup.model.Cuenta;
 import ar.edu.utn.frbb.tup.model.TipoPersona;
-import ar.edu.utn.frbb.tup.persistence.CuentaDao;
-import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
 
 public class ClienteEntity extends BaseEntity {
 
-    private final String tipoPersona;
+    private static final long[] SIN_CUENTAS = new long[0];
+    private static final TipoPersona[] TIPOS_PERSONA = TipoPersona.values();
+
+    // Fila compacta: enum como ordinal, fechas como epoch-day y las cuentas como long[]
+    private final byte tipoPersona;
     private final String nombre;
     private final String apellido;
-    private final LocalDate fechaAlta;
-    private final LocalDate fechaNacimiento;
-    private List<Long> cuentas;
+    private final int fechaAlta;
+    private final int fechaNacimiento;
+    private final long[] cuentas;
+    // Resumen de tipos de esas cuentas (ver Cliente.marcaTipo). No se codifica: solo hace falta mientras una
+    // cuenta recién agregada todavía no llegó al índice de CuentaDao, y eso no sobrevive a un reinicio
+    private final int resumenTipos;
 
     public ClienteEntity(Cliente cliente) {
         super(cliente.getDni());
-        this.tipoPersona = cliente.getTipoPersona() != null ? cliente.getTipoPersona().getDescripcion() : null;
+        this.tipoPersona = ordinal(cliente.getTipoPersona());
         this.nombre = cliente.getNombre();
         this.apellido = cliente.getApellido();
-        this.fechaAlta = cliente.getFechaAlta();
-        this.fechaNacimiento = cliente.getFechaNacimiento();
-        this.cuentas = new ArrayList<>();
-        if (cliente.getCuentas() != null && !cliente.getCuentas().isEmpty()) {
-            for (Cuenta c: cliente.getCuentas()) {
-                cuentas.add(c.getNumeroCuenta());
-            }
+        this.fechaAlta = toEpochDay(cliente.getFechaAlta());
+        this.fechaNacimiento = toEpochDay(cliente.getFechaNacimiento());
+        // getNumerosCuenta no carga las cuentas pendientes de un cliente traído con find(dni, true)
+        long[] numerosCuenta = cliente.getNumerosCuenta();
+        this.cuentas = numerosCuenta.length == 0 ? SIN_CUENTAS : numerosCuenta;
+        this.resumenTipos = cliente.getResumenTipos();
+    }
+
+    private ClienteEntity(long dni, byte tipoPersona, String nombre, String apellido, int fechaAlta, int fechaNacimiento, long[] cuentas) {
+        super(dni);
+        this.tipoPersona = tipoPersona;
+        this.nombre = nombre;
+        this.apellido = apellido;
+        this.fechaAlta = fechaAlta;
+        this.fechaNacimiento = fechaNacimiento;
+        this.cuentas = cuentas;
+        this.resumenTipos = 0;
+    }
+
+    // [dni (8)][tipoPersona (1)][fechaAlta (4)][fechaNacimiento (4)][nombre][apellido][cantidad cuentas (4)][cuentas (8 c/u)]
+    @Override
+    public int encodedSize() {
+        return 8 + 1 + 4 + 4 + stringSize(nombre) + stringSize(apellido) + 4 + 8 * cuentas.length;
+    }
+
+    @Override
+    public void encode(ByteBuffer destino) {
+        destino.putLong(getId());
+        destino.put(tipoPersona);
+        destino.putInt(fechaAlta);
+        destino.putInt(fechaNacimiento);
+        putString(destino, nombre);
+        putString(destino, apellido);
+        destino.putInt(cuentas.length);
+        for (long numeroCuenta : cuentas) {
+            destino.putLong(numeroCuenta);
         }
     }
 
+    public static ClienteEntity decode(ByteBuffer origen) {
+        long dni = origen.getLong();
+        byte tipoPersona = origen.get();
+        int fechaAlta = origen.getInt();
+        int fechaNacimiento = origen.getInt();
+        String nombre = getString(origen);
+        String apellido = getString(origen);
+        int cantidadCuentas = origen.getInt();
+        long[] cuentas = cantidadCuentas == 0 ? SIN_CUENTAS : new long[cantidadCuentas];
+        for (int i = 0; i < cantidadCuentas; i++) {
+            cuentas[i] = origen.getLong();
+        }
+        return new ClienteEntity(dni, tipoPersona, nombre, apellido, fechaAlta, fechaNacimiento, cuentas);
+    }
+
+    //Decodifica la fila directo al modelo, sin pasar por una ClienteEntity intermedia
+    public static Cliente decodeCliente(ByteBuffer origen) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(origen.getLong());
+        cliente.setTipoPersona(fromOrdinal(TIPOS_PERSONA, origen.get()));
+        cliente.setFechaAlta(fromEpochDay(origen.getInt()));
+        cliente.setFechaNacimiento(fromEpochDay(origen.getInt()));
+        cliente.setNombre(getString(origen));
+        cliente.setApellido(getString(origen));
+        int cantidadCuentas = origen.getInt();
+        origen.position(origen.position() + 8 * cantidadCuentas);
+        return cliente;
+    }
+
+    public long[] getCuentas() {
+        return cuentas.clone();
+    }
+
+    public int getCantidadCuentas() {
+        return cuentas.length;
+    }
+
+    public int getResumenTipos() {
+        return resumenTipos;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getApellido() {
+        return apellido;
+    }
+
+    public TipoPersona getTipoPersona() {
+        return fromOrdinal(TIPOS_PERSONA, tipoPersona);
+    }
+
+    // Las fechas quedan como epoch-day (SIN_FECHA si no tiene) para exportar sin armar un LocalDate por fila
+    public int getFechaNacimientoEpochDay() {
+        return fechaNacimiento;
+    }
+
+    public int getFechaAltaEpochDay() {
+        return fechaAlta;
+    }
 
     public Cliente toCliente() {
         Cliente cliente = new Cliente();
         cliente.setDni(this.getId());
         cliente.setNombre(this.nombre);
         cliente.setApellido(this.apellido);
-        cliente.setTipoPersona(TipoPersona.fromString(this.tipoPersona));
-        cliente.setFechaAlta(this.fechaAlta);
-        cliente.setFechaNacimiento(this.fechaNacimiento);
+        cliente.setTipoPersona(fromOrdinal(TIPOS_PERSONA, this.tipoPersona));
+        cliente.setFechaAlta(fromEpochDay(this.fechaAlta));
+        cliente.setFechaNacimiento(fromEpochDay(this.fechaNacimiento));
+        cliente.setVersion(getVersion());
 
         return cliente;
     }
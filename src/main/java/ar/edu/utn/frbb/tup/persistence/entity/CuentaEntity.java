@@ -3,80 +3,145 @@ package ar.edu.utn.frbb.tup.persistence.entity;
 import ar.edu.utn.frbb.tup.model.Cliente;
 import ar.edu.utn.frbb.tup.model.Cuenta;
 import ar.edu.utn.frbb.tup.model.TipoCuenta;
-import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 public class CuentaEntity extends BaseEntity{
-    String nombre;
-    LocalDateTime fechaCreacion;
-    int balance;
-    String tipoCuenta;
-    Long titular;
-    long numeroCuenta;
+
+    // [numeroCuenta (8)][fechaCreacion segundos (8)][nanos (4)][balance (8)][tipoCuenta (1)][moneda (1)][titular (8)]
+    public static final int LARGO_CODIFICADO = 8 + 8 + 4 + 8 + 1 + 1 + 8;
+    public static final long SIN_FECHA_HORA = Long.MIN_VALUE;
+    private static final TipoCuenta[] TIPOS_CUENTA = TipoCuenta.values();
+    private static final TipoMoneda[] MONEDAS = TipoMoneda.values();
+
+    // Fila compacta: la fecha como segundos + nanos (UTC) y los enums como ordinal
+    private long fechaCreacionSegundos;
+    private int fechaCreacionNanos;
+    private long balance;
+    private byte tipoCuenta;
+    private byte moneda;
+    private long titular;
 
     public CuentaEntity(Cuenta cuenta) {
         super(cuenta.getNumeroCuenta());
         this.balance = cuenta.getBalance();
-        this.tipoCuenta = cuenta.getTipoCuenta().toString();
+        this.tipoCuenta = ordinal(cuenta.getTipoCuenta());
+        this.moneda = ordinal(cuenta.getMoneda());
         this.titular = cuenta.getTitular().getDni();
-        this.fechaCreacion = cuenta.getFechaCreacion();
+        setFechaCreacion(cuenta.getFechaCreacion());
     }
 
-    public Cuenta toCuenta() {
-        Cuenta cuenta = new Cuenta();
-        cuenta.setBalance(this.balance);
-        cuenta.setNumeroCuenta(this.numeroCuenta);
-        cuenta.setTipoCuenta(TipoCuenta.valueOf(this.tipoCuenta));
-        cuenta.setFechaCreacion(this.fechaCreacion);
-        return cuenta;
+    private CuentaEntity(long id) {
+        super(id);
+    }
+
+    @Override
+    public int encodedSize() {
+        return LARGO_CODIFICADO;
+    }
+
+    @Override
+    public void encode(ByteBuffer destino) {
+        destino.putLong(getId());
+        destino.putLong(fechaCreacionSegundos);
+        destino.putInt(fechaCreacionNanos);
+        destino.putLong(balance);
+        destino.put(tipoCuenta);
+        destino.put(moneda);
+        destino.putLong(titular);
     }
 
-    public String getNombre() {
-        return nombre;
+    public static CuentaEntity decode(ByteBuffer origen) {
+        CuentaEntity entity = new CuentaEntity(origen.getLong());
+        entity.fechaCreacionSegundos = origen.getLong();
+        entity.fechaCreacionNanos = origen.getInt();
+        entity.balance = origen.getLong();
+        entity.tipoCuenta = origen.get();
+        entity.moneda = origen.get();
+        entity.titular = origen.getLong();
+        return entity;
     }
 
-    public void setNombre(String nombre) {
-        this.nombre = nombre;
+    //Decodifica la fila directo al modelo, sin pasar por una CuentaEntity intermedia
+    public static Cuenta decodeCuenta(ByteBuffer origen) {
+        Cuenta cuenta = new Cuenta(origen.getLong());
+        long segundos = origen.getLong();
+        int nanos = origen.getInt();
+        cuenta.setFechaCreacion(segundos != SIN_FECHA_HORA ? LocalDateTime.ofEpochSecond(segundos, nanos, ZoneOffset.UTC) : null);
+        cuenta.setBalance(origen.getLong());
+        cuenta.setTipoCuenta(fromOrdinal(TIPOS_CUENTA, origen.get()));
+        cuenta.setMoneda(fromOrdinal(MONEDAS, origen.get()));
+        Cliente titular = new Cliente();
+        titular.setDni(origen.getLong());
+        cuenta.setTitular(titular);
+        return cuenta;
+    }
+
+    public Cuenta toCuenta() {
+        Cuenta cuenta = new Cuenta(this.getId());
+        cuenta.setBalance(this.balance);
+        cuenta.setTipoCuenta(getTipoCuenta());
+        cuenta.setMoneda(getMoneda());
+        cuenta.setFechaCreacion(getFechaCreacion());
+        cuenta.setVersion(getVersion());
+
+        //Solo se conoce el dni del titular; ClienteDao lo reemplaza por el cliente completo al cargarlo
+        Cliente titular = new Cliente();
+        titular.setDni(this.titular);
+        cuenta.setTitular(titular);
+        return cuenta;
     }
 
     public LocalDateTime getFechaCreacion() {
-        return fechaCreacion;
+        return fechaCreacionSegundos != SIN_FECHA_HORA ? LocalDateTime.ofEpochSecond(fechaCreacionSegundos, fechaCreacionNanos, ZoneOffset.UTC) : null;
+    }
+
+    // Milisegundos UTC de la fecha de creación, o SIN_FECHA_HORA
+    public long getFechaCreacionMilis() {
+        return fechaCreacionSegundos != SIN_FECHA_HORA ? fechaCreacionSegundos * 1000 + fechaCreacionNanos / 1_000_000 : SIN_FECHA_HORA;
     }
 
     public void setFechaCreacion(LocalDateTime fechaCreacion) {
-        this.fechaCreacion = fechaCreacion;
+        this.fechaCreacionSegundos = fechaCreacion != null ? fechaCreacion.toEpochSecond(ZoneOffset.UTC) : SIN_FECHA_HORA;
+        this.fechaCreacionNanos = fechaCreacion != null ? fechaCreacion.getNano() : 0;
     }
 
-    public int getBalance() {
+    public long getBalance() {
         return balance;
     }
 
-    public void setBalance(int balance) {
+    public void setBalance(long balance) {
         this.balance = balance;
     }
 
-    public String getTipoCuenta() {
-        return tipoCuenta;
+    public TipoCuenta getTipoCuenta() {
+        return fromOrdinal(TIPOS_CUENTA, tipoCuenta);
     }
 
-    public void setTipoCuenta(String tipoCuenta) {
-        this.tipoCuenta = tipoCuenta;
+    public void setTipoCuenta(TipoCuenta tipoCuenta) {
+        this.tipoCuenta = ordinal(tipoCuenta);
     }
 
-    public Long getTitular() {
+    public TipoMoneda getMoneda() {
+        return fromOrdinal(MONEDAS, moneda);
+    }
+
+    public void setMoneda(TipoMoneda moneda) {
+        this.moneda = ordinal(moneda);
+    }
+
+    public long getTitular() {
         return titular;
     }
 
-    public void setTitular(Long titular) {
+    public void setTitular(long titular) {
         this.titular = titular;
     }
 
     public long getNumeroCuenta() {
-        return numeroCuenta;
-    }
-
-    public void setNumeroCuenta(long numeroCuenta) {
-        this.numeroCuenta = numeroCuenta;
+        return getId();
     }
 }
@@ -0,0 +1,252 @@
+package ar.edu.utn.frbb.tup.persistence.entity;
+
+import ar.edu.utn.frbb.tup.model.TipoMovimiento;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Libro de movimientos de una cuenta. Solo se agrega al final, nunca se modifica lo ya escrito.
+ * <p>
+ * Cada movimiento ocupa 25 bytes en arreglos primitivos paralelos (instante, monto, contraparte, tipo),
+ * sin un objeto por movimiento. Cada {@value #CADA_CHECKPOINT} movimientos se guarda el saldo resultante,
+ * así el saldo a una fecha es una búsqueda binaria por instante más, a lo sumo, 63 sumas.
+ * <p>
+ * Escribe un hilo por vez (métodos synchronized); los lectores no toman lock: leen primero la cantidad
+ * (volatile) y después los arreglos, y como lo escrito no cambia ven siempre un prefijo consistente.
+ */
+public class LibroMovimientos {
+
+    public static final int CADA_CHECKPOINT = 64;
+    private static final int CAPACIDAD_INICIAL = 4;
+    private static final int LARGO_MOVIMIENTO = 8 + 1 + 8 + 8;
+    private static final TipoMovimiento[] TIPOS = TipoMovimiento.values();
+
+    public interface MovimientoConsumer {
+        void accept(long indice, long instante, TipoMovimiento tipo, long monto, long saldo, long cuentaContraparte);
+    }
+
+    // Los arreglos se reemplazan juntos cuando se llenan; los anteriores siguen siendo válidos para quien los tenga
+    private static final class Datos {
+        final long[] instantes;
+        final long[] montos;
+        final long[] contrapartes;
+        final byte[] tipos;
+        // checkpoints[k] = saldo después del movimiento (k + 1) * CADA_CHECKPOINT - 1
+        final long[] checkpoints;
+
+        Datos(int capacidad) {
+            this(new long[capacidad], new long[capacidad], new long[capacidad], new byte[capacidad],
+                    new long[capacidad / CADA_CHECKPOINT + 1]);
+        }
+
+        private Datos(long[] instantes, long[] montos, long[] contrapartes, byte[] tipos, long[] checkpoints) {
+            this.instantes = instantes;
+            this.montos = montos;
+            this.contrapartes = contrapartes;
+            this.tipos = tipos;
+            this.checkpoints = checkpoints;
+        }
+
+        Datos crecer() {
+            int capacidad = instantes.length * 2;
+            return new Datos(Arrays.copyOf(instantes, capacidad), Arrays.copyOf(montos, capacidad),
+                    Arrays.copyOf(contrapartes, capacidad), Arrays.copyOf(tipos, capacidad),
+                    Arrays.copyOf(checkpoints, capacidad / CADA_CHECKPOINT + 1));
+        }
+
+        long delta(int i) {
+            return TIPOS[tipos[i]].getSigno() * montos[i];
+        }
+    }
+
+    private final long numeroCuenta;
+    private final long saldoInicial;
+    private volatile Datos datos;
+    private volatile int cantidad;
+    // Solo lo usan los escritores, siempre dentro del lock
+    private long saldoActual;
+
+    public LibroMovimientos(long numeroCuenta, long saldoInicial) {
+        this(numeroCuenta, saldoInicial, CAPACIDAD_INICIAL);
+    }
+
+    private LibroMovimientos(long numeroCuenta, long saldoInicial, int capacidad) {
+        this.numeroCuenta = numeroCuenta;
+        this.saldoInicial = saldoInicial;
+        this.saldoActual = saldoInicial;
+        this.datos = new Datos(Math.max(CAPACIDAD_INICIAL, Integer.highestOneBit(Math.max(1, capacidad - 1)) << 1));
+    }
+
+    public long getNumeroCuenta() {
+        return numeroCuenta;
+    }
+
+    // Saldo de la cuenta antes del primer movimiento registrado
+    public long getSaldoInicial() {
+        return saldoInicial;
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public synchronized long getSaldoActual() {
+        return saldoActual;
+    }
+
+    public synchronized long getUltimoInstante() {
+        return cantidad == 0 ? Long.MIN_VALUE : datos.instantes[cantidad - 1];
+    }
+
+    /**
+     * Agrega un movimiento y devuelve su índice. El instante nunca queda antes que el del movimiento
+     * anterior (si el reloj retrocede se usa el anterior), así el libro queda ordenado por instante.
+     */
+    public synchronized int agregar(long instante, TipoMovimiento tipo, long monto, long cuentaContraparte) {
+        int indice = cantidad;
+        Datos d = datos;
+        if (indice == d.instantes.length) {
+            d = d.crecer();
+            datos = d;
+        }
+        d.instantes[indice] = indice == 0 ? instante : Math.max(instante, d.instantes[indice - 1]);
+        d.montos[indice] = monto;
+        d.contrapartes[indice] = cuentaContraparte;
+        d.tipos[indice] = (byte) tipo.ordinal();
+        saldoActual += tipo.getSigno() * monto;
+        if ((indice + 1) % CADA_CHECKPOINT == 0) {
+            d.checkpoints[(indice + 1) / CADA_CHECKPOINT - 1] = saldoActual;
+        }
+        // La escritura volatile publica todo lo anterior a los lectores
+        cantidad = indice + 1;
+        return indice;
+    }
+
+    // Para el replay del log: los movimientos que ya están (vinieron en el snapshot) se ignoran
+    public synchronized boolean agregarRecuperado(long indice, long instante, TipoMovimiento tipo, long monto, long cuentaContraparte) {
+        if (indice < cantidad) {
+            return false;
+        }
+        agregar(instante, tipo, monto, cuentaContraparte);
+        return true;
+    }
+
+    // Si hay un movimiento del tipo y la contraparte dados con instante >= desde; recorre hacia atrás desde el último
+    public boolean contiene(long desde, TipoMovimiento tipo, long cuentaContraparte) {
+        int n = cantidad;
+        Datos d = datos;
+        byte ordinal = (byte) tipo.ordinal();
+        for (int i = n - 1; i >= 0 && d.instantes[i] >= desde; i--) {
+            if (d.tipos[i] == ordinal && d.contrapartes[i] == cuentaContraparte) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Saldo que tenía la cuenta en el instante dado, contando los movimientos de ese mismo instante
+    public long saldoAl(long instante) {
+        int n = cantidad;
+        Datos d = datos;
+        return saldoAntesDe(d, primeroPosteriorA(d, n, instante));
+    }
+
+    /**
+     * Recorre, a partir del índice {@code desdeIndice}, los movimientos con instante entre {@code desde} y
+     * {@code hasta} (inclusive), pasando cada uno al consumer con el saldo resultante. Para después de
+     * {@code limite} movimientos.
+     *
+     * @return el índice desde donde sigue la próxima página, o -1 si no quedan más movimientos en el rango
+     */
+    public long recorrer(long desde, long hasta, long desdeIndice, int limite, MovimientoConsumer consumer) {
+        int n = cantidad;
+        Datos d = datos;
+        int i = (int) Math.min(n, Math.max(desdeIndice, primeroDesde(d, n, desde)));
+        long saldo = saldoAntesDe(d, i);
+        int entregados = 0;
+        while (i < n && d.instantes[i] <= hasta) {
+            if (entregados == limite) {
+                return i;
+            }
+            saldo += d.delta(i);
+            consumer.accept(i, d.instantes[i], TIPOS[d.tipos[i]], d.montos[i], saldo, d.contrapartes[i]);
+            entregados++;
+            i++;
+        }
+        return -1;
+    }
+
+    // Saldo antes del movimiento i (o el final si i == cantidad): último checkpoint + los movimientos que siguen
+    private long saldoAntesDe(Datos d, int i) {
+        int bloque = i / CADA_CHECKPOINT;
+        long saldo = bloque == 0 ? saldoInicial : d.checkpoints[bloque - 1];
+        for (int j = bloque * CADA_CHECKPOINT; j < i; j++) {
+            saldo += d.delta(j);
+        }
+        return saldo;
+    }
+
+    // Primer índice con instante >= el dado
+    private static int primeroDesde(Datos d, int n, long instante) {
+        int desde = 0;
+        int hasta = n;
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            if (d.instantes[medio] < instante) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return desde;
+    }
+
+    // Primer índice con instante > el dado
+    private static int primeroPosteriorA(Datos d, int n, long instante) {
+        return instante == Long.MAX_VALUE ? n : primeroDesde(d, n, instante + 1);
+    }
+
+    /**
+     * Vista de los movimientos registrados hasta ahora, para los snapshots. Como lo ya escrito no cambia,
+     * el tamaño y la codificación coinciden aunque se sigan agregando movimientos mientras tanto.
+     * [numeroCuenta (8)][saldoInicial (8)][cantidad (4)] + por movimiento [instante (8)][tipo (1)][monto (8)][contraparte (8)]
+     */
+    public BaseEntity foto() {
+        final int n = cantidad;
+        final Datos d = datos;
+        return new BaseEntity(numeroCuenta) {
+            @Override
+            public int encodedSize() {
+                return 8 + 8 + 4 + n * LARGO_MOVIMIENTO;
+            }
+
+            @Override
+            public void encode(ByteBuffer destino) {
+                destino.putLong(numeroCuenta);
+                destino.putLong(saldoInicial);
+                destino.putInt(n);
+                for (int i = 0; i < n; i++) {
+                    destino.putLong(d.instantes[i]);
+                    destino.put(d.tipos[i]);
+                    destino.putLong(d.montos[i]);
+                    destino.putLong(d.contrapartes[i]);
+                }
+            }
+        };
+    }
+
+    public static LibroMovimientos decode(ByteBuffer origen) {
+        long numeroCuenta = origen.getLong();
+        long saldoInicial = origen.getLong();
+        int n = origen.getInt();
+        LibroMovimientos libro = new LibroMovimientos(numeroCuenta, saldoInicial, n);
+        for (int i = 0; i < n; i++) {
+            long instante = origen.getLong();
+            TipoMovimiento tipo = TIPOS[origen.get()];
+            long monto = origen.getLong();
+            libro.agregar(instante, tipo, monto, origen.getLong());
+        }
+        return libro;
+    }
+}
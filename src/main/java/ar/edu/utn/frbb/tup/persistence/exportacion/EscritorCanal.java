@@ -0,0 +1,296 @@
+package ar.edu.utn.frbb.tup.persistence.exportacion;
+
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escribe filas (CSV o binarias) en un canal a través de un único buffer de tamaño fijo, que se vacía en el
+ * canal cada vez que se llena. La memoria usada no depende de cuántas filas se escriban.
+ * <p>
+ * Números, fechas y textos se escriben byte a byte en el arreglo del buffer, sin pasar por String ni byte[]
+ * intermedios. Se escribe sobre el byte[] y no con los put de un ByteBuffer directo porque cada put de ese
+ * ByteBuffer revisa límites y posición: para el CSV, que es casi todo escribir bytes sueltos, eso pesaba más que
+ * la copia que hace el canal al escribir desde un buffer en el heap.
+ */
+public final class EscritorCanal implements AutoCloseable {
+
+    public static final int CAPACIDAD_POR_DEFECTO = 256 * 1024;
+    // Lo más largo que puede ocupar un campo que no es texto: Long.MIN_VALUE o una fecha y hora con milisegundos
+    private static final int LARGO_MAXIMO_CAMPO = 32;
+    private static final byte[] MINIMO_LONG = "-9223372036854775808".getBytes(StandardCharsets.US_ASCII);
+    // Nombres de los enums ya codificados, por ordinal: una columna de tipo es un solo put
+    private static final ClassValue<byte[][]> NOMBRES = new ClassValue<byte[][]>() {
+        @Override
+        protected byte[][] computeValue(Class<?> tipo) {
+            Object[] valores = tipo.getEnumConstants();
+            byte[][] nombres = new byte[valores.length][];
+            for (int i = 0; i < valores.length; i++) {
+                nombres[i] = ((Enum<?>) valores[i]).name().getBytes(StandardCharsets.US_ASCII);
+            }
+            return nombres;
+        }
+    };
+
+    private final WritableByteChannel canal;
+    private final byte[] datos;
+    // Vista de datos para el canal y para los valores binarios; su posición no se usa salvo al vaciar y en entidad()
+    private final ByteBuffer buffer;
+    private int posicion;
+    private long bytesEscritos;
+
+    public EscritorCanal(WritableByteChannel canal) {
+        this(canal, CAPACIDAD_POR_DEFECTO);
+    }
+
+    public EscritorCanal(WritableByteChannel canal, int capacidad) {
+        this.canal = canal;
+        this.datos = new byte[Math.max(capacidad, 4 * LARGO_MAXIMO_CAMPO)];
+        this.buffer = ByteBuffer.wrap(datos);
+    }
+
+    // Bytes ya enviados al canal más los que esperan en el buffer
+    public long getBytesEscritos() {
+        return bytesEscritos + posicion;
+    }
+
+    // CSV
+
+    public EscritorCanal separador() throws IOException {
+        asegurar(1);
+        datos[posicion++] = ',';
+        return this;
+    }
+
+    public EscritorCanal finDeLinea() throws IOException {
+        asegurar(1);
+        datos[posicion++] = '\n';
+        return this;
+    }
+
+    public EscritorCanal numero(long valor) throws IOException {
+        asegurar(LARGO_MAXIMO_CAMPO);
+        if (valor == Long.MIN_VALUE) {
+            System.arraycopy(MINIMO_LONG, 0, datos, posicion, MINIMO_LONG.length);
+            posicion += MINIMO_LONG.length;
+            return this;
+        }
+        if (valor < 0) {
+            datos[posicion++] = '-';
+            valor = -valor;
+        }
+        // Los dígitos se escriben de atrás para adelante en su lugar definitivo
+        int fin = posicion + cantidadDigitos(valor);
+        for (int i = fin - 1; i >= posicion; i--) {
+            datos[i] = (byte) ('0' + valor % 10);
+            valor /= 10;
+        }
+        posicion = fin;
+        return this;
+    }
+
+    // AAAA-MM-DD; nada (campo vacío) si es BaseEntity.SIN_FECHA
+    public EscritorCanal fecha(int epochDay) throws IOException {
+        if (epochDay == BaseEntity.SIN_FECHA) {
+            return this;
+        }
+        asegurar(LARGO_MAXIMO_CAMPO);
+        escribirFecha(epochDay);
+        return this;
+    }
+
+    // AAAA-MM-DDThh:mm:ss.SSS a partir de milisegundos UTC
+    public EscritorCanal fechaHora(long epochMilli) throws IOException {
+        asegurar(LARGO_MAXIMO_CAMPO);
+        int milisDelDia = (int) Math.floorMod(epochMilli, 86_400_000L);
+        escribirFecha(Math.floorDiv(epochMilli, 86_400_000L));
+        datos[posicion++] = 'T';
+        dosDigitos(milisDelDia / 3_600_000);
+        datos[posicion++] = ':';
+        dosDigitos(milisDelDia / 60_000 % 60);
+        datos[posicion++] = ':';
+        dosDigitos(milisDelDia / 1000 % 60);
+        datos[posicion++] = '.';
+        int milis = milisDelDia % 1000;
+        datos[posicion++] = (byte) ('0' + milis / 100);
+        dosDigitos(milis % 100);
+        return this;
+    }
+
+    /**
+     * Texto en UTF-8. Si tiene comas, comillas o saltos de línea va entre comillas y las comillas se duplican
+     * (RFC 4180). null se escribe como campo vacío.
+     */
+    public EscritorCanal texto(String valor) throws IOException {
+        if (valor == null) {
+            return this;
+        }
+        boolean entreComillas = necesitaComillas(valor);
+        if (entreComillas) {
+            asegurar(1);
+            datos[posicion++] = '"';
+        }
+        // Si entra entero aunque cada caracter ocupe 4 bytes no hace falta revisar el espacio en cada uno
+        boolean entra = datos.length - posicion >= 4 * valor.length() + 1;
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (!entra) {
+                asegurar(4);
+            }
+            if (c == '"') {
+                datos[posicion++] = '"';
+                datos[posicion++] = '"';
+            } else if (c < 0x80) {
+                datos[posicion++] = (byte) c;
+            } else if (c < 0x800) {
+                datos[posicion++] = (byte) (0xC0 | c >> 6);
+                datos[posicion++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < valor.length() && Character.isLowSurrogate(valor.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, valor.charAt(++i));
+                datos[posicion++] = (byte) (0xF0 | cp >> 18);
+                datos[posicion++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                datos[posicion++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                datos[posicion++] = (byte) (0x80 | cp & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                datos[posicion++] = '?';
+            } else {
+                datos[posicion++] = (byte) (0xE0 | c >> 12);
+                datos[posicion++] = (byte) (0x80 | c >> 6 & 0x3F);
+                datos[posicion++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        if (entreComillas) {
+            asegurar(1);
+            datos[posicion++] = '"';
+        }
+        return this;
+    }
+
+    // Nombre de un enum (los de este proyecto no llevan comas ni comillas); null como campo vacío
+    public EscritorCanal nombre(Enum<?> valor) throws IOException {
+        if (valor == null) {
+            return this;
+        }
+        byte[] nombre = NOMBRES.get(valor.getDeclaringClass())[valor.ordinal()];
+        asegurar(nombre.length);
+        System.arraycopy(nombre, 0, datos, posicion, nombre.length);
+        posicion += nombre.length;
+        return this;
+    }
+
+    // Binario
+
+    public EscritorCanal putInt(int valor) throws IOException {
+        asegurar(4);
+        buffer.putInt(posicion, valor);
+        posicion += 4;
+        return this;
+    }
+
+    public EscritorCanal putLong(long valor) throws IOException {
+        asegurar(8);
+        buffer.putLong(posicion, valor);
+        posicion += 8;
+        return this;
+    }
+
+    public EscritorCanal put(byte valor) throws IOException {
+        asegurar(1);
+        datos[posicion++] = valor;
+        return this;
+    }
+
+    // [largo (int)][fila codificada], el mismo registro que usan los snapshots
+    public EscritorCanal entidad(BaseEntity entity) throws IOException {
+        int largo = entity.encodedSize();
+        if (4 + largo > datos.length) {
+            // Una fila más grande que el buffer (no pasa con las tablas actuales) se codifica aparte
+            ByteBuffer grande = ByteBuffer.allocate(4 + largo);
+            grande.putInt(largo);
+            entity.encode(grande);
+            grande.flip();
+            vaciar();
+            escribirEnCanal(grande);
+            return this;
+        }
+        asegurar(4 + largo);
+        buffer.position(posicion);
+        buffer.putInt(largo);
+        entity.encode(buffer);
+        posicion = buffer.position();
+        return this;
+    }
+
+    public void vaciar() throws IOException {
+        buffer.limit(posicion).position(0);
+        escribirEnCanal(buffer);
+        buffer.clear();
+        posicion = 0;
+    }
+
+    // Vacía el buffer; el canal lo cierra quien lo abrió
+    @Override
+    public void close() throws IOException {
+        vaciar();
+    }
+
+    private void asegurar(int bytes) throws IOException {
+        if (datos.length - posicion < bytes) {
+            vaciar();
+        }
+    }
+
+    private void escribirEnCanal(ByteBuffer origen) throws IOException {
+        while (origen.hasRemaining()) {
+            bytesEscritos += canal.write(origen);
+        }
+    }
+
+    private void escribirFecha(long epochDay) {
+        // Conversión de días a fecha civil (algoritmo de H. Hinnant), sin armar un LocalDate
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long diaDeEra = z - era * 146097;
+        long anioDeEra = (diaDeEra - diaDeEra / 1460 + diaDeEra / 36524 - diaDeEra / 146096) / 365;
+        long diaDelAnio = diaDeEra - (365 * anioDeEra + anioDeEra / 4 - anioDeEra / 100);
+        long mp = (5 * diaDelAnio + 2) / 153;
+        int dia = (int) (diaDelAnio - (153 * mp + 2) / 5 + 1);
+        int mes = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long anio = anioDeEra + era * 400 + (mes <= 2 ? 1 : 0);
+        if (anio < 0 || anio > 9999) {
+            throw new IllegalArgumentException("Año fuera de rango para exportar: " + anio);
+        }
+        dosDigitos((int) anio / 100);
+        dosDigitos((int) anio % 100);
+        datos[posicion++] = '-';
+        dosDigitos(mes);
+        datos[posicion++] = '-';
+        dosDigitos(dia);
+    }
+
+    private void dosDigitos(int valor) {
+        datos[posicion++] = (byte) ('0' + valor / 10);
+        datos[posicion++] = (byte) ('0' + valor % 10);
+    }
+
+    private static int cantidadDigitos(long valor) {
+        int digitos = 1;
+        for (long limite = 10; digitos < 19 && valor >= limite; limite *= 10) {
+            digitos++;
+        }
+        return digitos;
+    }
+
+    private static boolean necesitaComillas(String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,321 @@
+package ar.edu.utn.frbb.tup.persistence.lsm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Archivo inmutable de una partición de {@link TablaLsm}: registros [clave (8)][versión (8)][largo (4)][fila] ordenados
+ * por clave, sin claves repetidas; largo -1 es una clave borrada (lápida) y no tiene fila. Los registros se agrupan
+ * en bloques de alrededor de {@value #LARGO_BLOQUE} bytes y en memoria quedan solo la primera clave y la posición
+ * de cada bloque y el filtro de Bloom: una búsqueda lee a lo sumo un bloque.
+ * <p>
+ * Se libera con conteo de referencias: la tabla tiene una mientras el archivo está en su lista, y cada recorrido
+ * retiene la suya. Con la última se cierra y se borra del disco.
+ */
+final class ArchivoOrdenado {
+
+    static final int BORRADA = -1;
+    static final int LARGO_ENCABEZADO = 8 + 8 + 4;
+    private static final int LARGO_BLOQUE = 4096;
+    private static final int BUFFER_SECUENCIAL = 64 * 1024;
+
+    // Buffer de lectura por hilo, se agranda si un bloque no entra
+    private static final ThreadLocal<ByteBuffer> bufferDeBloque =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(2 * LARGO_BLOQUE));
+
+    private final Path ruta;
+    // Nivel de compactación: 0 si salió de la memoria, n + 1 si juntó archivos de nivel n
+    private final int nivel;
+    private final long registros;
+    private final long largo;
+    private final long[] primeraClave;
+    private final long[] posicionBloque;
+    private final FiltroBloom filtro;
+    private final AtomicInteger referencias = new AtomicInteger(1);
+    private volatile FileChannel canal;
+
+    private ArchivoOrdenado(Path ruta, int nivel, long registros, long largo, long[] primeraClave, long[] posicionBloque,
+                            FiltroBloom filtro) throws IOException {
+        this.ruta = ruta;
+        this.nivel = nivel;
+        this.registros = registros;
+        this.largo = largo;
+        this.primeraClave = primeraClave;
+        this.posicionBloque = posicionBloque;
+        this.filtro = filtro;
+        this.canal = FileChannel.open(ruta, StandardOpenOption.READ);
+    }
+
+    int getNivel() {
+        return nivel;
+    }
+
+    long getRegistros() {
+        return registros;
+    }
+
+    long getLargo() {
+        return largo;
+    }
+
+    // Memoria del heap que ocupa mientras está abierto: índice de bloques y filtro
+    long getBytesEnMemoria() {
+        return (long) primeraClave.length * 16 + filtro.getBytes();
+    }
+
+    boolean retener() {
+        while (true) {
+            int actuales = referencias.get();
+            if (actuales == 0) {
+                return false;
+            }
+            if (referencias.compareAndSet(actuales, actuales + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void soltar() {
+        if (referencias.decrementAndGet() == 0) {
+            try {
+                canal.close();
+                Files.deleteIfExists(ruta);
+            } catch (IOException e) {
+                System.err.println("No se pudo borrar " + ruta + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Busca la clave: null si el archivo no la tiene; si la tiene, el cursor queda en su registro (con datos null si
+     * es una lápida). Los datos del cursor son del buffer del hilo: valen hasta la próxima búsqueda.
+     */
+    Cursor buscar(long clave, Cursor cursor) {
+        if (registros == 0 || clave < primeraClave[0] || !filtro.puedeContener(clave)) {
+            return null;
+        }
+        int bloque = Arrays.binarySearch(primeraClave, clave);
+        if (bloque < 0) {
+            bloque = -bloque - 2;
+        }
+        long desde = posicionBloque[bloque];
+        int largoBloque = (int) ((bloque + 1 < posicionBloque.length ? posicionBloque[bloque + 1] : largo) - desde);
+        ByteBuffer buffer = leerBloque(desde, largoBloque);
+        while (buffer.hasRemaining()) {
+            long actual = buffer.getLong();
+            long version = buffer.getLong();
+            int largoFila = buffer.getInt();
+            if (actual == clave) {
+                cursor.clave = actual;
+                cursor.version = version;
+                cursor.datos = largoFila == BORRADA ? null : buffer.array();
+                cursor.desde = buffer.position();
+                cursor.largo = largoFila;
+                return cursor;
+            }
+            if (actual > clave) {
+                return null;
+            }
+            if (largoFila != BORRADA) {
+                buffer.position(buffer.position() + largoFila);
+            }
+        }
+        return null;
+    }
+
+    private ByteBuffer leerBloque(long desde, int largoBloque) {
+        ByteBuffer buffer = bufferDeBloque.get();
+        if (buffer.capacity() < largoBloque) {
+            buffer = ByteBuffer.allocate(largoBloque);
+            bufferDeBloque.set(buffer);
+        }
+        buffer.clear().limit(largoBloque);
+        try {
+            while (buffer.hasRemaining()) {
+                int leidos = leer(buffer, desde + buffer.position());
+                if (leidos < 0) {
+                    throw new IOException("Archivo truncado: " + ruta);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    // Un hilo interrumpido en medio de una lectura cierra el canal para todos (ClosedByInterruptException): mientras
+    // el archivo siga retenido se vuelve a abrir y se reintenta, y la interrupción se restaura al terminar
+    private int leer(ByteBuffer destino, long posicion) throws IOException {
+        boolean interrumpido = false;
+        try {
+            while (true) {
+                FileChannel actual = canal;
+                try {
+                    return actual.read(destino, posicion);
+                } catch (ClosedChannelException e) {
+                    interrumpido |= Thread.interrupted();
+                    reabrir(actual);
+                }
+            }
+        } finally {
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized void reabrir(FileChannel cerrado) throws IOException {
+        if (referencias.get() == 0) {
+            throw new ClosedChannelException();
+        }
+        if (canal == cerrado) {
+            canal = FileChannel.open(ruta, StandardOpenOption.READ);
+        }
+    }
+
+    // Recorrido secuencial de todos los registros, con su propio stream (no comparte el canal de las búsquedas)
+    Cursor recorrer() throws IOException {
+        return new Cursor(new DataInputStream(new BufferedInputStream(Files.newInputStream(ruta), BUFFER_SECUENCIAL)), registros);
+    }
+
+    /**
+     * Posición en un archivo: el resultado de una búsqueda o un recorrido en orden. En un recorrido cada
+     * registro tiene su propio arreglo de datos (desde 0).
+     */
+    static final class Cursor implements Closeable {
+        long clave;
+        long version;
+        // null si la clave está borrada
+        byte[] datos;
+        int desde;
+        int largo;
+
+        private final DataInputStream entrada;
+        private long restantes;
+
+        Cursor() {
+            this(null, 0);
+        }
+
+        private Cursor(DataInputStream entrada, long restantes) {
+            this.entrada = entrada;
+            this.restantes = restantes;
+        }
+
+        boolean avanzar() throws IOException {
+            if (restantes == 0) {
+                return false;
+            }
+            restantes--;
+            clave = entrada.readLong();
+            version = entrada.readLong();
+            largo = entrada.readInt();
+            desde = 0;
+            if (largo == BORRADA) {
+                datos = null;
+            } else {
+                datos = new byte[largo];
+                entrada.readFully(datos);
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (entrada != null) {
+                entrada.close();
+            }
+        }
+    }
+
+    /**
+     * Escribe un archivo nuevo. Las claves se agregan en orden creciente y sin repetir; clavesEsperadas (una cota
+     * superior) dimensiona el filtro de Bloom.
+     */
+    static final class Escritor implements Closeable {
+        private final Path ruta;
+        private final int nivel;
+        private final DataOutputStream salida;
+        private final FiltroBloom filtro;
+        private long[] primeraClave = new long[64];
+        private long[] posicionBloque = new long[64];
+        private int bloques;
+        private long posicion;
+        private long inicioBloque = Long.MIN_VALUE;
+        private long registros;
+        private long ultimaClave;
+        private boolean terminado;
+
+        Escritor(Path ruta, int nivel, long clavesEsperadas) throws IOException {
+            this.ruta = ruta;
+            this.nivel = nivel;
+            this.salida = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(ruta, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), BUFFER_SECUENCIAL));
+            this.filtro = new FiltroBloom(clavesEsperadas);
+        }
+
+        // datos null para una lápida
+        void agregar(long clave, long version, byte[] datos, int desde, int largo) throws IOException {
+            if (registros > 0 && clave <= ultimaClave) {
+                throw new IllegalArgumentException("Claves fuera de orden: " + clave + " después de " + ultimaClave);
+            }
+            if (bloques == 0 || posicion - inicioBloque >= LARGO_BLOQUE) {
+                if (bloques == primeraClave.length) {
+                    primeraClave = Arrays.copyOf(primeraClave, bloques * 2);
+                    posicionBloque = Arrays.copyOf(posicionBloque, bloques * 2);
+                }
+                primeraClave[bloques] = clave;
+                posicionBloque[bloques] = posicion;
+                bloques++;
+                inicioBloque = posicion;
+            }
+            salida.writeLong(clave);
+            salida.writeLong(version);
+            if (datos == null) {
+                salida.writeInt(BORRADA);
+                posicion += LARGO_ENCABEZADO;
+            } else {
+                salida.writeInt(largo);
+                salida.write(datos, desde, largo);
+                posicion += LARGO_ENCABEZADO + largo;
+            }
+            filtro.agregar(clave);
+            ultimaClave = clave;
+            registros++;
+        }
+
+        long getRegistros() {
+            return registros;
+        }
+
+        ArchivoOrdenado terminar() throws IOException {
+            salida.close();
+            terminado = true;
+            return new ArchivoOrdenado(ruta, nivel, registros, posicion, Arrays.copyOf(primeraClave, bloques),
+                    Arrays.copyOf(posicionBloque, bloques), filtro);
+        }
+
+        // Si no se llegó a terminar (falló la escritura): descarta el archivo a medio escribir
+        @Override
+        public void close() throws IOException {
+            if (!terminado) {
+                salida.close();
+                Files.deleteIfExists(ruta);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ar.edu.utn.frbb.tup.persistence.lsm;
+
+/**
+ * Filtro de Bloom de claves long: dice con certeza que una clave no está, y se equivoca en el otro sentido
+ * alrededor del 1% de las veces con {@value #BITS_POR_CLAVE} bits por clave. Cada archivo tiene el suyo para no
+ * leer del disco en las búsquedas de claves que no tiene.
+ */
+final class FiltroBloom {
+
+    private static final int BITS_POR_CLAVE = 10;
+    // ln(2) * bits por clave, redondeado
+    private static final int FUNCIONES = 7;
+
+    private final long[] bits;
+    private final long mascara;
+
+    FiltroBloom(long clavesEsperadas) {
+        // Potencia de 2 para elegir el bit con una máscara (hasta 2^36 bits)
+        long cantidadBits = Long.highestOneBit(Math.max(64, clavesEsperadas * BITS_POR_CLAVE - 1) << 1);
+        this.bits = new long[(int) Math.min(1L << 30, cantidadBits >>> 6)];
+        this.mascara = ((long) bits.length << 6) - 1;
+    }
+
+    void agregar(long clave) {
+        long h1 = mezclar(clave);
+        long h2 = (h1 >>> 32) | 1;
+        for (int i = 0; i < FUNCIONES; i++) {
+            long bit = (h1 + i * h2) & mascara;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean puedeContener(long clave) {
+        long h1 = mezclar(clave);
+        long h2 = (h1 >>> 32) | 1;
+        for (int i = 0; i < FUNCIONES; i++) {
+            long bit = (h1 + i * h2) & mascara;
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long getBytes() {
+        return (long) bits.length * 8;
+    }
+
+    // Finalizador de MurmurHash3: las claves consecutivas (dni, números de cuenta) quedan bien repartidas
+    private static long mezclar(long clave) {
+        long h = clave;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
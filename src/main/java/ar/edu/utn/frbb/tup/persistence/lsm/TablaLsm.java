@@ -0,0 +1,659 @@
+package ar.edu.utn.frbb.tup.persistence.lsm;
+
+import ar.edu.utn.frbb.tup.persistence.collection.ConcurrentLongObjectMap;
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Tabla log-structured merge para cuando las filas no entran en el heap. Cada una de las 64 particiones (las mismas
+ * de {@link ConcurrentLongObjectMap}, así los procesos batch la recorren igual) tiene:
+ * <ul>
+ *     <li>una tabla en memoria con las últimas escrituras (los mismos objetos que se guardaron);</li>
+ *     <li>cuando esa tabla llega a su umbral, se congela y un hilo de fondo la vuelca, ordenada por clave, a un
+ *     {@link ArchivoOrdenado} nuevo (los borrados quedan como lápidas);</li>
+ *     <li>cada {@value #ARCHIVOS_POR_NIVEL} archivos del mismo nivel el mismo hilo los junta en uno del nivel
+ *     siguiente, quedándose con la última versión de cada clave.</li>
+ * </ul>
+ * Un get busca en la memoria y después en los archivos del más nuevo al más viejo; el filtro de Bloom de cada
+ * archivo evita leer del disco en los que no tienen la clave, así que una búsqueda lee casi siempre un solo bloque.
+ * <p>
+ * Las filas con una anterior encadenada para las fotos no se vuelcan: pasan a la tabla en memoria nueva hasta que la
+ * recolección de versiones las suelta. Lo que una entidad no codifica (el resumen de tipos de ClienteEntity) se
+ * pierde al llegar al disco, igual que al recuperar desde el log.
+ * <p>
+ * Los archivos no son una copia durable: la tabla arranca vacía (borra los de una ejecución anterior) y la llena la
+ * recuperación desde el snapshot y el log, como a la tabla en memoria. Put devuelve la fila anterior buscándola antes
+ * de escribir: dos escrituras de la misma clave no se deben cruzar, como ya garantizan los DAO (lock de la clave).
+ */
+public final class TablaLsm<E extends BaseEntity> extends ConcurrentLongObjectMap<E> {
+
+    private static final int PARTICIONES = 64;
+    private static final int BITS_PARTICION = 6;
+    private static final int ARCHIVOS_POR_NIVEL = 4;
+    // Con un volcado pendiente y la tabla en memoria en este múltiplo del umbral, quien escribe espera al volcado
+    private static final int ESPERA_POR_VOLCADO = 4;
+    private static final int FILAS_EN_MEMORIA_MINIMAS = 16;
+    private static final String EXTENSION = ".lsm";
+    // Lápida en la tabla en memoria
+    private static final Object BORRADA = new Object();
+
+    private final String nombre;
+    private final Path directorio;
+    private final Function<ByteBuffer, E> decodificar;
+    private final int filasEnMemoria;
+    private final Particion[] particiones;
+    private final ExecutorService fondo;
+    private final AtomicLong numeroArchivo = new AtomicLong();
+    private final LongAdder volcados = new LongAdder();
+    private final LongAdder compactaciones = new LongAdder();
+
+    /**
+     * @param filasEnMemoria umbral total de la tabla en memoria, repartido entre las particiones
+     * @param decodificar    lee una fila codificada con BaseEntity.encode desde la posición del buffer
+     */
+    @SuppressWarnings("unchecked")
+    public TablaLsm(String nombre, Path directorio, Function<ByteBuffer, E> decodificar, int filasEnMemoria) throws IOException {
+        // La superclase queda con un solo segmento vacío: todos los métodos públicos se reemplazan
+        super(1);
+        this.nombre = nombre;
+        this.directorio = directorio;
+        this.decodificar = decodificar;
+        this.filasEnMemoria = Math.max(FILAS_EN_MEMORIA_MINIMAS, filasEnMemoria / PARTICIONES);
+        Files.createDirectories(directorio);
+        try (DirectoryStream<Path> viejos = Files.newDirectoryStream(directorio, nombre + "-*" + EXTENSION)) {
+            for (Path viejo : viejos) {
+                Files.delete(viejo);
+            }
+        }
+        this.particiones = (Particion[]) new TablaLsm<?>.Particion[PARTICIONES];
+        for (int i = 0; i < PARTICIONES; i++) {
+            particiones[i] = new Particion(i);
+        }
+        this.fondo = Executors.newSingleThreadExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "lsm-" + nombre);
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    @Override
+    public E get(long key) {
+        Particion particion = particionDe(key);
+        long stamp = particion.lock.readLock();
+        try {
+            return buscar(particion.estado, key);
+        } finally {
+            particion.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public E put(long key, E value) {
+        return escribir(key, verificar(value), false);
+    }
+
+    @Override
+    public E putIfAbsent(long key, E value) {
+        return escribir(key, verificar(value), true);
+    }
+
+    @Override
+    public void putAll(Collection<? extends E> values, ToLongFunction<? super E> keyExtractor) {
+        for (E value : values) {
+            put(keyExtractor.applyAsLong(value), value);
+        }
+    }
+
+    @Override
+    public E remove(long key) {
+        return escribir(key, BORRADA, false);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Particion particion : particiones) {
+            size += particion.size.get();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // En el hilo de fondo, así no se cruza con un volcado o una compactación en curso
+    @Override
+    public void clear() {
+        esperar(fondo.submit(() -> {
+            for (Particion particion : particiones) {
+                particion.vaciar();
+            }
+        }));
+    }
+
+    @Override
+    public void forEach(LongObjectConsumer<? super E> consumer) {
+        for (Particion particion : particiones) {
+            particion.forEach(consumer);
+        }
+    }
+
+    @Override
+    public int getCantidadSegmentos() {
+        return PARTICIONES;
+    }
+
+    @Override
+    public void forEachEnSegmento(int segmento, LongObjectConsumer<? super E> consumer) {
+        particiones[segmento].forEach(consumer);
+    }
+
+    public int getArchivos() {
+        int archivos = 0;
+        for (Particion particion : particiones) {
+            archivos += particion.estado.archivos.length;
+        }
+        return archivos;
+    }
+
+    public long getBytesEnDisco() {
+        long bytes = 0;
+        for (Particion particion : particiones) {
+            for (ArchivoOrdenado archivo : particion.estado.archivos) {
+                bytes += archivo.getLargo();
+            }
+        }
+        return bytes;
+    }
+
+    // Heap de los índices de bloques y filtros de Bloom de los archivos
+    public long getBytesDeIndices() {
+        long bytes = 0;
+        for (Particion particion : particiones) {
+            for (ArchivoOrdenado archivo : particion.estado.archivos) {
+                bytes += archivo.getBytesEnMemoria();
+            }
+        }
+        return bytes;
+    }
+
+    public long getFilasEnMemoria() {
+        long filas = 0;
+        for (Particion particion : particiones) {
+            Estado estado = particion.estado;
+            filas += estado.activa.size() + (estado.inmutable != null ? estado.inmutable.size() : 0);
+        }
+        return filas;
+    }
+
+    public long getVolcados() {
+        return volcados.sum();
+    }
+
+    public long getCompactaciones() {
+        return compactaciones.sum();
+    }
+
+    // Vuelca todas las particiones y espera a que terminen las compactaciones (para pruebas y benchmarks)
+    public void volcarTodo() {
+        for (Particion particion : particiones) {
+            particion.pedirVolcado();
+        }
+        esperar(fondo.submit(() -> {
+        }));
+    }
+
+    // Espera el volcado o la compactación en curso y borra los archivos: después de cerrarla la tabla no se usa más
+    public void cerrar() {
+        fondo.shutdown();
+        try {
+            fondo.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Particion particion : particiones) {
+            particion.vaciar();
+        }
+    }
+
+    private Particion particionDe(long key) {
+        return particiones[(int) (hash(key) >>> (64 - BITS_PARTICION))];
+    }
+
+    private Object verificar(E value) {
+        if (value == null) {
+            throw new NullPointerException("TablaLsm no admite valores null");
+        }
+        return value;
+    }
+
+    private E escribir(long key, Object valor, boolean soloSiAusente) {
+        Particion particion = particionDe(key);
+        E anterior;
+        long stamp = particion.lock.readLock();
+        try {
+            Estado estado = particion.estado;
+            anterior = buscar(estado, key);
+            boolean escribe = soloSiAusente ? anterior == null : (valor != BORRADA || anterior != null);
+            if (escribe) {
+                estado.activa.put(key, valor);
+                if (valor == BORRADA) {
+                    particion.size.decrementAndGet();
+                } else if (anterior == null) {
+                    particion.size.incrementAndGet();
+                }
+            }
+        } finally {
+            particion.lock.unlockRead(stamp);
+        }
+        particion.despuesDeEscribir();
+        return anterior;
+    }
+
+    private E buscar(Estado estado, long key) {
+        Object valor = estado.activa.get(key);
+        if (valor == null && estado.inmutable != null) {
+            valor = estado.inmutable.get(key);
+        }
+        if (valor != null) {
+            return valor == BORRADA ? null : castear(valor);
+        }
+        ArchivoOrdenado.Cursor cursor = new ArchivoOrdenado.Cursor();
+        for (ArchivoOrdenado archivo : estado.archivos) {
+            if (archivo.buscar(key, cursor) != null) {
+                return cursor.datos != null ? decodificar(cursor) : null;
+            }
+        }
+        return null;
+    }
+
+    private E decodificar(ArchivoOrdenado.Cursor cursor) {
+        E fila = decodificar.apply(ByteBuffer.wrap(cursor.datos, cursor.desde, cursor.largo));
+        fila.setVersion(cursor.version);
+        return fila;
+    }
+
+    private Path nuevaRuta(int particion) {
+        return directorio.resolve(nombre + "-" + particion + "-" + numeroArchivo.incrementAndGet() + EXTENSION);
+    }
+
+    private static byte[] codificar(BaseEntity fila) {
+        byte[] datos = new byte[fila.encodedSize()];
+        fila.encode(ByteBuffer.wrap(datos));
+        return datos;
+    }
+
+    private static void esperar(Future<?> tarea) {
+        try {
+            tarea.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E castear(Object value) {
+        return (E) value;
+    }
+
+    private static ConcurrentLongObjectMap<Object> nuevaMemoria() {
+        return new ConcurrentLongObjectMap<>(4);
+    }
+
+    // Se reemplaza entero (con el lock de escritura de la partición): los lectores toman uno y lo usan completo
+    private static final class Estado {
+        final ConcurrentLongObjectMap<Object> activa;
+        // La tabla en memoria que se está volcando, null si no hay volcado en curso
+        final ConcurrentLongObjectMap<Object> inmutable;
+        // Del más nuevo al más viejo, y por lo tanto de nivel creciente
+        final ArchivoOrdenado[] archivos;
+
+        Estado(ConcurrentLongObjectMap<Object> activa, ConcurrentLongObjectMap<Object> inmutable, ArchivoOrdenado[] archivos) {
+            this.activa = activa;
+            this.inmutable = inmutable;
+            this.archivos = archivos;
+        }
+    }
+
+    /**
+     * Las lecturas y escrituras toman el lock de lectura (compartido) mientras usan un estado; el hilo de fondo toma
+     * el de escritura solo para reemplazarlo. Así ningún archivo se suelta mientras un get lo está leyendo.
+     */
+    private final class Particion {
+        private final int numero;
+        private final StampedLock lock = new StampedLock();
+        private volatile Estado estado = new Estado(nuevaMemoria(), null, new ArchivoOrdenado[0]);
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean volcadoPendiente = new AtomicBoolean();
+        private volatile Future<?> volcado;
+
+        Particion(int numero) {
+            this.numero = numero;
+        }
+
+        void despuesDeEscribir() {
+            int enMemoria = estado.activa.size();
+            if (enMemoria >= filasEnMemoria) {
+                pedirVolcado();
+            }
+            Future<?> pendiente = volcado;
+            if (enMemoria >= filasEnMemoria * ESPERA_POR_VOLCADO && pendiente != null) {
+                esperar(pendiente);
+            }
+        }
+
+        void pedirVolcado() {
+            if (volcadoPendiente.compareAndSet(false, true)) {
+                volcado = fondo.submit(this::volcar);
+            }
+        }
+
+        // En el hilo de fondo. Si falla, la tabla congelada queda en el estado (se sigue leyendo) y el próximo
+        // pedido vuelve a intentar con ella
+        private void volcar() {
+            try {
+                Estado congelado;
+                long stamp = lock.writeLock();
+                try {
+                    congelado = estado;
+                    if (congelado.inmutable == null) {
+                        congelado = new Estado(nuevaMemoria(), congelado.activa, congelado.archivos);
+                        estado = congelado;
+                    }
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+
+                TreeMap<Long, Object> ordenadas = new TreeMap<>();
+                congelado.inmutable.forEach(ordenadas::put);
+                List<Map.Entry<Long, Object>> retenidas = new ArrayList<>();
+                ArchivoOrdenado nuevo = null;
+                try (ArchivoOrdenado.Escritor escritor = new ArchivoOrdenado.Escritor(nuevaRuta(numero), 0, ordenadas.size())) {
+                    for (Map.Entry<Long, Object> entrada : ordenadas.entrySet()) {
+                        Object valor = entrada.getValue();
+                        if (valor == BORRADA) {
+                            escritor.agregar(entrada.getKey(), 0, null, 0, 0);
+                        } else if (((BaseEntity) valor).getAnterior() != null) {
+                            retenidas.add(entrada);
+                        } else {
+                            byte[] datos = codificar((BaseEntity) valor);
+                            escritor.agregar(entrada.getKey(), ((BaseEntity) valor).getVersion(), datos, 0, datos.length);
+                        }
+                    }
+                    if (escritor.getRegistros() > 0) {
+                        nuevo = escritor.terminar();
+                    }
+                }
+                // Una escritura posterior de la misma clave ya está en la tabla activa y gana
+                for (Map.Entry<Long, Object> retenida : retenidas) {
+                    congelado.activa.putIfAbsent(retenida.getKey(), retenida.getValue());
+                }
+
+                stamp = lock.writeLock();
+                try {
+                    Estado actual = estado;
+                    estado = new Estado(actual.activa, null, nuevo != null ? agregarAdelante(nuevo, actual.archivos) : actual.archivos);
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+                volcados.increment();
+                compactar();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("No se pudo volcar la partición " + numero + " de " + nombre + ": " + e.getMessage());
+            } finally {
+                volcadoPendiente.set(false);
+            }
+        }
+
+        // Tiering: mientras haya ARCHIVOS_POR_NIVEL archivos seguidos del mismo nivel, se juntan en uno
+        private void compactar() throws IOException {
+            while (true) {
+                ArchivoOrdenado[] archivos = estado.archivos;
+                int desde = grupoACompactar(archivos);
+                if (desde < 0) {
+                    return;
+                }
+                ArchivoOrdenado[] grupo = Arrays.copyOfRange(archivos, desde, desde + ARCHIVOS_POR_NIVEL);
+                // Las lápidas solo hacen falta mientras haya un archivo más viejo que pueda tener la clave
+                boolean descartarBorradas = desde + ARCHIVOS_POR_NIVEL == archivos.length;
+                ArchivoOrdenado junto = juntar(grupo, grupo[0].getNivel() + 1, descartarBorradas);
+
+                List<ArchivoOrdenado> nuevos = new ArrayList<>(Arrays.asList(archivos).subList(0, desde));
+                if (junto != null) {
+                    nuevos.add(junto);
+                }
+                nuevos.addAll(Arrays.asList(archivos).subList(desde + ARCHIVOS_POR_NIVEL, archivos.length));
+                long stamp = lock.writeLock();
+                try {
+                    Estado actual = estado;
+                    estado = new Estado(actual.activa, actual.inmutable, nuevos.toArray(new ArchivoOrdenado[0]));
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+                for (ArchivoOrdenado archivo : grupo) {
+                    archivo.soltar();
+                }
+                compactaciones.increment();
+            }
+        }
+
+        private int grupoACompactar(ArchivoOrdenado[] archivos) {
+            for (int i = 0; i + ARCHIVOS_POR_NIVEL <= archivos.length; i++) {
+                int j = 1;
+                while (j < ARCHIVOS_POR_NIVEL && archivos[i + j].getNivel() == archivos[i].getNivel()) {
+                    j++;
+                }
+                if (j == ARCHIVOS_POR_NIVEL) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        // Merge de los archivos del grupo (el primero es el más nuevo): de cada clave queda la versión más nueva
+        private ArchivoOrdenado juntar(ArchivoOrdenado[] grupo, int nivel, boolean descartarBorradas) throws IOException {
+            long esperadas = 0;
+            for (ArchivoOrdenado archivo : grupo) {
+                esperadas += archivo.getRegistros();
+            }
+            List<ArchivoOrdenado.Cursor> cursores = new ArrayList<>(grupo.length);
+            try (ArchivoOrdenado.Escritor escritor = new ArchivoOrdenado.Escritor(nuevaRuta(numero), nivel, esperadas)) {
+                for (ArchivoOrdenado archivo : grupo) {
+                    cursores.add(archivo.recorrer());
+                }
+                Mezcla mezcla = new Mezcla(null, cursores);
+                while (mezcla.avanzar()) {
+                    ArchivoOrdenado.Cursor cursor = mezcla.cursor;
+                    if (cursor.datos != null || !descartarBorradas) {
+                        escritor.agregar(cursor.clave, cursor.version, cursor.datos, 0, cursor.largo);
+                    }
+                }
+                return escritor.getRegistros() > 0 ? escritor.terminar() : null;
+            } finally {
+                for (ArchivoOrdenado.Cursor cursor : cursores) {
+                    cursor.close();
+                }
+            }
+        }
+
+        /**
+         * Recorre la partición en orden de clave sin frenar las escrituras: copia la memoria y retiene los archivos
+         * con el lock, y los recorre fuera de él (el consumer puede escribir en la tabla).
+         */
+        void forEach(LongObjectConsumer<? super E> consumer) {
+            TreeMap<Long, Object> memoria = new TreeMap<>();
+            ArchivoOrdenado[] archivos;
+            long stamp = lock.readLock();
+            try {
+                Estado actual = estado;
+                if (actual.inmutable != null) {
+                    actual.inmutable.forEach(memoria::put);
+                }
+                actual.activa.forEach(memoria::put);
+                archivos = actual.archivos;
+                for (ArchivoOrdenado archivo : archivos) {
+                    archivo.retener();
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            List<ArchivoOrdenado.Cursor> cursores = new ArrayList<>(archivos.length);
+            try {
+                for (ArchivoOrdenado archivo : archivos) {
+                    cursores.add(archivo.recorrer());
+                }
+                Mezcla mezcla = new Mezcla(memoria.entrySet().iterator(), cursores);
+                while (mezcla.avanzar()) {
+                    if (mezcla.enMemoria != null) {
+                        if (mezcla.enMemoria != BORRADA) {
+                            consumer.accept(mezcla.clave, castear(mezcla.enMemoria));
+                        }
+                    } else if (mezcla.cursor.datos != null) {
+                        consumer.accept(mezcla.clave, decodificar(mezcla.cursor));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                for (ArchivoOrdenado.Cursor cursor : cursores) {
+                    try {
+                        cursor.close();
+                    } catch (IOException e) {
+                        System.err.println("No se pudo cerrar un recorrido de " + nombre + ": " + e.getMessage());
+                    }
+                }
+                for (ArchivoOrdenado archivo : archivos) {
+                    archivo.soltar();
+                }
+            }
+        }
+
+        void vaciar() {
+            ArchivoOrdenado[] archivos;
+            long stamp = lock.writeLock();
+            try {
+                archivos = estado.archivos;
+                estado = new Estado(nuevaMemoria(), null, new ArchivoOrdenado[0]);
+                size.set(0);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            for (ArchivoOrdenado archivo : archivos) {
+                archivo.soltar();
+            }
+        }
+    }
+
+    private static ArchivoOrdenado[] agregarAdelante(ArchivoOrdenado nuevo, ArchivoOrdenado[] archivos) {
+        ArchivoOrdenado[] resultado = new ArchivoOrdenado[archivos.length + 1];
+        resultado[0] = nuevo;
+        System.arraycopy(archivos, 0, resultado, 1, archivos.length);
+        return resultado;
+    }
+
+    /**
+     * Merge en orden de clave de la memoria (la fuente más nueva, puede faltar) y de recorridos de archivos del más
+     * nuevo al más viejo. Cada avanzar deja la clave siguiente con su valor más nuevo: enMemoria si salió de la
+     * memoria, si no el cursor del archivo que la tenía.
+     */
+    private static final class Mezcla {
+        private final Iterator<Map.Entry<Long, Object>> memoria;
+        private final List<ArchivoOrdenado.Cursor> cursores;
+        private final boolean[] vivos;
+        private Map.Entry<Long, Object> siguienteEnMemoria;
+        private boolean empezada;
+
+        long clave;
+        Object enMemoria;
+        ArchivoOrdenado.Cursor cursor;
+
+        Mezcla(Iterator<Map.Entry<Long, Object>> memoria, List<ArchivoOrdenado.Cursor> cursores) {
+            this.memoria = memoria;
+            this.cursores = cursores;
+            this.vivos = new boolean[cursores.size()];
+        }
+
+        boolean avanzar() throws IOException {
+            if (!empezada) {
+                empezada = true;
+                siguienteEnMemoria = memoria != null && memoria.hasNext() ? memoria.next() : null;
+                for (int i = 0; i < vivos.length; i++) {
+                    vivos[i] = cursores.get(i).avanzar();
+                }
+            } else {
+                // Consume la clave anterior en todas las fuentes que la tenían
+                if (siguienteEnMemoria != null && siguienteEnMemoria.getKey() == clave) {
+                    siguienteEnMemoria = memoria.hasNext() ? memoria.next() : null;
+                }
+                for (int i = 0; i < vivos.length; i++) {
+                    if (vivos[i] && cursores.get(i).clave == clave) {
+                        vivos[i] = cursores.get(i).avanzar();
+                    }
+                }
+            }
+            boolean hay = false;
+            long menor = Long.MAX_VALUE;
+            if (siguienteEnMemoria != null) {
+                menor = siguienteEnMemoria.getKey();
+                hay = true;
+            }
+            for (int i = 0; i < vivos.length; i++) {
+                if (vivos[i] && (!hay || cursores.get(i).clave < menor)) {
+                    menor = cursores.get(i).clave;
+                    hay = true;
+                }
+            }
+            if (!hay) {
+                return false;
+            }
+            clave = menor;
+            enMemoria = null;
+            cursor = null;
+            if (siguienteEnMemoria != null && siguienteEnMemoria.getKey() == menor) {
+                enMemoria = siguienteEnMemoria.getValue();
+                return true;
+            }
+            for (int i = 0; i < vivos.length; i++) {
+                if (vivos[i] && cursores.get(i).clave == menor) {
+                    cursor = cursores.get(i);
+                    return true;
+                }
+            }
+            return true;
+        }
+    }
+}
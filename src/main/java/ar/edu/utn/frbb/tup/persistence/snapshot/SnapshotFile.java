@@ -0,0 +1,161 @@
+package ar.edu.utn.frbb.tup.persistence.snapshot;
+
+import ar.edu.utn.frbb.tup.persistence.collection.ConcurrentLongObjectMap;
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Archivo binario con el contenido completo de una tabla.
+ * <p>
+ * Los registros ([largo (int)][fila codificada con BaseEntity.encode]) se agrupan en bloques de hasta
+ * {@value #REGISTROS_POR_BLOQUE} registros. Al final del archivo va un índice con la posición
+ * de cada bloque y un pie de largo fijo; así la lectura mapea cada bloque en memoria por
+ * separado y los decodifica en paralelo.
+ */
+public final class SnapshotFile {
+
+    public interface BloqueConsumer {
+        /**
+         * Recibe un bloque mapeado en memoria, posicionado en su primer registro.
+         * Se llama en paralelo desde varios hilos.
+         */
+        void accept(ByteBuffer bloque, int registros);
+    }
+
+    static final int REGISTROS_POR_BLOQUE = 65536;
+    private static final int MAGIC = 0x54555053; // "TUPS"
+    private static final int VERSION = 2;
+    private static final int LARGO_ENTRADA_INDICE = 8 + 8 + 4;
+    private static final int LARGO_PIE = 4 + 4 + 1 + 8 + 4 + 8;
+
+    private SnapshotFile() {
+    }
+
+    public static long escribir(Path archivo, byte codigoTabla, ConcurrentLongObjectMap<? extends BaseEntity> tabla) throws IOException {
+        try (FileChannel channel = FileChannel.open(archivo, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            EscritorDeBloques escritor = new EscritorDeBloques(channel);
+            try {
+                tabla.forEach((id, entity) -> escritor.agregar(entity));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            escritor.cerrarBloque();
+
+            ByteBuffer indice = ByteBuffer.allocate(escritor.bloques.size() * LARGO_ENTRADA_INDICE + LARGO_PIE);
+            long posicionIndice = channel.position();
+            for (long[] bloque : escritor.bloques) {
+                indice.putLong(bloque[0]).putLong(bloque[1]).putInt((int) bloque[2]);
+            }
+            indice.putInt(MAGIC).putInt(VERSION).put(codigoTabla)
+                    .putLong(escritor.registrosTotales).putInt(escritor.bloques.size()).putLong(posicionIndice);
+            indice.flip();
+            while (indice.hasRemaining()) {
+                channel.write(indice);
+            }
+            channel.force(true);
+            return escritor.registrosTotales;
+        }
+    }
+
+    /**
+     * @return la cantidad total de registros del archivo
+     */
+    public static long leer(Path archivo, byte codigoTablaEsperado, BloqueConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long largo = channel.size();
+            if (largo < LARGO_PIE) {
+                throw new IOException("Snapshot inválido (demasiado corto): " + archivo);
+            }
+            ByteBuffer pie = channel.map(FileChannel.MapMode.READ_ONLY, largo - LARGO_PIE, LARGO_PIE);
+            if (pie.getInt() != MAGIC || pie.getInt() != VERSION) {
+                throw new IOException("Snapshot inválido o de otra versión: " + archivo);
+            }
+            byte codigoTabla = pie.get();
+            if (codigoTabla != codigoTablaEsperado) {
+                throw new IOException("El snapshot " + archivo + " es de otra tabla (" + codigoTabla + ")");
+            }
+            long registros = pie.getLong();
+            int cantidadBloques = pie.getInt();
+            long posicionIndice = pie.getLong();
+
+            ByteBuffer indice = channel.map(FileChannel.MapMode.READ_ONLY, posicionIndice, (long) cantidadBloques * LARGO_ENTRADA_INDICE);
+            long[][] bloques = new long[cantidadBloques][];
+            for (int i = 0; i < cantidadBloques; i++) {
+                bloques[i] = new long[]{indice.getLong(), indice.getLong(), indice.getInt()};
+            }
+
+            try {
+                IntStream.range(0, cantidadBloques).parallel().forEach(i -> {
+                    try {
+                        MappedByteBuffer bloque = channel.map(FileChannel.MapMode.READ_ONLY, bloques[i][0], bloques[i][1]);
+                        consumer.accept(bloque, (int) bloques[i][2]);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return registros;
+        }
+    }
+
+    private static final class EscritorDeBloques {
+        private final FileChannel channel;
+        private ByteBuffer bloque = ByteBuffer.allocate(1024 * 1024);
+        private int registrosEnBloque;
+        private long registrosTotales;
+        // {posición, largo, registros} de cada bloque ya escrito
+        private final List<long[]> bloques = new ArrayList<>();
+
+        EscritorDeBloques(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void agregar(BaseEntity entity) {
+            try {
+                int largo = entity.encodedSize();
+                if (bloque.remaining() < 4 + largo) {
+                    ByteBuffer mayor = ByteBuffer.allocate(Math.max(bloque.capacity() * 2, bloque.position() + 4 + largo));
+                    bloque.flip();
+                    mayor.put(bloque);
+                    bloque = mayor;
+                }
+                bloque.putInt(largo);
+                entity.encode(bloque);
+                registrosEnBloque++;
+                registrosTotales++;
+                if (registrosEnBloque == REGISTROS_POR_BLOQUE) {
+                    cerrarBloque();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void cerrarBloque() throws IOException {
+            if (registrosEnBloque == 0) {
+                return;
+            }
+            long posicion = channel.position();
+            bloque.flip();
+            long largo = bloque.remaining();
+            while (bloque.hasRemaining()) {
+                channel.write(bloque);
+            }
+            bloque.clear();
+            bloques.add(new long[]{posicion, largo, registrosEnBloque});
+            registrosEnBloque = 0;
+        }
+    }
+}
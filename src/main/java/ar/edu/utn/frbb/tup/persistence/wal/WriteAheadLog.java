@@ -0,0 +1,252 @@
+package ar.edu.utn.frbb.tup.persistence.wal;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Log de escritura anticipada, solo de agregado, con commit agrupado.
+ * <p>
+ * Cada registro se guarda como [largo del payload (int)][crc32 (int)][tabla (byte)][payload].
+ * Los hilos que llaman a {@link #append} dejan su registro en un buffer y esperan; un único hilo
+ * escribe todo lo acumulado y hace un solo fsync por tanda, así muchos saves concurrentes
+ * comparten el costo del fsync en lugar de pagar uno cada uno.
+ */
+public class WriteAheadLog implements Closeable {
+
+    public interface RegistroConsumer {
+        void accept(byte tabla, byte[] payload);
+    }
+
+    private static final int LARGO_CABECERA = 9;
+    private static final int LARGO_MAXIMO_PAYLOAD = 16 * 1024 * 1024;
+
+    private final Path archivo;
+    private final FileChannel channel;
+    private final Thread escritor;
+
+    private final Object monitor = new Object();
+    private ByteBuffer pendiente = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer enEscritura = ByteBuffer.allocate(64 * 1024);
+    private long secuenciaAgregada;
+    private long secuenciaDurable;
+    private IOException error;
+    private boolean cerrado;
+
+    public WriteAheadLog(Path archivo) throws IOException {
+        this.archivo = archivo;
+        this.channel = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+        this.escritor = new Thread(this::escribirTandas, "wal-writer");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    /**
+     * Recorre los registros válidos desde el principio del archivo. Si el final está cortado
+     * (un crash a mitad de una escritura) o tiene un crc inválido, se descarta desde ese punto
+     * y el archivo se trunca para que los nuevos registros queden a continuación de los válidos.
+     *
+     * @return la cantidad de registros válidos leídos
+     */
+    public long replay(RegistroConsumer consumer) throws IOException {
+        synchronized (monitor) {
+            esperarDurable(secuenciaAgregada);
+            long posicionValida = 0;
+            long registros = 0;
+            channel.position(0);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024));
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte tabla;
+                byte[] payload;
+                try {
+                    int largo = in.readInt();
+                    int crcEsperado = in.readInt();
+                    if (largo < 0 || largo > LARGO_MAXIMO_PAYLOAD) {
+                        break;
+                    }
+                    tabla = in.readByte();
+                    payload = new byte[largo];
+                    in.readFully(payload);
+                    crc.reset();
+                    crc.update(tabla);
+                    crc.update(payload, 0, payload.length);
+                    if ((int) crc.getValue() != crcEsperado) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                consumer.accept(tabla, payload);
+                posicionValida += LARGO_CABECERA + payload.length;
+                registros++;
+            }
+            if (posicionValida < channel.size()) {
+                channel.truncate(posicionValida);
+                channel.force(true);
+            }
+            channel.position(posicionValida);
+            return registros;
+        }
+    }
+
+    /**
+     * Agrega un registro y vuelve cuando ya está en disco (fsync incluido).
+     */
+    public void append(byte tabla, byte[] payload) {
+        appendAll(tabla, Collections.singletonList(payload));
+    }
+
+    /**
+     * Agrega varios registros de la misma tabla esperando un solo fsync por todos.
+     */
+    public void appendAll(byte tabla, List<byte[]> payloads) {
+        CRC32 crc = new CRC32();
+        synchronized (monitor) {
+            verificarEstado();
+            for (byte[] payload : payloads) {
+                crc.reset();
+                crc.update(tabla);
+                crc.update(payload, 0, payload.length);
+                asegurarEspacio(LARGO_CABECERA + payload.length);
+                pendiente.putInt(payload.length);
+                pendiente.putInt((int) crc.getValue());
+                pendiente.put(tabla);
+                pendiente.put(payload);
+            }
+            long miSecuencia = ++secuenciaAgregada;
+            monitor.notifyAll();
+            esperarDurable(miSecuencia);
+        }
+    }
+
+    /**
+     * Vacía el archivo. Se usa después de que un snapshot ya contiene todo lo registrado.
+     */
+    public void truncar() throws IOException {
+        synchronized (monitor) {
+            esperarDurable(secuenciaAgregada);
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (monitor) {
+            if (cerrado) {
+                return;
+            }
+            esperarDurable(secuenciaAgregada);
+            cerrado = true;
+            monitor.notifyAll();
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private void escribirTandas() {
+        while (true) {
+            long hasta;
+            synchronized (monitor) {
+                while (pendiente.position() == 0 && !cerrado) {
+                    esperarTanda();
+                }
+                if (pendiente.position() == 0) {
+                    return;
+                }
+                ByteBuffer lleno = pendiente;
+                pendiente = enEscritura;
+                enEscritura = lleno;
+                hasta = secuenciaAgregada;
+            }
+
+            IOException falla = null;
+            try {
+                enEscritura.flip();
+                while (enEscritura.hasRemaining()) {
+                    channel.write(enEscritura);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                falla = e;
+            } finally {
+                enEscritura.clear();
+            }
+
+            synchronized (monitor) {
+                if (falla != null && error == null) {
+                    error = falla;
+                }
+                secuenciaDurable = hasta;
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    private void asegurarEspacio(int bytes) {
+        if (pendiente.remaining() < bytes) {
+            int capacidad = Math.max(pendiente.capacity() * 2, pendiente.position() + bytes);
+            ByteBuffer mayor = ByteBuffer.allocate(capacidad);
+            pendiente.flip();
+            mayor.put(pendiente);
+            pendiente = mayor;
+        }
+    }
+
+    private void esperarDurable(long secuencia) {
+        while (secuenciaDurable < secuencia && error == null) {
+            esperar();
+        }
+        verificarEstado();
+    }
+
+    private void verificarEstado() {
+        if (error != null) {
+            throw new UncheckedIOException("El write-ahead log falló, no se pueden registrar más cambios", error);
+        }
+        if (cerrado) {
+            throw new IllegalStateException("El write-ahead log está cerrado");
+        }
+    }
+
+    // El hilo escritor solo termina con close (cerrado): una interrupción no lo detiene, porque los appends
+    // que esperan su fsync quedarían trabados para siempre
+    private void esperarTanda() {
+        try {
+            monitor.wait();
+        } catch (InterruptedException e) {
+            // se ignora: vuelve a mirar si hay algo pendiente o si se cerró
+        }
+    }
+
+    private void esperar() {
+        try {
+            monitor.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando al write-ahead log", e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import ar.edu.utn.frbb.tup.service.EjecutorServicios;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * API HTTP/JSON embebida (com.sun.net.httpserver, incluido en el JDK). El servidor acepta y lee las
+ * conexiones con un único hilo sobre un Selector de NIO, así miles de conexiones abiertas no ocupan
+ * un hilo cada una; solo los pedidos ya leídos pasan a los hilos de atención (virtuales si la JVM los tiene),
+ * que delegan en {@link EjecutorServicios}.
+ */
+@Component
+public class ApiServer implements DisposableBean {
+
+    private static final int BACKLOG = 4096;
+
+    static {
+        // El servidor escribe encabezados y cuerpo por separado: con Nagle cada respuesta espera el ACK
+        // demorado del cliente (~40 ms). Se lee una sola vez, al cargar la clase del servidor.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    ClienteHandler clienteHandler;
+    CuentaHandler cuentaHandler;
+    TransferenciaHandler transferenciaHandler;
+    MetricasHandler metricasHandler;
+    ExportacionHandler exportacionHandler;
+    HttpServer server;
+    ExecutorService executor;
+
+    public ApiServer(ClienteHandler clienteHandler, CuentaHandler cuentaHandler, TransferenciaHandler transferenciaHandler,
+                     MetricasHandler metricasHandler, ExportacionHandler exportacionHandler) {
+        this.clienteHandler = clienteHandler;
+        this.cuentaHandler = cuentaHandler;
+        this.transferenciaHandler = transferenciaHandler;
+        this.metricasHandler = metricasHandler;
+        this.exportacionHandler = exportacionHandler;
+    }
+
+    // Puerto 0 elige uno libre; devuelve la dirección en la que quedó escuchando
+    public synchronized InetSocketAddress iniciar(InetSocketAddress direccion, int hilos) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("La API ya está iniciada en " + server.getAddress());
+        }
+        HttpServer nuevo = HttpServer.create(direccion, BACKLOG);
+        nuevo.createContext(ClienteHandler.RUTA, clienteHandler);
+        nuevo.createContext(CuentaHandler.RUTA, cuentaHandler);
+        nuevo.createContext(TransferenciaHandler.RUTA, transferenciaHandler);
+        nuevo.createContext(MetricasHandler.RUTA, metricasHandler);
+        nuevo.createContext(ExportacionHandler.RUTA, exportacionHandler);
+
+        // Los pedidos esperan a EjecutorServicios, así que no pueden compartir su pool: se bloquearían entre sí
+        executor = EjecutorServicios.crearEjecutorVirtual();
+        if (executor == null) {
+            executor = EjecutorServicios.crearPoolFijo("api-http", hilos);
+        }
+        nuevo.setExecutor(executor);
+        nuevo.start();
+        server = nuevo;
+        return nuevo.getAddress();
+    }
+
+    public synchronized void detener() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        executor.shutdown();
+        server = null;
+        executor = null;
+    }
+
+    @Override
+    public void destroy() {
+        detener();
+    }
+}
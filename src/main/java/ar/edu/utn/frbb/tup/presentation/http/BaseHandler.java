@@ -0,0 +1,207 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import ar.edu.utn.frbb.tup.model.CantidadNegativaException;
+import ar.edu.utn.frbb.tup.model.NoAlcanzaException;
+import ar.edu.utn.frbb.tup.model.exception.ClienteAlreadyExistsException;
+import ar.edu.utn.frbb.tup.model.exception.CuentaAlreadyExistsException;
+import ar.edu.utn.frbb.tup.model.exception.TipoCuentaAlreadyExistsException;
+import ar.edu.utn.frbb.tup.model.exception.TipoCuentaNoSoportadaException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base de los handlers de la API: lee el cuerpo JSON, delega en atender y traduce las excepciones
+ * del dominio a códigos HTTP con un cuerpo {"error": mensaje}.
+ */
+abstract class BaseHandler implements HttpHandler {
+
+    static final int OK = 200;
+    static final int CREADO = 201;
+    static final int PEDIDO_INVALIDO = 400;
+    static final int NO_ENCONTRADO = 404;
+    static final int METODO_NO_PERMITIDO = 405;
+    static final int CONFLICTO = 409;
+    static final int NO_PROCESABLE = 422;
+    static final int ERROR_INTERNO = 500;
+
+    private static final int MAXIMO_CUERPO = 64 * 1024;
+
+    // Resultado de atender un pedido: código y cuerpo (se escribe como JSON)
+    static final class Respuesta {
+        final int codigo;
+        final Object cuerpo;
+
+        Respuesta(int codigo, Object cuerpo) {
+            this.codigo = codigo;
+            this.cuerpo = cuerpo;
+        }
+    }
+
+    // null si el handler ya escribió la respuesta por su cuenta (por ejemplo, una exportación que se envía de a partes)
+    protected abstract Respuesta atender(String metodo, String ruta, HttpExchange exchange) throws Throwable;
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        Respuesta respuesta;
+        try {
+            respuesta = atender(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), exchange);
+        } catch (ClienteAlreadyExistsException | CuentaAlreadyExistsException | TipoCuentaAlreadyExistsException e) {
+            respuesta = error(CONFLICTO, e.getMessage());
+        } catch (TipoCuentaNoSoportadaException | IllegalArgumentException | DateTimeParseException e) {
+            respuesta = error(PEDIDO_INVALIDO, e.getMessage());
+        } catch (CantidadNegativaException e) {
+            respuesta = error(PEDIDO_INVALIDO, "El monto no puede ser negativo");
+        } catch (NoAlcanzaException e) {
+            respuesta = error(NO_PROCESABLE, "La cuenta de origen no tiene saldo suficiente");
+        } catch (Throwable e) {
+            // El detalle (rutas, estado del log) queda en el servidor: al cliente solo le llega que falló
+            System.err.println("Error atendiendo " + exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() + ":");
+            e.printStackTrace();
+            respuesta = error(ERROR_INTERNO, "Error interno del servidor");
+        }
+        if (respuesta != null) {
+            responder(exchange, respuesta);
+        }
+    }
+
+    static Respuesta respuesta(int codigo, Object cuerpo) {
+        return new Respuesta(codigo, cuerpo);
+    }
+
+    static Respuesta error(int codigo, String mensaje) {
+        return new Respuesta(codigo, Collections.singletonMap("error", mensaje));
+    }
+
+    static Respuesta metodoNoPermitido(String metodo) {
+        return error(METODO_NO_PERMITIDO, "Método no permitido: " + metodo);
+    }
+
+    static Map<String, Object> leerCuerpo(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        try (InputStream entrada = exchange.getRequestBody()) {
+            int leidos;
+            while ((leidos = entrada.read(buffer)) != -1) {
+                if (cuerpo.size() + leidos > MAXIMO_CUERPO) {
+                    throw new IllegalArgumentException("El cuerpo del pedido supera los " + MAXIMO_CUERPO + " bytes");
+                }
+                cuerpo.write(buffer, 0, leidos);
+            }
+        }
+        return Json.leerObjeto(new String(cuerpo.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    // Último tramo de la ruta como número (por ejemplo /clientes/123 -> 123); null si la ruta es la base
+    static Long idDeRuta(String ruta, String base) {
+        if (ruta.length() <= base.length() + 1) {
+            return null;
+        }
+        String id = ruta.substring(base.length() + 1);
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Identificador inválido: " + id);
+        }
+    }
+
+    // Parámetros de la query string (?clave=valor&...), ya decodificados
+    static Map<String, String> parametros(HttpExchange exchange) throws UnsupportedEncodingException {
+        Map<String, String> parametros = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parametros;
+        }
+        for (String par : query.split("&")) {
+            int igual = par.indexOf('=');
+            String clave = igual < 0 ? par : par.substring(0, igual);
+            String valor = igual < 0 ? "" : par.substring(igual + 1);
+            parametros.put(URLDecoder.decode(clave, "UTF-8"), URLDecoder.decode(valor, "UTF-8"));
+        }
+        return parametros;
+    }
+
+    static long parametroLong(Map<String, String> parametros, String nombre, long porDefecto) {
+        String valor = parametros.get(nombre);
+        if (valor == null || valor.isEmpty()) {
+            return porDefecto;
+        }
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El parámetro '" + nombre + "' debe ser un número entero");
+        }
+    }
+
+    /**
+     * Fecha con hora (2024-05-01T10:30) o solo fecha (2024-05-01). Con solo fecha se toma el comienzo del día,
+     * o el final si {@code finDelDia}, así hasta=2024-05-01 incluye todo ese día. null si no vino.
+     */
+    static LocalDateTime parametroFecha(Map<String, String> parametros, String nombre, boolean finDelDia) {
+        String valor = parametros.get(nombre);
+        if (valor == null || valor.isEmpty()) {
+            return null;
+        }
+        if (valor.indexOf('T') >= 0) {
+            return LocalDateTime.parse(valor);
+        }
+        LocalDate fecha = LocalDate.parse(valor);
+        return finDelDia ? fecha.atTime(LocalTime.MAX) : fecha.atStartOfDay();
+    }
+
+    static long campoLong(Map<String, Object> cuerpo, String campo) {
+        Object valor = cuerpo.get(campo);
+        if (!(valor instanceof Long)) {
+            throw new IllegalArgumentException("El campo '" + campo + "' debe ser un número entero");
+        }
+        return (Long) valor;
+    }
+
+    static String campoTexto(Map<String, Object> cuerpo, String campo) {
+        Object valor = cuerpo.get(campo);
+        if (valor != null && !(valor instanceof String)) {
+            throw new IllegalArgumentException("El campo '" + campo + "' debe ser un texto");
+        }
+        return (String) valor;
+    }
+
+    static LocalDate campoFecha(Map<String, Object> cuerpo, String campo) {
+        String valor = campoTexto(cuerpo, campo);
+        return valor == null ? null : LocalDate.parse(valor);
+    }
+
+    static <E extends Enum<E>> E campoEnum(Map<String, Object> cuerpo, String campo, Class<E> tipo) {
+        String valor = campoTexto(cuerpo, campo);
+        if (valor == null) {
+            throw new IllegalArgumentException("Falta el campo '" + campo + "'");
+        }
+        try {
+            return Enum.valueOf(tipo, valor.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Valor inválido para '" + campo + "': " + valor);
+        }
+    }
+
+    private static void responder(HttpExchange exchange, Respuesta respuesta) throws IOException {
+        byte[] cuerpo = Json.escribir(respuesta.cuerpo).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(respuesta.codigo, cuerpo.length);
+        try (OutputStream salida = exchange.getResponseBody()) {
+            salida.write(cuerpo);
+        }
+    }
+}
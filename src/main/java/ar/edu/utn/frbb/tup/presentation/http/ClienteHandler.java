@@ -0,0 +1,61 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.service.ClienteService;
+import ar.edu.utn.frbb.tup.service.EjecutorServicios;
+import com.sun.net.httpserver.HttpExchange;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+import static ar.edu.utn.frbb.tup.service.EjecutorServicios.esperar;
+
+// POST /clientes da de alta un cliente; GET /clientes/{dni} lo devuelve con sus cuentas
+@Component
+public class ClienteHandler extends BaseHandler {
+
+    static final String RUTA = "/clientes";
+
+    ClienteService clienteService;
+    EjecutorServicios ejecutor;
+
+    public ClienteHandler(ClienteService clienteService, EjecutorServicios ejecutor) {
+        this.clienteService = clienteService;
+        this.ejecutor = ejecutor;
+    }
+
+    @Override
+    protected Respuesta atender(String metodo, String ruta, HttpExchange exchange) throws Throwable {
+        Long dni = idDeRuta(ruta, RUTA);
+        if ("POST".equals(metodo) && dni == null) {
+            Cliente cliente = leerCliente(leerCuerpo(exchange));
+            esperar(ejecutor.enviar(cliente.getDni(), () -> {
+                clienteService.darDeAltaCliente(cliente);
+                return cliente;
+            }));
+            return respuesta(CREADO, Representacion.de(cliente));
+        }
+        if ("GET".equals(metodo) && dni != null) {
+            Cliente cliente;
+            try {
+                cliente = esperar(ejecutor.enviar(() -> clienteService.buscarClientePorDni(dni)));
+            } catch (IllegalArgumentException e) {
+                return error(NO_ENCONTRADO, e.getMessage());
+            }
+            return respuesta(OK, Representacion.de(cliente));
+        }
+        return metodoNoPermitido(metodo);
+    }
+
+    private Cliente leerCliente(Map<String, Object> cuerpo) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(campoLong(cuerpo, "dni"));
+        cliente.setNombre(campoTexto(cuerpo, "nombre"));
+        cliente.setApellido(campoTexto(cuerpo, "apellido"));
+        cliente.setTipoPersona(campoEnum(cuerpo, "tipoPersona", TipoPersona.class));
+        cliente.setBanco(campoTexto(cuerpo, "banco"));
+        cliente.setFechaNacimiento(campoFecha(cuerpo, "fechaNacimiento"));
+        return cliente;
+    }
+}
@@ -0,0 +1,108 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.PaginaMovimientos;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.service.CuentaService;
+import ar.edu.utn.frbb.tup.service.EjecutorServicios;
+import ar.edu.utn.frbb.tup.service.MovimientoService;
+import com.sun.net.httpserver.HttpExchange;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static ar.edu.utn.frbb.tup.service.EjecutorServicios.esperar;
+
+// POST /cuentas abre una cuenta para un titular existente; GET /cuentas/{numero} la devuelve.
+// GET /cuentas/{numero}/movimientos?desde&hasta&cursor&limite devuelve el extracto paginado y
+// GET /cuentas/{numero}/saldo?fecha= el saldo a esa fecha.
+@Component
+public class CuentaHandler extends BaseHandler {
+
+    static final String RUTA = "/cuentas";
+    private static final String MOVIMIENTOS = "/movimientos";
+    private static final String SALDO = "/saldo";
+    private static final int LIMITE_POR_DEFECTO = 100;
+
+    CuentaService cuentaService;
+    MovimientoService movimientoService;
+    EjecutorServicios ejecutor;
+
+    public CuentaHandler(CuentaService cuentaService, MovimientoService movimientoService, EjecutorServicios ejecutor) {
+        this.cuentaService = cuentaService;
+        this.movimientoService = movimientoService;
+        this.ejecutor = ejecutor;
+    }
+
+    @Override
+    protected Respuesta atender(String metodo, String ruta, HttpExchange exchange) throws Throwable {
+        if (ruta.endsWith(MOVIMIENTOS)) {
+            return movimientos(metodo, idDeRuta(ruta.substring(0, ruta.length() - MOVIMIENTOS.length()), RUTA), exchange);
+        }
+        if (ruta.endsWith(SALDO)) {
+            return saldo(metodo, idDeRuta(ruta.substring(0, ruta.length() - SALDO.length()), RUTA), exchange);
+        }
+        Long numeroCuenta = idDeRuta(ruta, RUTA);
+        if ("POST".equals(metodo) && numeroCuenta == null) {
+            Map<String, Object> cuerpo = leerCuerpo(exchange);
+            Cuenta cuenta = new Cuenta()
+                    .setTipoCuenta(campoEnum(cuerpo, "tipoCuenta", TipoCuenta.class))
+                    .setMoneda(campoEnum(cuerpo, "moneda", TipoMoneda.class));
+            long dniTitular = campoLong(cuerpo, "dniTitular");
+            // En orden por titular: dos altas simultáneas del mismo tipo no pueden pasar ambas el control de duplicados
+            esperar(ejecutor.enviar(dniTitular, () -> {
+                cuentaService.darDeAltaCuenta(cuenta, dniTitular);
+                return cuenta;
+            }));
+            return respuesta(CREADO, Representacion.de(cuenta));
+        }
+        if ("GET".equals(metodo) && numeroCuenta != null) {
+            Cuenta cuenta = esperar(ejecutor.enviar(() -> cuentaService.find(numeroCuenta)));
+            if (cuenta == null) {
+                return error(NO_ENCONTRADO, "La cuenta " + numeroCuenta + " no existe");
+            }
+            return respuesta(OK, Representacion.de(cuenta));
+        }
+        return metodoNoPermitido(metodo);
+    }
+
+    private Respuesta movimientos(String metodo, Long numeroCuenta, HttpExchange exchange) throws Throwable {
+        if (!"GET".equals(metodo) || numeroCuenta == null) {
+            return metodoNoPermitido(metodo);
+        }
+        Map<String, String> parametros = parametros(exchange);
+        LocalDateTime desde = parametroFecha(parametros, "desde", false);
+        LocalDateTime hasta = parametroFecha(parametros, "hasta", true);
+        long cursor = parametroLong(parametros, "cursor", 0);
+        int limite = (int) Math.min(Integer.MAX_VALUE, parametroLong(parametros, "limite", LIMITE_POR_DEFECTO));
+        // null si la cuenta no existe; los errores en los parámetros siguen siendo 400
+        PaginaMovimientos pagina = esperar(ejecutor.enviar(() -> cuentaService.find(numeroCuenta) == null ? null
+                : movimientoService.extracto(numeroCuenta, desde, hasta, cursor, limite)));
+        if (pagina == null) {
+            return error(NO_ENCONTRADO, "La cuenta " + numeroCuenta + " no existe");
+        }
+        return respuesta(OK, Representacion.de(pagina));
+    }
+
+    private Respuesta saldo(String metodo, Long numeroCuenta, HttpExchange exchange) throws Throwable {
+        if (!"GET".equals(metodo) || numeroCuenta == null) {
+            return metodoNoPermitido(metodo);
+        }
+        LocalDateTime fecha = parametroFecha(parametros(exchange), "fecha", true);
+        LocalDateTime momento = fecha != null ? fecha : LocalDateTime.now();
+        long saldo;
+        try {
+            saldo = esperar(ejecutor.enviar(() -> movimientoService.saldoAl(numeroCuenta, momento)));
+        } catch (IllegalArgumentException e) {
+            return error(NO_ENCONTRADO, e.getMessage());
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("numeroCuenta", numeroCuenta);
+        json.put("fecha", momento);
+        json.put("saldo", saldo);
+        return respuesta(OK, json);
+    }
+}
@@ -0,0 +1,56 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import ar.edu.utn.frbb.tup.persistence.ExportadorTablas;
+import com.sun.net.httpserver.HttpExchange;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.Map;
+
+// GET /exportaciones/{clientes|cuentas|movimientos}?formato=csv|binario devuelve la tabla completa. El cuerpo va
+// chunked y se escribe a medida que se recorre la tabla, así no se arma entero en memoria.
+@Component
+public class ExportacionHandler extends BaseHandler {
+
+    static final String RUTA = "/exportaciones";
+
+    ExportadorTablas exportador;
+
+    public ExportacionHandler(ExportadorTablas exportador) {
+        this.exportador = exportador;
+    }
+
+    @Override
+    protected Respuesta atender(String metodo, String ruta, HttpExchange exchange) throws IOException {
+        if (!"GET".equals(metodo) || ruta.length() <= RUTA.length() + 1) {
+            return metodoNoPermitido(metodo);
+        }
+        ExportadorTablas.Tabla tabla = valorEnum(ruta.substring(RUTA.length() + 1), "tabla", ExportadorTablas.Tabla.class);
+        Map<String, String> parametros = parametros(exchange);
+        ExportadorTablas.Formato formato = parametros.containsKey("formato")
+                ? valorEnum(parametros.get("formato"), "formato", ExportadorTablas.Formato.class)
+                : ExportadorTablas.Formato.CSV;
+
+        exchange.getResponseHeaders().set("Content-Type", formato == ExportadorTablas.Formato.CSV
+                ? "text/csv; charset=utf-8" : "application/octet-stream");
+        exchange.sendResponseHeaders(OK, 0);
+        // Corre en el hilo del pedido y no en EjecutorServicios: una exportación grande ocuparía un hilo de servicio
+        try (OutputStream salida = exchange.getResponseBody()) {
+            exportador.exportar(tabla, formato, Channels.newChannel(salida));
+        } catch (IOException e) {
+            // Con los encabezados ya enviados no se puede contestar un error: se corta la conexión
+            exchange.close();
+        }
+        return null;
+    }
+
+    private static <E extends Enum<E>> E valorEnum(String valor, String nombre, Class<E> tipo) {
+        try {
+            return Enum.valueOf(tipo, valor.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Valor inválido para '" + nombre + "': " + valor);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON mínimo para la API, sin dependencias: lee los cuerpos de los pedidos a Map/List/String/
+ * Long/Double/Boolean y escribe las respuestas desde esos mismos tipos (más enums y fechas como texto).
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    static Object leer(String texto) {
+        Lector lector = new Lector(texto);
+        lector.saltarEspacios();
+        Object valor = lector.valor();
+        lector.saltarEspacios();
+        if (lector.posicion != texto.length()) {
+            throw lector.error("Sobra contenido después del valor");
+        }
+        return valor;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> leerObjeto(String texto) {
+        Object valor = leer(texto);
+        if (!(valor instanceof Map)) {
+            throw new IllegalArgumentException("Se esperaba un objeto JSON");
+        }
+        return (Map<String, Object>) valor;
+    }
+
+    static String escribir(Object valor) {
+        StringBuilder destino = new StringBuilder(128);
+        escribir(valor, destino);
+        return destino.toString();
+    }
+
+    private static void escribir(Object valor, StringBuilder destino) {
+        if (valor == null) {
+            destino.append("null");
+        } else if (valor instanceof Map) {
+            destino.append('{');
+            boolean primero = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) valor).entrySet()) {
+                if (!primero) {
+                    destino.append(',');
+                }
+                primero = false;
+                escribirTexto(String.valueOf(entry.getKey()), destino);
+                destino.append(':');
+                escribir(entry.getValue(), destino);
+            }
+            destino.append('}');
+        } else if (valor instanceof Collection) {
+            destino.append('[');
+            boolean primero = true;
+            for (Object elemento : (Collection<?>) valor) {
+                if (!primero) {
+                    destino.append(',');
+                }
+                primero = false;
+                escribir(elemento, destino);
+            }
+            destino.append(']');
+        } else if (valor instanceof Number || valor instanceof Boolean) {
+            destino.append(valor);
+        } else if (valor instanceof Enum) {
+            escribirTexto(((Enum<?>) valor).name(), destino);
+        } else {
+            escribirTexto(valor.toString(), destino);
+        }
+    }
+
+    private static void escribirTexto(String texto, StringBuilder destino) {
+        destino.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"': destino.append("\\\""); break;
+                case '\\': destino.append("\\\\"); break;
+                case '\n': destino.append("\\n"); break;
+                case '\r': destino.append("\\r"); break;
+                case '\t': destino.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        destino.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        destino.append(c);
+                    }
+            }
+        }
+        destino.append('"');
+    }
+
+    private static final class Lector {
+        final String texto;
+        int posicion;
+
+        Lector(String texto) {
+            this.texto = texto;
+        }
+
+        Object valor() {
+            if (posicion >= texto.length()) {
+                throw error("Fin inesperado");
+            }
+            char c = texto.charAt(posicion);
+            switch (c) {
+                case '{': return objeto();
+                case '[': return arreglo();
+                case '"': return texto();
+                case 't': return literal("true", Boolean.TRUE);
+                case 'f': return literal("false", Boolean.FALSE);
+                case 'n': return literal("null", null);
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9')) {
+                        return numero();
+                    }
+                    throw error("Caracter inesperado '" + c + "'");
+            }
+        }
+
+        Map<String, Object> objeto() {
+            Map<String, Object> objeto = new LinkedHashMap<>();
+            posicion++;
+            saltarEspacios();
+            if (consumir('}')) {
+                return objeto;
+            }
+            do {
+                saltarEspacios();
+                if (posicion >= texto.length() || texto.charAt(posicion) != '"') {
+                    throw error("Se esperaba el nombre de un campo");
+                }
+                String nombre = texto();
+                saltarEspacios();
+                esperar(':');
+                saltarEspacios();
+                objeto.put(nombre, valor());
+                saltarEspacios();
+            } while (consumir(','));
+            esperar('}');
+            return objeto;
+        }
+
+        List<Object> arreglo() {
+            List<Object> arreglo = new ArrayList<>();
+            posicion++;
+            saltarEspacios();
+            if (consumir(']')) {
+                return arreglo;
+            }
+            do {
+                saltarEspacios();
+                arreglo.add(valor());
+                saltarEspacios();
+            } while (consumir(','));
+            esperar(']');
+            return arreglo;
+        }
+
+        String texto() {
+            StringBuilder resultado = new StringBuilder();
+            posicion++;
+            while (posicion < texto.length()) {
+                char c = texto.charAt(posicion++);
+                if (c == '"') {
+                    return resultado.toString();
+                }
+                if (c != '\\') {
+                    resultado.append(c);
+                    continue;
+                }
+                if (posicion >= texto.length()) {
+                    break;
+                }
+                char escapado = texto.charAt(posicion++);
+                switch (escapado) {
+                    case '"': case '\\': case '/': resultado.append(escapado); break;
+                    case 'b': resultado.append('\b'); break;
+                    case 'f': resultado.append('\f'); break;
+                    case 'n': resultado.append('\n'); break;
+                    case 'r': resultado.append('\r'); break;
+                    case 't': resultado.append('\t'); break;
+                    case 'u':
+                        if (posicion + 4 > texto.length()) {
+                            throw error("Escape \\u incompleto");
+                        }
+                        try {
+                            resultado.append((char) Integer.parseInt(texto.substring(posicion, posicion + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Escape \\u inválido");
+                        }
+                        posicion += 4;
+                        break;
+                    default:
+                        throw error("Escape inválido \\" + escapado);
+                }
+            }
+            throw error("Texto sin cerrar");
+        }
+
+        Object numero() {
+            int inicio = posicion;
+            if (texto.charAt(posicion) == '-') {
+                posicion++;
+            }
+            boolean decimal = false;
+            while (posicion < texto.length()) {
+                char c = texto.charAt(posicion);
+                if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                    decimal = true;
+                } else if (c < '0' || c > '9') {
+                    break;
+                }
+                posicion++;
+            }
+            String numero = texto.substring(inicio, posicion);
+            try {
+                return decimal ? (Object) Double.parseDouble(numero) : (Object) Long.parseLong(numero);
+            } catch (NumberFormatException e) {
+                throw error("Número inválido " + numero);
+            }
+        }
+
+        Object literal(String literal, Object valor) {
+            if (!texto.startsWith(literal, posicion)) {
+                throw error("Valor inválido");
+            }
+            posicion += literal.length();
+            return valor;
+        }
+
+        void saltarEspacios() {
+            while (posicion < texto.length() && Character.isWhitespace(texto.charAt(posicion))) {
+                posicion++;
+            }
+        }
+
+        boolean consumir(char c) {
+            if (posicion < texto.length() && texto.charAt(posicion) == c) {
+                posicion++;
+                return true;
+            }
+            return false;
+        }
+
+        void esperar(char c) {
+            if (!consumir(c)) {
+                throw error("Se esperaba '" + c + "'");
+            }
+        }
+
+        IllegalArgumentException error(String mensaje) {
+            return new IllegalArgumentException("JSON inválido en la posición " + posicion + ": " + mensaje);
+        }
+    }
+}
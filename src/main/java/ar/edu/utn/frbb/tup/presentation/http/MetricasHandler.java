@@ -0,0 +1,26 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import ar.edu.utn.frbb.tup.metricas.RegistroMetricas;
+import com.sun.net.httpserver.HttpExchange;
+import org.springframework.stereotype.Component;
+
+// GET /metricas devuelve la foto actual de RegistroMetricas
+@Component
+public class MetricasHandler extends BaseHandler {
+
+    static final String RUTA = "/metricas";
+
+    RegistroMetricas metricas;
+
+    public MetricasHandler(RegistroMetricas metricas) {
+        this.metricas = metricas;
+    }
+
+    @Override
+    protected Respuesta atender(String metodo, String ruta, HttpExchange exchange) {
+        if (!"GET".equals(metodo) || idDeRuta(ruta, RUTA) != null) {
+            return metodoNoPermitido(metodo);
+        }
+        return respuesta(OK, metricas.volcar());
+    }
+}
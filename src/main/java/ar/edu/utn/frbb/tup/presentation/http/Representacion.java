@@ -0,0 +1,69 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.model.PaginaMovimientos;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Forma JSON de los objetos del modelo que devuelve la API
+final class Representacion {
+
+    private Representacion() {
+    }
+
+    static Map<String, Object> de(Cliente cliente) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("dni", cliente.getDni());
+        json.put("nombre", cliente.getNombre());
+        json.put("apellido", cliente.getApellido());
+        json.put("tipoPersona", cliente.getTipoPersona());
+        json.put("banco", cliente.getBanco());
+        json.put("fechaNacimiento", cliente.getFechaNacimiento());
+        json.put("fechaAlta", cliente.getFechaAlta());
+        List<Map<String, Object>> cuentas = new ArrayList<>();
+        for (Cuenta cuenta : cliente.getCuentas()) {
+            cuentas.add(de(cuenta));
+        }
+        json.put("cuentas", cuentas);
+        return json;
+    }
+
+    static Map<String, Object> de(Cuenta cuenta) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("numeroCuenta", cuenta.getNumeroCuenta());
+        json.put("tipoCuenta", cuenta.getTipoCuenta());
+        json.put("moneda", cuenta.getMoneda());
+        json.put("balance", cuenta.getBalance());
+        json.put("fechaCreacion", cuenta.getFechaCreacion());
+        json.put("titular", cuenta.getTitular() != null ? cuenta.getTitular().getDni() : null);
+        return json;
+    }
+
+    static Map<String, Object> de(Movimiento movimiento) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("indice", movimiento.getIndice());
+        json.put("fecha", movimiento.getFecha());
+        json.put("tipo", movimiento.getTipo());
+        json.put("monto", movimiento.getMonto());
+        json.put("saldo", movimiento.getSaldo());
+        json.put("cuentaContraparte", movimiento.getCuentaContraparte());
+        return json;
+    }
+
+    // "siguiente" es el cursor de la próxima página, o null si no hay más
+    static Map<String, Object> de(PaginaMovimientos pagina) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        List<Map<String, Object>> movimientos = new ArrayList<>(pagina.getMovimientos().size());
+        for (Movimiento movimiento : pagina.getMovimientos()) {
+            movimientos.add(de(movimiento));
+        }
+        json.put("movimientos", movimientos);
+        json.put("siguiente", pagina.hayMas() ? pagina.getSiguiente() : null);
+        return json;
+    }
+}
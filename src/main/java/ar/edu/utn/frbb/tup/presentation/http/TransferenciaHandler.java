@@ -0,0 +1,48 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import ar.edu.utn.frbb.tup.service.EjecutorServicios;
+import ar.edu.utn.frbb.tup.service.TransferenciaService;
+import com.sun.net.httpserver.HttpExchange;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static ar.edu.utn.frbb.tup.service.EjecutorServicios.esperar;
+
+// POST /transferencias {"origen": n, "destino": n, "monto": centavos}
+@Component
+public class TransferenciaHandler extends BaseHandler {
+
+    static final String RUTA = "/transferencias";
+
+    TransferenciaService transferenciaService;
+    EjecutorServicios ejecutor;
+
+    public TransferenciaHandler(TransferenciaService transferenciaService, EjecutorServicios ejecutor) {
+        this.transferenciaService = transferenciaService;
+        this.ejecutor = ejecutor;
+    }
+
+    @Override
+    protected Respuesta atender(String metodo, String ruta, HttpExchange exchange) throws Throwable {
+        if (!"POST".equals(metodo) || idDeRuta(ruta, RUTA) != null) {
+            return metodoNoPermitido(metodo);
+        }
+        Map<String, Object> cuerpo = leerCuerpo(exchange);
+        long origen = campoLong(cuerpo, "origen");
+        long destino = campoLong(cuerpo, "destino");
+        long monto = campoLong(cuerpo, "monto");
+        // TransferenciaService ya ordena con sus propios locks por cuenta, no hace falta encolar por DNI
+        esperar(ejecutor.enviar(() -> {
+            transferenciaService.transferir(origen, destino, monto);
+            return null;
+        }));
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("origen", origen);
+        resultado.put("destino", destino);
+        resultado.put("monto", monto);
+        return respuesta(OK, resultado);
+    }
+}
@@ -8,7 +8,6 @@ import ar.edu.utn.frbb.tup.model.exception.ClienteAlreadyExistsException;
 import ar.edu.utn.frbb.tup.model.exception.CuentaAlreadyExistsException;
 import ar.edu.utn.frbb.tup.model.exception.TipoCuentaAlreadyExistsException;
 import ar.edu.utn.frbb.tup.model.exception.TipoCuentaNoSoportadaException;
-import ar.edu.utn.frbb.tup.persistence.CuentaDao;
 import ar.edu.utn.frbb.tup.service.ClienteService;
 import ar.edu.utn.frbb.tup.service.CuentaService;
 import org.springframework.stereotype.Component;
@@ -19,12 +18,12 @@ import java.util.Scanner;
 @Component
 public class CuentaInputProcessor extends BaseInputProcessor{
     ClienteService clienteService;
-    CuentaService cuentaService = new CuentaService();
-    CuentaDao cuentaDao = new CuentaDao();
+    CuentaService cuentaService;
     Scanner scanner = new Scanner(System.in);
 
-    public CuentaInputProcessor(ClienteService clienteService) {
+    public CuentaInputProcessor(ClienteService clienteService, CuentaService cuentaService) {
         this.clienteService = clienteService;
+        this.cuentaService = cuentaService;
     }
 
     public void altaCuenta() {
@@ -12,15 +12,18 @@ public class MenuInputProcessor extends BaseInputProcessor{
 
     ClienteInputProcessor clienteInputProcessor;
     CuentaInputProcessor cuentaInputProcessor;
+    MovimientoInputProcessor movimientoInputProcessor;
     ShowInfoCliente showInfoCliente;
-    ShowInfoCuenta showInfoCuenta = new ShowInfoCuenta();
+    ShowInfoCuenta showInfoCuenta;
 
     boolean exit = false;
 
-    public MenuInputProcessor(ClienteInputProcessor clienteInputProcessor, CuentaInputProcessor cuentaInputProcessor, ShowInfoCliente showInfoCliente) {
+    public MenuInputProcessor(ClienteInputProcessor clienteInputProcessor, CuentaInputProcessor cuentaInputProcessor, MovimientoInputProcessor movimientoInputProcessor, ShowInfoCliente showInfoCliente, ShowInfoCuenta showInfoCuenta) {
         this.clienteInputProcessor = clienteInputProcessor;
         this.cuentaInputProcessor = cuentaInputProcessor;
+        this.movimientoInputProcessor = movimientoInputProcessor;
         this.showInfoCliente = showInfoCliente;
+        this.showInfoCuenta = showInfoCuenta;
     }
 
     public void renderMenu() {
@@ -45,9 +48,9 @@ public class MenuInputProcessor extends BaseInputProcessor{
                 case 2:
                     cuentaInputProcessor.altaCuenta();
                     break;
-//            case 3:
-//                performTransaction();
-//                break;
+                case 3:
+                    movimientoInputProcessor.generarMovimiento();
+                    break;
                 case 4:
                     System.out.println("Ingrese el dni del usuario que quiere mostrar: ");
                     long dni = Long.parseLong(scanner.nextLine());
@@ -0,0 +1,39 @@
+package ar.edu.utn.frbb.tup.presentation.input;
+
+import ar.edu.utn.frbb.tup.model.CantidadNegativaException;
+import ar.edu.utn.frbb.tup.model.NoAlcanzaException;
+import ar.edu.utn.frbb.tup.service.TransferenciaService;
+import org.springframework.stereotype.Component;
+
+@Component
+public class MovimientoInputProcessor extends BaseInputProcessor{
+    TransferenciaService transferenciaService;
+
+    public MovimientoInputProcessor(TransferenciaService transferenciaService) {
+        this.transferenciaService = transferenciaService;
+    }
+
+    public void generarMovimiento() {
+        clearScreen();
+
+        System.out.println("Ingrese el número de la cuenta de origen: ");
+        long cuentaOrigen = Long.parseLong(scanner.nextLine());
+
+        System.out.println("Ingrese el número de la cuenta de destino: ");
+        long cuentaDestino = Long.parseLong(scanner.nextLine());
+
+        System.out.println("Ingrese el monto a transferir: ");
+        long monto = Long.parseLong(scanner.nextLine());
+
+        try {
+            transferenciaService.transferir(cuentaOrigen, cuentaDestino, monto);
+            System.out.println("Movimiento realizado con éxito");
+        } catch (NoAlcanzaException e) {
+            System.out.println("La cuenta de origen no tiene saldo suficiente");
+        } catch (CantidadNegativaException e) {
+            System.out.println("El monto no puede ser negativo");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error al generar el movimiento: " + e.getMessage());
+        }
+    }
+}
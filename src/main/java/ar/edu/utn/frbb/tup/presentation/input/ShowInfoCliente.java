@@ -23,6 +23,7 @@ public class ShowInfoCliente {
 
         if (cliente == null) {
             System.out.println("Cliente no encontrado");
+            return;
         }
         System.out.println("Información del Cliente: ");
         System.out.println("Dni: " + cliente.getDni());
@@ -36,7 +37,6 @@ public class ShowInfoCliente {
             System.out.println("El cliente no tiene cuentas asociadas.");
         } else {
             System.out.println("Cuentas del Cliente: ");
-            System.out.println(cliente.getCuentas());
             for (Cuenta cuenta : cliente.getCuentas()) {
                 System.out.println("Número de cuenta: " + cuenta.toString());
             }
@@ -2,13 +2,15 @@ package ar.edu.utn.frbb.tup.presentation.input;
 
 import ar.edu.utn.frbb.tup.model.Cuenta;
 import ar.edu.utn.frbb.tup.service.CuentaService;
+import org.springframework.stereotype.Component;
 
+@Component
 public class ShowInfoCuenta {
 
     private CuentaService cuentaService;
 
-    public ShowInfoCuenta() {
-        this.cuentaService = new CuentaService();
+    public ShowInfoCuenta(CuentaService cuentaService) {
+        this.cuentaService = cuentaService;
     }
 
     public void mostrarInfoCuenta(long id) {
@@ -1,54 +1,191 @@
 package ar.edu.utn.frbb.tup.service;
 
+import ar.edu.utn.frbb.tup.metricas.RegistroMetricas;
+import ar.edu.utn.frbb.tup.metricas.Temporizador;
 import ar.edu.utn.frbb.tup.model.Cliente;
 import ar.edu.utn.frbb.tup.model.Cuenta;
 import ar.edu.utn.frbb.tup.model.exception.ClienteAlreadyExistsException;
 import ar.edu.utn.frbb.tup.model.exception.TipoCuentaAlreadyExistsException;
 import ar.edu.utn.frbb.tup.persistence.ClienteDao;
 import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 @Service
 public class ClienteService {
 
+    // Reintentos de un save con versión esperada antes de darse por vencido. Cada conflicto significa que otro
+    // save del mismo cliente terminó, así que agotarlos requiere una contención que no es normal
+    static final int MAX_INTENTOS = 64;
+
     ClienteDao clienteDao;
 
+    final Temporizador tiempoAltaCliente = new Temporizador();
+    // Lectura frecuente (y casi siempre desde el cache): se mide una de cada 16 llamadas
+    final Temporizador tiempoBusquedaCliente = new Temporizador(16);
+
     public ClienteService(ClienteDao clienteDao) {
         this.clienteDao = clienteDao;
     }
 
+    @Autowired
+    void registrarMetricas(RegistroMetricas metricas) {
+        metricas.registrar("clienteService.darDeAltaCliente", tiempoAltaCliente);
+        metricas.registrar("clienteService.buscarClientePorDni", tiempoBusquedaCliente);
+    }
+
     public void darDeAltaCliente(Cliente cliente) throws ClienteAlreadyExistsException {
+        long inicio = tiempoAltaCliente.iniciar();
+        try {
+            if (clienteDao.find(cliente.getDni(), false) != null) {
+                throw new ClienteAlreadyExistsException("Ya existe un cliente con DNI " + cliente.getDni());
+            }
 
-        if (clienteDao.find(cliente.getDni(), false) != null) {
-            throw new ClienteAlreadyExistsException("Ya existe un cliente con DNI " + cliente.getDni());
-        }
+            validarDatosCliente(cliente);
 
-        if(cliente.getFechaNacimiento() == null) {
-            throw new IllegalArgumentException("La fecha de nacimiento no puede ser nula");
+            //La consulta de arriba es un atajo: si dos altas del mismo DNI llegan juntas, solo una guarda
+            if (!clienteDao.save(cliente, ClienteDao.SIN_VERSION)) {
+                throw new ClienteAlreadyExistsException("Ya existe un cliente con DNI " + cliente.getDni());
+            }
+        } finally {
+            tiempoAltaCliente.detener(inicio);
         }
+    }
 
-        if (cliente.getEdad() < 18) {
-            throw new IllegalArgumentException("El cliente debe ser mayor a 18 años");
+    //Alta masiva (migraciones): valida y deduplica el lote en una sola pasada y guarda todos los
+    //clientes válidos juntos. Los inválidos no cortan el lote, quedan informados en el resultado.
+    public ResultadoAltaMasiva<Cliente> darDeAltaClientes(List<Cliente> clientes) {
+        ResultadoAltaMasiva<Cliente> resultado = new ResultadoAltaMasiva<>();
+        Set<Long> dnisDelLote = new HashSet<>(clientes.size() * 2);
+        List<Cliente> candidatos = new ArrayList<>(clientes.size());
+
+        for (Cliente cliente : clientes) {
+            try {
+                validarDatosCliente(cliente);
+            } catch (IllegalArgumentException e) {
+                resultado.rechazar(cliente, e);
+                continue;
+            }
+            if (!dnisDelLote.add(cliente.getDni())) {
+                resultado.rechazar(cliente, new ClienteAlreadyExistsException("El DNI " + cliente.getDni() + " está repetido en el lote"));
+            } else if (clienteDao.exists(cliente.getDni())) {
+                resultado.rechazar(cliente, new ClienteAlreadyExistsException("Ya existe un cliente con DNI " + cliente.getDni()));
+            } else {
+                candidatos.add(cliente);
+            }
         }
 
-        clienteDao.save(cliente);
+        if (!candidatos.isEmpty()) {
+            //El exists de arriba es solo un atajo: el DAO vuelve a comparar con el lock de cada DNI y no pisa
+            //un cliente dado de alta en el medio, que queda rechazado como los que ya existían
+            List<Cliente> existentes = clienteDao.saveAllNuevos(candidatos);
+            int e = 0;
+            for (Cliente cliente : candidatos) {
+                if (e < existentes.size() && existentes.get(e) == cliente) {
+                    resultado.rechazar(cliente, new ClienteAlreadyExistsException("Ya existe un cliente con DNI " + cliente.getDni()));
+                    e++;
+                } else {
+                    resultado.aceptar(cliente);
+                }
+            }
+        }
+        return resultado;
     }
 
+    //El titular se guarda con la versión con que se leyó: si otro lo guardó en el medio (por ejemplo otra
+    //alta de cuenta del mismo cliente) se vuelve a leer y se repite, así ninguna de las dos cuentas se pierde
     public void agregarCuenta(Cuenta cuenta, long dniTitular) throws TipoCuentaAlreadyExistsException {
-        Cliente titular = buscarClientePorDni(dniTitular);
-        cuenta.setTitular(titular);
-        if (titular.tieneCuenta(cuenta.getTipoCuenta(), cuenta.getMoneda())) {
-            throw new TipoCuentaAlreadyExistsException("El cliente ya posee una cuenta de ese tipo y moneda");
+        for (int intento = 1; ; intento++) {
+            Cliente titular = cargarTitular(dniTitular);
+            cuenta.setTitular(titular);
+            if (titular.tieneCuenta(cuenta.getTipoCuenta(), cuenta.getMoneda())) {
+                throw new TipoCuentaAlreadyExistsException("El cliente ya posee una cuenta de ese tipo y moneda");
+            }
+            titular.addCuenta(cuenta);
+            if (clienteDao.save(titular, titular.getVersion())) {
+                return;
+            }
+            esperarReintento(intento, dniTitular);
+        }
+    }
+
+    //Agrega varias cuentas a un mismo titular cargándolo y guardándolo una sola vez (por intento, ver agregarCuenta)
+    public ResultadoAltaMasiva<Cuenta> agregarCuentas(List<Cuenta> cuentas, long dniTitular) {
+        for (int intento = 1; ; intento++) {
+            Cliente titular = cargarTitular(dniTitular);
+            ResultadoAltaMasiva<Cuenta> resultado = new ResultadoAltaMasiva<>();
+
+            for (Cuenta cuenta : cuentas) {
+                cuenta.setTitular(titular);
+                if (titular.tieneCuenta(cuenta.getTipoCuenta(), cuenta.getMoneda())) {
+                    resultado.rechazar(cuenta, new TipoCuentaAlreadyExistsException("El cliente ya posee una cuenta de ese tipo y moneda"));
+                } else {
+                    titular.addCuenta(cuenta);
+                    resultado.aceptar(cuenta);
+                }
+            }
+
+            if (resultado.getAceptados().isEmpty() || clienteDao.save(titular, titular.getVersion())) {
+                return resultado;
+            }
+            esperarReintento(intento, dniTitular);
         }
-        titular.addCuenta(cuenta);
-        clienteDao.save(titular);
     }
 
+    //Deshace agregarCuenta/agregarCuentas para las cuentas que no se pudieron guardar (el número ya era de otra):
+    //si quedaran en la fila del titular, el cliente tendría marcado un tipo de cuenta que no tiene y no podría abrirlo
+    public void quitarCuentas(List<Cuenta> cuentas, long dniTitular) {
+        for (int intento = 1; ; intento++) {
+            Cliente titular = cargarTitular(dniTitular);
+            for (Cuenta cuenta : cuentas) {
+                titular.quitarCuenta(cuenta);
+            }
+            if (clienteDao.save(titular, titular.getVersion())) {
+                return;
+            }
+            esperarReintento(intento, dniTitular);
+        }
+    }
+
+    private static void esperarReintento(int intento, long dni) {
+        if (intento >= MAX_INTENTOS) {
+            throw new IllegalStateException("No se pudo guardar el cliente " + dni + ": demasiadas modificaciones concurrentes");
+        }
+        Thread.yield();
+    }
+
+    //Solo lectura: el cliente sale del cache y lo comparten todos los que lo buscan
     public Cliente buscarClientePorDni(long dni) {
+        long inicio = tiempoBusquedaCliente.iniciar();
+        Cliente cliente = clienteDao.findCompleto(dni);
+        tiempoBusquedaCliente.detener(inicio);
+        if(cliente == null) {
+            throw new IllegalArgumentException("El cliente no existe");
+        }
+        return cliente;
+    }
+
+    //Para modificarlo se carga una copia propia, sin pasar por el cache
+    private Cliente cargarTitular(long dni) {
         Cliente cliente = clienteDao.find(dni, true);
         if(cliente == null) {
             throw new IllegalArgumentException("El cliente no existe");
         }
         return cliente;
     }
+
+    private void validarDatosCliente(Cliente cliente) {
+        if(cliente.getFechaNacimiento() == null) {
+            throw new IllegalArgumentException("La fecha de nacimiento no puede ser nula");
+        }
+
+        if (cliente.getEdad() < 18) {
+            throw new IllegalArgumentException("El cliente debe ser mayor a 18 años");
+        }
+    }
 }
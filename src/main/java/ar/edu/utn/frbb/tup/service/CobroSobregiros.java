@@ -0,0 +1,66 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMovimiento;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Cobro diario del sobregiro de las cuentas corrientes en rojo: a cada una le debita (con
+ * {@link Cuenta#forzaDebitoDeCuenta}, así que puede quedar más negativa) deuda * TNA / 365 con un movimiento
+ * COMISION. La TNA está en puntos básicos ({@code tup.sobregiro.tna.PESOS}, 8000 por defecto, y
+ * {@code tup.sobregiro.tna.DOLARES}, 1000).
+ * <p>
+ * Las candidatas salen del índice de cuentas en rojo de CuentaDao, no de recorrer la tabla.
+ */
+@Service
+public class CobroSobregiros extends ProcesoDiario {
+
+    @Autowired
+    public CobroSobregiros(CuentaDao cuentaDao, MovimientoDao movimientoDao) {
+        super(cuentaDao, movimientoDao, "tup.sobregiro.tna.", new long[]{8000, 1000});
+    }
+
+    public Resultado cobrar(LocalDate fecha) throws IOException {
+        return procesar(fecha, null, Runtime.getRuntime().availableProcessors());
+    }
+
+    public Resultado cobrar(LocalDate fecha, Path checkpoint, int paralelismo) throws IOException {
+        return procesar(fecha, checkpoint, paralelismo);
+    }
+
+    @Override
+    protected String getNombre() {
+        return "cobro de sobregiros";
+    }
+
+    @Override
+    protected TipoMovimiento getTipoMovimiento() {
+        return TipoMovimiento.COMISION;
+    }
+
+    @Override
+    protected long[] candidatas(int particion) {
+        return cuentaDao.numerosEnRojo(particion, TipoCuenta.CUENTA_CORRIENTE);
+    }
+
+    @Override
+    protected long monto(Cuenta cuenta) {
+        if (cuenta.getTipoCuenta() != TipoCuenta.CUENTA_CORRIENTE || cuenta.getBalance() == Long.MIN_VALUE) {
+            return 0;
+        }
+        return interesDiario(-cuenta.getBalance(), getTna(cuenta.getMoneda()));
+    }
+
+    @Override
+    protected void aplicar(Cuenta cuenta, long monto) {
+        cuenta.forzaDebitoDeCuenta(monto);
+    }
+}
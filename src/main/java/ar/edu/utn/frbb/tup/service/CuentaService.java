@@ -1,6 +1,9 @@
 package ar.edu.utn.frbb.tup.service;
 
+import ar.edu.utn.frbb.tup.metricas.RegistroMetricas;
+import ar.edu.utn.frbb.tup.metricas.Temporizador;
 import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.NumeradorCuentas;
 import ar.edu.utn.frbb.tup.model.TipoCuenta;
 import ar.edu.utn.frbb.tup.model.TipoMoneda;
 import ar.edu.utn.frbb.tup.model.exception.CuentaAlreadyExistsException;
@@ -10,9 +13,13 @@ import ar.edu.utn.frbb.tup.persistence.CuentaDao;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Component
 public class CuentaService {
@@ -23,23 +30,107 @@ public class CuentaService {
     @Autowired
     ClienteService clienteService;
 
+    final Temporizador tiempoAltaCuenta = new Temporizador();
+
+    @Autowired
+    void registrarMetricas(RegistroMetricas metricas) {
+        metricas.registrar("cuentaService.darDeAltaCuenta", tiempoAltaCuenta);
+    }
+
     //Generar casos de test para darDeAltaCuenta
     //    1 - cuenta existente
     //    2 - cuenta no soportada
     //    3 - cliente ya tiene cuenta de ese tipo
     //    4 - cuenta creada exitosamente
     public void darDeAltaCuenta(Cuenta cuenta, long dniTitular) throws CuentaAlreadyExistsException, TipoCuentaAlreadyExistsException, TipoCuentaNoSoportadaException {
-        if(cuentaDao.find(cuenta.getNumeroCuenta()) != null) {
-            throw new CuentaAlreadyExistsException("La cuenta " + cuenta.getNumeroCuenta() + " ya existe.");
+        long inicio = tiempoAltaCuenta.iniciar();
+        try {
+            //Un número dado por NumeradorCuentas no puede repetirse: solo se busca si viene de afuera
+            if(!cuenta.isNumeroAsignado()) {
+                if (cuentaDao.find(cuenta.getNumeroCuenta()) != null) {
+                    throw new CuentaAlreadyExistsException("La cuenta " + cuenta.getNumeroCuenta() + " ya existe.");
+                }
+                NumeradorCuentas.avanzarHasta(cuenta.getNumeroCuenta() + 1);
+            }
+
+            //Chequear cuentas soportadas por el banco CA$ CC$ CAU$S
+            if (!tipoCuentaEstaSoportada(cuenta)) {
+                throw new TipoCuentaNoSoportadaException("El tipo de cuenta no es soportada, solo se admite CA$ - CC$ - CAU$S");
+            }
+
+            clienteService.agregarCuenta(cuenta, dniTitular);
+            //La cuenta es nueva: si el número ya está ocupado no se pisa la fila que lo tiene y se saca del titular
+            if (!cuentaDao.save(cuenta, CuentaDao.SIN_VERSION)) {
+                clienteService.quitarCuentas(Collections.singletonList(cuenta), dniTitular);
+                throw new CuentaAlreadyExistsException("La cuenta " + cuenta.getNumeroCuenta() + " ya existe.");
+            }
+        } finally {
+            tiempoAltaCuenta.detener(inicio);
         }
+    }
+
+    //Alta masiva de cuentas agrupadas por dni del titular: cada titular se carga y se guarda
+    //una sola vez, y todas las cuentas aceptadas se guardan juntas al final
+    public ResultadoAltaMasiva<Cuenta> darDeAltaCuentas(Map<Long, List<Cuenta>> cuentasPorTitular) {
+        ResultadoAltaMasiva<Cuenta> resultado = new ResultadoAltaMasiva<>();
+        Set<Long> numerosDelLote = new HashSet<>();
+        List<Cuenta> agregadas = new ArrayList<>();
 
-        //Chequear cuentas soportadas por el banco CA$ CC$ CAU$S
-        if (!tipoCuentaEstaSoportada(cuenta)) {
-            throw new TipoCuentaNoSoportadaException("El tipo de cuenta no es soportada, solo se admite CA$ - CC$ - CAU$S");
+        for (Map.Entry<Long, List<Cuenta>> entry : cuentasPorTitular.entrySet()) {
+            List<Cuenta> candidatas = new ArrayList<>(entry.getValue().size());
+            for (Cuenta cuenta : entry.getValue()) {
+                if (!numerosDelLote.add(cuenta.getNumeroCuenta())
+                        || (!cuenta.isNumeroAsignado() && cuentaDao.exists(cuenta.getNumeroCuenta()))) {
+                    resultado.rechazar(cuenta, new CuentaAlreadyExistsException("La cuenta " + cuenta.getNumeroCuenta() + " ya existe."));
+                } else if (!tipoCuentaEstaSoportada(cuenta)) {
+                    resultado.rechazar(cuenta, new TipoCuentaNoSoportadaException("El tipo de cuenta no es soportada, solo se admite CA$ - CC$ - CAU$S"));
+                } else {
+                    if (!cuenta.isNumeroAsignado()) {
+                        //Los números que vengan después del numerador no pueden caer sobre uno importado
+                        NumeradorCuentas.avanzarHasta(cuenta.getNumeroCuenta() + 1);
+                    }
+                    candidatas.add(cuenta);
+                }
+            }
+            if (candidatas.isEmpty()) {
+                continue;
+            }
+
+            //Un titular que no existe o que no se pudo guardar (demasiados conflictos) rechaza solo sus cuentas:
+            //los titulares ya guardados del lote tienen que terminar con sus cuentas guardadas al final
+            try {
+                ResultadoAltaMasiva<Cuenta> delTitular = clienteService.agregarCuentas(candidatas, entry.getKey());
+                agregadas.addAll(delTitular.getAceptados());
+                for (ResultadoAltaMasiva.Rechazo<Cuenta> rechazo : delTitular.getRechazos()) {
+                    resultado.rechazar(rechazo.getItem(), rechazo.getMotivo());
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                for (Cuenta cuenta : candidatas) {
+                    resultado.rechazar(cuenta, e);
+                }
+            }
         }
 
-        clienteService.agregarCuenta(cuenta, dniTitular);
-        cuentaDao.save(cuenta);
+        if (!agregadas.isEmpty()) {
+            //Las cuentas son nuevas: una cuyo número se ocupó en el medio no pisa la fila que lo tiene y se saca
+            //de su titular, que ya se guardó con ella
+            List<Cuenta> existentes = cuentaDao.saveAllNuevas(agregadas);
+            Map<Long, List<Cuenta>> existentesPorTitular = new LinkedHashMap<>();
+            int e = 0;
+            for (Cuenta cuenta : agregadas) {
+                if (e < existentes.size() && existentes.get(e) == cuenta) {
+                    resultado.rechazar(cuenta, new CuentaAlreadyExistsException("La cuenta " + cuenta.getNumeroCuenta() + " ya existe."));
+                    existentesPorTitular.computeIfAbsent(cuenta.getTitular().getDni(), dni -> new ArrayList<>()).add(cuenta);
+                    e++;
+                } else {
+                    resultado.aceptar(cuenta);
+                }
+            }
+            for (Map.Entry<Long, List<Cuenta>> entry : existentesPorTitular.entrySet()) {
+                clienteService.quitarCuentas(entry.getValue(), entry.getKey());
+            }
+        }
+        return resultado;
     }
 
     public boolean tipoCuentaEstaSoportada(Cuenta cuenta){
@@ -0,0 +1,318 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.metricas.RegistroMetricas;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ejecuta operaciones de los servicios en otro hilo y devuelve un CompletableFuture.
+ * Las operaciones que modifican datos de un cliente se encolan por DNI: dos altas de cuenta para el mismo
+ * cliente corren una después de la otra, en el orden en que llegaron, mientras que las de clientes distintos
+ * corren en paralelo.
+ * <p>
+ * Con {@code tup.ejecutor.modo=auto} (por defecto) usa un hilo virtual por tarea si la JVM los tiene
+ * (Java 21+) y si no un pool fijo de {@code tup.ejecutor.hilos} hilos de plataforma.
+ */
+@Component
+public class EjecutorServicios implements DisposableBean {
+
+    public interface Operacion<T> {
+        T ejecutar() throws Throwable;
+    }
+
+    public static class Estadisticas {
+        private final String modo;
+        private final long encoladas;
+        private final long enEspera;
+        private final long enCurso;
+        private final long completadas;
+        private final long fallidas;
+        private final long esperaTotalNanos;
+        private final long esperaMaximaNanos;
+        private final long ejecucionTotalNanos;
+        private final long ejecucionMaximaNanos;
+
+        Estadisticas(String modo, long encoladas, long enEspera, long enCurso, long completadas, long fallidas,
+                     long esperaTotalNanos, long esperaMaximaNanos, long ejecucionTotalNanos, long ejecucionMaximaNanos) {
+            this.modo = modo;
+            this.encoladas = encoladas;
+            this.enEspera = enEspera;
+            this.enCurso = enCurso;
+            this.completadas = completadas;
+            this.fallidas = fallidas;
+            this.esperaTotalNanos = esperaTotalNanos;
+            this.esperaMaximaNanos = esperaMaximaNanos;
+            this.ejecucionTotalNanos = ejecucionTotalNanos;
+            this.ejecucionMaximaNanos = ejecucionMaximaNanos;
+        }
+
+        public String getModo() {
+            return modo;
+        }
+
+        public long getEncoladas() {
+            return encoladas;
+        }
+
+        // Tareas recibidas que todavía no empezaron (en la cola del pool o detrás de otra del mismo DNI)
+        public long getEnEspera() {
+            return enEspera;
+        }
+
+        public long getEnCurso() {
+            return enCurso;
+        }
+
+        public long getCompletadas() {
+            return completadas;
+        }
+
+        public long getFallidas() {
+            return fallidas;
+        }
+
+        public double getEsperaPromedioMicros() {
+            long terminadas = completadas + fallidas;
+            return terminadas == 0 ? 0 : esperaTotalNanos / 1e3 / terminadas;
+        }
+
+        public double getEsperaMaximaMicros() {
+            return esperaMaximaNanos / 1e3;
+        }
+
+        public double getEjecucionPromedioMicros() {
+            long terminadas = completadas + fallidas;
+            return terminadas == 0 ? 0 : ejecucionTotalNanos / 1e3 / terminadas;
+        }
+
+        public double getEjecucionMaximaMicros() {
+            return ejecucionMaximaNanos / 1e3;
+        }
+
+        @Override
+        public String toString() {
+            return "Estadisticas{" +
+                    "modo=" + modo +
+                    ", encoladas=" + encoladas +
+                    ", enEspera=" + enEspera +
+                    ", enCurso=" + enCurso +
+                    ", completadas=" + completadas +
+                    ", fallidas=" + fallidas +
+                    ", esperaPromedioMicros=" + String.format("%.1f", getEsperaPromedioMicros()) +
+                    ", ejecucionPromedioMicros=" + String.format("%.1f", getEjecucionPromedioMicros()) +
+                    '}';
+        }
+    }
+
+    // Tarea encolada detrás de otra del mismo DNI, con su resultado para rechazarla si el ejecutor ya no la acepta
+    private static final class Pendiente {
+        final Runnable tarea;
+        final CompletableFuture<?> resultado;
+
+        Pendiente(Runnable tarea, CompletableFuture<?> resultado) {
+            this.tarea = tarea;
+            this.resultado = resultado;
+        }
+    }
+
+    private static final String MODO_VIRTUAL = "virtual";
+    private static final String MODO_PLATAFORMA = "plataforma";
+
+    private final ExecutorService executor;
+    private final String modo;
+    // Tareas esperando detrás de la que está corriendo para el mismo DNI; la clave desaparece cuando se vacía
+    private final ConcurrentHashMap<Long, ArrayDeque<Pendiente>> pendientesPorDni = new ConcurrentHashMap<>();
+
+    private final LongAdder encoladas = new LongAdder();
+    private final LongAdder iniciadas = new LongAdder();
+    private final LongAdder completadas = new LongAdder();
+    private final LongAdder fallidas = new LongAdder();
+    private final LongAdder esperaTotal = new LongAdder();
+    private final LongAccumulator esperaMaxima = new LongAccumulator(Math::max, 0);
+    private final LongAdder ejecucionTotal = new LongAdder();
+    private final LongAccumulator ejecucionMaxima = new LongAccumulator(Math::max, 0);
+
+    public EjecutorServicios() {
+        this(System.getProperty("tup.ejecutor.modo", "auto"),
+                Integer.getInteger("tup.ejecutor.hilos", Runtime.getRuntime().availableProcessors() * 2));
+    }
+
+    public EjecutorServicios(String modo, int hilos) {
+        ExecutorService virtual = MODO_PLATAFORMA.equals(modo) ? null : crearEjecutorVirtual();
+        if (virtual == null && MODO_VIRTUAL.equals(modo)) {
+            throw new IllegalStateException("Esta JVM no tiene hilos virtuales (hace falta Java 21 o posterior)");
+        }
+        if (virtual != null) {
+            this.executor = virtual;
+            this.modo = MODO_VIRTUAL;
+        } else {
+            this.executor = crearPoolFijo("servicios", hilos);
+            this.modo = MODO_PLATAFORMA;
+        }
+    }
+
+    // Pool de hilos daemon con nombre; también lo usa la API HTTP cuando no hay hilos virtuales
+    public static ExecutorService crearPoolFijo(String nombre, int hilos) {
+        AtomicInteger numero = new AtomicInteger();
+        return new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), tarea -> {
+            Thread hilo = new Thread(tarea, nombre + "-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() se busca por reflexión para seguir compilando con Java 8
+    public static ExecutorService crearEjecutorVirtual() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    public String getModo() {
+        return modo;
+    }
+
+    @Autowired
+    void registrarMetricas(RegistroMetricas metricas) {
+        metricas.registrar("ejecutor.enEspera", () -> getEstadisticas().getEnEspera());
+        metricas.registrar("ejecutor.enCurso", () -> getEstadisticas().getEnCurso());
+        metricas.registrar("ejecutor.completadas", completadas::sum);
+        metricas.registrar("ejecutor.fallidas", fallidas::sum);
+    }
+
+    // Operación sin orden: consultas, o escrituras que ya se sincronizan solas (como las transferencias)
+    public <T> CompletableFuture<T> enviar(Operacion<T> operacion) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        encoladas.increment();
+        Runnable tarea = tarea(operacion, resultado, System.nanoTime(), null);
+        try {
+            executor.execute(tarea);
+        } catch (RejectedExecutionException e) {
+            rechazar(resultado, e);
+        }
+        return resultado;
+    }
+
+    // Operación que modifica datos del cliente: corre después de las que se enviaron antes para el mismo DNI
+    public <T> CompletableFuture<T> enviar(long dni, Operacion<T> operacion) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        encoladas.increment();
+        Runnable tarea = tarea(operacion, resultado, System.nanoTime(), dni);
+        boolean[] esLaPrimera = {false};
+        pendientesPorDni.compute(dni, (clave, pendientes) -> {
+            if (pendientes == null) {
+                esLaPrimera[0] = true;
+                return new ArrayDeque<>();
+            }
+            pendientes.add(new Pendiente(tarea, resultado));
+            return pendientes;
+        });
+        if (esLaPrimera[0]) {
+            try {
+                executor.execute(tarea);
+            } catch (RejectedExecutionException e) {
+                rechazar(resultado, e);
+                siguienteDelDni(dni);
+            }
+        }
+        return resultado;
+    }
+
+    // Espera el resultado y relanza la excepción original de la operación (no la CompletionException)
+    public static <T> T esperar(CompletableFuture<T> futuro) throws Throwable {
+        try {
+            return futuro.get();
+        } catch (ExecutionException | CompletionException e) {
+            throw e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    public Estadisticas getEstadisticas() {
+        long completadas = this.completadas.sum();
+        long fallidas = this.fallidas.sum();
+        long iniciadas = this.iniciadas.sum();
+        long encoladas = this.encoladas.sum();
+        return new Estadisticas(modo, encoladas, Math.max(0, encoladas - iniciadas),
+                Math.max(0, iniciadas - completadas - fallidas), completadas, fallidas,
+                esperaTotal.sum(), esperaMaxima.get(), ejecucionTotal.sum(), ejecucionMaxima.get());
+    }
+
+    public void detener(long espera, TimeUnit unidad) throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(espera, unidad);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        detener(10, TimeUnit.SECONDS);
+    }
+
+    private <T> Runnable tarea(Operacion<T> operacion, CompletableFuture<T> resultado, long encolada, Long dni) {
+        return () -> {
+            long inicio = System.nanoTime();
+            iniciadas.increment();
+            esperaTotal.add(inicio - encolada);
+            esperaMaxima.accumulate(inicio - encolada);
+            try {
+                T valor = operacion.ejecutar();
+                completadas.increment();
+                resultado.complete(valor);
+            } catch (Throwable e) {
+                fallidas.increment();
+                resultado.completeExceptionally(e);
+            } finally {
+                long duracion = System.nanoTime() - inicio;
+                ejecucionTotal.add(duracion);
+                ejecucionMaxima.accumulate(duracion);
+                if (dni != null) {
+                    siguienteDelDni(dni);
+                }
+            }
+        };
+    }
+
+    private void siguienteDelDni(long dni) {
+        while (true) {
+            Pendiente[] siguiente = {null};
+            pendientesPorDni.compute(dni, (clave, pendientes) -> {
+                siguiente[0] = pendientes.poll();
+                return siguiente[0] == null ? null : pendientes;
+            });
+            if (siguiente[0] == null) {
+                return;
+            }
+            try {
+                executor.execute(siguiente[0].tarea);
+                return;
+            } catch (RejectedExecutionException e) {
+                // Con el ejecutor detenido no corre nada más: las que esperaban se rechazan como la primera,
+                // de a una en este ciclo, así nadie queda esperando para siempre
+                rechazar(siguiente[0].resultado, e);
+            }
+        }
+    }
+
+    private void rechazar(CompletableFuture<?> resultado, RejectedExecutionException e) {
+        fallidas.increment();
+        iniciadas.increment();
+        resultado.completeExceptionally(e);
+    }
+}
@@ -0,0 +1,63 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMovimiento;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Liquidación diaria de intereses de las cajas de ahorro: a cada una con saldo positivo le acredita
+ * saldo * TNA / 365 (truncado a centavos) con un movimiento INTERES. La TNA de cada moneda está en puntos
+ * básicos ({@code tup.interes.tna.PESOS}, 3000 por defecto, y {@code tup.interes.tna.DOLARES}, 100).
+ */
+@Service
+public class LiquidacionIntereses extends ProcesoDiario {
+
+    @Autowired
+    public LiquidacionIntereses(CuentaDao cuentaDao, MovimientoDao movimientoDao) {
+        super(cuentaDao, movimientoDao, "tup.interes.tna.", new long[]{3000, 100});
+    }
+
+    public Resultado liquidar(LocalDate fecha) throws IOException {
+        return procesar(fecha, null, Runtime.getRuntime().availableProcessors());
+    }
+
+    public Resultado liquidar(LocalDate fecha, Path checkpoint, int paralelismo) throws IOException {
+        return procesar(fecha, checkpoint, paralelismo);
+    }
+
+    @Override
+    protected String getNombre() {
+        return "liquidacion de intereses";
+    }
+
+    @Override
+    protected TipoMovimiento getTipoMovimiento() {
+        return TipoMovimiento.INTERES;
+    }
+
+    @Override
+    protected long[] candidatas(int particion) {
+        return cuentaDao.numerosDeParticion(particion, TipoCuenta.CAJA_AHORRO);
+    }
+
+    @Override
+    protected long monto(Cuenta cuenta) {
+        if (cuenta.getTipoCuenta() != TipoCuenta.CAJA_AHORRO) {
+            return 0;
+        }
+        return interesDiario(cuenta.getBalance(), getTna(cuenta.getMoneda()));
+    }
+
+    @Override
+    protected void aplicar(Cuenta cuenta, long monto) {
+        cuenta.setBalance(Math.addExact(cuenta.getBalance(), monto));
+    }
+}
@@ -0,0 +1,35 @@
+package ar.edu.utn.frbb.tup.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// Locks por franja de números de cuenta, compartidos por todo lo que modifica saldos (transferencias y procesos
+// batch). Son estáticos como la base en memoria, así cualquier instancia de un servicio coordina sobre las mismas
+// cuentas. Quien necesita varios los toma siempre de menor a mayor índice, así nadie puede trabarse con nadie.
+final class LocksCuentas {
+
+    static final int CANTIDAD = 1024;
+    private static final ReentrantLock[] locks = new ReentrantLock[CANTIDAD];
+
+    static {
+        for (int i = 0; i < CANTIDAD; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    private LocksCuentas() {
+    }
+
+    /**
+     * Franja de la cuenta: los 10 bits altos del mismo hash multiplicativo que usa ConcurrentLongObjectMap para
+     * elegir segmento. Por eso las cuentas de una franja caen todas en el mismo segmento de la tabla CUENTA, y un
+     * batch que reparte la tabla por segmentos nunca pide los locks de otro hilo del mismo batch.
+     */
+    static int indice(long numeroCuenta) {
+        long h = numeroCuenta * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 54) & (CANTIDAD - 1);
+    }
+
+    static ReentrantLock get(int indice) {
+        return locks[indice];
+    }
+}
@@ -0,0 +1,54 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.PaginaMovimientos;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import ar.edu.utn.frbb.tup.persistence.entity.LibroMovimientos;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+@Service
+public class MovimientoService {
+
+    public static final int LIMITE_MAXIMO = 1000;
+
+    CuentaDao cuentaDao;
+    MovimientoDao movimientoDao;
+
+    public MovimientoService(CuentaDao cuentaDao, MovimientoDao movimientoDao) {
+        this.cuentaDao = cuentaDao;
+        this.movimientoDao = movimientoDao;
+    }
+
+    // Movimientos de la cuenta entre las dos fechas (null = sin límite), de a limite por página
+    public PaginaMovimientos extracto(long numeroCuenta, LocalDateTime desde, LocalDateTime hasta, long cursor, int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite tiene que estar entre 1 y " + LIMITE_MAXIMO);
+        }
+        if (cursor < 0) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+        buscarCuenta(numeroCuenta);
+        return movimientoDao.extracto(numeroCuenta, desde, hasta, cursor, limite);
+    }
+
+    // Saldo que tenía la cuenta en ese momento; sin movimientos registrados es el saldo actual
+    public long saldoAl(long numeroCuenta, LocalDateTime fecha) {
+        Cuenta cuenta = buscarCuenta(numeroCuenta);
+        LibroMovimientos libro = movimientoDao.getLibro(numeroCuenta);
+        if (libro == null) {
+            return cuenta.getBalance();
+        }
+        return libro.saldoAl(MovimientoDao.instanteDe(fecha));
+    }
+
+    private Cuenta buscarCuenta(long numeroCuenta) {
+        Cuenta cuenta = cuentaDao.find(numeroCuenta);
+        if (cuenta == null) {
+            throw new IllegalArgumentException("La cuenta " + numeroCuenta + " no existe");
+        }
+        return cuenta;
+    }
+}
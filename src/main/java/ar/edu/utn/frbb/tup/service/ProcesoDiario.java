@@ -0,0 +1,367 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoMovimiento;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import ar.edu.utn.frbb.tup.persistence.entity.LibroMovimientos;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Proceso batch que una vez por día deja en ciertas cuentas un movimiento de un tipo fijo cuya contraparte es el
+ * día procesado (epoch-day), como la liquidación de intereses o el cobro de sobregiros. Los montos son una tasa
+ * nominal anual por moneda, en puntos básicos, aplicada por un día.
+ * <p>
+ * La tabla CUENTA se reparte por particiones (sus segmentos) en un ForkJoinPool. Dentro de una partición las
+ * cuentas se ordenan por lock de LocksCuentas y se procesan de a lotes de hasta {@value #LOTE} cuentas del
+ * mismo lock: un lock tomado y una sola escritura en el log por lote. Como cada lock cubre cuentas de un único
+ * segmento, dos particiones nunca esperan una por la otra; sí pueden esperar a una transferencia en curso.
+ * <p>
+ * Un día no se procesa dos veces en la misma cuenta: antes de tocarla se busca en su libro un movimiento del tipo
+ * con ese día, lo que cuesta recorrer hacia atrás solo los movimientos desde el comienzo del día procesado. El
+ * checkpoint opcional guarda las particiones terminadas, así al reanudar un día cortado esas ni se recorren.
+ */
+public abstract class ProcesoDiario implements DisposableBean {
+
+    public static class Resultado {
+        private final LocalDate fecha;
+        private final long revisadas;
+        private final long afectadas;
+        private final long[] montoPorMoneda;
+        private final int particionesSalteadas;
+        private final Duration duracion;
+
+        Resultado(LocalDate fecha, long revisadas, long afectadas, long[] montoPorMoneda, int particionesSalteadas, Duration duracion) {
+            this.fecha = fecha;
+            this.revisadas = revisadas;
+            this.afectadas = afectadas;
+            this.montoPorMoneda = montoPorMoneda;
+            this.particionesSalteadas = particionesSalteadas;
+            this.duracion = duracion;
+        }
+
+        public LocalDate getFecha() {
+            return fecha;
+        }
+
+        // Cuentas candidatas recorridas, les haya tocado un movimiento o no
+        public long getRevisadas() {
+            return revisadas;
+        }
+
+        // Cuentas a las que se les registró el movimiento
+        public long getAfectadas() {
+            return afectadas;
+        }
+
+        public long getMonto(TipoMoneda moneda) {
+            return montoPorMoneda[moneda.ordinal()];
+        }
+
+        // Particiones que el checkpoint ya daba por terminadas
+        public int getParticionesSalteadas() {
+            return particionesSalteadas;
+        }
+
+        public Duration getDuracion() {
+            return duracion;
+        }
+
+        public double getCuentasPorSegundo() {
+            long nanos = duracion.toNanos();
+            return nanos == 0 ? 0 : revisadas * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Resultado{" +
+                    "fecha=" + fecha +
+                    ", revisadas=" + revisadas +
+                    ", afectadas=" + afectadas +
+                    ", particionesSalteadas=" + particionesSalteadas +
+                    ", duracion=" + duracion +
+                    ", cuentasPorSegundo=" + String.format("%.0f", getCuentasPorSegundo()) +
+                    '}';
+        }
+    }
+
+    static final int LOTE = 256;
+    // Checkpoint: [MAGIC (int)][tipo de movimiento (int)][día, epoch-day (long)][cantidad de particiones (int)][particiones terminadas (long[])]
+    static final int MAGIC = 0x54555044; // "TUPD"
+    private static final long MILIS_POR_DIA = 86_400_000L;
+    private static final long DIVISOR = 10_000L * 365;
+    private static final TipoMoneda[] MONEDAS = TipoMoneda.values();
+
+    CuentaDao cuentaDao;
+    MovimientoDao movimientoDao;
+    Clock reloj = Clock.systemDefaultZone();
+    // TNA en puntos básicos, por ordinal de TipoMoneda
+    private final long[] tna = new long[MONEDAS.length];
+    private ScheduledExecutorService programador;
+
+    /**
+     * La TNA de cada moneda se lee de la propiedad {@code prefijoPropiedad + moneda.name()}; si no está se usa
+     * {@code tnaPorDefecto}, indexado por ordinal de TipoMoneda.
+     */
+    protected ProcesoDiario(CuentaDao cuentaDao, MovimientoDao movimientoDao, String prefijoPropiedad, long[] tnaPorDefecto) {
+        this.cuentaDao = cuentaDao;
+        this.movimientoDao = movimientoDao;
+        for (TipoMoneda moneda : MONEDAS) {
+            setTna(moneda, Long.getLong(prefijoPropiedad + moneda.name(), tnaPorDefecto[moneda.ordinal()]));
+        }
+    }
+
+    // Nombre para los mensajes y el hilo programado
+    protected abstract String getNombre();
+
+    protected abstract TipoMovimiento getTipoMovimiento();
+
+    // Números de cuenta que hay que revisar en la partición; no hace falta que sigan cumpliendo la condición
+    protected abstract long[] candidatas(int particion);
+
+    // Monto del movimiento para la cuenta (leída con su lock tomado), o 0 si no le corresponde
+    protected abstract long monto(Cuenta cuenta);
+
+    // Aplica el monto al saldo de la cuenta, antes de guardarla junto con su movimiento
+    protected abstract void aplicar(Cuenta cuenta, long monto);
+
+    public long getTna(TipoMoneda moneda) {
+        return tna[moneda.ordinal()];
+    }
+
+    public void setTna(TipoMoneda moneda, long puntosBasicos) {
+        if (puntosBasicos < 0) {
+            throw new IllegalArgumentException("La TNA no puede ser negativa");
+        }
+        tna[moneda.ordinal()] = puntosBasicos;
+    }
+
+    /**
+     * Procesa el día. Si hay checkpoint de ese mismo día se saltean las particiones que ya terminaron; uno de
+     * otro día se descarta. Con {@code checkpoint} null no se guarda nada.
+     */
+    public Resultado procesar(LocalDate fecha, Path checkpoint, int paralelismo) throws IOException {
+        if (fecha.isAfter(LocalDate.now(reloj))) {
+            throw new IllegalArgumentException("No se puede procesar un día futuro: " + fecha);
+        }
+        if (paralelismo < 1) {
+            throw new IllegalArgumentException("El paralelismo tiene que ser al menos 1");
+        }
+        long inicio = System.nanoTime();
+        long dia = fecha.toEpochDay();
+        int particiones = cuentaDao.getCantidadParticiones();
+        BitSet terminadas = checkpoint == null ? new BitSet() : leerCheckpoint(checkpoint, dia, particiones);
+        int salteadas = terminadas.cardinality();
+
+        LongAdder revisadas = new LongAdder();
+        LongAdder afectadas = new LongAdder();
+        LongAdder[] montos = new LongAdder[MONEDAS.length];
+        for (int i = 0; i < montos.length; i++) {
+            montos[i] = new LongAdder();
+        }
+        ForkJoinPool pool = new ForkJoinPool(paralelismo);
+        try {
+            // Un stream paralelo corre en el pool desde el que se lo lanza: así no usa el pool común
+            int[] pendientes = IntStream.range(0, particiones).filter(particion -> !terminadas.get(particion)).toArray();
+            pool.submit(() -> Arrays.stream(pendientes).parallel()
+                    .forEach(particion -> {
+                        procesarParticion(particion, dia, revisadas, afectadas, montos);
+                        if (checkpoint != null) {
+                            marcarTerminada(checkpoint, dia, particiones, terminadas, particion);
+                        }
+                    })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpió " + getNombre(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        long[] montoPorMoneda = new long[MONEDAS.length];
+        for (int i = 0; i < montos.length; i++) {
+            montoPorMoneda[i] = montos[i].sum();
+        }
+        return new Resultado(fecha, revisadas.sum(), afectadas.sum(), montoPorMoneda, salteadas,
+                Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    // Todos los días a la hora dada procesa el día anterior, retomando el checkpoint si la última corrida se cortó
+    public synchronized void programar(LocalTime hora, Path checkpoint, int paralelismo) {
+        if (programador != null) {
+            programador.shutdownNow();
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, getNombre().replace(' ', '-'));
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        LocalDateTime ahora = LocalDateTime.now(reloj);
+        LocalDateTime proxima = ahora.toLocalDate().atTime(hora);
+        if (!proxima.isAfter(ahora)) {
+            proxima = proxima.plusDays(1);
+        }
+        programador.scheduleAtFixedRate(() -> {
+            try {
+                System.out.println(getNombre() + ": " + procesar(LocalDate.now(reloj).minusDays(1), checkpoint, paralelismo));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Falló " + getNombre() + ": " + e.getMessage());
+            }
+        }, Duration.between(ahora, proxima).toMillis(), TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (programador != null) {
+            programador.shutdownNow();
+            programador = null;
+        }
+    }
+
+    private void procesarParticion(int particion, long dia, LongAdder revisadas, LongAdder afectadas, LongAdder[] montos) {
+        long[] numeros = ordenarPorLock(candidatas(particion));
+        TipoMovimiento tipo = getTipoMovimiento();
+        long desde = dia * MILIS_POR_DIA;
+        List<Cuenta> lote = new ArrayList<>(Math.min(LOTE, numeros.length));
+        long[] montosDelLote = new long[LOTE];
+        int i = 0;
+        while (i < numeros.length) {
+            int indiceLock = LocksCuentas.indice(numeros[i]);
+            ReentrantLock lock = LocksCuentas.get(indiceLock);
+            lock.lock();
+            try {
+                lote.clear();
+                for (; i < numeros.length && lote.size() < LOTE && LocksCuentas.indice(numeros[i]) == indiceLock; i++) {
+                    revisadas.increment();
+                    Cuenta cuenta = cuentaDao.find(numeros[i]);
+                    if (cuenta == null) {
+                        continue;
+                    }
+                    long monto = monto(cuenta);
+                    if (monto == 0 || yaProcesada(numeros[i], tipo, desde, dia)) {
+                        continue;
+                    }
+                    aplicar(cuenta, monto);
+                    montosDelLote[lote.size()] = monto;
+                    lote.add(cuenta);
+                    montos[cuenta.getMoneda().ordinal()].add(monto);
+                }
+                if (!lote.isEmpty()) {
+                    movimientoDao.registrarAsientos(lote, montosDelLote, tipo, dia);
+                    afectadas.add(lote.size());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private boolean yaProcesada(long numeroCuenta, TipoMovimiento tipo, long desde, long dia) {
+        LibroMovimientos libro = movimientoDao.getLibro(numeroCuenta);
+        return libro != null && libro.contiene(desde, tipo, dia);
+    }
+
+    // saldo * tna / (10000 * 365) truncado, para saldos positivos
+    static long interesDiario(long saldo, long tnaPuntosBasicos) {
+        if (saldo <= 0 || tnaPuntosBasicos == 0) {
+            return 0;
+        }
+        if (saldo <= Long.MAX_VALUE / tnaPuntosBasicos) {
+            return saldo * tnaPuntosBasicos / DIVISOR;
+        }
+        return BigInteger.valueOf(saldo).multiply(BigInteger.valueOf(tnaPuntosBasicos))
+                .divide(BigInteger.valueOf(DIVISOR)).longValueExact();
+    }
+
+    // Ordenamiento por conteo según el lock de cada cuenta: las de un mismo lock quedan juntas
+    private static long[] ordenarPorLock(long[] numeros) {
+        int[] desde = new int[LocksCuentas.CANTIDAD + 1];
+        for (long numero : numeros) {
+            desde[LocksCuentas.indice(numero) + 1]++;
+        }
+        for (int k = 0; k < LocksCuentas.CANTIDAD; k++) {
+            desde[k + 1] += desde[k];
+        }
+        long[] ordenados = new long[numeros.length];
+        for (long numero : numeros) {
+            ordenados[desde[LocksCuentas.indice(numero)]++] = numero;
+        }
+        return ordenados;
+    }
+
+    private BitSet leerCheckpoint(Path checkpoint, long dia, int particiones) throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return new BitSet();
+        }
+        ByteBuffer contenido = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+        if (contenido.remaining() < 20 || contenido.getInt() != MAGIC || contenido.getInt() != getTipoMovimiento().ordinal()) {
+            throw new IOException("El archivo " + checkpoint + " no es un checkpoint de " + getNombre());
+        }
+        if (contenido.getLong() != dia || contenido.getInt() != particiones) {
+            return new BitSet();
+        }
+        long[] palabras = new long[contenido.remaining() / 8];
+        contenido.asLongBuffer().get(palabras);
+        return BitSet.valueOf(palabras);
+    }
+
+    //Se escribe en un temporal y se reemplaza con un move atómico, como el límite del numerador de cuentas
+    private void marcarTerminada(Path checkpoint, long dia, int particiones, BitSet terminadas, int particion) {
+        synchronized (terminadas) {
+            terminadas.set(particion);
+            long[] palabras = terminadas.toLongArray();
+            ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 8 + 4 + palabras.length * 8);
+            buffer.putInt(MAGIC).putInt(getTipoMovimiento().ordinal()).putLong(dia).putInt(particiones);
+            buffer.asLongBuffer().put(palabras);
+            buffer.clear();
+            Path temporal = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+            try {
+                try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    while (buffer.hasRemaining()) {
+                        canal.write(buffer);
+                    }
+                    canal.force(true);
+                }
+                Files.move(temporal, checkpoint, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo guardar el checkpoint de " + getNombre(), e);
+            }
+        }
+    }
+}
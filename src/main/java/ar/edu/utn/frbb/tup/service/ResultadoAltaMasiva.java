@@ -0,0 +1,62 @@
+package ar.edu.utn.frbb.tup.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ResultadoAltaMasiva<T> {
+
+    public static class Rechazo<T> {
+        private final T item;
+        private final Throwable motivo;
+
+        public Rechazo(T item, Throwable motivo) {
+            this.item = item;
+            this.motivo = motivo;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public Throwable getMotivo() {
+            return motivo;
+        }
+
+        @Override
+        public String toString() {
+            return "Rechazo{" +
+                    "item=" + item +
+                    ", motivo='" + motivo.getMessage() + '\'' +
+                    '}';
+        }
+    }
+
+    private final List<T> aceptados = new ArrayList<>();
+    private final List<Rechazo<T>> rechazos = new ArrayList<>();
+
+    public void aceptar(T item) {
+        aceptados.add(item);
+    }
+
+    public void rechazar(T item, Throwable motivo) {
+        rechazos.add(new Rechazo<>(item, motivo));
+    }
+
+    public void agregar(ResultadoAltaMasiva<T> otro) {
+        aceptados.addAll(otro.aceptados);
+        rechazos.addAll(otro.rechazos);
+    }
+
+    public List<T> getAceptados() {
+        return Collections.unmodifiableList(aceptados);
+    }
+
+    public List<Rechazo<T>> getRechazos() {
+        return Collections.unmodifiableList(rechazos);
+    }
+
+    public boolean tieneRechazos() {
+        return !rechazos.isEmpty();
+    }
+}
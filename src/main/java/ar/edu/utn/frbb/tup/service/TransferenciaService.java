@@ -0,0 +1,73 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.CantidadNegativaException;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.NoAlcanzaException;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class TransferenciaService {
+
+    CuentaDao cuentaDao;
+    MovimientoDao movimientoDao;
+
+    @Autowired
+    public TransferenciaService(CuentaDao cuentaDao, MovimientoDao movimientoDao) {
+        this.cuentaDao = cuentaDao;
+        this.movimientoDao = movimientoDao;
+    }
+
+    public void transferir(long numeroCuentaOrigen, long numeroCuentaDestino, long monto) throws NoAlcanzaException, CantidadNegativaException {
+        if (monto < 0) {
+            throw new CantidadNegativaException();
+        }
+        if (numeroCuentaOrigen == numeroCuentaDestino) {
+            throw new IllegalArgumentException("La cuenta de origen y destino no pueden ser la misma");
+        }
+
+        // Siempre se toma primero el lock de menor índice: dos transferencias cruzadas
+        // (A->B y B->A) piden los locks en el mismo orden y no pueden trabarse entre sí
+        int indiceOrigen = LocksCuentas.indice(numeroCuentaOrigen);
+        int indiceDestino = LocksCuentas.indice(numeroCuentaDestino);
+        ReentrantLock primero = LocksCuentas.get(Math.min(indiceOrigen, indiceDestino));
+        ReentrantLock segundo = LocksCuentas.get(Math.max(indiceOrigen, indiceDestino));
+
+        primero.lock();
+        try {
+            segundo.lock();
+            try {
+                transferirConLocksTomados(numeroCuentaOrigen, numeroCuentaDestino, monto);
+            } finally {
+                segundo.unlock();
+            }
+        } finally {
+            primero.unlock();
+        }
+    }
+
+    private void transferirConLocksTomados(long numeroCuentaOrigen, long numeroCuentaDestino, long monto) throws NoAlcanzaException, CantidadNegativaException {
+        Cuenta origen = cuentaDao.find(numeroCuentaOrigen);
+        if (origen == null) {
+            throw new IllegalArgumentException("La cuenta de origen " + numeroCuentaOrigen + " no existe");
+        }
+        Cuenta destino = cuentaDao.find(numeroCuentaDestino);
+        if (destino == null) {
+            throw new IllegalArgumentException("La cuenta de destino " + numeroCuentaDestino + " no existe");
+        }
+        if (origen.getMoneda() != destino.getMoneda()) {
+            throw new IllegalArgumentException("No se puede transferir entre cuentas de distinta moneda");
+        }
+
+        origen.debitarDeCuenta(monto);
+        destino.acreditarEnCuenta(monto);
+
+        // Las dos cuentas y los dos movimientos en un solo registro del log, publicadas juntas: una foto (ver Foto)
+        // nunca ve la plata en el aire, y con los locks tomados el orden de los libros es el de los saldos
+        movimientoDao.registrarTransferencia(origen, destino, monto);
+    }
+}
@@ -0,0 +1,79 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistogramaTest {
+
+    @Test
+    public void testCadaValorCaeEnUnaCubetaQueLoContiene() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 100_000; i++) {
+            long valor = random.nextLong(1L << random.nextInt(1, 62));
+            int cubeta = Histograma.cubeta(valor);
+            assertTrue(valor <= Histograma.maximoDeCubeta(cubeta), "valor " + valor);
+            assertTrue(cubeta == 0 || valor > Histograma.maximoDeCubeta(cubeta - 1), "valor " + valor);
+        }
+        assertEquals(Long.MAX_VALUE, Histograma.maximoDeCubeta(Histograma.cubeta(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testPercentilesConErrorMenorAlTresPorCiento() {
+        Histograma histograma = new Histograma();
+        for (long valor = 1; valor <= 100_000; valor++) {
+            histograma.registrar(valor * 1000);
+        }
+
+        Histograma.Resumen resumen = histograma.getResumen();
+
+        assertEquals(100_000, resumen.getCantidad());
+        assertEquals(100_000_000, resumen.getMaximo());
+        assertEquals(50_000_500, resumen.getPromedio(), 1);
+        assertEquals(50_000_000, resumen.getPercentil(0.50), 50_000_000 * 0.03);
+        assertEquals(99_000_000, resumen.getPercentil(0.99), 99_000_000 * 0.03);
+        assertEquals(100_000_000, resumen.getPercentil(1.0));
+    }
+
+    @Test
+    public void testHistogramaVacio() {
+        Histograma.Resumen resumen = new Histograma().getResumen();
+
+        assertEquals(0, resumen.getCantidad());
+        assertEquals(0, resumen.getPercentil(0.99));
+        assertEquals(0, resumen.getPromedio());
+    }
+
+    @Test
+    public void testTemporizadorCuentaTodasLasLlamadasYMuestreaAlgunas() {
+        Temporizador temporizador = new Temporizador(4);
+        for (int i = 0; i < 10_000; i++) {
+            temporizador.detener(temporizador.iniciar());
+        }
+
+        assertEquals(10_000, temporizador.getLlamadas());
+        long muestras = temporizador.getResumen().getCantidad();
+        assertTrue(muestras > 2000 && muestras < 3000, "muestras " + muestras);
+        assertThrows(IllegalArgumentException.class, () -> new Temporizador(3));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testVolcarIncluyeTodasLasMetricas() {
+        RegistroMetricas metricas = new RegistroMetricas();
+        metricas.contador("altas").sumar(3);
+        metricas.registrar("tabla.filas", () -> 42);
+        metricas.histograma("consulta").registrar(2_500);
+
+        Map<String, Object> foto = metricas.volcar();
+
+        assertEquals(3L, foto.get("altas"));
+        assertEquals(42L, foto.get("tabla.filas"));
+        Map<String, Object> consulta = (Map<String, Object>) foto.get("consulta");
+        assertEquals(1L, consulta.get("cantidad"));
+        assertEquals(2.5, consulta.get("maximoMicros"));
+    }
+}
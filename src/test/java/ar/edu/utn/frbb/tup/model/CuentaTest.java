@@ -0,0 +1,93 @@
+package ar.edu.utn.frbb.tup.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CuentaTest {
+
+    @Test
+    public void testDebitarSinFondosSuficientes() {
+        Cuenta cuenta = new Cuenta().setBalance(100);
+
+        assertThrows(NoAlcanzaException.class, () -> cuenta.debitarDeCuenta(101));
+        assertEquals(100, cuenta.getBalance());
+    }
+
+    @Test
+    public void testDebitarYAcreditarCantidadNegativa() {
+        Cuenta cuenta = new Cuenta().setBalance(100);
+
+        assertThrows(CantidadNegativaException.class, () -> cuenta.debitarDeCuenta(-1));
+        assertThrows(CantidadNegativaException.class, () -> cuenta.acreditarEnCuenta(-1));
+        assertEquals(100, cuenta.getBalance());
+    }
+
+    @Test
+    public void testForzarDebitoPermiteSaldoNegativo() {
+        Cuenta cuenta = new Cuenta().setBalance(100);
+
+        cuenta.forzaDebitoDeCuenta(150);
+
+        assertEquals(-50, cuenta.getBalance());
+    }
+
+    //Muchos hilos debitan de la misma cuenta a la vez: nunca puede quedar en negativo
+    //y la cantidad de débitos exitosos tiene que coincidir exactamente con el saldo inicial
+    @Test
+    public void testDebitosConcurrentesNoSobregiranLaCuenta() throws Exception {
+        final int hilos = 16;
+        final int intentosPorHilo = 10000;
+        final long saldoInicial = 50000;
+        final Cuenta cuenta = new Cuenta().setBalance(saldoInicial);
+        final AtomicInteger debitosExitosos = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> resultados = new ArrayList<>();
+        try {
+            for (int h = 0; h < hilos; h++) {
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < intentosPorHilo; i++) {
+                        try {
+                            cuenta.debitarDeCuenta(1);
+                            debitosExitosos.incrementAndGet();
+                        } catch (NoAlcanzaException e) {
+                            //Se quedó sin saldo, es lo esperado
+                        } catch (CantidadNegativaException e) {
+                            throw new IllegalStateException(e);
+                        }
+                        if (i % 10 == 0) {
+                            try {
+                                cuenta.acreditarEnCuenta(1);
+                            } catch (CantidadNegativaException e) {
+                                throw new IllegalStateException(e);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> resultado : resultados) {
+                resultado.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long acreditado = (long) hilos * (intentosPorHilo / 10);
+        assertTrue(cuenta.getBalance() >= 0);
+        assertEquals(saldoInicial + acreditado - debitosExitosos.get(), cuenta.getBalance());
+    }
+}
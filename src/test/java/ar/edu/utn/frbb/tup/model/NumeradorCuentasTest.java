@@ -0,0 +1,93 @@
+package ar.edu.utn.frbb.tup.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NumeradorCuentasTest {
+
+    @AfterEach
+    public void tearDown() {
+        NumeradorCuentas.sinPersistencia();
+    }
+
+    @Test
+    public void testNumerosUnicosEntreHilos() throws Exception {
+        final int hilos = 8;
+        final int numerosPorHilo = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<long[]>> resultados = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                resultados.add(executor.submit((Callable<long[]>) () -> {
+                    long[] numeros = new long[numerosPorHilo];
+                    for (int j = 0; j < numerosPorHilo; j++) {
+                        numeros[j] = NumeradorCuentas.siguiente();
+                    }
+                    return numeros;
+                }));
+            }
+
+            Set<Long> todos = new HashSet<>();
+            for (Future<long[]> resultado : resultados) {
+                for (long numero : resultado.get()) {
+                    assertTrue(todos.add(numero), "Número repetido: " + numero);
+                }
+            }
+            assertEquals(hilos * numerosPorHilo, todos.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPersisteElLimiteAntesDeEntregarNumeros() {
+        AtomicLong limiteGuardado = new AtomicLong();
+        NumeradorCuentas.iniciar(NumeradorCuentas.PRIMER_NUMERO, limiteGuardado::set);
+
+        for (int i = 0; i < 3 * NumeradorCuentas.NUMEROS_POR_BLOQUE; i++) {
+            long numero = NumeradorCuentas.siguiente();
+            assertTrue(numero < limiteGuardado.get());
+        }
+    }
+
+    @Test
+    public void testNoRetrocedeAlReiniciarConUnLimiteMenor() {
+        long anterior = NumeradorCuentas.siguiente();
+
+        NumeradorCuentas.iniciar(NumeradorCuentas.PRIMER_NUMERO, limite -> { });
+
+        assertTrue(NumeradorCuentas.siguiente() > anterior);
+    }
+
+    @Test
+    public void testReconstruirUnaCuentaNoConsumeNumeros() {
+        Cuenta nueva = new Cuenta();
+        Cuenta reconstruida = new Cuenta(nueva.getNumeroCuenta());
+
+        assertTrue(nueva.isNumeroAsignado());
+        assertFalse(reconstruida.isNumeroAsignado());
+        assertTrue(new Cuenta().getNumeroCuenta() > nueva.getNumeroCuenta());
+    }
+
+    @Test
+    public void testAvanzarHastaDescartaLosNumerosDelBloqueTomado() {
+        long anterior = NumeradorCuentas.siguiente();
+        long importado = anterior + 1;
+
+        NumeradorCuentas.avanzarHasta(importado + 1);
+
+        assertTrue(NumeradorCuentas.siguiente() > importado);
+    }
+}
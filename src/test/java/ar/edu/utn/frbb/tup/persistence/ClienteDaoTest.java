@@ -0,0 +1,235 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.*;
+import ar.edu.utn.frbb.tup.model.exception.TipoCuentaAlreadyExistsException;
+import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
+import ar.edu.utn.frbb.tup.service.ClienteService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClienteDaoTest {
+
+    private final CuentaDao cuentaDao = new CuentaDao();
+    private final ClienteDao clienteDao = new ClienteDao();
+
+    {
+        clienteDao.cuentaDao = cuentaDao;
+    }
+
+    @Test
+    public void testFindCompletoNoCargaLasCuentasHastaQueSePiden() {
+        Cliente pepe = getCliente(40222111L);
+        Cuenta cuenta = getCuenta(pepe, TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO);
+        clienteDao.save(pepe);
+        cuentaDao.save(cuenta);
+
+        Cliente encontrado = clienteDao.find(pepe.getDni(), true);
+
+        assertFalse(encontrado.cuentasCargadas());
+        assertEquals(1, encontrado.getCuentas().size());
+        assertTrue(encontrado.cuentasCargadas());
+        assertSame(encontrado, encontrado.getCuentas().iterator().next().getTitular());
+    }
+
+    @Test
+    public void testTieneCuentaUsaElResumenSinCargarCuentas() {
+        Cliente pepe = getCliente(40222112L);
+        cuentaDao.save(getCuenta(pepe, TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO));
+        cuentaDao.save(getCuenta(pepe, TipoMoneda.DOLARES, TipoCuenta.CAJA_AHORRO));
+        clienteDao.save(pepe);
+
+        Cliente encontrado = clienteDao.find(pepe.getDni(), true);
+
+        assertTrue(encontrado.tieneCuenta(TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS));
+        assertTrue(encontrado.tieneCuenta(TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES));
+        assertFalse(encontrado.tieneCuenta(TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS));
+        assertFalse(encontrado.cuentasCargadas());
+    }
+
+    @Test
+    public void testCambioDeTipoActualizaElResumen() {
+        Cliente pepe = getCliente(40222113L);
+        Cuenta cuenta = getCuenta(pepe, TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO);
+        cuentaDao.save(cuenta);
+        clienteDao.save(pepe);
+
+        cuenta.setTipoCuenta(TipoCuenta.CUENTA_CORRIENTE);
+        cuentaDao.save(cuenta);
+
+        Cliente encontrado = clienteDao.find(pepe.getDni(), true);
+        assertFalse(encontrado.tieneCuenta(TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS));
+        assertTrue(encontrado.tieneCuenta(TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS));
+    }
+
+    @Test
+    public void testGuardarSinCargarCuentasConservaLasExistentes() {
+        Cliente pepe = getCliente(40222114L);
+        Cuenta existente = getCuenta(pepe, TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO);
+        cuentaDao.save(existente);
+        clienteDao.save(pepe);
+
+        Cliente encontrado = clienteDao.find(pepe.getDni(), true);
+        Cuenta nueva = getCuenta(encontrado, TipoMoneda.PESOS, TipoCuenta.CUENTA_CORRIENTE);
+        encontrado.addCuenta(nueva);
+        clienteDao.save(encontrado);
+
+        assertFalse(encontrado.cuentasCargadas());
+        long[] guardadas = new ClienteEntity(encontrado).getCuentas();
+        assertEquals(2, guardadas.length);
+        assertTrue(guardadas[0] == existente.getNumeroCuenta() || guardadas[1] == existente.getNumeroCuenta());
+        assertTrue(guardadas[0] == nueva.getNumeroCuenta() || guardadas[1] == nueva.getNumeroCuenta());
+    }
+
+    @Test
+    public void testSaveConVersionEsperada() {
+        Cliente pepe = getCliente(40333000L);
+        assertTrue(clienteDao.save(pepe, ClienteDao.SIN_VERSION));
+        assertFalse(clienteDao.save(getCliente(40333000L), ClienteDao.SIN_VERSION));
+        long versionAlta = pepe.getVersion();
+        assertTrue(versionAlta > ClienteDao.SIN_VERSION);
+
+        Cliente primero = clienteDao.find(pepe.getDni(), true);
+        Cliente segundo = clienteDao.find(pepe.getDni(), true);
+        primero.setNombre("Primero");
+        segundo.setNombre("Segundo");
+        assertTrue(clienteDao.save(primero, primero.getVersion()));
+        assertFalse(clienteDao.save(segundo, segundo.getVersion()));
+
+        assertEquals("Primero", clienteDao.find(pepe.getDni(), false).getNombre());
+        assertEquals(primero.getVersion(), clienteDao.find(pepe.getDni(), false).getVersion());
+        assertTrue(primero.getVersion() > versionAlta);
+    }
+
+    @Test
+    public void testSaveAllNuevosNoPisaLosExistentes() {
+        Cliente existente = getCliente(40333010L);
+        existente.setNombre("Existente");
+        clienteDao.save(existente);
+        Cliente pisado = getCliente(40333010L);
+        Cliente nuevo = getCliente(40333011L);
+        Cliente repetido = getCliente(40333011L);
+
+        List<Cliente> rechazados = clienteDao.saveAllNuevos(Arrays.asList(pisado, nuevo, repetido));
+
+        assertEquals(Arrays.asList(pisado, repetido), rechazados);
+        assertEquals("Existente", clienteDao.find(40333010L, false).getNombre());
+        assertEquals(existente.getVersion(), clienteDao.find(40333010L, false).getVersion());
+        assertTrue(nuevo.getVersion() > ClienteDao.SIN_VERSION);
+        assertEquals(nuevo.getVersion(), clienteDao.find(40333011L, false).getVersion());
+    }
+
+    //Una cuenta ya agregada a la fila del cliente pero que todavía no llegó a CuentaDao no se pierde al
+    //guardarlo de nuevo, y cuenta para no repetir el tipo
+    @Test
+    public void testFindIncluyeCuentasQueTodaviaNoEstanEnElIndice() {
+        Cliente pepe = getCliente(40333001L);
+        Cuenta enCurso = getCuenta(pepe, TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO);
+        pepe.addCuenta(enCurso);
+        clienteDao.save(pepe);
+
+        Cliente encontrado = clienteDao.find(pepe.getDni(), true);
+        assertTrue(encontrado.tieneCuenta(TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS));
+        encontrado.addCuenta(getCuenta(encontrado, TipoMoneda.DOLARES, TipoCuenta.CAJA_AHORRO));
+        clienteDao.save(encontrado);
+
+        assertEquals(2, new ClienteEntity(encontrado).getCantidadCuentas());
+    }
+
+    @Test
+    public void testAltasConcurrentesDeCuentasDelMismoCliente() throws Exception {
+        ClienteService clienteService = new ClienteService(clienteDao);
+        TipoCuenta[] tipos = {TipoCuenta.CAJA_AHORRO, TipoCuenta.CAJA_AHORRO, TipoCuenta.CUENTA_CORRIENTE, TipoCuenta.CAJA_AHORRO};
+        TipoMoneda[] monedas = {TipoMoneda.PESOS, TipoMoneda.DOLARES, TipoMoneda.PESOS, TipoMoneda.PESOS};
+        int clientes = 50;
+        ExecutorService ejecutor = Executors.newFixedThreadPool(tipos.length);
+        try {
+            for (int c = 0; c < clientes; c++) {
+                long dni = 40334000L + c;
+                clienteDao.save(getCliente(dni));
+                CountDownLatch largada = new CountDownLatch(1);
+                List<Future<Boolean>> altas = new ArrayList<>();
+                for (int i = 0; i < tipos.length; i++) {
+                    Cuenta cuenta = getCuenta(null, monedas[i], tipos[i]);
+                    altas.add(ejecutor.submit(() -> {
+                        largada.await();
+                        try {
+                            //Como CuentaService: primero el titular, después la cuenta
+                            clienteService.agregarCuenta(cuenta, dni);
+                            cuentaDao.save(cuenta);
+                            return true;
+                        } catch (TipoCuentaAlreadyExistsException e) {
+                            return false;
+                        }
+                    }));
+                }
+                largada.countDown();
+                int aceptadas = 0;
+                for (Future<Boolean> alta : altas) {
+                    aceptadas += alta.get(10, TimeUnit.SECONDS) ? 1 : 0;
+                }
+
+                //La última repite CA$: entre las dos que piden CA$ entra solo una, y ninguna alta aceptada se pierde
+                assertEquals(3, aceptadas);
+                assertEquals(3, clienteDao.getInMemoryDatabase().get(dni).getCantidadCuentas());
+                assertEquals(3, cuentaDao.getCuentasByCliente(dni).size());
+            }
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    //Como CuentaService cuando el número ya es de otra cuenta: la cuenta se saca del titular y el tipo queda libre
+    @Test
+    public void testQuitarCuentaNoGuardadaLiberaElTipo() throws TipoCuentaAlreadyExistsException {
+        ClienteService clienteService = new ClienteService(clienteDao);
+        Cliente otro = getCliente(40333020L);
+        clienteDao.save(otro);
+        Cuenta ocupada = getCuenta(otro, TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO);
+        cuentaDao.save(ocupada);
+        Cliente pepe = getCliente(40333021L);
+        clienteDao.save(pepe);
+
+        Cuenta importada = new Cuenta(ocupada.getNumeroCuenta());
+        importada.setMoneda(TipoMoneda.PESOS);
+        importada.setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+        clienteService.agregarCuenta(importada, pepe.getDni());
+        assertFalse(cuentaDao.save(importada, CuentaDao.SIN_VERSION));
+        clienteService.quitarCuentas(Collections.singletonList(importada), pepe.getDni());
+
+        Cliente encontrado = clienteDao.find(pepe.getDni(), true);
+        assertFalse(encontrado.tieneCuenta(TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS));
+        assertEquals(0, clienteDao.getInMemoryDatabase().get(pepe.getDni()).getCantidadCuentas());
+        assertEquals(otro.getDni(), cuentaDao.find(ocupada.getNumeroCuenta()).getTitular().getDni());
+    }
+
+    private Cliente getCliente(long dni) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setNombre("Pepe");
+        cliente.setApellido("Rino");
+        cliente.setFechaNacimiento(LocalDate.of(1978, 3, 25));
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        return cliente;
+    }
+
+    private Cuenta getCuenta(Cliente titular, TipoMoneda tipoMoneda, TipoCuenta tipoCuenta) {
+        Cuenta cuenta = new Cuenta();
+        cuenta.setTitular(titular);
+        cuenta.setMoneda(tipoMoneda);
+        cuenta.setTipoCuenta(tipoCuenta);
+        cuenta.setBalance(5000);
+        return cuenta;
+    }
+}
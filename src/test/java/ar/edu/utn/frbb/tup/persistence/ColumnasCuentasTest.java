@@ -0,0 +1,51 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TotalesCuentas;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnasCuentasTest {
+
+    @Test
+    public void testSumarCoincideConRecorrerCuentaPorCuenta() {
+        ColumnasCuentas columnas = new ColumnasCuentas();
+        TipoCuenta[] tipos = TipoCuenta.values();
+        TipoMoneda[] monedas = TipoMoneda.values();
+        long[] saldos = new long[ColumnasCuentas.CODIGOS];
+        long[] cantidades = new long[ColumnasCuentas.CODIGOS];
+        Random random = new Random(23);
+
+        //Suficientes cuentas para que los segmentos crezcan y el kernel recorra varios bloques
+        int cuentas = 50_000;
+        columnas.actualizar(0, 12345, ColumnasCuentas.codigo(TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.DOLARES));
+        for (long numero = 1; numero < cuentas; numero++) {
+            TipoCuenta tipo = tipos[random.nextInt(tipos.length)];
+            TipoMoneda moneda = monedas[random.nextInt(monedas.length)];
+            long saldo = random.nextInt(2_000_000) - 500_000;
+            columnas.actualizar(numero, saldo, ColumnasCuentas.codigo(tipo, moneda));
+            saldos[TotalesCuentas.indice(tipo, moneda)] += saldo;
+            cantidades[TotalesCuentas.indice(tipo, moneda)]++;
+        }
+        //Actualizar reemplaza la fila de la cuenta, también el tipo y la moneda
+        columnas.actualizar(0, -300, ColumnasCuentas.codigo(TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS));
+        saldos[TotalesCuentas.indice(TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS)] -= 300;
+        cantidades[TotalesCuentas.indice(TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS)]++;
+        //Una sin moneda ocupa su fila pero no suma
+        columnas.actualizar(cuentas, 999, ColumnasCuentas.codigo(TipoCuenta.CAJA_AHORRO, null));
+
+        TotalesCuentas totales = columnas.sumar();
+        assertEquals(cuentas + 1, columnas.size());
+        assertEquals(cuentas, totales.getCantidad());
+        for (TipoCuenta tipo : tipos) {
+            for (TipoMoneda moneda : monedas) {
+                assertEquals(saldos[TotalesCuentas.indice(tipo, moneda)], totales.getSaldo(tipo, moneda));
+                assertEquals(cantidades[TotalesCuentas.indice(tipo, moneda)], totales.getCantidad(tipo, moneda));
+            }
+        }
+    }
+}
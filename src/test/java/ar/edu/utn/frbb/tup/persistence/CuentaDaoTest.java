@@ -0,0 +1,178 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CuentaDaoTest {
+
+    private final CuentaDao cuentaDao = new CuentaDao();
+
+    @Test
+    public void testGetCuentasByClienteSoloDevuelveLasDelTitular() {
+        Cliente pepe = getCliente(40111222L, "Pepe");
+        Cliente luciano = getCliente(40111223L, "Luciano");
+
+        Cuenta cuentaPepe1 = getCuenta(pepe, TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO);
+        Cuenta cuentaPepe2 = getCuenta(pepe, TipoMoneda.PESOS, TipoCuenta.CUENTA_CORRIENTE);
+        Cuenta cuentaLuciano = getCuenta(luciano, TipoMoneda.DOLARES, TipoCuenta.CAJA_AHORRO);
+
+        cuentaDao.save(cuentaPepe1);
+        cuentaDao.save(cuentaPepe2);
+        cuentaDao.save(cuentaLuciano);
+
+        assertEquals(2, cuentaDao.getCuentasByCliente(pepe.getDni()).size());
+        assertEquals(1, cuentaDao.getCuentasByCliente(luciano.getDni()).size());
+    }
+
+    @Test
+    public void testGetCuentasByClienteSinCuentas() {
+        List<Cuenta> cuentas = cuentaDao.getCuentasByCliente(40111299L);
+
+        assertNotNull(cuentas);
+        assertTrue(cuentas.isEmpty());
+    }
+
+    @Test
+    public void testSaveRepetidoNoDuplicaEnElIndice() {
+        Cliente pepe = getCliente(40111224L, "Pepe");
+        Cuenta cuenta = getCuenta(pepe, TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO);
+
+        cuentaDao.save(cuenta);
+        cuenta.setBalance(1000);
+        cuentaDao.save(cuenta);
+
+        assertEquals(1, cuentaDao.getCuentasByCliente(pepe.getDni()).size());
+    }
+
+    @Test
+    public void testCambioDeTitularActualizaElIndice() {
+        Cliente pepe = getCliente(40111225L, "Pepe");
+        Cliente luciano = getCliente(40111226L, "Luciano");
+        Cuenta cuenta = getCuenta(pepe, TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO);
+
+        cuentaDao.save(cuenta);
+        cuenta.setTitular(luciano);
+        cuentaDao.save(cuenta);
+
+        assertTrue(cuentaDao.getCuentasByCliente(pepe.getDni()).isEmpty());
+        assertEquals(1, cuentaDao.getCuentasByCliente(luciano.getDni()).size());
+    }
+
+    @Test
+    public void testSaveDeCuentaInvalidaElClienteCacheado() {
+        ClienteDao clienteDao = new ClienteDao();
+        clienteDao.cuentaDao = cuentaDao;
+        Cliente pepe = getCliente(40111227L, "Pepe");
+        Cuenta cuenta = getCuenta(pepe, TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO);
+        clienteDao.save(pepe);
+        cuentaDao.save(cuenta);
+
+        Cliente cacheado = clienteDao.findCompleto(pepe.getDni());
+        assertSame(cacheado, clienteDao.findCompleto(pepe.getDni()));
+
+        cuenta.setBalance(7000);
+        cuentaDao.save(cuenta);
+
+        Cliente actualizado = clienteDao.findCompleto(pepe.getDni());
+        assertNotSame(cacheado, actualizado);
+        assertEquals(7000, actualizado.getCuentas().iterator().next().getBalance());
+    }
+
+    @Test
+    public void testIndiceDeCuentasEnRojo() {
+        Cuenta cuenta = getCuenta(getCliente(40111228L, "Pepe"), TipoMoneda.PESOS, TipoCuenta.CUENTA_CORRIENTE);
+        cuentaDao.save(cuenta);
+        assertFalse(estaEnRojo(cuenta, TipoCuenta.CUENTA_CORRIENTE));
+
+        cuenta.forzaDebitoDeCuenta(6000);
+        cuentaDao.save(cuenta);
+        assertTrue(estaEnRojo(cuenta, TipoCuenta.CUENTA_CORRIENTE));
+        assertFalse(estaEnRojo(cuenta, TipoCuenta.CAJA_AHORRO));
+
+        cuenta.setBalance(0);
+        cuentaDao.save(cuenta);
+        assertFalse(estaEnRojo(cuenta, TipoCuenta.CUENTA_CORRIENTE));
+    }
+
+    @Test
+    public void testSaveConVersionVieja() {
+        Cuenta cuenta = getCuenta(getCliente(40111229L, "Pepe"), TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO);
+        assertTrue(cuentaDao.save(cuenta, CuentaDao.SIN_VERSION));
+        long versionAlta = cuenta.getVersion();
+
+        Cuenta leida = cuentaDao.find(cuenta.getNumeroCuenta());
+        assertEquals(versionAlta, leida.getVersion());
+        cuenta.setBalance(-100);
+        assertTrue(cuentaDao.save(cuenta, versionAlta));
+        assertTrue(cuenta.getVersion() > versionAlta);
+
+        //La copia leída antes quedó vieja: no pisa el saldo ni el índice de cuentas en rojo
+        leida.setBalance(9000);
+        assertFalse(cuentaDao.save(leida, leida.getVersion()));
+        assertFalse(cuentaDao.save(leida, CuentaDao.SIN_VERSION));
+        assertEquals(-100, cuentaDao.find(cuenta.getNumeroCuenta()).getBalance());
+        assertTrue(estaEnRojo(cuenta, TipoCuenta.CAJA_AHORRO));
+    }
+
+    @Test
+    public void testTotalesSiguenLosSaves() {
+        TotalesCuentas antes = cuentaDao.getTotales();
+        Cliente pepe = getCliente(40555000L, "Pepe");
+        Cuenta pesos = getCuenta(pepe, TipoMoneda.PESOS, TipoCuenta.CUENTA_CORRIENTE);
+        Cuenta dolares = getCuenta(pepe, TipoMoneda.DOLARES, TipoCuenta.CAJA_AHORRO);
+        pesos.setBalance(1500);
+        dolares.setBalance(700);
+        cuentaDao.save(pesos);
+        cuentaDao.save(dolares);
+
+        //El segundo save reemplaza el saldo, no lo suma
+        pesos.setBalance(-200);
+        cuentaDao.save(pesos);
+
+        TotalesCuentas despues = cuentaDao.getTotales();
+        assertEquals(-200, despues.getSaldo(TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS)
+                - antes.getSaldo(TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS));
+        assertEquals(1, despues.getCantidad(TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS)
+                - antes.getCantidad(TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS));
+        assertEquals(700, despues.getSaldo(TipoMoneda.DOLARES) - antes.getSaldo(TipoMoneda.DOLARES));
+        assertEquals(2, despues.getCantidad() - antes.getCantidad());
+    }
+
+    private boolean estaEnRojo(Cuenta cuenta, TipoCuenta tipo) {
+        for (int particion = 0; particion < cuentaDao.getCantidadParticiones(); particion++) {
+            for (long numero : cuentaDao.numerosEnRojo(particion, tipo)) {
+                if (numero == cuenta.getNumeroCuenta()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public Cliente getCliente(long dni, String nombre){
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setNombre(nombre);
+        cliente.setApellido("Rino");
+        cliente.setFechaNacimiento(LocalDate.of(1978, 3,25));
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+
+        return cliente;
+    }
+
+    public Cuenta getCuenta(Cliente titular, TipoMoneda tipoMoneda, TipoCuenta tipoCuenta){
+        Cuenta cuenta = new Cuenta();
+
+        cuenta.setTitular(titular);
+        cuenta.setMoneda(tipoMoneda);
+        cuenta.setTipoCuenta(tipoCuenta);
+        cuenta.setBalance(5000);
+
+        return cuenta;
+    }
+}
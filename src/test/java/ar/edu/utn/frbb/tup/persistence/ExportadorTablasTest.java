@@ -0,0 +1,97 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.*;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExportadorTablasTest {
+
+    private final ClienteDao clienteDao = new ClienteDao();
+    private final CuentaDao cuentaDao = new CuentaDao();
+    private final MovimientoDao movimientoDao = new MovimientoDao(cuentaDao);
+    private final ExportadorTablas exportador = new ExportadorTablas(clienteDao, cuentaDao, movimientoDao);
+
+    private Cliente cliente;
+    private Cuenta cuenta;
+
+    @BeforeEach
+    public void setUp() {
+        clienteDao.cuentaDao = cuentaDao;
+        cliente = new Cliente();
+        cliente.setDni(60333000L);
+        cliente.setNombre("José");
+        cliente.setApellido("Rino, Jr.");
+        cliente.setFechaNacimiento(LocalDate.of(1978, 3, 25));
+        cliente.setFechaAlta(LocalDate.of(2024, 1, 10));
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        cuenta = new Cuenta().setMoneda(TipoMoneda.PESOS).setBalance(1500).setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+        cliente.addCuenta(cuenta);
+        clienteDao.save(cliente);
+        cuentaDao.save(cuenta);
+        movimientoDao.registrarAsientos(Collections.singletonList(cuenta), new long[]{500}, TipoMovimiento.TRANSFERENCIA_RECIBIDA, 77L);
+    }
+
+    @Test
+    public void testCsvDeClientes() throws IOException {
+        List<String> lineas = exportarCsv(ExportadorTablas.Tabla.CLIENTES);
+
+        assertEquals("dni,nombre,apellido,tipoPersona,fechaNacimiento,fechaAlta,cuentas", lineas.get(0));
+        assertTrue(lineas.contains("60333000,José,\"Rino, Jr.\",PERSONA_FISICA,1978-03-25,2024-01-10,1"));
+    }
+
+    @Test
+    public void testCsvDeCuentasYMovimientos() throws IOException {
+        String prefijoCuenta = cuenta.getNumeroCuenta() + ",60333000,CAJA_AHORRO,PESOS,1500,";
+        assertTrue(exportarCsv(ExportadorTablas.Tabla.CUENTAS).stream().anyMatch(linea -> linea.startsWith(prefijoCuenta)));
+
+        List<String> movimientos = exportarCsv(ExportadorTablas.Tabla.MOVIMIENTOS).stream()
+                .filter(linea -> linea.startsWith(cuenta.getNumeroCuenta() + ",")).collect(Collectors.toList());
+        assertEquals(1, movimientos.size());
+        assertTrue(movimientos.get(0).endsWith(",TRANSFERENCIA_RECIBIDA,500,1500,77"));
+    }
+
+    //El binario se puede volver a leer con el mismo decode que usan el log y los snapshots
+    @Test
+    public void testBinarioDeCuentas() throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        long filas = exportador.exportar(ExportadorTablas.Tabla.CUENTAS, ExportadorTablas.Formato.BINARIO, Channels.newChannel(salida));
+
+        ByteBuffer leido = ByteBuffer.wrap(salida.toByteArray());
+        assertEquals(ExportadorTablas.MAGIC, leido.getInt());
+        assertEquals(ExportadorTablas.VERSION, leido.getInt());
+        assertEquals(CuentaDao.CODIGO_TABLA, leido.get());
+        long contadas = 0;
+        boolean encontrada = false;
+        for (int largo; (largo = leido.getInt()) != ExportadorTablas.FIN; contadas++) {
+            assertEquals(CuentaEntity.LARGO_CODIFICADO, largo);
+            CuentaEntity entity = CuentaEntity.decode(leido);
+            encontrada |= entity.getNumeroCuenta() == cuenta.getNumeroCuenta() && entity.getBalance() == 1500;
+        }
+        assertEquals(filas, contadas);
+        assertEquals(filas, leido.getLong());
+        assertFalse(leido.hasRemaining());
+        assertTrue(encontrada);
+    }
+
+    private List<String> exportarCsv(ExportadorTablas.Tabla tabla) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        long filas = exportador.exportar(tabla, ExportadorTablas.Formato.CSV, Channels.newChannel(salida));
+        List<String> lineas = Arrays.asList(new String(salida.toByteArray(), StandardCharsets.UTF_8).split("\n"));
+        assertEquals(filas + 1, lineas.size());
+        return lineas;
+    }
+}
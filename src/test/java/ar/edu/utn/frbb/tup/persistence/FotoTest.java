@@ -0,0 +1,106 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FotoTest {
+
+    private final CuentaDao cuentaDao = new CuentaDao();
+    private final ClienteDao clienteDao = new ClienteDao();
+
+    {
+        clienteDao.cuentaDao = cuentaDao;
+    }
+
+    @Test
+    public void testLaFotoVeLasFilasComoEstabanAlAbrirla() {
+        Cliente pepe = getCliente(40444000L);
+        Cuenta caja = getCuenta(pepe, TipoCuenta.CAJA_AHORRO, 5000);
+        pepe.addCuenta(caja);
+        clienteDao.save(pepe);
+        cuentaDao.save(caja);
+
+        try (Foto foto = Foto.abrir()) {
+            Cliente modificado = clienteDao.find(pepe.getDni(), true);
+            modificado.setNombre("Jose");
+            Cuenta corriente = getCuenta(modificado, TipoCuenta.CUENTA_CORRIENTE, 100);
+            modificado.addCuenta(corriente);
+            clienteDao.save(modificado);
+            cuentaDao.save(corriente);
+            caja.setBalance(7000);
+            cuentaDao.save(caja);
+
+            assertEquals(5000, cuentaDao.find(caja.getNumeroCuenta(), foto).getBalance());
+            assertNull(cuentaDao.find(corriente.getNumeroCuenta(), foto));
+            Cliente enLaFoto = clienteDao.find(pepe.getDni(), foto);
+            assertEquals("Pepe", enLaFoto.getNombre());
+            assertEquals(1, enLaFoto.getCuentas().size());
+            assertNull(clienteDao.find(40444001L, foto));
+
+            assertEquals(7000, cuentaDao.find(caja.getNumeroCuenta()).getBalance());
+            assertEquals(2, clienteDao.find(pepe.getDni(), true).getCuentas().size());
+        }
+    }
+
+    @Test
+    public void testRecorrerVeUnSaveAllCompletoONada() {
+        Cliente pepe = getCliente(40444002L);
+        Cuenta a = getCuenta(pepe, TipoCuenta.CAJA_AHORRO, 1000);
+        Cuenta b = getCuenta(pepe, TipoCuenta.CUENTA_CORRIENTE, 1000);
+        cuentaDao.saveAll(Arrays.asList(a, b));
+
+        try (Foto foto = Foto.abrir()) {
+            a.setBalance(400);
+            b.setBalance(1600);
+            cuentaDao.saveAll(Arrays.asList(a, b));
+
+            long[] total = {0};
+            cuentaDao.recorrer(foto, (numero, cuenta) -> {
+                if (cuenta.getTitular() == pepe.getDni()) {
+                    assertEquals(1000, cuenta.getBalance());
+                    total[0] += cuenta.getBalance();
+                }
+            });
+            assertEquals(2000, total[0]);
+        }
+    }
+
+    @Test
+    public void testLasVersionesAnterioresSeSueltanAlCerrarLaFoto() {
+        Cuenta cuenta = getCuenta(getCliente(40444003L), TipoCuenta.CAJA_AHORRO, 1000);
+        cuentaDao.save(cuenta);
+
+        Foto foto = Foto.abrir();
+        cuenta.setBalance(2000);
+        cuentaDao.save(cuenta);
+        assertNotNull(cuentaDao.getInMemoryDatabase().get(cuenta.getNumeroCuenta()).getAnterior());
+
+        foto.close();
+        assertNull(cuentaDao.getInMemoryDatabase().get(cuenta.getNumeroCuenta()).getAnterior());
+        assertThrows(IllegalStateException.class, () -> cuentaDao.find(cuenta.getNumeroCuenta(), foto));
+    }
+
+    private Cliente getCliente(long dni) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setNombre("Pepe");
+        cliente.setApellido("Rino");
+        cliente.setFechaNacimiento(LocalDate.of(1978, 3, 25));
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        return cliente;
+    }
+
+    private Cuenta getCuenta(Cliente titular, TipoCuenta tipoCuenta, long balance) {
+        Cuenta cuenta = new Cuenta();
+        cuenta.setTitular(titular);
+        cuenta.setMoneda(TipoMoneda.PESOS);
+        cuenta.setTipoCuenta(tipoCuenta);
+        cuenta.setBalance(balance);
+        return cuenta;
+    }
+}
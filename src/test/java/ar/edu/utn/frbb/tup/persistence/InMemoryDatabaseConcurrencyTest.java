@@ -0,0 +1,133 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.*;
+import ar.edu.utn.frbb.tup.persistence.collection.ConcurrentLongObjectMap;
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryDatabaseConcurrencyTest {
+
+    private static final int HILOS = 16;
+    private static final int ESCRITURAS_POR_HILO = 5000;
+
+    //La tabla se crea de forma lazy: todos los hilos arrancan a la vez sobre una tabla que todavía no existe
+    @Test
+    public void testCreacionConcurrenteDeTablaNoPierdeEscrituras() throws Exception {
+        final String nombreTabla = "STRESS_" + UUID.randomUUID();
+        AbstractBaseDao<BaseEntity> dao = new AbstractBaseDao<BaseEntity>() {
+            @Override
+            protected String getEntityName() {
+                return nombreTabla;
+            }
+
+            @Override
+            protected byte getCodigoTabla() {
+                return 0;
+            }
+        };
+
+        ejecutarEnParalelo(hilo -> {
+            for (int i = 0; i < ESCRITURAS_POR_HILO; i++) {
+                long id = (long) hilo * ESCRITURAS_POR_HILO + i;
+                dao.getInMemoryDatabase().put(id, new BaseEntity(id));
+            }
+        });
+
+        ConcurrentLongObjectMap<BaseEntity> tabla = dao.getInMemoryDatabase();
+        assertEquals(HILOS * ESCRITURAS_POR_HILO, tabla.size());
+        assertSame(tabla, AbstractBaseDao.poorMansDatabase.get(nombreTabla));
+    }
+
+    @Test
+    public void testSaveConcurrenteDeCuentasNoPierdeEscrituras() throws Exception {
+        final CuentaDao cuentaDao = new CuentaDao();
+        final long dniBase = 70000000L;
+        final int cuentasPorCliente = 50;
+
+        ejecutarEnParalelo(hilo -> {
+            //Todos los hilos escriben cuentas de los mismos clientes para forzar contención en el índice
+            for (int i = 0; i < ESCRITURAS_POR_HILO / 10; i++) {
+                Cliente titular = getCliente(dniBase + (i % cuentasPorCliente));
+                cuentaDao.save(getCuenta(titular));
+            }
+        });
+
+        int total = 0;
+        for (int i = 0; i < cuentasPorCliente; i++) {
+            total += cuentaDao.getCuentasByCliente(dniBase + i).size();
+        }
+        assertEquals(HILOS * ESCRITURAS_POR_HILO / 10, total);
+    }
+
+    @Test
+    public void testSaveConcurrenteDeClientesNoPierdeEscrituras() throws Exception {
+        final ClienteDao clienteDao = new ClienteDao();
+        final long dniBase = 80000000L;
+
+        ejecutarEnParalelo(hilo -> {
+            for (int i = 0; i < ESCRITURAS_POR_HILO; i++) {
+                clienteDao.save(getCliente(dniBase + (long) hilo * ESCRITURAS_POR_HILO + i));
+            }
+        });
+
+        for (long dni = dniBase; dni < dniBase + HILOS * ESCRITURAS_POR_HILO; dni++) {
+            assertNotNull(clienteDao.find(dni, false), "Se perdió el cliente " + dni);
+        }
+    }
+
+    private interface TareaDeHilo {
+        void ejecutar(int hilo) throws Exception;
+    }
+
+    private void ejecutarEnParalelo(TareaDeHilo tarea) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> resultados = new ArrayList<>();
+        try {
+            for (int h = 0; h < HILOS; h++) {
+                final int hilo = h;
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    tarea.ejecutar(hilo);
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> resultado : resultados) {
+                resultado.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Cliente getCliente(long dni) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setNombre("Pepe");
+        cliente.setApellido("Rino");
+        cliente.setFechaNacimiento(LocalDate.of(1978, 3, 25));
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        return cliente;
+    }
+
+    private Cuenta getCuenta(Cliente titular) {
+        Cuenta cuenta = new Cuenta();
+        cuenta.setTitular(titular);
+        cuenta.setMoneda(TipoMoneda.PESOS);
+        cuenta.setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+        return cuenta;
+    }
+}
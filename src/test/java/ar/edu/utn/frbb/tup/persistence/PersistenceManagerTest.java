@@ -0,0 +1,269 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.*;
+import ar.edu.utn.frbb.tup.persistence.entity.LibroMovimientos;
+import ar.edu.utn.frbb.tup.service.TransferenciaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistenceManagerTest {
+
+    @TempDir
+    Path directorio;
+
+    private final CuentaDao cuentaDao = new CuentaDao();
+    private final ClienteDao clienteDao = new ClienteDao();
+    private final MovimientoDao movimientoDao = new MovimientoDao(cuentaDao);
+    private final PersistenceManager persistenceManager = new PersistenceManager(clienteDao, cuentaDao, movimientoDao);
+
+    @BeforeEach
+    public void setUp() {
+        clienteDao.cuentaDao = cuentaDao;
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        persistenceManager.detener();
+    }
+
+    //Guarda con el log activo, "pierde" la memoria y verifica que el replay lo reconstruya
+    @Test
+    public void testRecuperaClientesYCuentasDesdeElLog() throws IOException {
+        persistenceManager.iniciar(directorio);
+
+        Cliente cliente = getCliente(60111222L);
+        Cuenta cuenta = getCuenta(1500);
+        cliente.addCuenta(cuenta);
+        clienteDao.save(cliente);
+        cuentaDao.save(cuenta);
+        cuentaDao.save(cuenta.setBalance(2000));
+        persistenceManager.detener();
+
+        olvidar(cliente);
+        assertNull(clienteDao.find(cliente.getDni(), false));
+
+        assertEquals(3, persistenceManager.iniciar(directorio));
+
+        Cliente recuperado = clienteDao.find(cliente.getDni(), true);
+        assertNotNull(recuperado);
+        assertEquals("Pepe", recuperado.getNombre());
+        assertEquals(1, recuperado.getCuentas().size());
+        Cuenta cuentaRecuperada = cuentaDao.find(cuenta.getNumeroCuenta());
+        assertEquals(2000, cuentaRecuperada.getBalance());
+        assertEquals(TipoMoneda.PESOS, cuentaRecuperada.getMoneda());
+    }
+
+    //Lo escrito antes del snapshot se recupera del snapshot y lo posterior de los segmentos del log
+    @Test
+    public void testRecuperaDesdeSnapshotMasLog() throws IOException {
+        persistenceManager.iniciar(directorio);
+
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Cliente cliente = getCliente(60222000L + i);
+            Cuenta cuenta = getCuenta(100 * i);
+            cliente.addCuenta(cuenta);
+            clienteDao.save(cliente);
+            cuentaDao.save(cuenta);
+            clientes.add(cliente);
+        }
+        persistenceManager.tomarSnapshot();
+
+        Cuenta cuentaPosterior = clientes.get(0).getCuentas().iterator().next();
+        cuentaDao.save(cuentaPosterior.setBalance(999));
+        persistenceManager.tomarSnapshot();
+        Cliente clientePosterior = getCliente(60222099L);
+        clienteDao.save(clientePosterior);
+        persistenceManager.detener();
+
+        //Solo queda el último snapshot y los segmentos que hacen falta para completarlo
+        assertEquals(1, contar("snapshot-*"));
+        assertEquals(2, contar("wal-*.log"));
+
+        for (Cliente cliente : clientes) {
+            olvidar(cliente);
+        }
+        olvidar(clientePosterior);
+
+        persistenceManager.iniciar(directorio);
+
+        for (Cliente cliente : clientes) {
+            assertNotNull(clienteDao.find(cliente.getDni(), false));
+        }
+        assertNotNull(clienteDao.find(clientePosterior.getDni(), false));
+        assertEquals(999, cuentaDao.find(cuentaPosterior.getNumeroCuenta()).getBalance());
+    }
+
+    //Movimientos antes y después del snapshot: el replay del segmento anterior no los duplica
+    @Test
+    public void testRecuperaMovimientosSinDuplicar() throws IOException {
+        persistenceManager.iniciar(directorio);
+
+        Cliente cliente = getCliente(60111225L);
+        Cuenta cuenta = getCuenta(100);
+        cliente.addCuenta(cuenta);
+        clienteDao.save(cliente);
+        cuentaDao.save(cuenta);
+        long numeroCuenta = cuenta.getNumeroCuenta();
+        List<Cuenta> lote = Collections.singletonList(cuenta);
+        for (int i = 0; i < 70; i++) {
+            cuenta.setBalance(cuenta.getBalance() + 10);
+            movimientoDao.registrarAsientos(lote, new long[]{10}, TipoMovimiento.TRANSFERENCIA_RECIBIDA, 1L);
+        }
+        persistenceManager.tomarSnapshot();
+        cuenta.setBalance(cuenta.getBalance() - 50);
+        movimientoDao.registrarAsientos(lote, new long[]{50}, TipoMovimiento.TRANSFERENCIA_ENVIADA, 1L);
+        persistenceManager.detener();
+
+        MovimientoDao.libros.remove(numeroCuenta);
+        persistenceManager.iniciar(directorio);
+
+        assertEquals(71, movimientoDao.getLibro(numeroCuenta).getCantidad());
+        assertEquals(100, movimientoDao.getLibro(numeroCuenta).getSaldoInicial());
+        assertEquals(750, movimientoDao.getLibro(numeroCuenta).getSaldoActual());
+    }
+
+    //El asiento trae la fila de la cuenta y su movimiento: el replay restaura los dos y, repetido, no duplica nada
+    @Test
+    public void testRecuperaAsientos() throws IOException {
+        persistenceManager.iniciar(directorio);
+
+        Cliente cliente = getCliente(60111223L);
+        Cuenta cuenta = getCuenta(1000);
+        cliente.addCuenta(cuenta);
+        clienteDao.save(cliente);
+        cuentaDao.save(cuenta);
+        List<Cuenta> lote = new ArrayList<>();
+        lote.add(cuenta.setBalance(1010));
+        movimientoDao.registrarAsientos(lote, new long[]{10}, TipoMovimiento.INTERES, 19800);
+        persistenceManager.detener();
+
+        olvidar(cliente);
+        MovimientoDao.libros.remove(cuenta.getNumeroCuenta());
+        persistenceManager.iniciar(directorio);
+        persistenceManager.detener();
+        persistenceManager.iniciar(directorio);
+
+        assertEquals(1010, cuentaDao.find(cuenta.getNumeroCuenta()).getBalance());
+        LibroMovimientos libro = movimientoDao.getLibro(cuenta.getNumeroCuenta());
+        assertEquals(1, libro.getCantidad());
+        assertEquals(1000, libro.getSaldoInicial());
+        assertEquals(1010, libro.getSaldoActual());
+        assertTrue(libro.contiene(Long.MIN_VALUE, TipoMovimiento.INTERES, 19800));
+    }
+
+    //Cada transferencia es un solo registro del log: con el log cortado en la última, la anterior se recupera entera
+    //y de la cortada no queda ni un saldo ni un movimiento
+    @Test
+    public void testRecuperaTransferenciasSinDejarlasAMedias() throws IOException, NoAlcanzaException, CantidadNegativaException {
+        persistenceManager.iniciar(directorio);
+
+        Cliente cliente = getCliente(60111224L);
+        Cuenta origen = getCuenta(1000);
+        Cuenta destino = getCuenta(500).setTipoCuenta(TipoCuenta.CUENTA_CORRIENTE);
+        cliente.addCuenta(origen);
+        cliente.addCuenta(destino);
+        clienteDao.save(cliente);
+        cuentaDao.save(origen);
+        cuentaDao.save(destino);
+        TransferenciaService transferenciaService = new TransferenciaService(cuentaDao, movimientoDao);
+        transferenciaService.transferir(origen.getNumeroCuenta(), destino.getNumeroCuenta(), 300);
+        transferenciaService.transferir(origen.getNumeroCuenta(), destino.getNumeroCuenta(), 100);
+        persistenceManager.detener();
+
+        Path segmento;
+        try (Stream<Path> segmentos = Files.list(directorio)) {
+            segmento = segmentos.filter(path -> path.getFileName().toString().startsWith("wal-")).max(Path::compareTo).get();
+        }
+        try (FileChannel channel = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 40);
+        }
+
+        olvidar(cliente);
+        MovimientoDao.libros.remove(origen.getNumeroCuenta());
+        MovimientoDao.libros.remove(destino.getNumeroCuenta());
+        persistenceManager.iniciar(directorio);
+
+        assertEquals(700, cuentaDao.find(origen.getNumeroCuenta()).getBalance());
+        assertEquals(800, cuentaDao.find(destino.getNumeroCuenta()).getBalance());
+        assertEquals(1, movimientoDao.getLibro(origen.getNumeroCuenta()).getCantidad());
+        assertEquals(700, movimientoDao.getLibro(origen.getNumeroCuenta()).getSaldoActual());
+        assertEquals(1, movimientoDao.getLibro(destino.getNumeroCuenta()).getCantidad());
+        assertEquals(800, movimientoDao.getLibro(destino.getNumeroCuenta()).getSaldoActual());
+    }
+
+    @Test
+    public void testIgnoraSnapshotsIncompletos() throws IOException {
+        Files.createDirectories(directorio.resolve("snapshot-000000005.tmp"));
+        Files.write(directorio.resolve("snapshot-000000005.tmp").resolve(PersistenceManager.ARCHIVO_CLIENTES), new byte[]{1, 2, 3});
+
+        persistenceManager.iniciar(directorio);
+
+        assertEquals(0, contar("snapshot-*"));
+    }
+
+    @Test
+    public void testGuardaElLimiteDelNumeradorAntesDeUsarlo() throws IOException {
+        persistenceManager.iniciar(directorio);
+
+        Cuenta cuenta = getCuenta(100);
+        persistenceManager.detener();
+
+        long limite = ByteBuffer.wrap(Files.readAllBytes(directorio.resolve(PersistenceManager.ARCHIVO_NUMERADOR))).getLong();
+        assertTrue(limite > cuenta.getNumeroCuenta());
+
+        persistenceManager.iniciar(directorio);
+        assertTrue(getCuenta(100).getNumeroCuenta() >= limite);
+    }
+
+    private void olvidar(Cliente cliente) {
+        clienteDao.getInMemoryDatabase().remove(cliente.getDni());
+        for (Cuenta cuenta : cliente.getCuentas()) {
+            cuentaDao.getInMemoryDatabase().remove(cuenta.getNumeroCuenta());
+        }
+    }
+
+    private long contar(String glob) throws IOException {
+        long cantidad = 0;
+        try (java.nio.file.DirectoryStream<Path> encontrados = Files.newDirectoryStream(directorio, glob)) {
+            for (Path ignored : encontrados) {
+                cantidad++;
+            }
+        }
+        return cantidad;
+    }
+
+    private Cuenta getCuenta(long balance) {
+        return new Cuenta()
+                .setMoneda(TipoMoneda.PESOS)
+                .setBalance(balance)
+                .setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+    }
+
+    private Cliente getCliente(long dni) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setNombre("Pepe");
+        cliente.setApellido("Rino");
+        cliente.setFechaNacimiento(LocalDate.of(1978, 3, 25));
+        cliente.setFechaAlta(LocalDate.of(2024, 1, 10));
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        return cliente;
+    }
+}
@@ -0,0 +1,178 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.persistence.collection.ConcurrentLongObjectMap;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TablaFueraDelHeapTest {
+
+    private final TablaFueraDelHeap<CuentaEntity> tabla =
+            new TablaFueraDelHeap<>(CuentaEntity.LARGO_CODIFICADO, CuentaEntity::decode);
+
+    @Test
+    public void testGuardaYLeeLaFilaCompleta() {
+        CuentaEntity entity = getCuenta(42L, 1500, 30111222L);
+        entity.setVersion(7);
+
+        assertNull(tabla.put(42L, entity));
+        CuentaEntity leida = tabla.get(42L);
+        assertNotSame(entity, leida);
+        assertEquals(1500, leida.getBalance());
+        assertEquals(30111222L, leida.getTitular());
+        assertEquals(TipoCuenta.CAJA_AHORRO, leida.getTipoCuenta());
+        assertEquals(TipoMoneda.PESOS, leida.getMoneda());
+        assertEquals(entity.getFechaCreacion(), leida.getFechaCreacion());
+        assertEquals(7, leida.getVersion());
+        assertTrue(tabla.containsKey(42L));
+        assertFalse(tabla.containsKey(43L));
+        assertTrue(tabla.getBytesReservados() > 0);
+    }
+
+    //Compara contra un HashMap con altas y bajas aleatorias para cubrir crecimiento, borrado con corrimiento
+    //y reuso de las filas borradas
+    @Test
+    public void testSeComportaIgualQueHashMap() {
+        Map<Long, Long> esperado = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 200000; i++) {
+            long key = random.nextInt(20000) - 10000L;
+            if (random.nextInt(3) == 0) {
+                Long saldo = esperado.remove(key);
+                CuentaEntity borrada = tabla.remove(key);
+                assertEquals(saldo, borrada != null ? borrada.getBalance() : null);
+            } else {
+                Long saldo = esperado.put(key, (long) i);
+                CuentaEntity anterior = tabla.put(key, getCuenta(key, i, 1));
+                assertEquals(saldo, anterior != null ? anterior.getBalance() : null);
+            }
+        }
+
+        assertEquals(esperado.size(), tabla.size());
+        for (Map.Entry<Long, Long> entry : esperado.entrySet()) {
+            assertEquals(entry.getValue().longValue(), tabla.get(entry.getKey()).getBalance());
+        }
+        Map<Long, Long> recorrido = new HashMap<>();
+        tabla.forEach((key, cuenta) -> recorrido.put(key, cuenta.getBalance()));
+        assertEquals(esperado, recorrido);
+    }
+
+    //Los procesos batch recorren la tabla y el índice de cuentas en rojo por particiones: tienen que coincidir
+    @Test
+    public void testMismasParticionesQueConcurrentLongObjectMap() {
+        ConcurrentLongObjectMap<CuentaEntity> enHeap = new ConcurrentLongObjectMap<>();
+        for (long numero = 1; numero <= 5000; numero++) {
+            tabla.put(numero, getCuenta(numero, 0, 1));
+            enHeap.put(numero, getCuenta(numero, 0, 1));
+        }
+
+        assertEquals(enHeap.getCantidadSegmentos(), tabla.getCantidadSegmentos());
+        for (int particion = 0; particion < tabla.getCantidadSegmentos(); particion++) {
+            Set<Long> fueraDelHeap = new HashSet<>();
+            Set<Long> delHeap = new HashSet<>();
+            tabla.forEachEnSegmento(particion, (numero, cuenta) -> fueraDelHeap.add(numero));
+            enHeap.forEachEnSegmento(particion, (numero, cuenta) -> delHeap.add(numero));
+            assertEquals(delHeap, fueraDelHeap);
+        }
+    }
+
+    //Mientras tiene una anterior encadenada (para las fotos) se devuelve el mismo objeto; después, los bytes
+    @Test
+    public void testFilaConAnteriorQuedaEnElHeapHastaQueSeSuelta() {
+        CuentaEntity vieja = getCuenta(1L, 100, 1);
+        tabla.put(1L, vieja);
+        CuentaEntity nueva = getCuenta(1L, 200, 1);
+        nueva.setAnterior(tabla.get(1L));
+        tabla.put(1L, nueva);
+
+        assertSame(nueva, tabla.get(1L));
+        assertEquals(100, ((CuentaEntity) tabla.get(1L).getAnterior()).getBalance());
+
+        //Suelta la anterior como la recolección de RelojVersiones; la limpieza llega con las próximas escrituras
+        nueva.setAnterior(null);
+        for (long numero = 2; numero < 20000; numero++) {
+            CuentaEntity otra = getCuenta(numero, 0, 1);
+            otra.setAnterior(getCuenta(numero, 0, 1));
+            tabla.put(numero, otra);
+            otra.setAnterior(null);
+        }
+        CuentaEntity leida = tabla.get(1L);
+        assertNotSame(nueva, leida);
+        assertEquals(200, leida.getBalance());
+        assertNull(leida.getAnterior());
+    }
+
+    //Las lecturas optimistas no pueden devolver una fila a medio escribir: cada save deja saldo == titular
+    @Test
+    public void testLecturasConcurrentesNoVenFilasAMedias() throws Exception {
+        int cuentas = 256;
+        for (long numero = 0; numero < cuentas; numero++) {
+            tabla.put(numero, getCuenta(numero, 0, 0));
+        }
+        AtomicBoolean terminado = new AtomicBoolean();
+        AtomicReference<String> error = new AtomicReference<>();
+        Thread lector = new Thread(() -> {
+            Random random = new Random(3);
+            while (!terminado.get()) {
+                CuentaEntity cuenta = tabla.get(random.nextInt(cuentas));
+                if (cuenta.getBalance() != cuenta.getTitular()) {
+                    error.set("Fila a medias: saldo " + cuenta.getBalance() + ", titular " + cuenta.getTitular());
+                }
+            }
+        });
+        lector.start();
+        Random random = new Random(5);
+        for (int i = 1; i <= 200000; i++) {
+            long valor = random.nextLong();
+            tabla.put(random.nextInt(cuentas), getCuenta(random.nextInt(cuentas), valor, valor));
+        }
+        terminado.set(true);
+        lector.join();
+
+        assertNull(error.get());
+    }
+
+    @Test
+    public void testRechazaFilasDeOtroLargo() {
+        CuentaEntity entity = new CuentaEntity(getModelo(1L, 0, 1)) {
+            @Override
+            public int encodedSize() {
+                return CuentaEntity.LARGO_CODIFICADO + 1;
+            }
+        };
+
+        assertThrows(IllegalArgumentException.class, () -> tabla.put(1L, entity));
+        assertThrows(NullPointerException.class, () -> tabla.put(1L, null));
+    }
+
+    private static CuentaEntity getCuenta(long numero, long saldo, long titular) {
+        return new CuentaEntity(getModelo(numero, saldo, titular));
+    }
+
+    private static Cuenta getModelo(long numero, long saldo, long titular) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(titular);
+        Cuenta cuenta = new Cuenta(numero);
+        cuenta.setTitular(cliente);
+        cuenta.setBalance(saldo);
+        cuenta.setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+        cuenta.setMoneda(TipoMoneda.PESOS);
+        cuenta.setFechaCreacion(LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123_000_000));
+        return cuenta;
+    }
+}
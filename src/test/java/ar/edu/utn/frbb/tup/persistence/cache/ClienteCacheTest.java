@@ -0,0 +1,106 @@
+package ar.edu.utn.frbb.tup.persistence.cache;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClienteCacheTest {
+
+    @Test
+    public void testSegundaBusquedaSaleDelCache() {
+        ClienteCache cache = new ClienteCache(100, 1, TimeUnit.MINUTES);
+        AtomicInteger cargas = new AtomicInteger();
+
+        Cliente primero = cache.get(40111222L, dni -> { cargas.incrementAndGet(); return getCliente(dni); });
+        Cliente segundo = cache.get(40111222L, dni -> { cargas.incrementAndGet(); return getCliente(dni); });
+
+        assertSame(primero, segundo);
+        assertEquals(1, cargas.get());
+        assertEquals(1, cache.getEstadisticas().getAciertos());
+        assertEquals(1, cache.getEstadisticas().getFallos());
+    }
+
+    @Test
+    public void testClienteInexistenteNoSeCachea() {
+        ClienteCache cache = new ClienteCache(100, 1, TimeUnit.MINUTES);
+
+        assertNull(cache.get(40111222L, dni -> null));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidarObligaARecargar() {
+        ClienteCache cache = new ClienteCache(100, 1, TimeUnit.MINUTES);
+        Cliente primero = cache.get(40111222L, this::getCliente);
+
+        cache.invalidar(40111222L);
+
+        assertNotSame(primero, cache.get(40111222L, this::getCliente));
+        assertEquals(1, cache.getEstadisticas().getInvalidaciones());
+    }
+
+    @Test
+    public void testCargaConcurrenteConUnaInvalidacionNoQuedaCacheada() {
+        ClienteCache cache = new ClienteCache(100, 1, TimeUnit.MINUTES);
+
+        // La invalidación llega mientras se está cargando: lo cargado puede estar viejo
+        Cliente cargado = cache.get(40111222L, dni -> {
+            cache.invalidar(dni);
+            return getCliente(dni);
+        });
+
+        assertNotNull(cargado);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testDesalojaLosMenosUsados() {
+        // Un solo cliente por segmento: con dos del mismo segmento, el menos usado se va
+        ClienteCache cache = new ClienteCache(1, 1, TimeUnit.MINUTES);
+        long primero = 1;
+        long segundo = otroDelMismoSegmento(cache, primero);
+
+        cache.get(primero, this::getCliente);
+        cache.get(segundo, this::getCliente);
+
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEstadisticas().getDesalojos());
+    }
+
+    @Test
+    public void testEntradasVencidas() throws InterruptedException {
+        ClienteCache cache = new ClienteCache(100, 20, TimeUnit.MILLISECONDS);
+        Cliente primero = cache.get(40111222L, this::getCliente);
+        cache.get(40111223L, this::getCliente);
+
+        Thread.sleep(50);
+
+        assertNotSame(primero, cache.get(40111222L, this::getCliente));
+        cache.purgarVencidos();
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getEstadisticas().getVencimientos());
+    }
+
+    private long otroDelMismoSegmento(ClienteCache cache, long dni) {
+        for (long candidato = dni + 1; ; candidato++) {
+            ClienteCache prueba = new ClienteCache(1, 1, TimeUnit.MINUTES);
+            prueba.get(dni, this::getCliente);
+            prueba.get(candidato, this::getCliente);
+            if (prueba.size() == 1) {
+                return candidato;
+            }
+        }
+    }
+
+    private Cliente getCliente(long dni) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setNombre("Pepe");
+        return cliente;
+    }
+}
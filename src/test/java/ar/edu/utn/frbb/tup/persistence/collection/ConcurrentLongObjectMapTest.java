@@ -0,0 +1,64 @@
+package ar.edu.utn.frbb.tup.persistence.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentLongObjectMapTest {
+
+    @Test
+    public void testPutGetYReemplazo() {
+        ConcurrentLongObjectMap<String> mapa = new ConcurrentLongObjectMap<>();
+
+        assertNull(mapa.put(42L, "a"));
+        assertEquals("a", mapa.put(42L, "b"));
+        assertEquals("b", mapa.get(42L));
+        assertNull(mapa.get(43L));
+        assertEquals(1, mapa.size());
+    }
+
+    @Test
+    public void testPutIfAbsentNoPisaElValorExistente() {
+        ConcurrentLongObjectMap<String> mapa = new ConcurrentLongObjectMap<>();
+
+        assertNull(mapa.putIfAbsent(1L, "a"));
+        assertEquals("a", mapa.putIfAbsent(1L, "b"));
+        assertEquals("a", mapa.get(1L));
+    }
+
+    @Test
+    public void testNoAdmiteValoresNull() {
+        ConcurrentLongObjectMap<String> mapa = new ConcurrentLongObjectMap<>();
+
+        assertThrows(NullPointerException.class, () -> mapa.put(1L, null));
+    }
+
+    //Compara contra un HashMap con altas y bajas aleatorias para cubrir crecimiento y borrado con corrimiento
+    @Test
+    public void testSeComportaIgualQueHashMap() {
+        ConcurrentLongObjectMap<Long> mapa = new ConcurrentLongObjectMap<>(4);
+        Map<Long, Long> esperado = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 200000; i++) {
+            long key = random.nextInt(20000) - 10000L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(esperado.remove(key), mapa.remove(key));
+            } else {
+                assertEquals(esperado.put(key, (long) i), mapa.put(key, (long) i));
+            }
+        }
+
+        assertEquals(esperado.size(), mapa.size());
+        for (Map.Entry<Long, Long> entry : esperado.entrySet()) {
+            assertEquals(entry.getValue(), mapa.get(entry.getKey()));
+        }
+        Map<Long, Long> recorrido = new HashMap<>();
+        mapa.forEach(recorrido::put);
+        assertEquals(esperado, recorrido);
+    }
+}
@@ -0,0 +1,114 @@
+package ar.edu.utn.frbb.tup.persistence.entity;
+
+import ar.edu.utn.frbb.tup.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityEncodingTest {
+
+    @Test
+    public void testCuentaIdaYVuelta() {
+        Cuenta cuenta = getCuenta(getCliente(26456439L, "Pepe"));
+        CuentaEntity entity = new CuentaEntity(cuenta);
+
+        ByteBuffer buffer = codificar(entity);
+        assertEquals(CuentaEntity.LARGO_CODIFICADO, buffer.remaining());
+
+        Cuenta decodificada = CuentaEntity.decode(buffer.duplicate()).toCuenta();
+        Cuenta directa = CuentaEntity.decodeCuenta(buffer.duplicate());
+        for (Cuenta resultado : new Cuenta[]{decodificada, directa}) {
+            assertEquals(cuenta.getNumeroCuenta(), resultado.getNumeroCuenta());
+            assertEquals(cuenta.getBalance(), resultado.getBalance());
+            assertEquals(cuenta.getTipoCuenta(), resultado.getTipoCuenta());
+            assertEquals(cuenta.getMoneda(), resultado.getMoneda());
+            assertEquals(cuenta.getFechaCreacion(), resultado.getFechaCreacion());
+            assertEquals(26456439L, resultado.getTitular().getDni());
+        }
+    }
+
+    @Test
+    public void testCuentaConCamposNulos() {
+        Cuenta cuenta = getCuenta(getCliente(26456439L, "Pepe"))
+                .setMoneda(null)
+                .setFechaCreacion(null);
+
+        Cuenta resultado = CuentaEntity.decode(codificar(new CuentaEntity(cuenta))).toCuenta();
+
+        assertNull(resultado.getMoneda());
+        assertNull(resultado.getFechaCreacion());
+    }
+
+    @Test
+    public void testClienteIdaYVueltaConCaracteresNoAscii() {
+        Cliente cliente = getCliente(26456439L, "Ñandú 😀");
+        cliente.setApellido(null);
+        cliente.addCuenta(getCuenta(cliente));
+        cliente.addCuenta(getCuenta(cliente).setTipoCuenta(TipoCuenta.CUENTA_CORRIENTE));
+        ClienteEntity entity = new ClienteEntity(cliente);
+
+        ByteBuffer buffer = codificar(entity);
+
+        ClienteEntity decodificada = ClienteEntity.decode(buffer.duplicate());
+        assertEquals(2, decodificada.getCuentas().length);
+        Cliente directo = ClienteEntity.decodeCliente(buffer.duplicate());
+        for (Cliente resultado : new Cliente[]{decodificada.toCliente(), directo}) {
+            assertEquals(cliente.getDni(), resultado.getDni());
+            assertEquals("Ñandú 😀", resultado.getNombre());
+            assertNull(resultado.getApellido());
+            assertEquals(TipoPersona.PERSONA_JURIDICA, resultado.getTipoPersona());
+            assertEquals(cliente.getFechaNacimiento(), resultado.getFechaNacimiento());
+            assertNull(resultado.getFechaAlta());
+        }
+    }
+
+    //Las filas se leen una detrás de otra desde el mismo buffer (como en un bloque de snapshot)
+    @Test
+    public void testDecodeDejaElBufferEnLaSiguienteFila() {
+        Cliente cliente = getCliente(1L, "Pepe");
+        ClienteEntity primera = new ClienteEntity(cliente);
+        cliente.setDni(2L);
+        ClienteEntity segunda = new ClienteEntity(cliente);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(primera.encodedSize() + segunda.encodedSize());
+        primera.encode(buffer);
+        segunda.encode(buffer);
+        buffer.flip();
+
+        assertEquals(1L, ClienteEntity.decode(buffer).getId());
+        assertEquals(2L, ClienteEntity.decodeCliente(buffer).getDni());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    private ByteBuffer codificar(BaseEntity entity) {
+        ByteBuffer buffer = ByteBuffer.allocate(entity.encodedSize());
+        entity.encode(buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        return buffer;
+    }
+
+    private Cuenta getCuenta(Cliente titular) {
+        Cuenta cuenta = new Cuenta()
+                .setMoneda(TipoMoneda.DOLARES)
+                .setBalance(123456789012L)
+                .setTipoCuenta(TipoCuenta.CAJA_AHORRO)
+                .setFechaCreacion(LocalDateTime.of(2024, 5, 17, 10, 30, 15, 123456789));
+        cuenta.setTitular(titular);
+        return cuenta;
+    }
+
+    private Cliente getCliente(long dni, String nombre) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setNombre(nombre);
+        cliente.setApellido("Rino");
+        cliente.setFechaNacimiento(LocalDate.of(1978, 3, 25));
+        cliente.setTipoPersona(TipoPersona.PERSONA_JURIDICA);
+        return cliente;
+    }
+}
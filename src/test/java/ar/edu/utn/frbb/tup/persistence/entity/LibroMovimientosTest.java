@@ -0,0 +1,94 @@
+package ar.edu.utn.frbb.tup.persistence.entity;
+
+import ar.edu.utn.frbb.tup.model.TipoMovimiento;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LibroMovimientosTest {
+
+    //Más movimientos que un bloque de checkpoints: el saldo a cada instante tiene que coincidir con sumar desde el principio
+    @Test
+    public void testSaldoAlCoincideConLaSumaDeLosMovimientos() {
+        LibroMovimientos libro = new LibroMovimientos(1L, 1000);
+        long[] saldos = new long[300];
+        long saldo = 1000;
+        for (int i = 0; i < saldos.length; i++) {
+            TipoMovimiento tipo = i % 3 == 0 ? TipoMovimiento.TRANSFERENCIA_ENVIADA : TipoMovimiento.TRANSFERENCIA_RECIBIDA;
+            libro.agregar(10L * i, tipo, i, 2L);
+            saldo += tipo.getSigno() * i;
+            saldos[i] = saldo;
+        }
+
+        assertEquals(1000, libro.saldoAl(-1));
+        for (int i = 0; i < saldos.length; i++) {
+            assertEquals(saldos[i], libro.saldoAl(10L * i));
+            assertEquals(saldos[i], libro.saldoAl(10L * i + 9));
+        }
+        assertEquals(saldo, libro.getSaldoActual());
+        assertEquals(saldo, libro.saldoAl(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testElInstanteNoRetrocede() {
+        LibroMovimientos libro = new LibroMovimientos(1L, 0);
+        libro.agregar(100, TipoMovimiento.TRANSFERENCIA_RECIBIDA, 5, 2L);
+        libro.agregar(50, TipoMovimiento.TRANSFERENCIA_RECIBIDA, 5, 2L);
+
+        assertEquals(100, libro.getUltimoInstante());
+        assertEquals(10, libro.saldoAl(100));
+    }
+
+    @Test
+    public void testRecorrerPorPaginasDentroDelRango() {
+        LibroMovimientos libro = new LibroMovimientos(1L, 0);
+        for (int i = 0; i < 100; i++) {
+            libro.agregar(i, TipoMovimiento.TRANSFERENCIA_RECIBIDA, 1, 2L);
+        }
+
+        List<Long> saldos = new ArrayList<>();
+        long cursor = 0;
+        int paginas = 0;
+        do {
+            cursor = libro.recorrer(20, 69, cursor, 15, (indice, instante, tipo, monto, saldo, contraparte) -> {
+                assertEquals(indice, instante);
+                saldos.add(saldo);
+            });
+            paginas++;
+        } while (cursor >= 0);
+
+        assertEquals(4, paginas);
+        assertEquals(50, saldos.size());
+        assertEquals(21L, saldos.get(0));
+        assertEquals(70L, saldos.get(49));
+    }
+
+    @Test
+    public void testFotoYDecodeConservanElLibro() {
+        LibroMovimientos libro = new LibroMovimientos(7L, 500);
+        for (int i = 0; i < 70; i++) {
+            libro.agregar(i, TipoMovimiento.TRANSFERENCIA_ENVIADA, 3, 8L);
+        }
+        BaseEntity foto = libro.foto();
+        libro.agregar(1000, TipoMovimiento.TRANSFERENCIA_RECIBIDA, 1, 8L);
+
+        ByteBuffer buffer = ByteBuffer.allocate(foto.encodedSize());
+        foto.encode(buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        LibroMovimientos decodificado = LibroMovimientos.decode(buffer);
+
+        assertEquals(7L, decodificado.getNumeroCuenta());
+        assertEquals(70, decodificado.getCantidad());
+        assertEquals(500 - 70 * 3, decodificado.getSaldoActual());
+        assertEquals(500 - 65 * 3, decodificado.saldoAl(64));
+        //El replay del log saltea lo que ya vino en la foto
+        assertFalse(decodificado.agregarRecuperado(69, 69, TipoMovimiento.TRANSFERENCIA_ENVIADA, 3, 8L));
+        assertTrue(decodificado.agregarRecuperado(70, 1000, TipoMovimiento.TRANSFERENCIA_RECIBIDA, 1, 8L));
+        assertEquals(libro.getSaldoActual(), decodificado.getSaldoActual());
+    }
+}
@@ -0,0 +1,58 @@
+package ar.edu.utn.frbb.tup.persistence.exportacion;
+
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EscritorCanalTest {
+
+    @Test
+    public void testNumerosYFechas() throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (EscritorCanal escritor = new EscritorCanal(Channels.newChannel(salida))) {
+            escritor.numero(0).separador().numero(-42).separador().numero(Long.MAX_VALUE).separador().numero(Long.MIN_VALUE)
+                    .separador().fecha((int) LocalDate.of(1978, 3, 25).toEpochDay()).separador().fecha(BaseEntity.SIN_FECHA)
+                    .separador().fechaHora(LocalDateTime.of(2024, 2, 29, 23, 5, 9, 7_000_000).toInstant(ZoneOffset.UTC).toEpochMilli())
+                    .separador().fecha((int) LocalDate.of(1960, 12, 31).toEpochDay())
+                    .finDeLinea();
+        }
+
+        assertEquals("0,-42,9223372036854775807,-9223372036854775808,1978-03-25,,2024-02-29T23:05:09.007,1960-12-31\n",
+                new String(salida.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testTextosSeEscapanYSeCodificanEnUtf8() throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (EscritorCanal escritor = new EscritorCanal(Channels.newChannel(salida))) {
+            escritor.texto("Peña").separador().texto("Rino, \"el\" 2").separador().texto(null).separador().texto("€ 😀");
+        }
+
+        assertEquals("Peña,\"Rino, \"\"el\"\" 2\",,€ 😀", new String(salida.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    //Con un buffer chico se vacía muchas veces: lo escrito tiene que ser lo mismo y en orden
+    @Test
+    public void testBufferChicoVaciaSinPerderBytes() throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        StringBuilder esperado = new StringBuilder();
+        try (EscritorCanal escritor = new EscritorCanal(Channels.newChannel(salida), 1)) {
+            for (int i = 0; i < 10_000; i++) {
+                escritor.numero(i * 7919L).separador().texto("ñandú").finDeLinea();
+                esperado.append(i * 7919L).append(",ñandú\n");
+            }
+            assertEquals(esperado.toString().getBytes(StandardCharsets.UTF_8).length, escritor.getBytesEscritos());
+        }
+
+        assertEquals(esperado.toString(), new String(salida.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,223 @@
+package ar.edu.utn.frbb.tup.persistence.lsm;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.persistence.collection.ConcurrentLongObjectMap;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TablaLsmTest {
+
+    @TempDir
+    Path directorio;
+
+    private final List<TablaLsm<CuentaEntity>> tablas = new ArrayList<>();
+
+    //Con 16 filas en memoria por partición cada pocas escrituras hay un volcado, y cada 4 una compactación
+    private TablaLsm<CuentaEntity> crearTabla() throws IOException {
+        TablaLsm<CuentaEntity> tabla = new TablaLsm<>("CUENTA", directorio, CuentaEntity::decode, 64 * 16);
+        tablas.add(tabla);
+        return tabla;
+    }
+
+    //Antes de que se borre la carpeta temporal: no puede quedar un volcado escribiendo en ella
+    @AfterEach
+    public void cerrarTablas() {
+        tablas.forEach(TablaLsm::cerrar);
+    }
+
+    @Test
+    public void testLeeDelDiscoLaFilaCompleta() throws IOException {
+        TablaLsm<CuentaEntity> tabla = crearTabla();
+        CuentaEntity entity = getCuenta(42L, 1500, 30111222L);
+        entity.setVersion(7);
+
+        assertNull(tabla.put(42L, entity));
+        tabla.volcarTodo();
+        CuentaEntity leida = tabla.get(42L);
+        assertNotSame(entity, leida);
+        assertEquals(1500, leida.getBalance());
+        assertEquals(30111222L, leida.getTitular());
+        assertEquals(TipoCuenta.CAJA_AHORRO, leida.getTipoCuenta());
+        assertEquals(entity.getFechaCreacion(), leida.getFechaCreacion());
+        assertEquals(7, leida.getVersion());
+        assertTrue(tabla.containsKey(42L));
+        assertFalse(tabla.containsKey(43L));
+        assertEquals(1, tabla.getArchivos());
+        assertEquals(0, tabla.getFilasEnMemoria());
+    }
+
+    //Compara contra un HashMap con altas y bajas aleatorias: las filas quedan repartidas entre la memoria y
+    //archivos de varios niveles, con lápidas
+    @Test
+    public void testSeComportaIgualQueHashMap() throws IOException {
+        TablaLsm<CuentaEntity> tabla = crearTabla();
+        Map<Long, Long> esperado = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 200000; i++) {
+            long key = random.nextInt(20000) - 10000L;
+            if (random.nextInt(3) == 0) {
+                Long saldo = esperado.remove(key);
+                CuentaEntity borrada = tabla.remove(key);
+                assertEquals(saldo, borrada != null ? borrada.getBalance() : null);
+            } else {
+                Long saldo = esperado.put(key, (long) i);
+                CuentaEntity anterior = tabla.put(key, getCuenta(key, i, 1));
+                assertEquals(saldo, anterior != null ? anterior.getBalance() : null);
+            }
+        }
+        tabla.volcarTodo();
+
+        assertTrue(tabla.getCompactaciones() > 0);
+        assertEquals(esperado.size(), tabla.size());
+        for (long key = -10000; key < 10000; key++) {
+            CuentaEntity cuenta = tabla.get(key);
+            assertEquals(esperado.get(key), cuenta != null ? cuenta.getBalance() : null);
+        }
+        Map<Long, Long> recorrido = new HashMap<>();
+        tabla.forEach((key, cuenta) -> recorrido.put(key, cuenta.getBalance()));
+        assertEquals(esperado, recorrido);
+    }
+
+    //Los procesos batch recorren la tabla y el índice de cuentas en rojo por particiones: tienen que coincidir
+    @Test
+    public void testMismasParticionesQueConcurrentLongObjectMap() throws IOException {
+        TablaLsm<CuentaEntity> tabla = crearTabla();
+        ConcurrentLongObjectMap<CuentaEntity> enHeap = new ConcurrentLongObjectMap<>();
+        for (long numero = 1; numero <= 5000; numero++) {
+            tabla.put(numero, getCuenta(numero, 0, 1));
+            enHeap.put(numero, getCuenta(numero, 0, 1));
+        }
+
+        assertEquals(enHeap.getCantidadSegmentos(), tabla.getCantidadSegmentos());
+        for (int particion = 0; particion < tabla.getCantidadSegmentos(); particion++) {
+            Set<Long> enDisco = new HashSet<>();
+            Set<Long> delHeap = new HashSet<>();
+            tabla.forEachEnSegmento(particion, (numero, cuenta) -> enDisco.add(numero));
+            enHeap.forEachEnSegmento(particion, (numero, cuenta) -> delHeap.add(numero));
+            assertEquals(delHeap, enDisco);
+        }
+    }
+
+    //Mientras tiene una anterior encadenada (para las fotos) no se vuelca: sigue siendo el mismo objeto
+    @Test
+    public void testFilaConAnteriorNoSeVuelca() throws IOException {
+        TablaLsm<CuentaEntity> tabla = crearTabla();
+        tabla.put(1L, getCuenta(1L, 100, 1));
+        CuentaEntity nueva = getCuenta(1L, 200, 1);
+        nueva.setAnterior(tabla.get(1L));
+        tabla.put(1L, nueva);
+        tabla.volcarTodo();
+
+        assertSame(nueva, tabla.get(1L));
+        assertEquals(100, ((CuentaEntity) tabla.get(1L).getAnterior()).getBalance());
+
+        //Suelta la anterior como la recolección de RelojVersiones; el próximo volcado la lleva al disco
+        nueva.setAnterior(null);
+        tabla.volcarTodo();
+        CuentaEntity leida = tabla.get(1L);
+        assertNotSame(nueva, leida);
+        assertEquals(200, leida.getBalance());
+        assertEquals(0, tabla.getFilasEnMemoria());
+    }
+
+    //Las lecturas mientras se vuelca y compacta en el fondo ven siempre una fila completa: cada save deja
+    //saldo == titular
+    @Test
+    public void testLecturasConcurrentesConVolcadosYCompactaciones() throws Exception {
+        TablaLsm<CuentaEntity> tabla = crearTabla();
+        int cuentas = 4096;
+        for (long numero = 0; numero < cuentas; numero++) {
+            tabla.put(numero, getCuenta(numero, 0, 0));
+        }
+        AtomicBoolean terminado = new AtomicBoolean();
+        AtomicReference<String> error = new AtomicReference<>();
+        Thread lector = new Thread(() -> {
+            Random random = new Random(3);
+            while (!terminado.get()) {
+                CuentaEntity cuenta = tabla.get(random.nextInt(cuentas));
+                if (cuenta == null) {
+                    error.set("Falta una cuenta");
+                } else if (cuenta.getBalance() != cuenta.getTitular()) {
+                    error.set("Fila a medias: saldo " + cuenta.getBalance() + ", titular " + cuenta.getTitular());
+                }
+            }
+        });
+        lector.start();
+        Random random = new Random(5);
+        for (int i = 1; i <= 100000; i++) {
+            long valor = random.nextLong();
+            long numero = random.nextInt(cuentas);
+            tabla.put(numero, getCuenta(numero, valor, valor));
+        }
+        terminado.set(true);
+        lector.join();
+
+        assertNull(error.get());
+        assertEquals(cuentas, tabla.size());
+    }
+
+    //Los archivos no son durables: una tabla nueva en la misma carpeta arranca vacía y borra los anteriores,
+    //y clear borra los suyos
+    @Test
+    public void testArrancaVaciaYClearBorraLosArchivos() throws IOException {
+        TablaLsm<CuentaEntity> tabla = crearTabla();
+        for (long numero = 0; numero < 1000; numero++) {
+            tabla.put(numero, getCuenta(numero, numero, 1));
+        }
+        tabla.volcarTodo();
+        assertTrue(archivosEnDisco() > 0);
+
+        TablaLsm<CuentaEntity> otra = crearTabla();
+        assertEquals(0, archivosEnDisco());
+        assertNull(otra.get(1L));
+        assertTrue(otra.isEmpty());
+
+        otra.put(5L, getCuenta(5L, 5, 1));
+        otra.volcarTodo();
+        otra.clear();
+        assertNull(otra.get(5L));
+        assertEquals(0, otra.size());
+        assertEquals(0, archivosEnDisco());
+    }
+
+    private long archivosEnDisco() throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.count();
+        }
+    }
+
+    private static CuentaEntity getCuenta(long numero, long saldo, long titular) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(titular);
+        Cuenta cuenta = new Cuenta(numero);
+        cuenta.setTitular(cliente);
+        cuenta.setBalance(saldo);
+        cuenta.setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+        cuenta.setMoneda(TipoMoneda.PESOS);
+        cuenta.setFechaCreacion(LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123_000_000));
+        return new CuentaEntity(cuenta);
+    }
+}
@@ -0,0 +1,177 @@
+package ar.edu.utn.frbb.tup.persistence.wal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteAheadLogTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    public void testReplayDevuelveLosRegistrosEnOrden() throws IOException {
+        Path archivo = directorio.resolve("wal.log");
+        try (WriteAheadLog wal = new WriteAheadLog(archivo)) {
+            wal.append((byte) 1, bytes("uno"));
+            wal.append((byte) 2, bytes("dos"));
+            wal.append((byte) 1, bytes("tres"));
+        }
+
+        List<String> leidos = replay(archivo);
+
+        assertEquals(3, leidos.size());
+        assertEquals("1:uno", leidos.get(0));
+        assertEquals("2:dos", leidos.get(1));
+        assertEquals("1:tres", leidos.get(2));
+    }
+
+    //Simula un crash a mitad de la escritura del último registro
+    @Test
+    public void testReplayDescartaRegistroFinalCortado() throws IOException {
+        Path archivo = directorio.resolve("wal.log");
+        try (WriteAheadLog wal = new WriteAheadLog(archivo)) {
+            wal.append((byte) 1, bytes("uno"));
+            wal.append((byte) 1, bytes("dos"));
+            wal.append((byte) 1, bytes("tres"));
+        }
+        long largoCompleto = Files.size(archivo);
+        truncar(archivo, largoCompleto - 2);
+
+        assertEquals(2, replay(archivo).size());
+        //El archivo queda truncado al último registro válido
+        assertEquals(largoCompleto - (9 + "tres".length()), Files.size(archivo));
+    }
+
+    @Test
+    public void testReplayDescartaCabeceraCortada() throws IOException {
+        Path archivo = directorio.resolve("wal.log");
+        try (WriteAheadLog wal = new WriteAheadLog(archivo)) {
+            wal.append((byte) 1, bytes("uno"));
+        }
+        long largoValido = Files.size(archivo);
+        try (FileChannel channel = FileChannel.open(archivo, StandardOpenOption.APPEND)) {
+            channel.write(java.nio.ByteBuffer.wrap(new byte[]{0, 0, 0}));
+        }
+
+        assertEquals(1, replay(archivo).size());
+        assertEquals(largoValido, Files.size(archivo));
+    }
+
+    @Test
+    public void testReplayDescartaRegistroConCrcInvalido() throws IOException {
+        Path archivo = directorio.resolve("wal.log");
+        try (WriteAheadLog wal = new WriteAheadLog(archivo)) {
+            wal.append((byte) 1, bytes("uno"));
+            wal.append((byte) 1, bytes("dos"));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(archivo.toFile(), "rw")) {
+            raf.seek(raf.length() - 1);
+            raf.write('X');
+        }
+
+        assertEquals(1, replay(archivo).size());
+    }
+
+    @Test
+    public void testSePuedeSeguirEscribiendoDespuesDeRecuperar() throws IOException {
+        Path archivo = directorio.resolve("wal.log");
+        try (WriteAheadLog wal = new WriteAheadLog(archivo)) {
+            wal.append((byte) 1, bytes("uno"));
+            wal.append((byte) 1, bytes("dos"));
+        }
+        truncar(archivo, Files.size(archivo) - 1);
+
+        try (WriteAheadLog wal = new WriteAheadLog(archivo)) {
+            assertEquals(1, wal.replay((tabla, payload) -> { }));
+            wal.append((byte) 1, bytes("tres"));
+        }
+
+        List<String> leidos = replay(archivo);
+        assertEquals(2, leidos.size());
+        assertEquals("1:tres", leidos.get(1));
+    }
+
+    @Test
+    public void testAppendsConcurrentesQuedanTodosEnElLog() throws Exception {
+        Path archivo = directorio.resolve("wal.log");
+        final int hilos = 8;
+        final int registrosPorHilo = 200;
+        try (WriteAheadLog wal = new WriteAheadLog(archivo)) {
+            ExecutorService executor = Executors.newFixedThreadPool(hilos);
+            List<Future<?>> resultados = new ArrayList<>();
+            try {
+                for (int h = 0; h < hilos; h++) {
+                    final int hilo = h;
+                    resultados.add(executor.submit(() -> {
+                        for (int i = 0; i < registrosPorHilo; i++) {
+                            wal.append((byte) hilo, bytes("registro-" + i));
+                        }
+                    }));
+                }
+                for (Future<?> resultado : resultados) {
+                    resultado.get(60, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        assertEquals(hilos * registrosPorHilo, replay(archivo).size());
+    }
+
+    //Interrumpir al hilo escritor no puede dejar trabados a los appends que vienen después
+    @Test
+    public void testInterrumpirAlEscritorNoTrabaElLog() throws Exception {
+        Path archivo = directorio.resolve("wal.log");
+        try (WriteAheadLog wal = new WriteAheadLog(archivo)) {
+            wal.append((byte) 1, bytes("uno"));
+            for (Thread hilo : Thread.getAllStackTraces().keySet()) {
+                if (hilo.getName().equals("wal-writer")) {
+                    hilo.interrupt();
+                }
+            }
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                executor.submit(() -> wal.append((byte) 1, bytes("dos"))).get(10, TimeUnit.SECONDS);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        assertEquals(2, replay(archivo).size());
+    }
+
+    private List<String> replay(Path archivo) throws IOException {
+        List<String> leidos = new ArrayList<>();
+        try (WriteAheadLog wal = new WriteAheadLog(archivo)) {
+            wal.replay((tabla, payload) -> leidos.add(tabla + ":" + new String(payload, StandardCharsets.UTF_8)));
+        }
+        return leidos;
+    }
+
+    private void truncar(Path archivo, long largo) throws IOException {
+        try (FileChannel channel = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+            channel.truncate(largo);
+        }
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,170 @@
+package ar.edu.utn.frbb.tup.presentation.http;
+
+import ar.edu.utn.frbb.tup.ApplicationConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ApiServerTest {
+
+    private AnnotationConfigApplicationContext context;
+    private ApiServer apiServer;
+    private String base;
+
+    @BeforeAll
+    public void setUp() throws IOException {
+        context = new AnnotationConfigApplicationContext(ApplicationConfig.class);
+        apiServer = context.getBean(ApiServer.class);
+        InetSocketAddress direccion = apiServer.iniciar(new InetSocketAddress("127.0.0.1", 0), 2);
+        base = "http://127.0.0.1:" + direccion.getPort();
+    }
+
+    @AfterAll
+    public void tearDown() {
+        context.close();
+    }
+
+    @Test
+    public void testAltaDeClienteYCuentaYConsulta() throws IOException {
+        Resultado alta = pedir("POST", "/clientes", clienteJson(71333222L));
+        assertEquals(201, alta.codigo);
+
+        Resultado cuenta = pedir("POST", "/cuentas", "{\"dniTitular\": 71333222, \"tipoCuenta\": \"CAJA_AHORRO\", \"moneda\": \"PESOS\"}");
+        assertEquals(201, cuenta.codigo);
+        long numeroCuenta = (Long) cuenta.json().get("numeroCuenta");
+
+        Resultado cliente = pedir("GET", "/clientes/71333222", null);
+        assertEquals(200, cliente.codigo);
+        assertEquals("Pepe", cliente.json().get("nombre"));
+        List<?> cuentas = (List<?>) cliente.json().get("cuentas");
+        assertEquals(1, cuentas.size());
+        assertEquals(numeroCuenta, ((Map<?, ?>) cuentas.get(0)).get("numeroCuenta"));
+
+        Resultado consultaCuenta = pedir("GET", "/cuentas/" + numeroCuenta, null);
+        assertEquals(200, consultaCuenta.codigo);
+        assertEquals(71333222L, consultaCuenta.json().get("titular"));
+
+        Resultado metricas = pedir("GET", "/metricas", null);
+        assertEquals(200, metricas.codigo);
+        assertTrue((Long) metricas.json().get("tabla.CLIENTE.filas") >= 1);
+        Map<?, ?> altas = (Map<?, ?>) metricas.json().get("clienteService.darDeAltaCliente");
+        assertTrue((Long) altas.get("llamadas") >= 1);
+    }
+
+    @Test
+    public void testErroresSeTraducenACodigosHttp() throws IOException {
+        assertEquals(201, pedir("POST", "/clientes", clienteJson(71333223L)).codigo);
+        assertEquals(409, pedir("POST", "/clientes", clienteJson(71333223L)).codigo);
+        assertEquals(404, pedir("GET", "/clientes/71333299", null).codigo);
+        assertEquals(404, pedir("GET", "/cuentas/99999999999", null).codigo);
+        assertEquals(400, pedir("POST", "/clientes", "{\"dni\": ").codigo);
+        assertEquals(400, pedir("POST", "/cuentas", "{\"dniTitular\": 71333223, \"tipoCuenta\": \"CUENTA_CORRIENTE\", \"moneda\": \"DOLARES\"}").codigo);
+        assertEquals(405, pedir("DELETE", "/clientes/71333223", null).codigo);
+    }
+
+    @Test
+    public void testTransferenciaSinSaldo() throws IOException {
+        assertEquals(201, pedir("POST", "/clientes", clienteJson(71333224L)).codigo);
+        long origen = (Long) pedir("POST", "/cuentas", "{\"dniTitular\": 71333224, \"tipoCuenta\": \"CAJA_AHORRO\", \"moneda\": \"PESOS\"}").json().get("numeroCuenta");
+        long destino = (Long) pedir("POST", "/cuentas", "{\"dniTitular\": 71333224, \"tipoCuenta\": \"CUENTA_CORRIENTE\", \"moneda\": \"PESOS\"}").json().get("numeroCuenta");
+
+        Resultado transferencia = pedir("POST", "/transferencias", "{\"origen\": " + origen + ", \"destino\": " + destino + ", \"monto\": 100}");
+
+        assertEquals(422, transferencia.codigo);
+        assertNotNull(transferencia.json().get("error"));
+    }
+
+    @Test
+    public void testExtractoYSaldoDeUnaCuenta() throws IOException {
+        assertEquals(201, pedir("POST", "/clientes", clienteJson(71333225L)).codigo);
+        long origen = (Long) pedir("POST", "/cuentas", "{\"dniTitular\": 71333225, \"tipoCuenta\": \"CAJA_AHORRO\", \"moneda\": \"PESOS\"}").json().get("numeroCuenta");
+        long destino = (Long) pedir("POST", "/cuentas", "{\"dniTitular\": 71333225, \"tipoCuenta\": \"CUENTA_CORRIENTE\", \"moneda\": \"PESOS\"}").json().get("numeroCuenta");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, pedir("POST", "/transferencias", "{\"origen\": " + origen + ", \"destino\": " + destino + ", \"monto\": 0}").codigo);
+        }
+
+        Resultado pagina = pedir("GET", "/cuentas/" + origen + "/movimientos?limite=2", null);
+        assertEquals(200, pagina.codigo);
+        assertEquals(2, ((List<?>) pagina.json().get("movimientos")).size());
+        Resultado resto = pedir("GET", "/cuentas/" + origen + "/movimientos?limite=2&cursor=" + pagina.json().get("siguiente"), null);
+        List<?> movimientos = (List<?>) resto.json().get("movimientos");
+        assertEquals(1, movimientos.size());
+        assertEquals("TRANSFERENCIA_ENVIADA", ((Map<?, ?>) movimientos.get(0)).get("tipo"));
+        assertNull(resto.json().get("siguiente"));
+
+        Resultado antiguos = pedir("GET", "/cuentas/" + origen + "/movimientos?hasta=2000-01-01", null);
+        assertTrue(((List<?>) antiguos.json().get("movimientos")).isEmpty());
+        assertEquals(0L, pedir("GET", "/cuentas/" + destino + "/saldo", null).json().get("saldo"));
+        assertEquals(404, pedir("GET", "/cuentas/99999999999/movimientos", null).codigo);
+        assertEquals(400, pedir("GET", "/cuentas/" + origen + "/movimientos?limite=0", null).codigo);
+        assertEquals(400, pedir("GET", "/cuentas/" + origen + "/saldo?fecha=ayer", null).codigo);
+    }
+
+    @Test
+    public void testExportacionCsv() throws IOException {
+        assertEquals(201, pedir("POST", "/clientes", clienteJson(71333226L)).codigo);
+
+        Resultado exportacion = pedir("GET", "/exportaciones/clientes?formato=csv", null);
+
+        assertEquals(200, exportacion.codigo);
+        assertTrue(exportacion.cuerpo.startsWith("dni,nombre,apellido,"));
+        assertTrue(exportacion.cuerpo.contains("\n71333226,Pepe,Rino,PERSONA_FISICA,1978-03-25,"));
+        assertEquals(400, pedir("GET", "/exportaciones/sucursales", null).codigo);
+    }
+
+    private static String clienteJson(long dni) {
+        return "{\"dni\": " + dni + ", \"nombre\": \"Pepe\", \"apellido\": \"Rino\", \"tipoPersona\": \"PERSONA_FISICA\","
+                + " \"banco\": \"Provincia\", \"fechaNacimiento\": \"1978-03-25\"}";
+    }
+
+    private Resultado pedir(String metodo, String ruta, String cuerpo) throws IOException {
+        HttpURLConnection conexion = (HttpURLConnection) new URL(base + ruta).openConnection();
+        conexion.setRequestMethod(metodo);
+        if (cuerpo != null) {
+            conexion.setDoOutput(true);
+            conexion.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream salida = conexion.getOutputStream()) {
+                salida.write(cuerpo.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int codigo = conexion.getResponseCode();
+        InputStream entrada = codigo < 400 ? conexion.getInputStream() : conexion.getErrorStream();
+        ByteArrayOutputStream leido = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for (int n; (n = entrada.read(buffer)) != -1; ) {
+            leido.write(buffer, 0, n);
+        }
+        entrada.close();
+        return new Resultado(codigo, new String(leido.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static final class Resultado {
+        final int codigo;
+        final String cuerpo;
+
+        Resultado(int codigo, String cuerpo) {
+            this.codigo = codigo;
+            this.cuerpo = cuerpo;
+        }
+
+        Map<String, Object> json() {
+            return Json.leerObjeto(cuerpo);
+        }
+    }
+}
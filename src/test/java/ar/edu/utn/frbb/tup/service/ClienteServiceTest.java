@@ -13,6 +13,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -46,9 +48,10 @@ public class ClienteServiceTest {
         cliente.setFechaNacimiento(LocalDate.of(1978,3,25));
         cliente.setDni(29857643);
         cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        when(clienteDao.save(cliente, ClienteDao.SIN_VERSION)).thenReturn(true);
         clienteService.darDeAltaCliente(cliente);
 
-        verify(clienteDao, times(1)).save(cliente);
+        verify(clienteDao, times(1)).save(cliente, ClienteDao.SIN_VERSION);
     }
 
     @Test
@@ -81,9 +84,11 @@ public class ClienteServiceTest {
 
         when(clienteDao.find(26456439, true)).thenReturn(pepeRino);
 
+        when(clienteDao.save(eq(pepeRino), anyLong())).thenReturn(true);
+
         clienteService.agregarCuenta(cuenta, pepeRino.getDni());
 
-        verify(clienteDao, times(1)).save(pepeRino);
+        verify(clienteDao, times(1)).save(eq(pepeRino), anyLong());
 
         assertEquals(1, pepeRino.getCuentas().size());
         assertEquals(pepeRino, cuenta.getTitular());
@@ -106,6 +111,8 @@ public class ClienteServiceTest {
 
         when(clienteDao.find(26456439, true)).thenReturn(luciano);
 
+        when(clienteDao.save(eq(luciano), anyLong())).thenReturn(true);
+
         clienteService.agregarCuenta(cuenta, luciano.getDni());
 
         Cuenta cuenta2 = new Cuenta()
@@ -114,7 +121,7 @@ public class ClienteServiceTest {
                 .setTipoCuenta(TipoCuenta.CAJA_AHORRO);
 
         assertThrows(TipoCuentaAlreadyExistsException.class, () -> clienteService.agregarCuenta(cuenta2, luciano.getDni()));
-        verify(clienteDao, times(1)).save(luciano);
+        verify(clienteDao, times(1)).save(eq(luciano), anyLong());
         assertEquals(1, luciano.getCuentas().size());
         assertEquals(luciano, cuenta.getTitular());
 
@@ -138,12 +145,14 @@ public class ClienteServiceTest {
 
         when(clienteDao.find(26456439, true)).thenReturn(peperino);
 
+        when(clienteDao.save(eq(peperino), anyLong())).thenReturn(true);
+
         //Agrego las cuentas
         clienteService.agregarCuenta(cuentaCA, peperino.getDni());
         clienteService.agregarCuenta(cuentaCC, peperino.getDni());
 
         //Verifico si clienteDao.save fue usado 2 veces (ya que agregue dos cuentas)
-        verify(clienteDao, times(2)).save(peperino);
+        verify(clienteDao, times(2)).save(eq(peperino), anyLong());
 
         //Verifico que cliente tenga 2 cuentas
         assertEquals(2, peperino.getCuentas().size());
@@ -169,12 +178,14 @@ public class ClienteServiceTest {
 
         when(clienteDao.find(26456439, true)).thenReturn(peperino);
 
+        when(clienteDao.save(eq(peperino), anyLong())).thenReturn(true);
+
         //Agrego las cuentas
         clienteService.agregarCuenta(cuentaCorrienteArs, peperino.getDni());
         clienteService.agregarCuenta(cuentaCorrienteUsd, peperino.getDni());
 
         //Verifico si clienteDao.save fue usado 2 veces (ya que agregue dos cuentas
-        verify(clienteDao, times(2)).save(peperino);
+        verify(clienteDao, times(2)).save(eq(peperino), anyLong());
 
         //Verifico que cliente tenga 2 cuentas
         assertEquals(2, peperino.getCuentas().size());
@@ -189,14 +200,14 @@ public class ClienteServiceTest {
     public void testBuscarPorDniSuccess(){
         Cliente peperino = getCliente(123456789L, "Pepo");
 
-        when(clienteDao.find(peperino.getDni(), true)).thenReturn(peperino);
+        when(clienteDao.findCompleto(peperino.getDni())).thenReturn(peperino);
 
         Cliente resultado = clienteService.buscarClientePorDni(peperino.getDni());
 
         assertNotNull(resultado);
         assertEquals(peperino, resultado);
 
-        verify(clienteDao, times(1)).find(peperino.getDni(), true);
+        verify(clienteDao, times(1)).findCompleto(peperino.getDni());
 
     }
 
@@ -204,11 +215,103 @@ public class ClienteServiceTest {
     public void testBuscarPorDniFail(){
         long dni = 1234566789L;
 
-        when(clienteDao.find(dni, true)).thenReturn(null);
+        when(clienteDao.findCompleto(dni)).thenReturn(null);
 
         assertThrows(IllegalArgumentException.class, () -> clienteService.buscarClientePorDni(dni));
 
-        verify(clienteDao, times(1)).find(dni, true);
+        verify(clienteDao, times(1)).findCompleto(dni);
+    }
+
+    @Test
+    public void testDarDeAltaClientesLoteConRechazos() {
+        Cliente pepe = getCliente(30111222L, "Pepe");
+        Cliente menor = getCliente(30111223L, "Menor");
+        menor.setFechaNacimiento(LocalDate.of(2020, 2, 7));
+        Cliente pepeRepetido = getCliente(30111222L, "Pepe");
+        Cliente existente = getCliente(30111224L, "Existente");
+
+        when(clienteDao.exists(anyLong())).thenAnswer(invocation -> invocation.getArgument(0).equals(30111224L));
+
+        ResultadoAltaMasiva<Cliente> resultado = clienteService.darDeAltaClientes(Arrays.asList(pepe, menor, pepeRepetido, existente));
+
+        assertEquals(Collections.singletonList(pepe), resultado.getAceptados());
+        assertEquals(3, resultado.getRechazos().size());
+        assertTrue(resultado.getRechazos().get(0).getMotivo() instanceof IllegalArgumentException);
+        assertTrue(resultado.getRechazos().get(1).getMotivo() instanceof ClienteAlreadyExistsException);
+        assertTrue(resultado.getRechazos().get(2).getMotivo() instanceof ClienteAlreadyExistsException);
+        verify(clienteDao, times(1)).saveAllNuevos(Collections.singletonList(pepe));
+        verify(clienteDao, never()).save(any());
+        verify(clienteDao, never()).save(any(), anyLong());
+    }
+
+    @Test
+    public void testDarDeAltaClientesLoteRechazaLosDadosDeAltaEnElMedio() {
+        Cliente pepe = getCliente(30111225L, "Pepe");
+        Cliente luis = getCliente(30111226L, "Luis");
+
+        when(clienteDao.saveAllNuevos(Arrays.asList(pepe, luis))).thenReturn(Collections.singletonList(pepe));
+
+        ResultadoAltaMasiva<Cliente> resultado = clienteService.darDeAltaClientes(Arrays.asList(pepe, luis));
+
+        assertEquals(Collections.singletonList(luis), resultado.getAceptados());
+        assertEquals(1, resultado.getRechazos().size());
+        assertSame(pepe, resultado.getRechazos().get(0).getItem());
+        assertTrue(resultado.getRechazos().get(0).getMotivo() instanceof ClienteAlreadyExistsException);
+    }
+
+    @Test
+    public void testAgregarCuentasGuardaElTitularUnaSolaVez() {
+        Cliente peperino = getCliente(26456439, "Pepe");
+
+        Cuenta cuentaCA = new Cuenta()
+                .setMoneda(TipoMoneda.PESOS)
+                .setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+        Cuenta cuentaCC = new Cuenta()
+                .setMoneda(TipoMoneda.PESOS)
+                .setTipoCuenta(TipoCuenta.CUENTA_CORRIENTE);
+        Cuenta cuentaCARepetida = new Cuenta()
+                .setMoneda(TipoMoneda.PESOS)
+                .setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+
+        when(clienteDao.find(26456439, true)).thenReturn(peperino);
+
+        when(clienteDao.save(eq(peperino), anyLong())).thenReturn(true);
+
+        ResultadoAltaMasiva<Cuenta> resultado = clienteService.agregarCuentas(Arrays.asList(cuentaCA, cuentaCC, cuentaCARepetida), peperino.getDni());
+
+        assertEquals(Arrays.asList(cuentaCA, cuentaCC), resultado.getAceptados());
+        assertEquals(1, resultado.getRechazos().size());
+        assertTrue(resultado.getRechazos().get(0).getMotivo() instanceof TipoCuentaAlreadyExistsException);
+        assertEquals(2, peperino.getCuentas().size());
+        verify(clienteDao, times(1)).save(eq(peperino), anyLong());
+    }
+
+    @Test
+    public void testAgregarCuentaReintentaSiOtroGuardoElTitular() throws TipoCuentaAlreadyExistsException {
+        Cliente leido = getCliente(26456440, "Pepe");
+        Cliente releido = getCliente(26456440, "Pepe");
+        releido.setVersion(2);
+        Cuenta cuenta = new Cuenta()
+                .setMoneda(TipoMoneda.PESOS)
+                .setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+
+        when(clienteDao.find(26456440, true)).thenReturn(leido, releido);
+        when(clienteDao.save(leido, 0)).thenReturn(false);
+        when(clienteDao.save(releido, 2)).thenReturn(true);
+
+        clienteService.agregarCuenta(cuenta, 26456440);
+
+        verify(clienteDao, times(2)).find(26456440, true);
+        assertSame(releido, cuenta.getTitular());
+        assertEquals(1, releido.getCuentas().size());
+    }
+
+    @Test
+    public void testAltaConcurrenteDelMismoDni() {
+        Cliente pepe = getCliente(26456441, "Pepe");
+        when(clienteDao.save(pepe, ClienteDao.SIN_VERSION)).thenReturn(false);
+
+        assertThrows(ClienteAlreadyExistsException.class, () -> clienteService.darDeAltaCliente(pepe));
     }
 
     public Cliente getCliente(long dni, String nombre){
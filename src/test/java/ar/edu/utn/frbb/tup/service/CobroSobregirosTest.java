@@ -0,0 +1,87 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.*;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CobroSobregirosTest {
+
+    private static final LocalDate DIA = LocalDate.of(2024, 3, 1);
+
+    private final CuentaDao cuentaDao = new CuentaDao();
+    private final MovimientoDao movimientoDao = new MovimientoDao(cuentaDao);
+    private final CobroSobregiros cobro = new CobroSobregiros(cuentaDao, movimientoDao);
+
+    @BeforeEach
+    public void setUp() {
+        //Con una TNA de 36,5% el cargo diario es justo el 0,1% de la deuda
+        cobro.setTna(TipoMoneda.PESOS, 3650);
+    }
+
+    @Test
+    public void testCobraSoloACuentasCorrientesEnRojo() throws IOException {
+        Cliente cliente = getCliente(50333000L);
+        Cuenta deudora = guardarCuenta(cliente, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS, -1_000_000);
+        Cuenta conSaldo = guardarCuenta(cliente, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.DOLARES, 1_000_000);
+        Cuenta caja = guardarCuenta(getCliente(50333001L), TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, -1_000_000);
+
+        CobroSobregiros.Resultado resultado = cobro.cobrar(DIA, null, 4);
+
+        assertEquals(-1_001_000, cuentaDao.find(deudora.getNumeroCuenta()).getBalance());
+        assertEquals(1_000_000, cuentaDao.find(conSaldo.getNumeroCuenta()).getBalance());
+        assertEquals(-1_000_000, cuentaDao.find(caja.getNumeroCuenta()).getBalance());
+        assertTrue(resultado.getMonto(TipoMoneda.PESOS) >= 1000);
+
+        List<Movimiento> movimientos = movimientoDao.extracto(deudora.getNumeroCuenta(), null, null, 0, 10).getMovimientos();
+        assertEquals(1, movimientos.size());
+        assertEquals(TipoMovimiento.COMISION, movimientos.get(0).getTipo());
+        assertEquals(1000, movimientos.get(0).getMonto());
+        assertEquals(-1_001_000, movimientos.get(0).getSaldo());
+        assertEquals(-1_000_000, movimientoDao.getLibro(deudora.getNumeroCuenta()).getSaldoInicial());
+
+        cobro.cobrar(DIA, null, 4);
+        assertEquals(-1_001_000, cuentaDao.find(deudora.getNumeroCuenta()).getBalance());
+    }
+
+    //Una cuenta que salió del rojo antes del cobro ya no está en el índice y no se revisa
+    @Test
+    public void testNoRevisaCuentasQueSalieronDelRojo() throws IOException {
+        Cuenta cuenta = guardarCuenta(getCliente(50333002L), TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS, -5000);
+        long revisadasConDeuda = cobro.cobrar(DIA, null, 2).getRevisadas();
+
+        cuenta.setBalance(5000);
+        cuentaDao.save(cuenta);
+        CobroSobregiros.Resultado resultado = cobro.cobrar(DIA.plusDays(1), null, 2);
+
+        assertEquals(revisadasConDeuda - 1, resultado.getRevisadas());
+        assertEquals(5000, cuentaDao.find(cuenta.getNumeroCuenta()).getBalance());
+    }
+
+    private Cuenta guardarCuenta(Cliente titular, TipoCuenta tipo, TipoMoneda moneda, long balance) {
+        Cuenta cuenta = new Cuenta()
+                .setMoneda(moneda)
+                .setBalance(balance)
+                .setTipoCuenta(tipo);
+        cuenta.setTitular(titular);
+        cuentaDao.save(cuenta);
+        return cuenta;
+    }
+
+    private Cliente getCliente(long dni) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setNombre("Pepe");
+        cliente.setApellido("Rino");
+        cliente.setFechaNacimiento(LocalDate.of(1978, 3, 25));
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        return cliente;
+    }
+}
@@ -15,6 +15,11 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -41,6 +46,8 @@ public class CuentaServiceTest {
     public void testCuentaExistente(){
         Cliente cliente = getCliente(123456789L, "Pepo");
         Cuenta cuenta = getCuenta(cliente, TipoMoneda.PESOS, TipoCuenta.CUENTA_CORRIENTE);
+        //Solo una cuenta con número propio (por ejemplo migrada) puede repetir uno existente
+        cuenta.setNumeroCuenta(1001L);
 
         when(cuentaDao.find(cuenta.getNumeroCuenta())).thenReturn(cuenta);
 
@@ -55,9 +62,6 @@ public class CuentaServiceTest {
         Cliente cliente = getCliente(123456789L, "Pepo");
         Cuenta cuenta = getCuenta(cliente, TipoMoneda.DOLARES, TipoCuenta.CUENTA_CORRIENTE); //Creo una cuenta que no va ser soportada
 
-        //Queremos que retorne null ya que no queremos que nos tire la excepcion CuentaAlreadyExistesExcepcuion
-        when(cuentaDao.find(cuenta.getNumeroCuenta())).thenReturn(null);
-
         assertThrows(TipoCuentaNoSoportadaException.class, () -> cuentaService.darDeAltaCuenta(cuenta, cliente.getDni()));
     }
 
@@ -68,11 +72,7 @@ public class CuentaServiceTest {
         Cliente cliente = getCliente(123456789L, "Pepo");
         Cuenta cuenta = getCuenta(cliente, TipoMoneda.PESOS, TipoCuenta.CUENTA_CORRIENTE);
         Cuenta cuentaRepetida = getCuenta(cliente, TipoMoneda.PESOS, TipoCuenta.CUENTA_CORRIENTE);
-
-        when(cuentaDao.find(cuenta.getNumeroCuenta())).thenReturn(null);
-
-        Cuenta resultado = cuentaDao.find(cuenta.getNumeroCuenta());
-        assertNull(resultado);
+        when(cuentaDao.save(cuenta, CuentaDao.SIN_VERSION)).thenReturn(true);
 
         cuentaService.darDeAltaCuenta(cuenta, cliente.getDni());
 
@@ -81,8 +81,8 @@ public class CuentaServiceTest {
         assertThrows(TipoCuentaAlreadyExistsException.class, () -> cuentaService.darDeAltaCuenta(cuentaRepetida, cliente.getDni()));
 
         verify(clienteService, times(1)).agregarCuenta(cuentaRepetida, cliente.getDni());
-        verify(cuentaDao, times(1)).save(cuenta);
-        verify(cuentaDao, times(2)).find(cuenta.getNumeroCuenta());
+        verify(cuentaDao, times(1)).save(cuenta, CuentaDao.SIN_VERSION);
+        verify(cuentaDao, never()).find(anyLong());
     }
 
     //4. Cuenta creada exitosamente → debería verificarse que todas nuestras
@@ -91,11 +91,104 @@ public class CuentaServiceTest {
     public void testCuentaCreadaSuccess() throws TipoCuentaAlreadyExistsException, CuentaAlreadyExistsException, TipoCuentaNoSoportadaException {
         Cliente cliente = getCliente(123456789L, "Pepo");
         Cuenta cuenta = getCuenta(cliente, TipoMoneda.PESOS, TipoCuenta.CUENTA_CORRIENTE);
+        when(cuentaDao.save(cuenta, CuentaDao.SIN_VERSION)).thenReturn(true);
 
         cuentaService.darDeAltaCuenta(cuenta, cliente.getDni());
 
         verify(clienteService, times(1)).agregarCuenta(cuenta, cliente.getDni());
-        verify(cuentaDao, times(1)).save(cuenta);
+        verify(cuentaDao, times(1)).save(cuenta, CuentaDao.SIN_VERSION);
+        //El número viene de NumeradorCuentas: no hace falta buscar si ya existe
+        verify(cuentaDao, never()).find(anyLong());
+    }
+
+    //Una cuenta importada con un número alto mueve el numerador: las cuentas nuevas no pueden recibir su número
+    @Test
+    public void testCuentaImportadaAvanzaElNumerador() throws TipoCuentaAlreadyExistsException, CuentaAlreadyExistsException, TipoCuentaNoSoportadaException {
+        Cliente cliente = getCliente(123456789L, "Pepo");
+        Cuenta importada = getCuenta(cliente, TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO);
+        importada.setNumeroCuenta(new Cuenta().getNumeroCuenta() + 1_000_000);
+        when(cuentaDao.save(importada, CuentaDao.SIN_VERSION)).thenReturn(true);
+
+        cuentaService.darDeAltaCuenta(importada, cliente.getDni());
+
+        assertTrue(new Cuenta().getNumeroCuenta() > importada.getNumeroCuenta());
+    }
+
+    //Si el número ya lo tiene otra fila, el save condicional no la pisa y el alta falla
+    @Test
+    public void testCuentaConNumeroOcupadoNoPisaLaFila() throws TipoCuentaAlreadyExistsException {
+        Cliente cliente = getCliente(123456789L, "Pepo");
+        Cuenta cuenta = getCuenta(cliente, TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO);
+        when(cuentaDao.save(cuenta, CuentaDao.SIN_VERSION)).thenReturn(false);
+
+        assertThrows(CuentaAlreadyExistsException.class, () -> cuentaService.darDeAltaCuenta(cuenta, cliente.getDni()));
+        verify(cuentaDao, never()).save(cuenta);
+        verify(clienteService, times(1)).quitarCuentas(Collections.singletonList(cuenta), cliente.getDni());
+    }
+
+    @Test
+    public void testDarDeAltaCuentasMasiva() {
+        Cliente cliente = getCliente(123456789L, "Pepo");
+        Cuenta cuentaCC = getCuenta(cliente, TipoMoneda.PESOS, TipoCuenta.CUENTA_CORRIENTE);
+        Cuenta cuentaNoSoportada = getCuenta(cliente, TipoMoneda.DOLARES, TipoCuenta.CUENTA_CORRIENTE);
+        Cuenta cuentaExistente = getCuenta(cliente, TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO);
+        cuentaExistente.setNumeroCuenta(1001L);
+
+        Map<Long, List<Cuenta>> lote = new HashMap<>();
+        lote.put(cliente.getDni(), Arrays.asList(cuentaCC, cuentaNoSoportada, cuentaExistente));
+
+        ResultadoAltaMasiva<Cuenta> aceptadasPorCliente = new ResultadoAltaMasiva<>();
+        aceptadasPorCliente.aceptar(cuentaCC);
+        when(cuentaDao.exists(anyLong())).thenAnswer(invocation -> invocation.getArgument(0).equals(cuentaExistente.getNumeroCuenta()));
+        when(clienteService.agregarCuentas(Collections.singletonList(cuentaCC), cliente.getDni())).thenReturn(aceptadasPorCliente);
+
+        ResultadoAltaMasiva<Cuenta> resultado = cuentaService.darDeAltaCuentas(lote);
+
+        assertEquals(Collections.singletonList(cuentaCC), resultado.getAceptados());
+        assertEquals(2, resultado.getRechazos().size());
+        assertTrue(resultado.getRechazos().get(0).getMotivo() instanceof TipoCuentaNoSoportadaException);
+        assertTrue(resultado.getRechazos().get(1).getMotivo() instanceof CuentaAlreadyExistsException);
+        verify(cuentaDao, times(1)).saveAllNuevas(Collections.singletonList(cuentaCC));
+    }
+
+    @Test
+    public void testDarDeAltaCuentasSacaDelTitularLasQueNoSeGuardaron() {
+        Cliente cliente = getCliente(123456781L, "Pepo");
+        Cuenta cuentaCA = getCuenta(cliente, TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO);
+        Cuenta cuentaCC = getCuenta(cliente, TipoMoneda.PESOS, TipoCuenta.CUENTA_CORRIENTE);
+
+        Map<Long, List<Cuenta>> lote = new HashMap<>();
+        lote.put(cliente.getDni(), Arrays.asList(cuentaCA, cuentaCC));
+
+        ResultadoAltaMasiva<Cuenta> aceptadasPorCliente = new ResultadoAltaMasiva<>();
+        aceptadasPorCliente.aceptar(cuentaCA);
+        aceptadasPorCliente.aceptar(cuentaCC);
+        when(clienteService.agregarCuentas(Arrays.asList(cuentaCA, cuentaCC), cliente.getDni())).thenReturn(aceptadasPorCliente);
+        when(cuentaDao.saveAllNuevas(Arrays.asList(cuentaCA, cuentaCC))).thenReturn(Collections.singletonList(cuentaCA));
+
+        ResultadoAltaMasiva<Cuenta> resultado = cuentaService.darDeAltaCuentas(lote);
+
+        assertEquals(Collections.singletonList(cuentaCC), resultado.getAceptados());
+        assertEquals(1, resultado.getRechazos().size());
+        assertTrue(resultado.getRechazos().get(0).getMotivo() instanceof CuentaAlreadyExistsException);
+        verify(clienteService, times(1)).quitarCuentas(Collections.singletonList(cuentaCA), cliente.getDni());
+    }
+
+    @Test
+    public void testDarDeAltaCuentasTitularInexistente() {
+        Cliente cliente = getCliente(123456780L, "Pepo");
+        Cuenta cuenta = getCuenta(cliente, TipoMoneda.PESOS, TipoCuenta.CAJA_AHORRO);
+
+        Map<Long, List<Cuenta>> lote = new HashMap<>();
+        lote.put(cliente.getDni(), Collections.singletonList(cuenta));
+
+        when(clienteService.agregarCuentas(Collections.singletonList(cuenta), cliente.getDni())).thenThrow(new IllegalArgumentException("El cliente no existe"));
+
+        ResultadoAltaMasiva<Cuenta> resultado = cuentaService.darDeAltaCuentas(lote);
+
+        assertTrue(resultado.getAceptados().isEmpty());
+        assertEquals(1, resultado.getRechazos().size());
+        verify(cuentaDao, never()).saveAllNuevas(any());
     }
 
     public Cliente getCliente(long dni, String nombre){
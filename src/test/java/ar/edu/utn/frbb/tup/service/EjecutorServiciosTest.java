@@ -0,0 +1,111 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.NoAlcanzaException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EjecutorServiciosTest {
+
+    private final EjecutorServicios ejecutor = new EjecutorServicios("plataforma", 4);
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        ejecutor.detener(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testOperacionesDelMismoDniCorrenEnOrden() throws Throwable {
+        List<Integer> orden = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Integer>> futuros = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final int numero = i;
+            futuros.add(ejecutor.enviar(30111222L, () -> {
+                if (numero % 7 == 0) {
+                    Thread.sleep(1);
+                }
+                orden.add(numero);
+                return numero;
+            }));
+        }
+
+        for (CompletableFuture<Integer> futuro : futuros) {
+            EjecutorServicios.esperar(futuro);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, orden.get(i));
+        }
+    }
+
+    //Si las operaciones de DNIs distintos se encolaran juntas, cada una esperaría a la otra para siempre
+    @Test
+    public void testOperacionesDeDistintosDnisCorrenEnParalelo() throws Throwable {
+        CountDownLatch ambas = new CountDownLatch(2);
+        CompletableFuture<Boolean> primera = ejecutor.enviar(30111223L, () -> {
+            ambas.countDown();
+            return ambas.await(5, TimeUnit.SECONDS);
+        });
+        CompletableFuture<Boolean> segunda = ejecutor.enviar(30111224L, () -> {
+            ambas.countDown();
+            return ambas.await(5, TimeUnit.SECONDS);
+        });
+
+        assertTrue(EjecutorServicios.esperar(primera));
+        assertTrue(EjecutorServicios.esperar(segunda));
+    }
+
+    @Test
+    public void testEsperarRelanzaLaExcepcionDeLaOperacion() throws Throwable {
+        CompletableFuture<Object> fallida = ejecutor.enviar(30111225L, () -> {
+            throw new NoAlcanzaException();
+        });
+        CompletableFuture<String> siguiente = ejecutor.enviar(30111225L, () -> "sigue");
+
+        assertThrows(NoAlcanzaException.class, () -> EjecutorServicios.esperar(fallida));
+        //Una operación fallida no traba la cola de su DNI
+        assertEquals("sigue", EjecutorServicios.esperar(siguiente));
+
+        EjecutorServicios.Estadisticas estadisticas = ejecutor.getEstadisticas();
+        assertEquals("plataforma", estadisticas.getModo());
+        assertEquals(2, estadisticas.getEncoladas());
+        assertEquals(1, estadisticas.getCompletadas());
+        assertEquals(1, estadisticas.getFallidas());
+        assertEquals(0, estadisticas.getEnEspera());
+    }
+
+    //Con el ejecutor detenido, las operaciones que esperaban detrás de la que corría se rechazan sin correr
+    @Test
+    public void testAlDetenerseRechazaLasPendientesDelDni() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<Boolean> enCurso = ejecutor.enviar(30111226L, () -> liberar.await(5, TimeUnit.SECONDS));
+        AtomicInteger corridas = new AtomicInteger();
+        List<CompletableFuture<Integer>> pendientes = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            pendientes.add(ejecutor.enviar(30111226L, corridas::incrementAndGet));
+        }
+
+        ejecutor.detener(0, TimeUnit.SECONDS);
+        liberar.countDown();
+
+        assertTrue(enCurso.get(5, TimeUnit.SECONDS));
+        for (CompletableFuture<Integer> pendiente : pendientes) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> pendiente.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        assertEquals(0, corridas.get());
+        assertEquals(20_001, ejecutor.getEstadisticas().getEncoladas());
+        assertEquals(0, ejecutor.getEstadisticas().getEnEspera());
+    }
+}
@@ -0,0 +1,116 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.*;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LiquidacionInteresesTest {
+
+    private static final LocalDate DIA = LocalDate.of(2024, 3, 1);
+
+    @TempDir
+    Path directorio;
+
+    private final CuentaDao cuentaDao = new CuentaDao();
+    private final MovimientoDao movimientoDao = new MovimientoDao(cuentaDao);
+    private final LiquidacionIntereses liquidacion = new LiquidacionIntereses(cuentaDao, movimientoDao);
+
+    @BeforeEach
+    public void setUp() {
+        //Con una TNA de 36,5% el interés diario es justo el 0,1% del saldo
+        liquidacion.setTna(TipoMoneda.PESOS, 3650);
+        liquidacion.setTna(TipoMoneda.DOLARES, 0);
+    }
+
+    @Test
+    public void testAcreditaSoloACajasDeAhorroConSaldoPositivo() throws IOException {
+        Cliente cliente = getCliente(50222000L);
+        Cuenta caja = guardarCuenta(cliente, TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, 1_000_000);
+        Cuenta cajaEnDolares = guardarCuenta(cliente, TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES, 1_000_000);
+        Cuenta corriente = guardarCuenta(cliente, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.PESOS, 1_000_000);
+        Cuenta enRojo = guardarCuenta(getCliente(50222001L), TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, -500);
+
+        LiquidacionIntereses.Resultado resultado = liquidacion.liquidar(DIA, null, 4);
+
+        assertEquals(1_001_000, cuentaDao.find(caja.getNumeroCuenta()).getBalance());
+        assertEquals(1_000_000, cuentaDao.find(cajaEnDolares.getNumeroCuenta()).getBalance());
+        assertEquals(1_000_000, cuentaDao.find(corriente.getNumeroCuenta()).getBalance());
+        assertEquals(-500, cuentaDao.find(enRojo.getNumeroCuenta()).getBalance());
+        assertTrue(resultado.getRevisadas() >= 3);
+        assertTrue(resultado.getMonto(TipoMoneda.PESOS) >= 1000);
+
+        List<Movimiento> movimientos = movimientoDao.extracto(caja.getNumeroCuenta(), null, null, 0, 10).getMovimientos();
+        assertEquals(1, movimientos.size());
+        assertEquals(TipoMovimiento.INTERES, movimientos.get(0).getTipo());
+        assertEquals(1000, movimientos.get(0).getMonto());
+        assertEquals(1_001_000, movimientos.get(0).getSaldo());
+        assertEquals(DIA.toEpochDay(), movimientos.get(0).getCuentaContraparte());
+        assertNull(movimientoDao.getLibro(corriente.getNumeroCuenta()));
+    }
+
+    //Repetir un día ya liquidado no acredita de nuevo, haya o no checkpoint; un día nuevo sí
+    @Test
+    public void testNoAcreditaDosVecesElMismoDia() throws IOException {
+        Cuenta caja = guardarCuenta(getCliente(50222002L), TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, 2_000_000);
+        Path checkpoint = directorio.resolve("intereses.checkpoint");
+
+        liquidacion.liquidar(DIA, checkpoint, 2);
+        LiquidacionIntereses.Resultado reanudado = liquidacion.liquidar(DIA, checkpoint, 2);
+        assertEquals(cuentaDao.getCantidadParticiones(), reanudado.getParticionesSalteadas());
+        assertEquals(0, reanudado.getRevisadas());
+
+        //Sin checkpoint (como si se hubiera cortado antes de guardarlo) recorre todo pero no repite el interés
+        Files.delete(checkpoint);
+        LiquidacionIntereses.Resultado sinCheckpoint = liquidacion.liquidar(DIA, checkpoint, 2);
+        assertEquals(0, sinCheckpoint.getParticionesSalteadas());
+        assertEquals(2_002_000, cuentaDao.find(caja.getNumeroCuenta()).getBalance());
+
+        LiquidacionIntereses.Resultado diaSiguiente = liquidacion.liquidar(DIA.plusDays(1), checkpoint, 2);
+        assertEquals(0, diaSiguiente.getParticionesSalteadas());
+        assertEquals(2_004_002, cuentaDao.find(caja.getNumeroCuenta()).getBalance());
+        assertEquals(2, movimientoDao.getLibro(caja.getNumeroCuenta()).getCantidad());
+    }
+
+    @Test
+    public void testNoLiquidaDiasFuturos() {
+        assertThrows(IllegalArgumentException.class, () -> liquidacion.liquidar(LocalDate.now().plusDays(1)));
+    }
+
+    @Test
+    public void testInteresDiarioSinDesborde() {
+        assertEquals(0, LiquidacionIntereses.interesDiario(364, 10000));
+        assertEquals(1, LiquidacionIntereses.interesDiario(365, 10000));
+        assertEquals(Long.MAX_VALUE / 365, LiquidacionIntereses.interesDiario(Long.MAX_VALUE, 10000));
+    }
+
+    private Cuenta guardarCuenta(Cliente titular, TipoCuenta tipo, TipoMoneda moneda, long balance) {
+        Cuenta cuenta = new Cuenta()
+                .setMoneda(moneda)
+                .setBalance(balance)
+                .setTipoCuenta(tipo);
+        cuenta.setTitular(titular);
+        cuentaDao.save(cuenta);
+        return cuenta;
+    }
+
+    private Cliente getCliente(long dni) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setNombre("Pepe");
+        cliente.setApellido("Rino");
+        cliente.setFechaNacimiento(LocalDate.of(1978, 3, 25));
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        return cliente;
+    }
+}
@@ -0,0 +1,168 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.*;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.Foto;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransferenciaServiceTest {
+
+    private final CuentaDao cuentaDao = new CuentaDao();
+    private final MovimientoDao movimientoDao = new MovimientoDao(cuentaDao);
+    private final TransferenciaService transferenciaService = new TransferenciaService(cuentaDao, movimientoDao);
+
+    @Test
+    public void testTransferenciaSuccess() throws NoAlcanzaException, CantidadNegativaException {
+        Cliente cliente = getCliente(50111222L);
+        Cuenta origen = guardarCuenta(cliente, TipoMoneda.PESOS, 1000);
+        Cuenta destino = guardarCuenta(cliente, TipoMoneda.PESOS, 500);
+
+        transferenciaService.transferir(origen.getNumeroCuenta(), destino.getNumeroCuenta(), 300);
+
+        assertEquals(700, cuentaDao.find(origen.getNumeroCuenta()).getBalance());
+        assertEquals(800, cuentaDao.find(destino.getNumeroCuenta()).getBalance());
+    }
+
+    @Test
+    public void testTransferenciaRegistraMovimientosEnAmbasCuentas() throws NoAlcanzaException, CantidadNegativaException {
+        Cliente cliente = getCliente(50111230L);
+        Cuenta origen = guardarCuenta(cliente, TipoMoneda.PESOS, 1000);
+        Cuenta destino = guardarCuenta(cliente, TipoMoneda.PESOS, 500);
+
+        transferenciaService.transferir(origen.getNumeroCuenta(), destino.getNumeroCuenta(), 300);
+        transferenciaService.transferir(destino.getNumeroCuenta(), origen.getNumeroCuenta(), 50);
+
+        List<Movimiento> movimientos = movimientoDao.extracto(origen.getNumeroCuenta(), null, null, 0, 10).getMovimientos();
+        assertEquals(2, movimientos.size());
+        assertEquals(TipoMovimiento.TRANSFERENCIA_ENVIADA, movimientos.get(0).getTipo());
+        assertEquals(700, movimientos.get(0).getSaldo());
+        assertEquals(destino.getNumeroCuenta(), movimientos.get(0).getCuentaContraparte());
+        assertEquals(TipoMovimiento.TRANSFERENCIA_RECIBIDA, movimientos.get(1).getTipo());
+        assertEquals(750, movimientos.get(1).getSaldo());
+        assertEquals(1000, movimientoDao.getLibro(origen.getNumeroCuenta()).getSaldoInicial());
+        assertEquals(cuentaDao.find(destino.getNumeroCuenta()).getBalance(), movimientoDao.getLibro(destino.getNumeroCuenta()).getSaldoActual());
+    }
+
+    @Test
+    public void testTransferenciaSinSaldoNoModificaLasCuentas() {
+        Cliente cliente = getCliente(50111223L);
+        Cuenta origen = guardarCuenta(cliente, TipoMoneda.PESOS, 100);
+        Cuenta destino = guardarCuenta(cliente, TipoMoneda.PESOS, 0);
+
+        assertThrows(NoAlcanzaException.class, () -> transferenciaService.transferir(origen.getNumeroCuenta(), destino.getNumeroCuenta(), 101));
+
+        assertEquals(100, cuentaDao.find(origen.getNumeroCuenta()).getBalance());
+        assertEquals(0, cuentaDao.find(destino.getNumeroCuenta()).getBalance());
+    }
+
+    @Test
+    public void testTransferenciaEntreMonedasDistintas() {
+        Cliente cliente = getCliente(50111224L);
+        Cuenta pesos = guardarCuenta(cliente, TipoMoneda.PESOS, 100);
+        Cuenta dolares = guardarCuenta(cliente, TipoMoneda.DOLARES, 100);
+
+        assertThrows(IllegalArgumentException.class, () -> transferenciaService.transferir(pesos.getNumeroCuenta(), dolares.getNumeroCuenta(), 10));
+    }
+
+    @Test
+    public void testTransferenciaCuentaInexistente() {
+        Cuenta origen = guardarCuenta(getCliente(50111225L), TipoMoneda.PESOS, 100);
+
+        assertThrows(IllegalArgumentException.class, () -> transferenciaService.transferir(origen.getNumeroCuenta(), origen.getNumeroCuenta() + 1, 10));
+    }
+
+    //Transferencias aleatorias (incluso cruzadas A->B y B->A) desde muchos hilos:
+    //no puede haber deadlock y la suma de los saldos tiene que mantenerse, también leída con fotos en el medio
+    @Test
+    public void testTransferenciasConcurrentesConservanElSaldoTotal() throws Exception {
+        final int cantidadCuentas = 50;
+        final int hilos = 16;
+        final int transferenciasPorHilo = 2000;
+        final long[] numeros = new long[cantidadCuentas];
+        Cliente cliente = getCliente(50111226L);
+        for (int i = 0; i < cantidadCuentas; i++) {
+            numeros[i] = guardarCuenta(cliente, TipoMoneda.PESOS, 1000).getNumeroCuenta();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> resultados = new ArrayList<>();
+        try {
+            for (int h = 0; h < hilos; h++) {
+                final Random random = new Random(h);
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < transferenciasPorHilo; i++) {
+                        int origen = random.nextInt(cantidadCuentas);
+                        int destino = (origen + 1 + random.nextInt(cantidadCuentas - 1)) % cantidadCuentas;
+                        try {
+                            transferenciaService.transferir(numeros[origen], numeros[destino], random.nextInt(200));
+                        } catch (NoAlcanzaException e) {
+                            //Sin saldo suficiente, se descarta el movimiento
+                        } catch (CantidadNegativaException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            while (!resultados.get(hilos - 1).isDone()) {
+                try (Foto foto = Foto.abrir()) {
+                    long total = 0;
+                    for (long numero : numeros) {
+                        total += cuentaDao.find(numero, foto).getBalance();
+                    }
+                    assertEquals(1000L * cantidadCuentas, total);
+                }
+            }
+            for (Future<?> resultado : resultados) {
+                resultado.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long total = 0;
+        for (long numero : numeros) {
+            long balance = cuentaDao.find(numero).getBalance();
+            assertTrue(balance >= 0);
+            total += balance;
+        }
+        assertEquals(1000L * cantidadCuentas, total);
+    }
+
+    private Cuenta guardarCuenta(Cliente titular, TipoMoneda moneda, long balance) {
+        Cuenta cuenta = new Cuenta()
+                .setMoneda(moneda)
+                .setBalance(balance)
+                .setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+        cuenta.setTitular(titular);
+        cuentaDao.save(cuenta);
+        return cuenta;
+    }
+
+    public Cliente getCliente(long dni){
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setNombre("Pepe");
+        cliente.setApellido("Rino");
+        cliente.setFechaNacimiento(LocalDate.of(1978, 3,25));
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+
+        return cliente;
+    }
+}